@@ -0,0 +1,59 @@
+package dk.aau.ida8.benchmark;
+
+import dk.aau.ida8.model.Competition;
+import dk.aau.ida8.model.Participant;
+import dk.aau.ida8.util.groupcomparators.CompetingComparator;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks sorting participants into lifting order, both by the
+ * {@link CompetingComparator} itself and by
+ * {@link CompetingComparator#sort(List)}.
+ *
+ * Each invocation sorts a fresh copy of the same shuffled list.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class CompetingComparatorBenchmark {
+
+    @Param({"10", "100", "1000", "10000"})
+    private int size;
+
+    @Param({"WEIGHED_IN", "SNATCH_COMPLETE", "COMPLETE"})
+    private Competitions.Stage stage;
+
+    private List<Participant> participants;
+    private CompetingComparator comparator = new CompetingComparator();
+
+    @Setup
+    public void setUp() {
+        Competition competition = Competitions.create(
+                Competition.CompetitionType.SINCLAIR, size, stage);
+        participants = new ArrayList<>(competition.getParticipants());
+        Collections.shuffle(participants, new Random(size));
+    }
+
+    @Benchmark
+    public List<Participant> sortWithComparator() {
+        List<Participant> ps = new ArrayList<>(participants);
+        ps.sort(comparator);
+        return ps;
+    }
+
+    @Benchmark
+    public List<Participant> sortBySortKey() {
+        List<Participant> ps = new ArrayList<>(participants);
+        CompetingComparator.sort(ps);
+        return ps;
+    }
+}
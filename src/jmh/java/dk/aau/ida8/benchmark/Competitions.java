@@ -0,0 +1,98 @@
+package dk.aau.ida8.benchmark;
+
+import dk.aau.ida8.model.Competition;
+import dk.aau.ida8.model.Lifter;
+import dk.aau.ida8.model.Participant;
+
+import java.lang.reflect.Field;
+import java.util.Date;
+import java.util.Random;
+
+/**
+ * This class creates synthetic competitions for use in benchmarks.
+ *
+ * Each competition is generated from a fixed seed, so that every run of a
+ * benchmark operates upon the same data. Participants are weighed-in with
+ * plausible body weights and starting weights, and then carry out lifts
+ * according to the {@link Stage stage} of the competition requested.
+ *
+ * Participants are created without using {@link
+ * Competition#addParticipant(Lifter)}, so that start numbers are the same on
+ * every run, rather than drawn at random. Instead, each participant is given
+ * its ID# and start number directly, as Hibernate would when loading it from
+ * the database.
+ */
+public final class Competitions {
+
+    /**
+     * Defines how far a competition has progressed.
+     */
+    public enum Stage {
+        WEIGHED_IN(0),
+        SNATCH_COMPLETE(3),
+        COMPLETE(6);
+
+        private final int lifts;
+
+        Stage(int lifts) {
+            this.lifts = lifts;
+        }
+    }
+
+    private static final long SEED = 20160401L;
+
+    private Competitions() {
+
+    }
+
+    /**
+     * Creates a competition whose weigh-in is complete.
+     *
+     * @param type  the type of the competition
+     * @param size  the number of participants in the competition
+     * @param stage the stage to which the competition has progressed
+     * @return the competition, with its groups allocated
+     */
+    public static Competition create(Competition.CompetitionType type, int size, Stage stage) {
+        Random random = new Random(SEED);
+        Date date = new Date(0);
+        Competition competition = new Competition(
+                "Benchmark", null, null, type, date, date, size);
+        for (int i = 1; i <= size; i++) {
+            boolean female = random.nextBoolean();
+            double bodyWeight = (female ? 45 : 55) + random.nextInt(60) + random.nextInt(10) / 10.0;
+            Lifter lifter = new Lifter("Forename" + i, "Surname" + i, null,
+                    female ? Lifter.Gender.FEMALE : Lifter.Gender.MALE, date, bodyWeight);
+            lifter.setId(i);
+            Participant p = new Participant();
+            set(p, "id", (long) i);
+            set(p, "lifter", lifter);
+            set(p, "competition", competition);
+            set(p, "startNumber", i);
+            int snatch = (female ? 40 : 60) + random.nextInt(80);
+            p.weighIn(bodyWeight, snatch, snatch + 20 + random.nextInt(20));
+            competition.getParticipants().add(p);
+        }
+        competition.finishWeighIn();
+        for (Participant p : competition.getParticipants()) {
+            for (int i = 0; i < stage.lifts; i++) {
+                if (random.nextInt(3) == 0) {
+                    p.addFailedLift();
+                } else {
+                    p.addPassedLift();
+                }
+            }
+        }
+        return competition;
+    }
+
+    private static void set(Participant p, String field, Object value) {
+        try {
+            Field f = Participant.class.getDeclaredField(field);
+            f.setAccessible(true);
+            f.set(p, value);
+        } catch (ReflectiveOperationException e) {
+            throw new IllegalStateException("unable to set participant " + field, e);
+        }
+    }
+}
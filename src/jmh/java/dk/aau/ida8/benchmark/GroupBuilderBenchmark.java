@@ -0,0 +1,55 @@
+package dk.aau.ida8.benchmark;
+
+import dk.aau.ida8.model.Competition;
+import dk.aau.ida8.model.Group;
+import dk.aau.ida8.util.groupbuilders.GroupBuilder;
+import dk.aau.ida8.util.groupbuilders.SinclairGroupBuilder;
+import dk.aau.ida8.util.groupbuilders.TotalWeightGroupBuilder;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks the creation of ranking and competing groups by the
+ * {@link SinclairGroupBuilder} and the {@link TotalWeightGroupBuilder}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class GroupBuilderBenchmark {
+
+    @Param({"SINCLAIR", "TOTAL_WEIGHT"})
+    private Competition.CompetitionType type;
+
+    @Param({"10", "100", "1000", "10000"})
+    private int size;
+
+    @Param({"WEIGHED_IN", "SNATCH_COMPLETE", "COMPLETE"})
+    private Competitions.Stage stage;
+
+    private GroupBuilder builder;
+
+    @Setup
+    public void setUp() {
+        Competition competition = Competitions.create(type, size, stage);
+        if (type == Competition.CompetitionType.SINCLAIR) {
+            builder = new SinclairGroupBuilder(competition);
+        } else {
+            builder = new TotalWeightGroupBuilder(competition);
+        }
+    }
+
+    @Benchmark
+    public List<Group> createRankingGroups() {
+        return builder.createRankingGroups();
+    }
+
+    @Benchmark
+    public List<Group> createCompetingGroups() {
+        return builder.createCompetingGroups();
+    }
+}
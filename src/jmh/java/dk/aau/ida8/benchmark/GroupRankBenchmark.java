@@ -0,0 +1,69 @@
+package dk.aau.ida8.benchmark;
+
+import dk.aau.ida8.model.Competition;
+import dk.aau.ida8.model.Group;
+import dk.aau.ida8.model.Participant;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks {@link Group#getRank(Participant)} within both ranking and
+ * competing groups.
+ *
+ * Each invocation finds the rank of one participant, taking each participant
+ * in the competition in turn.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class GroupRankBenchmark {
+
+    @Param({"SINCLAIR", "TOTAL_WEIGHT"})
+    private Competition.CompetitionType type;
+
+    @Param({"10", "100", "1000", "10000"})
+    private int size;
+
+    @Param({"WEIGHED_IN", "SNATCH_COMPLETE", "COMPLETE"})
+    private Competitions.Stage stage;
+
+    private List<Participant> participants = new ArrayList<>();
+    private List<Group> rankingGroups = new ArrayList<>();
+    private List<Group> competingGroups = new ArrayList<>();
+    private int next;
+
+    @Setup
+    public void setUp() {
+        Competition competition = Competitions.create(type, size, stage);
+        for (Group g : competition.getCompetingGroups()) {
+            for (Participant p : g.getUnsortedParticipants()) {
+                participants.add(p);
+                competingGroups.add(g);
+                rankingGroups.add(competition.getRankingGroup(p).get());
+            }
+        }
+    }
+
+    @Benchmark
+    public int rankingGroupRank() {
+        int i = next();
+        return rankingGroups.get(i).getRank(participants.get(i));
+    }
+
+    @Benchmark
+    public int competingGroupRank() {
+        int i = next();
+        return competingGroups.get(i).getRank(participants.get(i));
+    }
+
+    private int next() {
+        next = (next + 1) % participants.size();
+        return next;
+    }
+}
@@ -0,0 +1,59 @@
+package dk.aau.ida8.benchmark;
+
+import dk.aau.ida8.model.Competition;
+import dk.aau.ida8.model.Participant;
+import dk.aau.ida8.util.SinclairCalculator;
+import dk.aau.ida8.util.WeightClass;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks the calculation of Sinclair scores by the
+ * {@link SinclairCalculator} and the allocation of weight classes by
+ * {@link WeightClass#findWeightClass(Participant)}.
+ *
+ * Each invocation scores every participant in the competition once.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ScoringBenchmark {
+
+    @Param({"10", "100", "1000", "10000"})
+    private int size;
+
+    @Param({"WEIGHED_IN", "SNATCH_COMPLETE", "COMPLETE"})
+    private Competitions.Stage stage;
+
+    private List<Participant> participants;
+    private SinclairCalculator calculator = new SinclairCalculator();
+
+    @Setup
+    public void setUp() {
+        participants = Competitions.create(
+                Competition.CompetitionType.SINCLAIR, size, stage).getParticipants();
+    }
+
+    @Benchmark
+    public double sinclairCalculator() {
+        double sum = 0;
+        for (Participant p : participants) {
+            sum += calculator.apply(p);
+        }
+        return sum;
+    }
+
+    @Benchmark
+    public int findWeightClass() {
+        int sum = 0;
+        for (Participant p : participants) {
+            sum += WeightClass.findWeightClass(p);
+        }
+        return sum;
+    }
+}
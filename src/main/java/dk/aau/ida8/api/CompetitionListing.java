@@ -0,0 +1,88 @@
+package dk.aau.ida8.api;
+
+import dk.aau.ida8.model.Competition;
+
+import java.util.Date;
+
+/**
+ * This class represents one competition within a listing of competitions,
+ * as shown on the index page.
+ *
+ * Like a {@link CompetitionSummary}, a listing is projected directly by a
+ * query, without loading the participants, groups or lifts of the
+ * competition.
+ */
+public class CompetitionListing {
+
+    private final long id;
+    private final String name;
+    private final String type;
+    private final Date competitionDate;
+    private final Date lastRegistrationDate;
+    private final String host;
+    private final String location;
+    private final long participantsCount;
+
+    /**
+     * Creates a CompetitionListing. This is called by the queries which
+     * project competitions onto listings.
+     *
+     * @param id                   the ID# of the competition
+     * @param name                 the name of the competition
+     * @param type                 the type of the competition
+     * @param competitionDate      the date on which the competition is held
+     * @param lastRegistrationDate the last date on which to sign-up
+     * @param host                 the name of the host club, if any
+     * @param location             the town of the venue, if any
+     * @param participantsCount    the number of participants signed-up
+     */
+    public CompetitionListing(long id,
+                              String name,
+                              Competition.CompetitionType type,
+                              Date competitionDate,
+                              Date lastRegistrationDate,
+                              String host,
+                              String location,
+                              long participantsCount) {
+        this.id = id;
+        this.name = name;
+        this.type = type == null ? null : type.toString();
+        this.competitionDate = competitionDate;
+        this.lastRegistrationDate = lastRegistrationDate;
+        this.host = host;
+        this.location = location;
+        this.participantsCount = participantsCount;
+    }
+
+    public long getId() {
+        return id;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public String getType() {
+        return type;
+    }
+
+    public Date getCompetitionDate() {
+        return competitionDate;
+    }
+
+    public Date getLastRegistrationDate() {
+        return lastRegistrationDate;
+    }
+
+    public String getHost() {
+        return host;
+    }
+
+    public String getLocation() {
+        return location;
+    }
+
+    public long getParticipantsCount() {
+        return participantsCount;
+    }
+}
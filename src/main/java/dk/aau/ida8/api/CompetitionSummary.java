@@ -0,0 +1,88 @@
+package dk.aau.ida8.api;
+
+import dk.aau.ida8.model.Competition;
+
+import java.util.Date;
+
+/**
+ * This class represents the overview of one competition, as returned by the
+ * results API.
+ *
+ * A summary is a flat projection of a {@link Competition}: it is populated
+ * directly by a query, without loading the participants, groups or lifts of
+ * the competition.
+ */
+public class CompetitionSummary {
+
+    private final long id;
+    private final String name;
+    private final String type;
+    private final Date competitionDate;
+    private final Date lastRegistrationDate;
+    private final int maxNumParticipants;
+    private final String host;
+    private final long participantsCount;
+
+    /**
+     * Creates a CompetitionSummary. This is called by the query which
+     * projects competitions onto summaries.
+     *
+     * @param id                   the ID# of the competition
+     * @param name                 the name of the competition
+     * @param type                 the type of the competition
+     * @param competitionDate      the date on which the competition is held
+     * @param lastRegistrationDate the last date on which to sign-up
+     * @param maxNumParticipants   the maximum number of participants
+     * @param host                 the name of the host club, if any
+     * @param participantsCount    the number of participants signed-up
+     */
+    public CompetitionSummary(long id,
+                              String name,
+                              Competition.CompetitionType type,
+                              Date competitionDate,
+                              Date lastRegistrationDate,
+                              int maxNumParticipants,
+                              String host,
+                              long participantsCount) {
+        this.id = id;
+        this.name = name;
+        this.type = type == null ? null : type.name();
+        this.competitionDate = competitionDate;
+        this.lastRegistrationDate = lastRegistrationDate;
+        this.maxNumParticipants = maxNumParticipants;
+        this.host = host;
+        this.participantsCount = participantsCount;
+    }
+
+    public long getId() {
+        return id;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public String getType() {
+        return type;
+    }
+
+    public Date getCompetitionDate() {
+        return competitionDate;
+    }
+
+    public Date getLastRegistrationDate() {
+        return lastRegistrationDate;
+    }
+
+    public int getMaxNumParticipants() {
+        return maxNumParticipants;
+    }
+
+    public String getHost() {
+        return host;
+    }
+
+    public long getParticipantsCount() {
+        return participantsCount;
+    }
+}
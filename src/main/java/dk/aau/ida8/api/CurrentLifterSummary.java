@@ -0,0 +1,48 @@
+package dk.aau.ida8.api;
+
+import dk.aau.ida8.model.Participant;
+
+/**
+ * This class represents the participant next to lift in a competition, as
+ * returned by the results API.
+ */
+public class CurrentLifterSummary {
+
+    private final ParticipantSummary participant;
+    private final String liftType;
+    private final int attempt;
+    private final int weight;
+
+    private CurrentLifterSummary(Participant p) {
+        this.participant = ParticipantSummary.of(p);
+        this.liftType = p.getCurrentLiftType().name();
+        this.attempt = p.getLiftsCount() + 1;
+        this.weight = p.getCurrentWeight();
+    }
+
+    /**
+     * Creates the summary of the participant next to lift.
+     *
+     * @param p the participant next to lift
+     * @return the summary of the participant's next lift
+     */
+    public static CurrentLifterSummary of(Participant p) {
+        return new CurrentLifterSummary(p);
+    }
+
+    public ParticipantSummary getParticipant() {
+        return participant;
+    }
+
+    public String getLiftType() {
+        return liftType;
+    }
+
+    public int getAttempt() {
+        return attempt;
+    }
+
+    public int getWeight() {
+        return weight;
+    }
+}
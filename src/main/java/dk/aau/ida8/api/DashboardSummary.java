@@ -0,0 +1,72 @@
+package dk.aau.ida8.api;
+
+import dk.aau.ida8.model.Competition;
+import dk.aau.ida8.model.Group;
+
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * This class represents the dashboard of one platform of a live competition:
+ * the participant next to lift, and the competing group on the platform.
+ *
+ * A summary holds plain values only, and so may be built from the copy of a
+ * competition held in memory, and displayed while the database is
+ * unavailable.
+ */
+public class DashboardSummary {
+
+    private final long competitionID;
+    private final String competitionName;
+    private final List<Integer> platforms;
+    private final int platform;
+    private final CurrentLifterSummary currentLifter;
+    private final GroupSummary group;
+
+    private DashboardSummary(Competition c, int platform) {
+        this.competitionID = c.getId();
+        this.competitionName = c.getCompetitionName();
+        this.platforms = c.getPlatforms();
+        this.platform = platform;
+        this.currentLifter = c.getCurrentParticipant(platform)
+                .map(CurrentLifterSummary::of)
+                .orElse(null);
+        Optional<Group> g = c.getCurrentCompetingGroup(platform);
+        this.group = g.isPresent() ? GroupSummary.of(g.get()) : null;
+    }
+
+    /**
+     * Creates the summary of the dashboard of a platform.
+     *
+     * @param c        the competition
+     * @param platform the number of the platform
+     * @return the summary of the platform's dashboard
+     */
+    public static DashboardSummary of(Competition c, int platform) {
+        return new DashboardSummary(c, platform);
+    }
+
+    public long getCompetitionID() {
+        return competitionID;
+    }
+
+    public String getCompetitionName() {
+        return competitionName;
+    }
+
+    public List<Integer> getPlatforms() {
+        return platforms;
+    }
+
+    public int getPlatform() {
+        return platform;
+    }
+
+    public CurrentLifterSummary getCurrentLifter() {
+        return currentLifter;
+    }
+
+    public GroupSummary getGroup() {
+        return group;
+    }
+}
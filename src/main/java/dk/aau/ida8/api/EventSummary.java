@@ -0,0 +1,82 @@
+package dk.aau.ida8.api;
+
+import dk.aau.ida8.model.ParticipantEvent;
+
+/**
+ * This class represents one recorded change to a participant, as returned by
+ * the results API for review by the jury. A conflicted change was
+ * acknowledged, but could not be applied once the competition was loaded
+ * again, and so awaits the jury's decision.
+ */
+public class EventSummary {
+
+    private final long id;
+    private final long participantID;
+    private final String type;
+    private final String timestamp;
+    private final String outcome;
+    private final int weight;
+    private final int liftIndex;
+    private final long undoneEventID;
+    private final boolean conflicted;
+
+    private EventSummary(ParticipantEvent e) {
+        this.id = e.getId();
+        this.participantID = e.getParticipantID();
+        this.type = e.getType().name();
+        this.timestamp = e.getTimestamp().toString();
+        this.outcome = e.getOutcome() == null ? null : e.getOutcome().name();
+        this.weight = e.getType() == ParticipantEvent.Type.WEIGHED_IN
+                ? e.getStartingSnatchWeight()
+                : e.getWeight();
+        this.liftIndex = e.getLiftIndex();
+        this.undoneEventID = e.getUndoneEventID();
+        this.conflicted = e.isConflicted();
+    }
+
+    /**
+     * Creates the summary of a recorded event.
+     *
+     * @param e the event
+     * @return the summary of the event
+     */
+    public static EventSummary of(ParticipantEvent e) {
+        return new EventSummary(e);
+    }
+
+    public long getId() {
+        return id;
+    }
+
+    public long getParticipantID() {
+        return participantID;
+    }
+
+    public String getType() {
+        return type;
+    }
+
+    public String getTimestamp() {
+        return timestamp;
+    }
+
+    public String getOutcome() {
+        return outcome;
+    }
+
+    public int getWeight() {
+        return weight;
+    }
+
+    public int getLiftIndex() {
+        return liftIndex;
+    }
+
+    public long getUndoneEventID() {
+        return undoneEventID;
+    }
+
+    public boolean isConflicted() {
+        return conflicted;
+    }
+}
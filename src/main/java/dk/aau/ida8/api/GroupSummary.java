@@ -0,0 +1,60 @@
+package dk.aau.ida8.api;
+
+import dk.aau.ida8.model.Group;
+import dk.aau.ida8.model.Participant;
+
+import java.util.List;
+import java.util.stream.Collectors;
+
+/**
+ * This class represents one competing or ranking group, as returned by the
+ * results API.
+ *
+ * Participants are listed in the order of the group: lifting order for a
+ * competing group, and rank for a ranking group.
+ */
+public class GroupSummary {
+
+    private final long id;
+    private final String type;
+    private final String gender;
+    private final List<ParticipantSummary> participants;
+
+    private GroupSummary(Group g, List<Participant> participants) {
+        this.id = g.getId();
+        this.type = g.getComparatorType().name();
+        this.gender = participants.isEmpty() ? null : participants.get(0).getGenderInitial();
+        this.participants = participants.stream()
+                .map(ParticipantSummary::of)
+                .collect(Collectors.toList());
+    }
+
+    /**
+     * Creates the summary of a group.
+     *
+     * @param g the group to summarise
+     * @return the summary of the group
+     */
+    public static GroupSummary of(Group g) {
+        if (g.isRankingGroup()) {
+            return new GroupSummary(g, g.getLeadingParticipants(g.getParticipantsCount()));
+        }
+        return new GroupSummary(g, g.getParticipants());
+    }
+
+    public long getId() {
+        return id;
+    }
+
+    public String getType() {
+        return type;
+    }
+
+    public String getGender() {
+        return gender;
+    }
+
+    public List<ParticipantSummary> getParticipants() {
+        return participants;
+    }
+}
@@ -0,0 +1,109 @@
+package dk.aau.ida8.api;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * This class represents the outcome of an import of lifters: how many rows
+ * were read, how many lifters and clubs were created or updated, and why
+ * each rejected row was rejected.
+ *
+ * At most {@link #MAX_ERRORS} errors are listed; {@code failed} counts every
+ * rejected row.
+ */
+public class ImportReport {
+
+    /**
+     * The greatest number of errors listed in a report.
+     */
+    public static final int MAX_ERRORS = 1000;
+
+    /**
+     * This class represents one rejected row.
+     */
+    public static class RowError {
+
+        private final int row;
+        private final String msg;
+
+        public RowError(int row, String msg) {
+            this.row = row;
+            this.msg = msg;
+        }
+
+        public int getRow() {
+            return row;
+        }
+
+        public String getMsg() {
+            return msg;
+        }
+    }
+
+    private int rows = 0;
+    private int created = 0;
+    private int updated = 0;
+    private int clubsCreated = 0;
+    private int failed = 0;
+    private final List<RowError> errors = new ArrayList<>();
+
+    /**
+     * Sets the number of rows read.
+     *
+     * @param rows the number of rows read
+     */
+    public void setRows(int rows) {
+        this.rows = rows;
+    }
+
+    /**
+     * Counts lifters created and updated, and clubs created, by one chunk of
+     * rows.
+     *
+     * @param created      the number of lifters created
+     * @param updated      the number of lifters updated
+     * @param clubsCreated the number of clubs created
+     */
+    public void addSaved(int created, int updated, int clubsCreated) {
+        this.created += created;
+        this.updated += updated;
+        this.clubsCreated += clubsCreated;
+    }
+
+    /**
+     * Records a rejected row.
+     *
+     * @param row the number of the row
+     * @param msg the reason for which the row was rejected
+     */
+    public void addError(int row, String msg) {
+        failed++;
+        if (errors.size() < MAX_ERRORS) {
+            errors.add(new RowError(row, msg));
+        }
+    }
+
+    public int getRows() {
+        return rows;
+    }
+
+    public int getCreated() {
+        return created;
+    }
+
+    public int getUpdated() {
+        return updated;
+    }
+
+    public int getClubsCreated() {
+        return clubsCreated;
+    }
+
+    public int getFailed() {
+        return failed;
+    }
+
+    public List<RowError> getErrors() {
+        return errors;
+    }
+}
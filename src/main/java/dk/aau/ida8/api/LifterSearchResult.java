@@ -0,0 +1,65 @@
+package dk.aau.ida8.api;
+
+import dk.aau.ida8.util.LifterSearchIndex;
+
+import java.text.SimpleDateFormat;
+
+/**
+ * This class represents one lifter found by a search of lifters, as listed
+ * while signing lifters up to a competition.
+ */
+public class LifterSearchResult {
+
+    private final long id;
+    private final String forename;
+    private final String surname;
+    private final String club;
+    private final String dateOfBirth;
+    private final String gender;
+    private final boolean active;
+
+    /**
+     * Creates a LifterSearchResult from the entry of a lifter within the
+     * search index.
+     *
+     * @param entry the entry of the lifter found
+     */
+    public LifterSearchResult(LifterSearchIndex.Entry entry) {
+        this.id = entry.getId();
+        this.forename = entry.getForename();
+        this.surname = entry.getSurname();
+        this.club = entry.getClub();
+        this.dateOfBirth = entry.getDateOfBirth() == null ? null
+                : new SimpleDateFormat("dd-MM-yyyy").format(entry.getDateOfBirth());
+        this.gender = entry.getGender() == null ? null : entry.getGender().name();
+        this.active = entry.isActive();
+    }
+
+    public long getId() {
+        return id;
+    }
+
+    public String getForename() {
+        return forename;
+    }
+
+    public String getSurname() {
+        return surname;
+    }
+
+    public String getClub() {
+        return club;
+    }
+
+    public String getDateOfBirth() {
+        return dateOfBirth;
+    }
+
+    public String getGender() {
+        return gender;
+    }
+
+    public boolean isActive() {
+        return active;
+    }
+}
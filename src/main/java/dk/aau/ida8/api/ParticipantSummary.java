@@ -0,0 +1,114 @@
+package dk.aau.ida8.api;
+
+import dk.aau.ida8.model.Competition;
+import dk.aau.ida8.model.Group;
+import dk.aau.ida8.model.Participant;
+
+import java.util.Optional;
+
+/**
+ * This class represents one participant, together with their scores and
+ * rank, as returned by the results API.
+ *
+ * A summary holds plain values only, and so may be serialised without
+ * reference to the lifter, club or competition of the participant.
+ */
+public class ParticipantSummary {
+
+    private final long id;
+    private final int startNumber;
+    private final String name;
+    private final String club;
+    private final String gender;
+    private final double bodyWeight;
+    private final int currentWeight;
+    private final int liftsRemaining;
+    private final int bestSnatch;
+    private final int bestCleanAndJerk;
+    private final int total;
+    private final double sinclairScore;
+    private final Integer rank;
+
+    private ParticipantSummary(Participant p, Integer rank) {
+        this.id = p.getId();
+        this.startNumber = p.getStartNumber();
+        this.name = p.getFullName();
+        this.club = p.getClubName();
+        this.gender = p.getGenderInitial();
+        this.bodyWeight = p.getBodyWeight();
+        this.currentWeight = p.getCurrentWeight();
+        this.liftsRemaining = p.getLiftsRemaining();
+        this.bestSnatch = p.getBestSnatch();
+        this.bestCleanAndJerk = p.getBestCleanAndJerk();
+        this.total = p.getTotalScore();
+        this.sinclairScore = p.getSinclairScore();
+        this.rank = rank;
+    }
+
+    /**
+     * Creates the summary of a participant.
+     *
+     * The rank of the participant is taken from their ranking group, and is
+     * omitted if they are not yet within one.
+     *
+     * @param p the participant to summarise
+     * @return the summary of the participant
+     */
+    public static ParticipantSummary of(Participant p) {
+        Competition c = p.getCompetition();
+        Optional<Group> g = c.getRankingGroup(p);
+        return new ParticipantSummary(p, g.isPresent() ? g.get().getRank(p) : null);
+    }
+
+    public long getId() {
+        return id;
+    }
+
+    public int getStartNumber() {
+        return startNumber;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public String getClub() {
+        return club;
+    }
+
+    public String getGender() {
+        return gender;
+    }
+
+    public double getBodyWeight() {
+        return bodyWeight;
+    }
+
+    public int getCurrentWeight() {
+        return currentWeight;
+    }
+
+    public int getLiftsRemaining() {
+        return liftsRemaining;
+    }
+
+    public int getBestSnatch() {
+        return bestSnatch;
+    }
+
+    public int getBestCleanAndJerk() {
+        return bestCleanAndJerk;
+    }
+
+    public int getTotal() {
+        return total;
+    }
+
+    public double getSinclairScore() {
+        return sinclairScore;
+    }
+
+    public Integer getRank() {
+        return rank;
+    }
+}
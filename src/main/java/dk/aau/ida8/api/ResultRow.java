@@ -0,0 +1,205 @@
+package dk.aau.ida8.api;
+
+import dk.aau.ida8.model.Group;
+import dk.aau.ida8.model.Lift;
+import dk.aau.ida8.model.Participant;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * This class represents the result of one participant within one ranking
+ * group, as exported by the results API: every attempt, the best lifts,
+ * total, Sinclair score and rank.
+ */
+public class ResultRow {
+
+    /**
+     * This class represents one attempt at a lift.
+     */
+    public static class Attempt {
+
+        private final int weight;
+        private final String outcome;
+
+        public Attempt(int weight, Lift.LiftOutcome outcome) {
+            this.weight = weight;
+            this.outcome = outcome.name();
+        }
+
+        public int getWeight() {
+            return weight;
+        }
+
+        public String getOutcome() {
+            return outcome;
+        }
+    }
+
+    private final long groupID;
+    private final String groupType;
+    private final String gender;
+    private final long participantID;
+    private final int startNumber;
+    private final String forename;
+    private final String surname;
+    private final String club;
+    private final double bodyWeight;
+    private final List<Attempt> snatches = new ArrayList<>(3);
+    private final List<Attempt> cleanAndJerks = new ArrayList<>(3);
+    private int bestSnatch;
+    private int bestCleanAndJerk;
+    private int total;
+    private double sinclair;
+    private int rank;
+
+    /**
+     * Creates the result of a participant, without attempts, scores or
+     * rank, which are added as they are read.
+     *
+     * @param groupID       the ID# of the ranking group
+     * @param groupType     the type of the ranking group
+     * @param participantID the ID# of the participant
+     * @param startNumber   the start number of the participant
+     * @param forename      the forename of the lifter
+     * @param surname       the surname of the lifter
+     * @param gender        the gender of the lifter
+     * @param club          the name of the lifter's club, or null
+     * @param bodyWeight    the body weight of the lifter
+     */
+    public ResultRow(long groupID, Group.ComparatorType groupType,
+                     long participantID, int startNumber,
+                     String forename, String surname, String gender,
+                     String club, double bodyWeight) {
+        this.groupID = groupID;
+        this.groupType = groupType.name();
+        this.participantID = participantID;
+        this.startNumber = startNumber;
+        this.forename = forename;
+        this.surname = surname;
+        this.gender = gender;
+        this.club = club;
+        this.bodyWeight = bodyWeight;
+    }
+
+    /**
+     * Creates the result of a participant within a ranking group, which has
+     * been loaded together with their lifts.
+     *
+     * @param group the ranking group
+     * @param p     the participant
+     * @return the result of the participant
+     */
+    public static ResultRow of(Group group, Participant p) {
+        ResultRow row = new ResultRow(group.getId(), group.getComparatorType(),
+                p.getId(), p.getStartNumber(), p.getForename(), p.getSurname(),
+                p.getGenderInitial(), p.getClubName(), p.getBodyWeight());
+        for (Lift l : p.getLifts()) {
+            row.addAttempt(l.getLiftType(), l.getWeight(), l.getOutcome());
+        }
+        row.setScores(p.getBestSnatch(), p.getBestCleanAndJerk(),
+                p.getTotalScore(), p.getSinclairScore());
+        row.setRank(group.getRank(p));
+        return row;
+    }
+
+    /**
+     * Adds an attempt, in the order in which it was made.
+     *
+     * @param liftType the type of lift attempted
+     * @param weight   the weight attempted
+     * @param outcome  the outcome of the attempt
+     */
+    public void addAttempt(Lift.LiftType liftType, int weight, Lift.LiftOutcome outcome) {
+        Attempt a = new Attempt(weight, outcome);
+        if (liftType == Lift.LiftType.SNATCH) {
+            snatches.add(a);
+        } else {
+            cleanAndJerks.add(a);
+        }
+    }
+
+    /**
+     * Sets the scores of the participant.
+     *
+     * @param bestSnatch       the best snatch
+     * @param bestCleanAndJerk the best clean &amp; jerk
+     * @param total            the total, which is 0 unless both lifts were
+     *                         made
+     * @param sinclair         the Sinclair score
+     */
+    public void setScores(int bestSnatch, int bestCleanAndJerk, int total, double sinclair) {
+        this.bestSnatch = bestSnatch;
+        this.bestCleanAndJerk = bestCleanAndJerk;
+        this.total = total;
+        this.sinclair = sinclair;
+    }
+
+    public void setRank(int rank) {
+        this.rank = rank;
+    }
+
+    public long getGroupID() {
+        return groupID;
+    }
+
+    public String getGroupType() {
+        return groupType;
+    }
+
+    public String getGender() {
+        return gender;
+    }
+
+    public long getParticipantID() {
+        return participantID;
+    }
+
+    public int getStartNumber() {
+        return startNumber;
+    }
+
+    public String getForename() {
+        return forename;
+    }
+
+    public String getSurname() {
+        return surname;
+    }
+
+    public String getClub() {
+        return club;
+    }
+
+    public double getBodyWeight() {
+        return bodyWeight;
+    }
+
+    public List<Attempt> getSnatches() {
+        return snatches;
+    }
+
+    public List<Attempt> getCleanAndJerks() {
+        return cleanAndJerks;
+    }
+
+    public int getBestSnatch() {
+        return bestSnatch;
+    }
+
+    public int getBestCleanAndJerk() {
+        return bestCleanAndJerk;
+    }
+
+    public int getTotal() {
+        return total;
+    }
+
+    public double getSinclair() {
+        return sinclair;
+    }
+
+    public int getRank() {
+        return rank;
+    }
+}
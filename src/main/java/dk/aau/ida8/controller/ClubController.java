@@ -1,14 +1,23 @@
 package dk.aau.ida8.controller;
 
+import com.google.gson.Gson;
+import dk.aau.ida8.importer.CsvLifterRecordReader;
+import dk.aau.ida8.importer.JsonLinesLifterRecordReader;
 import dk.aau.ida8.model.Club;
 import dk.aau.ida8.model.Lifter;
 import dk.aau.ida8.service.ClubService;
+import dk.aau.ida8.service.LifterImportService;
 import dk.aau.ida8.service.LifterService;
+import dk.aau.ida8.service.PersonalBestService;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Controller;
 import org.springframework.ui.Model;
 import org.springframework.web.bind.annotation.*;
 
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
 import java.util.Date;
 
 /**
@@ -17,7 +26,8 @@ import java.util.Date;
  *
  * The ClubController exposes routes relating to the creation, updating and
  * removal of lifter members of a club. At present, there is no functionality
- * relating to the creation or removal of clubs themselves.
+ * relating to the creation or removal of clubs themselves, other than the
+ * creation of the clubs named by lifters imported in bulk.
  */
 @Controller
 @RequestMapping("/club")
@@ -25,6 +35,8 @@ public class ClubController {
 
     private ClubService clubService;
     private LifterService lifterService;
+    private LifterImportService lifterImportService;
+    private PersonalBestService personalBestService;
 
     /**
      * Instantiates a ClubController.
@@ -35,15 +47,23 @@ public class ClubController {
      *
      * @param clubService   the service used to access Club data
      * @param lifterService the service used to access Lifter data
+     * @param lifterImportService the service used to import lifters in bulk
+     * @param personalBestService the service used to find the personal bests
+     *                            of lifters
      */
     @Autowired
-    public ClubController(ClubService clubService, LifterService lifterService) {
+    public ClubController(ClubService clubService, LifterService lifterService,
+                          LifterImportService lifterImportService,
+                          PersonalBestService personalBestService) {
         this.clubService = clubService;
         this.lifterService = lifterService;
+        this.lifterImportService = lifterImportService;
+        this.personalBestService = personalBestService;
     }
 
     /**
-     * Displays the new lifter view for creating a lifter in a particular club.
+     * Displays the new lifter view for creating a lifter in a particular club,
+     * listing the lifters of the club together with their personal bests.
      *
      * @param id    the club ID#
      * @param model the Spring model object to pass to the view
@@ -55,6 +75,7 @@ public class ClubController {
 
         model.addAttribute("clubs", clubService.findAll());
         model.addAttribute("lifters", currentClub.getLifters());
+        model.addAttribute("personalBests", personalBestService.findForClub(currentClub.getId()));
         model.addAttribute("lifter", new Lifter());
 
         return "club-lifters";
@@ -105,6 +126,25 @@ public class ClubController {
         return "redirect:/club/new-lifter";
     }
 
+    /**
+     * Displays the lifter view, showing a lifter's details and their personal
+     * bests across all competitions.
+     *
+     * @param id    the ID# of the lifter to view
+     * @param model the Spring model object to pass to the view
+     * @return      the lifter view
+     */
+    @RequestMapping("/lifter/{id}/view")
+    public String viewLifter(@PathVariable Long id, Model model) {
+        Lifter lifter = lifterService.findOne(id);
+        if (lifter == null) {
+            throw new ResourceNotFoundException();
+        }
+        model.addAttribute("lifter", lifter);
+        model.addAttribute("personalBest", personalBestService.findForLifter(id));
+        return "lifter-view";
+    }
+
     /**
      * Displays the edit lifter view for modifying an existing lifter within a
      * club.
@@ -137,4 +177,42 @@ public class ClubController {
         return "redirect:/club/new-lifter?id=" + club.getId();
     }
 
+    /**
+     * Imports lifters in bulk from comma-separated values, posted as the body
+     * of the request with the header row first. See
+     * {@link dk.aau.ida8.importer.LifterRecord} for the fields of each row.
+     *
+     * The body is read as it arrives, rather than being held in memory.
+     *
+     * @param body the body of the request, in UTF-8
+     * @return JSON report of the rows imported, and of each row rejected
+     * @throws IOException if the body cannot be read
+     */
+    @ResponseBody
+    @RequestMapping(value = "/import", method = RequestMethod.POST,
+            consumes = "text/csv", produces = "application/json")
+    public String importLiftersCsv(InputStream body) throws IOException {
+        return new Gson().toJson(lifterImportService.importLifters(
+                new CsvLifterRecordReader(new InputStreamReader(body, StandardCharsets.UTF_8))));
+    }
+
+    /**
+     * Imports lifters in bulk from JSON lines, posted as the body of the
+     * request, one JSON object per row. See
+     * {@link dk.aau.ida8.importer.LifterRecord} for the fields of each row.
+     *
+     * The body is read as it arrives, rather than being held in memory.
+     *
+     * @param body the body of the request, in UTF-8
+     * @return JSON report of the rows imported, and of each row rejected
+     * @throws IOException if the body cannot be read
+     */
+    @ResponseBody
+    @RequestMapping(value = "/import", method = RequestMethod.POST,
+            consumes = {"application/x-ndjson", "application/jsonl"}, produces = "application/json")
+    public String importLiftersJsonLines(InputStream body) throws IOException {
+        return new Gson().toJson(lifterImportService.importLifters(
+                new JsonLinesLifterRecordReader(new InputStreamReader(body, StandardCharsets.UTF_8))));
+    }
+
 }
@@ -1,15 +1,22 @@
 package dk.aau.ida8.controller;
 
 import com.google.gson.Gson;
+import dk.aau.ida8.api.DashboardSummary;
 import dk.aau.ida8.model.*;
+import dk.aau.ida8.pipeline.CommandPipelineService;
 import dk.aau.ida8.service.*;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.DataAccessException;
 import org.springframework.stereotype.Controller;
+import org.springframework.transaction.TransactionException;
 import org.springframework.ui.Model;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
+import javax.servlet.http.HttpServletRequest;
 import java.security.InvalidParameterException;
 import java.util.*;
+import java.util.stream.Collectors;
 
 /**
  * This class is the controller for all competition-centric activities within
@@ -17,6 +24,11 @@ import java.util.*;
  *
  * The CompetitionController exposes routes relating to the creation and
  * management of competitions, and the viewing of their results.
+ *
+ * Changes made to participants during a competition are written to the
+ * database shortly after they are acknowledged (see
+ * {@link CommandPipelineService}). Views of a live competition therefore wait
+ * until every acknowledged change has been written before they are built.
  */
 @Controller
 @RequestMapping("/competition")
@@ -27,6 +39,11 @@ public class CompetitionController {
     private ParticipantService participantService;
     private ClubService clubService;
     private AddressService addressService;
+    private ScoreboardService scoreboardService;
+    private MetricsService metricsService;
+    private CommandPipelineService commandPipelineService;
+    private EventLogService eventLogService;
+    private PersonalBestService personalBestService;
 
     /**
      * Instantiates a CompetitionController.
@@ -40,18 +57,38 @@ public class CompetitionController {
      * @param participantService the service used to access Participant data
      * @param clubService        the service used to access Club data
      * @param addressService     the service used to access Address data
+     * @param scoreboardService  the service used to push live scoreboard
+     *                           updates
+     * @param metricsService     the service used to record operational
+     *                           metrics
+     * @param commandPipelineService the service through which changes to
+     *                               participants are applied
+     * @param eventLogService    the service through which weigh-ins are
+     *                           recorded, and conflicted changes counted
+     * @param personalBestService the service used to find the personal bests
+     *                            of participants at weigh-in
      */
     @Autowired
     public CompetitionController(LifterService lifterService,
                                  CompetitionService competitionService,
                                  ParticipantService participantService,
                                  ClubService clubService,
-                                 AddressService addressService) {
+                                 AddressService addressService,
+                                 ScoreboardService scoreboardService,
+                                 MetricsService metricsService,
+                                 CommandPipelineService commandPipelineService,
+                                 EventLogService eventLogService,
+                                 PersonalBestService personalBestService) {
         this.lifterService = lifterService;
         this.competitionService = competitionService;
         this.participantService = participantService;
         this.clubService = clubService;
         this.addressService = addressService;
+        this.scoreboardService = scoreboardService;
+        this.metricsService = metricsService;
+        this.commandPipelineService = commandPipelineService;
+        this.eventLogService = eventLogService;
+        this.personalBestService = personalBestService;
     }
 
     /**
@@ -93,6 +130,7 @@ public class CompetitionController {
      */
     @RequestMapping("/{competitionID}")
     public String competitionOverview(Model model, @PathVariable long competitionID) {
+        commandPipelineService.awaitFlushed(competitionID);
         Competition competition = competitionService.findOne(competitionID);
         model.addAttribute("competition", competition);
         return "competition-overview";
@@ -107,7 +145,8 @@ public class CompetitionController {
      */
     @RequestMapping("/{competitionID}/participants")
     public String competitionParticipants(Model model, @PathVariable long competitionID) {
-        Competition competition = competitionService.findOne(competitionID);
+        commandPipelineService.awaitFlushed(competitionID);
+        Competition competition = competitionService.findForSignUp(competitionID);
         model.addAttribute("competition", competition);
         return "competition-participants";
     }
@@ -120,23 +159,60 @@ public class CompetitionController {
      * following completion of the weigh-in, and before completion of all
      * lifts.
      *
+     * Each platform of a competition has its own dashboard, showing the group
+     * currently competing on that platform. Once all groups on a platform
+     * have completed their lifts, its dashboard shows that the platform is
+     * finished while other platforms continue.
+     *
+     * Should the database be unavailable while lifts are being registered,
+     * a reduced dashboard is built from the copy of the competition held in
+     * memory by its {@link CommandPipelineService command pipeline}, so that
+     * lifts may continue to be registered.
+     *
+     * Should any acknowledged change have been found not to apply when the
+     * competition was loaded again, a warning is shown, asking the jury to
+     * review it.
+     *
      * If the competition is complete, this controller will redirect to the
      * {@link #viewRankingGroups(Model, long) results} view. Otherwise, it will
      * redirect to the {@link #competitionOverview(Model, long) overview} view.
      *
      * @param model         the Spring model object to pass to the view
      * @param competitionID the ID# of the competition to view
+     * @param platform      the number of the platform to view
      * @return              the competition dashboard view
      */
     @RequestMapping("/{competitionID}/dashboard")
-    public String competitionDashboard(Model model, @PathVariable long competitionID) {
-        Competition competition = competitionService.findOne(competitionID);
+    public String competitionDashboard(Model model,
+                                       @PathVariable long competitionID,
+                                       @RequestParam(value = "platform", required = false, defaultValue = "1") int platform) {
+        commandPipelineService.awaitFlushed(competitionID);
+        if (!commandPipelineService.isDatabaseAvailable(competitionID)
+                && offlineDashboard(model, competitionID, platform)) {
+            // known to be unavailable; the copy held in memory is shown at
+            // once, rather than waiting on the database to fail again
+            return "competition-dashboard-offline";
+        }
+        Competition competition;
+        try {
+            competition = competitionService.findForDashboard(competitionID);
+        } catch (DataAccessException | TransactionException e) {
+            // the database is unavailable; show the copy held in memory, if any
+            if (!offlineDashboard(model, competitionID, platform)) {
+                throw e;
+            }
+            return "competition-dashboard-offline";
+        }
         model.addAttribute("competition", competition);
 
         if (competition.isCompetitionStarted()) {
-            Optional<Group> currGroup = competition.getCurrentCompetingGroup();
-            model.addAttribute("participants", currGroup.get().getParticipants());
-            model.addAttribute("currParticipant", competition.getCurrentParticipant());
+            model.addAttribute("conflicts", eventLogService.countConflicts(competitionID));
+            Optional<Group> currGroup = competition.getCurrentCompetingGroup(platform);
+            model.addAttribute("platform", platform);
+            model.addAttribute("participants", currGroup.isPresent()
+                    ? currGroup.get().getParticipants()
+                    : Collections.emptyList());
+            model.addAttribute("currParticipant", competition.getCurrentParticipant(platform));
             return "competition-dashboard";
         } else if (competition.isCompetitionComplete()) {
             return "redirect:/competition/" + competitionID + "/results";
@@ -145,6 +221,37 @@ public class CompetitionController {
         }
     }
 
+    /**
+     * Adds to the model the dashboard of a platform built from the copy of a
+     * competition held in memory by its command pipeline.
+     *
+     * @return true, if the dashboard was built, or false if the competition
+     *         has no pipeline or its copy cannot be loaded
+     */
+    private boolean offlineDashboard(Model model, long competitionID, int platform) {
+        Optional<DashboardSummary> dashboard = commandPipelineService.view(competitionID,
+                c -> DashboardSummary.of(c, platform));
+        dashboard.ifPresent(d -> model.addAttribute("dashboard", d));
+        return dashboard.isPresent();
+    }
+
+    /**
+     * Subscribes to the live scoreboard for a given competition.
+     *
+     * The response is a stream of Server-Sent Events, one for each lift
+     * registered or corrected and each weight change, containing only the
+     * data which has changed. See {@link ScoreboardService} for details.
+     *
+     * @param competitionID the ID# of the competition to follow
+     * @param request       the request, which is completed should the
+     *                      client stop reading events
+     * @return              the event stream for the competition
+     */
+    @RequestMapping(value = "/{competitionID}/live", method = RequestMethod.GET)
+    public SseEmitter liveScoreboard(@PathVariable long competitionID, HttpServletRequest request) {
+        return scoreboardService.subscribe(competitionID, request);
+    }
+
     /**
      * Displays the sign-up view for a given competition.
      *
@@ -159,7 +266,7 @@ public class CompetitionController {
      */
     @RequestMapping("/{competitionID}/sign-up")
     public String competitionSignup(@RequestParam(value = "id", required = false, defaultValue = "-1") Long id, Model model, @PathVariable long competitionID) {
-        Competition competition = competitionService.findOne(competitionID);
+        Competition competition = competitionService.findForSignUp(competitionID);
         Club currentClub;
         if (id == -1) {
           currentClub = clubService.findAll().iterator().next();
@@ -175,20 +282,21 @@ public class CompetitionController {
     }
 
     /**
-     * Signs-up a lifter to participant in a competition.
+     * Signs-up a lifter to participant in a competition. A number of lifters
+     * may be signed-up at once, by repeating the ID# parameter.
      *
-     * @param id            the ID# of the lifter to sign-up
+     * @param id            the ID# of each lifter to sign-up
      * @param competitionID the ID# of the competition to sign-up a lifter to
      * @return              redirect to the
      *                      {@link #competitionSignup(Long, Model, long) sign-up}
      *                      view
      */
     @RequestMapping(value = "/{competitionID}/sign-up", method = RequestMethod.POST)
-    public String signupLifterToCompetition(@RequestParam(value = "id", required = true) Long id, @PathVariable long competitionID) {
-        Competition competition = competitionService.findOne(competitionID);
-        Lifter lifter = lifterService.findOne(id);
-        competition.addParticipant(lifter);
-        competitionService.save(competition);
+    public String signupLifterToCompetition(@RequestParam(value = "id", required = true) List<Long> id, @PathVariable long competitionID) {
+        List<Lifter> lifters = id.stream()
+                .map(lifterService::findOne)
+                .collect(Collectors.toList());
+        competitionService.update(competitionID, c -> c.addParticipants(lifters));
         return "redirect:/competition/" + competitionID + "/sign-up";
     }
 
@@ -203,10 +311,8 @@ public class CompetitionController {
      */
     @RequestMapping(value= "/{competitionID}/remove", method = RequestMethod.POST)
     public String removeLifterFromCompetition(@RequestParam(value = "id", required = false) Long id, @PathVariable long competitionID) {
-        Competition competition = competitionService.findOne(competitionID);
         Lifter lifter = lifterService.findOne(id);
-        competition.removeParticipant(lifter);
-        competitionService.save(competition);
+        competitionService.update(competitionID, c -> c.removeParticipant(lifter));
         return "redirect:/competition/" + competitionID + "/sign-up";
     }
 
@@ -217,6 +323,9 @@ public class CompetitionController {
      * is complete, this controller redirects to the
      * {@link #competitionOverview(Model, long) overview} view.
      *
+     * The personal bests of each participant are shown, from which to choose
+     * their starting weights.
+     *
      * @param model         the Spring model object to pass to this view
      * @param competitionID the ID# of the competition for which to weigh-in
      *                      participants
@@ -224,10 +333,15 @@ public class CompetitionController {
      */
     @RequestMapping("/{competitionID}/weigh-in")
     public String controlWeighInParticipants(Model model, @PathVariable long competitionID) {
-        Competition competition = competitionService.findOne(competitionID);
+        Competition competition = competitionService.findForWeighIn(competitionID);
         if (competition.isWeighInStarted()) {
             model.addAttribute("competition", competition);
             model.addAttribute("participants", competition.getParticipants());
+            List<Long> lifterIDs = competition.getParticipants().stream()
+                    .filter(p -> p.getLifter() != null)
+                    .map(p -> p.getLifter().getId())
+                    .collect(Collectors.toList());
+            model.addAttribute("personalBests", personalBestService.findForLifters(lifterIDs));
             return "competition-weigh-in";
         } else {
             return "redirect:/competition/" + competitionID;
@@ -267,8 +381,8 @@ public class CompetitionController {
             int startingSnatchWeight = Integer.parseInt(snatchStr);
             int startingCleanAndJerkWeight = Integer.parseInt(cjStr);
 
-            //changing model according to values inserted by user
-            participant.weighIn(bodyWeight, startingSnatchWeight, startingCleanAndJerkWeight);
+            //recording the weigh-in as the first event of the participant, and saving them
+            eventLogService.weighIn(participant, bodyWeight, startingSnatchWeight, startingCleanAndJerkWeight);
 
             //on success send success message with code 200
             map.put("code", "200");
@@ -286,7 +400,6 @@ public class CompetitionController {
             map.put("code", "400");
         }
 
-        participantService.saveParticipant(participant);
         Gson gson = new Gson();
         return gson.toJson(map);
     }
@@ -337,8 +450,10 @@ public class CompetitionController {
     @RequestMapping(value = "/{competitionID}/competing-groups", method = RequestMethod.POST)
     public String weighInParticipants(Model model, @PathVariable long competitionID) {
         Competition competition = competitionService.findOne(competitionID);
-        competition.finishWeighIn();
-        competitionService.save(competition);
+        metricsService.time("weighin.finish", competitionID, () -> {
+            competition.finishWeighIn();
+            competitionService.save(competition);
+        });
         return "redirect:/competition/" + competitionID + "/competing-groups";
     }
 
@@ -355,7 +470,8 @@ public class CompetitionController {
      */
     @RequestMapping("/{competitionID}/competing-groups")
     public String viewCompetingGroups(Model model, @PathVariable long competitionID) {
-        Competition competition = competitionService.findOne(competitionID);
+        commandPipelineService.awaitFlushed(competitionID);
+        Competition competition = competitionService.findForDashboard(competitionID);
         if (competition.isWeighInComplete()) {
             model.addAttribute("competingGroups", competition.getCompetingGroups());
             model.addAttribute("competition", competition);
@@ -378,7 +494,8 @@ public class CompetitionController {
      */
     @RequestMapping("/{competitionID}/results")
     public String viewRankingGroups(Model model, @PathVariable long competitionID) {
-        Competition competition = competitionService.findOne(competitionID);
+        commandPipelineService.awaitFlushed(competitionID);
+        Competition competition = competitionService.findForResults(competitionID);
         if (competition.isCompetitionComplete()) {
             model.addAttribute("rankingGroups", competition.getRankingGroups());
             model.addAttribute("competition", competition);
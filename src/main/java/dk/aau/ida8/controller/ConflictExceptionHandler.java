@@ -0,0 +1,41 @@
+package dk.aau.ida8.controller;
+
+import com.google.gson.Gson;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.ControllerAdvice;
+import org.springframework.web.bind.annotation.ExceptionHandler;
+
+import java.util.HashMap;
+
+/**
+ * This class reports conflicting changes made by concurrent terminals.
+ *
+ * Participants, competitions and groups are versioned. Where two terminals
+ * change the same one at the same time, the second change to be saved fails,
+ * rather than silently overwriting the first. Unless the change is retried
+ * (see {@link dk.aau.ida8.service.CompetitionService#update}), this handler
+ * responds with 409 Conflict, so that the user may reload and try again.
+ */
+@ControllerAdvice
+public class ConflictExceptionHandler {
+
+    /**
+     * Responds to a change which conflicts with a concurrent change.
+     *
+     * @param e the exception raised on saving the change
+     * @return JSON response with 409 code, describing the conflict
+     */
+    @ExceptionHandler(OptimisticLockingFailureException.class)
+    public ResponseEntity<String> conflict(OptimisticLockingFailureException e) {
+        HashMap<String, String> map = new HashMap<>();
+        map.put("code", "409");
+        map.put("msg", "this was changed at another terminal at the same time; " +
+                "please reload and try again");
+        return ResponseEntity.status(HttpStatus.CONFLICT)
+                .contentType(MediaType.APPLICATION_JSON)
+                .body(new Gson().toJson(map));
+    }
+}
@@ -1,20 +1,31 @@
 package dk.aau.ida8.controller;
 
-import dk.aau.ida8.model.Competition;
+import dk.aau.ida8.api.CompetitionListing;
 import dk.aau.ida8.service.CompetitionService;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Controller;
 import org.springframework.ui.Model;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 
 import java.util.*;
 
 /**
  * This class is the controller for the index page of the software.
+ *
+ * The index page lists the competitions held today, and a page each of the
+ * upcoming and past competitions. Further pages are requested by the date
+ * (in milliseconds) and ID# of the last competition of the previous page, as
+ * described by {@link dk.aau.ida8.data.CompetitionRepository}.
  */
 @Controller
 public class IndexController {
 
+    /**
+     * The number of competitions listed in each section of the page.
+     */
+    static final int PAGE_SIZE = 20;
+
     private CompetitionService competitionService;
 
     @Autowired
@@ -25,30 +36,66 @@ public class IndexController {
     /**
      * Display the index page view.
      *
-     * @param model the Spring model to pass to the view
-     * @return      the index page view
+     * @param upcomingAfter   the date of the competition after which to list
+     *                        upcoming competitions, if not the first page
+     * @param upcomingAfterID the ID# of that competition
+     * @param pastBefore      the date of the competition before which to list
+     *                        past competitions, if not the first page
+     * @param pastBeforeID    the ID# of that competition
+     * @param model           the Spring model to pass to the view
+     * @return                the index page view
      */
     @RequestMapping("/")
-    public String index(Model model) {
+    public String index(@RequestParam(value = "upcomingAfter", required = false) Long upcomingAfter,
+                        @RequestParam(value = "upcomingAfterID", defaultValue = "0") long upcomingAfterID,
+                        @RequestParam(value = "pastBefore", required = false) Long pastBefore,
+                        @RequestParam(value = "pastBeforeID", defaultValue = "0") long pastBeforeID,
+                        Model model) {
         Calendar cal = new GregorianCalendar();
         cal.set(Calendar.HOUR_OF_DAY, 0);
         cal.set(Calendar.MINUTE, 0);
         cal.set(Calendar.SECOND, 0);
+        cal.set(Calendar.MILLISECOND, 0);
         Date today = cal.getTime();
+        cal.add(Calendar.DAY_OF_MONTH, 1);
+        Date tomorrow = cal.getTime();
+
+        List<CompetitionListing> liveComps =
+                competitionService.findListingsBetween(today, 0, tomorrow, PAGE_SIZE);
 
-        Iterable<Competition> competitions = competitionService.findAll();
-        List<Competition> futureComps = new ArrayList<>();
-        List<Competition> pastComps = new ArrayList<>();
-        for (Competition c : competitions) {
-            if (c.getCompetitionDate().before(today)) {
-                pastComps.add(c);
-            } else {
-                futureComps.add(c);
-            }
-        }
-        model.addAttribute("competitions", competitionService.findAll());
-        model.addAttribute("pastCompetitions", pastComps);
-        model.addAttribute("futureCompetitions", futureComps);
+        // the first page of upcoming competitions begins with those held tomorrow
+        Date after = upcomingAfter == null ? tomorrow : new Date(upcomingAfter);
+        long afterID = upcomingAfter == null ? 0 : upcomingAfterID;
+        List<CompetitionListing> futureComps =
+                competitionService.findListingsAfter(after, afterID, PAGE_SIZE + 1);
+
+        Date before = pastBefore == null ? today : new Date(pastBefore);
+        long beforeID = pastBefore == null ? 0 : pastBeforeID;
+        List<CompetitionListing> pastComps =
+                competitionService.findListingsBefore(before, beforeID, PAGE_SIZE + 1);
+
+        model.addAttribute("liveCompetitions", liveComps);
+        model.addAttribute("futureCompetitions", page(futureComps));
+        model.addAttribute("nextFutureCompetitions", next(futureComps));
+        model.addAttribute("pastCompetitions", page(pastComps));
+        model.addAttribute("nextPastCompetitions", next(pastComps));
         return "index";
     }
+
+    /**
+     * Trims the one listing beyond a page, which is found only to determine
+     * whether there is a next page.
+     */
+    private static List<CompetitionListing> page(List<CompetitionListing> listings) {
+        return listings.size() > PAGE_SIZE ? listings.subList(0, PAGE_SIZE) : listings;
+    }
+
+    /**
+     * Gets the last listing of a page, from which the next page begins.
+     *
+     * @return the last listing, or null if there is no next page
+     */
+    private static CompetitionListing next(List<CompetitionListing> listings) {
+        return listings.size() > PAGE_SIZE ? listings.get(PAGE_SIZE - 1) : null;
+    }
 }
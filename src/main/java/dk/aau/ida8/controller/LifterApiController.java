@@ -0,0 +1,64 @@
+package dk.aau.ida8.controller;
+
+import com.google.gson.Gson;
+import com.google.gson.GsonBuilder;
+import dk.aau.ida8.api.LifterSearchResult;
+import dk.aau.ida8.model.Lifter;
+import dk.aau.ida8.service.LifterSearchService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.MediaType;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestMethod;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.List;
+import java.util.stream.Collectors;
+
+/**
+ * This class is the controller for searching lifters across all clubs,
+ * returned as JSON. It is requested as the user types into the search box
+ * of the competition sign-up view.
+ */
+@RestController
+@RequestMapping("/api/v1/lifters")
+public class LifterApiController {
+
+    private LifterSearchService lifterSearchService;
+    private Gson gson = new GsonBuilder().serializeNulls().create();
+
+    /**
+     * Instantiates a LifterApiController.
+     *
+     * @param lifterSearchService the service used to search lifters
+     */
+    @Autowired
+    public LifterApiController(LifterSearchService lifterSearchService) {
+        this.lifterSearchService = lifterSearchService;
+    }
+
+    /**
+     * Searches for lifters by partial forename, surname, club name or date
+     * of birth (dd-MM-yyyy, or the year alone).
+     *
+     * @param q      the query, whose terms are separated by whitespace
+     * @param gender the gender of the lifters to find, if not either
+     * @param active whether to find only active, or only inactive, lifters,
+     *               if not both
+     * @param limit  the greatest number of lifters to find, at most
+     *               {@link LifterSearchService#MAX_RESULTS}
+     * @return JSON list of the lifters found, best matches first
+     */
+    @RequestMapping(value = "/search", method = RequestMethod.GET,
+            produces = MediaType.APPLICATION_JSON_VALUE)
+    public String search(@RequestParam(value = "q", defaultValue = "") String q,
+                         @RequestParam(value = "gender", required = false) Lifter.Gender gender,
+                         @RequestParam(value = "active", required = false) Boolean active,
+                         @RequestParam(value = "limit", defaultValue = "20") int limit) {
+        List<LifterSearchResult> results = lifterSearchService.search(q, gender, active, limit)
+                .stream()
+                .map(LifterSearchResult::new)
+                .collect(Collectors.toList());
+        return gson.toJson(results);
+    }
+}
@@ -0,0 +1,38 @@
+package dk.aau.ida8.controller;
+
+import com.google.gson.Gson;
+import dk.aau.ida8.pipeline.PipelineOverloadedException;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.ControllerAdvice;
+import org.springframework.web.bind.annotation.ExceptionHandler;
+
+import java.util.HashMap;
+
+/**
+ * This class reports changes refused by the command pipeline of a
+ * competition because it is overloaded (see
+ * {@link dk.aau.ida8.pipeline.CommandPipelineService}). It responds with 503
+ * Service Unavailable, so that the user may try again shortly.
+ */
+@ControllerAdvice
+public class OverloadExceptionHandler {
+
+    /**
+     * Responds to a change refused by an overloaded pipeline.
+     *
+     * @param e the exception raised on submitting the change
+     * @return JSON response with 503 code, describing the reason
+     */
+    @ExceptionHandler(PipelineOverloadedException.class)
+    public ResponseEntity<String> overloaded(PipelineOverloadedException e) {
+        HashMap<String, String> map = new HashMap<>();
+        map.put("code", "503");
+        map.put("msg", e.getMessage());
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                .header("Retry-After", "1")
+                .contentType(MediaType.APPLICATION_JSON)
+                .body(new Gson().toJson(map));
+    }
+}
@@ -2,10 +2,12 @@ package dk.aau.ida8.controller;
 
 
 import com.google.gson.Gson;
-import dk.aau.ida8.model.Competition;
 import dk.aau.ida8.model.Lift;
 import dk.aau.ida8.model.Participant;
-import dk.aau.ida8.service.LiftService;
+import dk.aau.ida8.pipeline.Acknowledgement;
+import dk.aau.ida8.pipeline.Command;
+import dk.aau.ida8.pipeline.CommandPipelineService;
+import dk.aau.ida8.service.MetricsService;
 import dk.aau.ida8.service.ParticipantService;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Controller;
@@ -24,13 +26,20 @@ import java.util.List;
  * The ParticipantController exposes routes relating to the viewing of
  * participants, registration of lifts made by a participant, increasing weight
  * and other associated operations.
+ *
+ * Changes to participants are submitted as commands to the
+ * {@link CommandPipelineService command pipeline} of their competition, and
+ * are acknowledged once applied, before they are recorded in the database.
+ * Views of participants are built once all acknowledged changes have been
+ * recorded.
  */
 @Controller
 @RequestMapping("/participant")
 public class ParticipantController {
 
     private ParticipantService participantService;
-    private LiftService liftService;
+    private CommandPipelineService commandPipelineService;
+    private MetricsService metricsService;
 
     /**
      * Instantiates a ClubController.
@@ -39,50 +48,56 @@ public class ParticipantController {
      * required services. This allows ORM access as required without manually
      * creating these services.
      *
-     * @param participantService the service used to access Participant data
-     * @param liftService        the service used to access Lift data
+     * @param participantService     the service used to access Participant
+     *                               data
+     * @param commandPipelineService the service through which changes to
+     *                               participants are applied
+     * @param metricsService         the service used to record operational
+     *                               metrics
      */
     @Autowired
     public ParticipantController(ParticipantService participantService,
-                                 LiftService liftService) {
+                                 CommandPipelineService commandPipelineService,
+                                 MetricsService metricsService) {
         this.participantService = participantService;
-        this.liftService = liftService;
+        this.commandPipelineService = commandPipelineService;
+        this.metricsService = metricsService;
     }
 
     /**
      * Creates a new lift for a particular Participant.
      *
+     * The lift is registered by the command pipeline of the participant's
+     * competition, and so is not yet written to the database on return.
+     *
      * @param model the Spring model object to pass to the view
      * @param action the string value representing the outcome of a lift: PASS,
      *               FAIL or ABSTAIN
      * @param participantID the ID# of the participant for whom to register a
      *                      lift
+     * @param token the token of the form, by which a lift submitted twice is
+     *              registered once
      * @return redirects to the
-     *         {@link CompetitionController#competitionDashboard(Model, long)
+     *         {@link CompetitionController#competitionDashboard(Model, long, int)
      *         competition dashboard} view
      */
     @RequestMapping(value = "/register-lift", method = RequestMethod.POST)
     public String registerLift(Model model,
                                @RequestParam("action") String action,
-                               @RequestParam("participantID") long participantID) {
-        Participant p = participantService.findOne(participantID);
-        switch (action) {
-            case "PASS":
-                p.addPassedLift();
-                break;
-            case "FAIL":
-                p.addFailedLift();
-                break;
-            case "ABSTAIN":
-                p.addAbstainedLift();
-                break;
-            default:
-                throw new ResourceNotFoundException();
+                               @RequestParam("participantID") long participantID,
+                               @RequestParam(value = "token", required = false) String token) {
+        Lift.LiftOutcome outcome;
+        try {
+            outcome = Lift.LiftOutcome.valueOf(action);
+        } catch (IllegalArgumentException e) {
+            throw new ResourceNotFoundException();
         }
-        participantService.saveParticipant(p);
-        Competition c = p.getCompetition();
-        model.addAttribute("participant", p);
-        return "redirect:/competition/" + c.getId() + "/dashboard";
+        long competitionID = commandPipelineService.getCompetitionID(participantID);
+        Acknowledgement ack = metricsService.time("lift.register", competitionID,
+                () -> commandPipelineService.execute(
+                        Command.registerLift(participantID, outcome).withToken(token)));
+        metricsService.increment("lift." + action.toLowerCase(), competitionID);
+        return "redirect:/competition/" + competitionID + "/dashboard?platform=" + ack.getPlatform();
     }
 
     /**
@@ -94,7 +109,7 @@ public class ParticipantController {
      */
     @RequestMapping(value="/correct-lifts/{participantID}", method = RequestMethod.GET)
     public String correctCompletedLift(Model model, @PathVariable long participantID){
-        Participant p = participantService.findOne(participantID);
+        Participant p = findFlushed(participantID);
         model.addAttribute("participant", p);
         return "correct-lift-form";
     }
@@ -111,6 +126,8 @@ public class ParticipantController {
      * @param model the Spring model object to pass to the view
      * @param participantID the ID# of the participant whose lifts are to change
      * @param liftStrs the new weights to set for the participants lifts
+     * @param token the token of the form, by which corrections submitted
+     *              twice are applied once
      * @return correct lift result view if a valid weight is passed, or the
      *         correct lift form view with an error message if an invalid weight
      *         is passed
@@ -119,20 +136,16 @@ public class ParticipantController {
     @RequestMapping(value = "/correct-lifts", method = RequestMethod.POST)
     public String submitCorrectedLifts(Model model,
                                        @RequestParam("id") long participantID,
-                                       @RequestParam(value = "lift") List<String> liftStrs) {
-        Participant p = participantService.findOne(participantID);
-        model.addAttribute("participant", p);
+                                       @RequestParam(value = "lift") List<String> liftStrs,
+                                       @RequestParam(value = "token", required = false) String token) {
         String response;
         List<String> msgs = new ArrayList<>();
 
         for (int i = 0; i < liftStrs.size(); i++) {
             try {
                 int currWeight = Integer.parseInt(liftStrs.get(i));
-                Lift currLift = p.getLifts().get(i);
-                if (currWeight != currLift.getWeight()) {
-                    currLift.setWeight(currWeight);
-                }
-                liftService.saveLift(currLift);
+                commandPipelineService.execute(
+                        Command.correctLift(participantID, i, currWeight).withToken(token));
             } catch (NumberFormatException e) {
                 String msg = "unable to process input weight '" + liftStrs.get(i) +
                         "' (a number is required)";
@@ -163,7 +176,7 @@ public class ParticipantController {
     @RequestMapping(value = "/increase-weight/{participantID}", method = RequestMethod.GET)
     public String increaseWeightForm(Model model,
                                      @PathVariable long participantID) {
-        Participant p = participantService.findOne(participantID);
+        Participant p = findFlushed(participantID);
         model.addAttribute(p);
         if (!p.canChangeWeight()) {
             String msg = "unable to increase weight: this participant has " +
@@ -187,20 +200,20 @@ public class ParticipantController {
      * @param participantID the ID# of the participant whose current weight is
      *                      to be changed
      * @param weightStr the new weight for this participant
+     * @param token the token of the form, by which a change submitted twice
+     *              is applied once
      * @return a JSON response representing either success or failure
      */
     @ResponseBody
     @RequestMapping(value = "/increase-weight", method = RequestMethod.POST)
     public String increaseWeight(Model model,
                                  @RequestParam("id") long participantID,
-                                 @RequestParam("currentWeight") String weightStr) {
-        Participant p = participantService.findOne(participantID);
-        model.addAttribute("participant", p);
+                                 @RequestParam("currentWeight") String weightStr,
+                                 @RequestParam(value = "token", required = false) String token) {
         String response;
         try {
             int weight = Integer.parseInt(weightStr);
-            p.increaseWeight(weight);
-            participantService.saveParticipant(p);
+            changeWeight(Command.increaseWeight(participantID, weight).withToken(token));
             response = jsonResponse(200, "All good!");
         } catch (NumberFormatException e) {
             String msg = "unable to process input weight '" + weightStr +
@@ -232,7 +245,7 @@ public class ParticipantController {
     @RequestMapping(value = "/correct-weight/{participantID}", method = RequestMethod.GET)
     public String correctWeightForm(Model model,
                                     @PathVariable long participantID) {
-        Participant p = participantService.findOne(participantID);
+        Participant p = findFlushed(participantID);
         model.addAttribute(p);
         return "correct-weight-form";
     }
@@ -249,20 +262,20 @@ public class ParticipantController {
      * @param participantID the ID# of the participant whose current weight is
      *                      to be changed
      * @param weightStr the new weight for this participant
+     * @param token the token of the form, by which a change submitted twice
+     *              is applied once
      * @return a JSON response representing either success or failure
      */
     @ResponseBody
     @RequestMapping(value = "/correct-weight", method = RequestMethod.POST)
     public String correctWeight(Model model,
                                 @RequestParam("id") long participantID,
-                                @RequestParam("currentWeight") String weightStr) {
-        Participant p = participantService.findOne(participantID);
-        model.addAttribute("participant", p);
+                                @RequestParam("currentWeight") String weightStr,
+                                @RequestParam(value = "token", required = false) String token) {
         String response;
         try {
             int weight = Integer.parseInt(weightStr);
-            p.correctWeight(weight);
-            participantService.saveParticipant(p);
+            changeWeight(Command.correctWeight(participantID, weight).withToken(token));
             response = jsonResponse(200, "All good!");
         } catch (NumberFormatException e) {
             String msg = "unable to process input weight '" + weightStr +
@@ -278,20 +291,79 @@ public class ParticipantController {
      * @param model the Spring model to pass to the view
      * @param participantID the ID# of the participant for whom to revert lift
      *                      weight
+     * @param token the token of the form, by which a change submitted twice
+     *              is applied once
      * @return JSON response code for success
      */
     @ResponseBody
     @RequestMapping(value = "/revert-weight", method = RequestMethod.POST)
     public String revertWeight(Model model,
-                               @RequestParam("id") long participantID) {
-        Participant p = participantService.findOne(participantID);
-        model.addAttribute("participant", p);
-        p.revertWeight();
-        participantService.saveParticipant(p);
+                               @RequestParam("id") long participantID,
+                               @RequestParam(value = "token", required = false) String token) {
+        changeWeight(Command.revertWeight(participantID).withToken(token));
 
         return jsonResponse(200, "All good!");
     }
 
+    /**
+     * Undoes an earlier change to a participant, such as a lift registered in
+     * error, at the request of the jury.
+     *
+     * The participant is rebuilt from their recorded history without the
+     * change; later changes which are no longer valid without it are
+     * dropped. The change itself remains in the history, marked as undone.
+     *
+     * @param model the Spring model to pass to the view
+     * @param participantID the ID# of the participant whose change is to be
+     *                      undone
+     * @param eventID the ID# of the recorded change to undo
+     * @param token the token of the request, by which an undo submitted twice
+     *              is applied once
+     * @return a JSON response representing either success or failure
+     */
+    @ResponseBody
+    @RequestMapping(value = "/undo", method = RequestMethod.POST)
+    public String undo(Model model,
+                       @RequestParam("id") long participantID,
+                       @RequestParam("eventID") long eventID,
+                       @RequestParam(value = "token", required = false) String token) {
+        String response;
+        try {
+            long competitionID = commandPipelineService.getCompetitionID(participantID);
+            metricsService.time("event.undo", competitionID,
+                    () -> commandPipelineService.execute(
+                            Command.undo(participantID, eventID).withToken(token)));
+            response = jsonResponse(200, "All good!");
+        } catch (InvalidParameterException | UnsupportedOperationException e) {
+            response = jsonResponse(400, "unable to undo change: " + e.getMessage());
+        }
+        return response;
+    }
+
+    /**
+     * Changes the weight of a participant's next lift through the command
+     * pipeline of their competition.
+     *
+     * @param command the command changing the participant's weight
+     */
+    private void changeWeight(Command command) {
+        long competitionID = commandPipelineService.getCompetitionID(command.getParticipantID());
+        metricsService.time("weight.change", competitionID,
+                () -> commandPipelineService.execute(command));
+    }
+
+    /**
+     * Finds a participant, once every change acknowledged for their
+     * competition has been written to the database.
+     *
+     * @param participantID the ID# of the participant
+     * @return the participant
+     */
+    private Participant findFlushed(long participantID) {
+        commandPipelineService.awaitFlushed(commandPipelineService.getCompetitionID(participantID));
+        return participantService.findOne(participantID);
+    }
+
     /**
      * Generates a JSON response String for a given code and message.
      *
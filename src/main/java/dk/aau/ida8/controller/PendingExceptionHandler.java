@@ -0,0 +1,37 @@
+package dk.aau.ida8.controller;
+
+import com.google.gson.Gson;
+import dk.aau.ida8.pipeline.CommandPendingException;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.ControllerAdvice;
+import org.springframework.web.bind.annotation.ExceptionHandler;
+
+import java.util.HashMap;
+
+/**
+ * This class reports changes accepted by the command pipeline of a
+ * competition, but not yet applied when their acknowledgement was due (see
+ * {@link dk.aau.ida8.pipeline.CommandPipelineService}). It responds with 202
+ * Accepted, rather than an error, as the change will still be applied.
+ */
+@ControllerAdvice
+public class PendingExceptionHandler {
+
+    /**
+     * Responds to a change which has been accepted, but not yet applied.
+     *
+     * @param e the exception raised on waiting for the change
+     * @return JSON response with 202 code, describing the pending change
+     */
+    @ExceptionHandler(CommandPendingException.class)
+    public ResponseEntity<String> pending(CommandPendingException e) {
+        HashMap<String, String> map = new HashMap<>();
+        map.put("code", "202");
+        map.put("msg", e.getMessage());
+        // written as text, like the other responses to the participant forms,
+        // which parse it themselves
+        return ResponseEntity.status(HttpStatus.ACCEPTED)
+                .body(new Gson().toJson(map));
+    }
+}
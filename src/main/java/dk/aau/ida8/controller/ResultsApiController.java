@@ -0,0 +1,265 @@
+package dk.aau.ida8.controller;
+
+import com.google.gson.Gson;
+import com.google.gson.GsonBuilder;
+import dk.aau.ida8.api.CompetitionSummary;
+import dk.aau.ida8.api.CurrentLifterSummary;
+import dk.aau.ida8.api.EventSummary;
+import dk.aau.ida8.api.GroupSummary;
+import dk.aau.ida8.api.ResultRow;
+import dk.aau.ida8.exporter.ResultWriter;
+import dk.aau.ida8.model.Competition;
+import dk.aau.ida8.model.Group;
+import dk.aau.ida8.service.CompetitionService;
+import dk.aau.ida8.service.CompetitionVersionService;
+import dk.aau.ida8.service.EventLogService;
+import dk.aau.ida8.service.ResultsExportService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.util.List;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+
+/**
+ * This class is the controller for the read-only results API.
+ *
+ * The API exposes the overview, competing groups, current lifter, ranking
+ * groups and recorded changes of a competition as JSON, and exports its
+ * results as CSV or JSON lines. Responses are built from the flat summary
+ * classes within {@link dk.aau.ida8.api}, rather than from entities.
+ *
+ * Every response carries an ETag derived from the competition's mutation
+ * counter, as kept by the {@link CompetitionVersionService}. A request whose
+ * If-None-Match header matches the current ETag receives 304 Not Modified
+ * before any data is loaded from the database.
+ */
+@RestController
+@RequestMapping("/api/v1/competition")
+public class ResultsApiController {
+
+    private CompetitionService competitionService;
+    private CompetitionVersionService competitionVersionService;
+    private EventLogService eventLogService;
+    private ResultsExportService resultsExportService;
+    private Gson gson = new GsonBuilder()
+            .setDateFormat("yyyy-MM-dd'T'HH:mm:ss")
+            .serializeNulls()
+            .create();
+
+    /**
+     * Instantiates a ResultsApiController.
+     *
+     * @param competitionService        the service used to access Competition
+     *                                  data
+     * @param competitionVersionService the service used to obtain the ETag of
+     *                                  a competition
+     * @param eventLogService           the service used to read the recorded
+     *                                  changes of a competition
+     * @param resultsExportService      the service used to export the results
+     *                                  of a competition
+     */
+    @Autowired
+    public ResultsApiController(CompetitionService competitionService,
+                                CompetitionVersionService competitionVersionService,
+                                EventLogService eventLogService,
+                                ResultsExportService resultsExportService) {
+        this.competitionService = competitionService;
+        this.competitionVersionService = competitionVersionService;
+        this.eventLogService = eventLogService;
+        this.resultsExportService = resultsExportService;
+    }
+
+    /**
+     * Gets the overview of a competition.
+     *
+     * @param competitionID the ID# of the competition
+     * @param ifNoneMatch   the ETag held by the client, if any
+     * @return the competition overview, or 304 Not Modified
+     */
+    @RequestMapping(value = "/{competitionID}", method = RequestMethod.GET)
+    public ResponseEntity<String> competition(@PathVariable long competitionID,
+                                              @RequestHeader(value = "If-None-Match", required = false) String ifNoneMatch) {
+        return respond(competitionID, ifNoneMatch, () -> {
+            CompetitionSummary summary = competitionService.findSummary(competitionID);
+            if (summary == null) {
+                throw new ResourceNotFoundException();
+            }
+            return summary;
+        });
+    }
+
+    /**
+     * Gets the competing groups of a competition, each in lifting order.
+     *
+     * @param competitionID the ID# of the competition
+     * @param ifNoneMatch   the ETag held by the client, if any
+     * @return the competing groups, or 304 Not Modified
+     */
+    @RequestMapping(value = "/{competitionID}/competing-groups", method = RequestMethod.GET)
+    public ResponseEntity<String> competingGroups(@PathVariable long competitionID,
+                                                  @RequestHeader(value = "If-None-Match", required = false) String ifNoneMatch) {
+        return respond(competitionID, ifNoneMatch, () ->
+                summariseGroups(found(competitionService.findForDashboard(competitionID)).getCompetingGroups()));
+    }
+
+    /**
+     * Gets the ranking groups of a competition, each in order of rank.
+     *
+     * @param competitionID the ID# of the competition
+     * @param ifNoneMatch   the ETag held by the client, if any
+     * @return the ranking groups, or 304 Not Modified
+     */
+    @RequestMapping(value = "/{competitionID}/ranking-groups", method = RequestMethod.GET)
+    public ResponseEntity<String> rankingGroups(@PathVariable long competitionID,
+                                                @RequestHeader(value = "If-None-Match", required = false) String ifNoneMatch) {
+        return respond(competitionID, ifNoneMatch, () ->
+                summariseGroups(found(competitionService.findForResults(competitionID)).getRankingGroups()));
+    }
+
+    /**
+     * Gets the participant next to lift on a platform of a competition.
+     *
+     * The body is null once all lifts on the platform are complete.
+     *
+     * @param competitionID the ID# of the competition
+     * @param platform      the number of the platform, which is 1 if not
+     *                      given
+     * @param ifNoneMatch   the ETag held by the client, if any
+     * @return the current lifter, or 304 Not Modified
+     */
+    @RequestMapping(value = "/{competitionID}/current-lifter", method = RequestMethod.GET)
+    public ResponseEntity<String> currentLifter(@PathVariable long competitionID,
+                                                @RequestParam(value = "platform", required = false, defaultValue = "1") int platform,
+                                                @RequestHeader(value = "If-None-Match", required = false) String ifNoneMatch) {
+        return respond(competitionID, ifNoneMatch, () ->
+                found(competitionService.findForDashboard(competitionID)).getCurrentParticipant(platform)
+                        .map(CurrentLifterSummary::of)
+                        .orElse(null));
+    }
+
+    /**
+     * Gets every change recorded for the participants of a competition, in
+     * the order in which they were made, for review by the jury. Changes
+     * which have been undone remain, followed later by the change undoing
+     * them.
+     *
+     * @param competitionID the ID# of the competition
+     * @param ifNoneMatch   the ETag held by the client, if any
+     * @return the recorded changes, or 304 Not Modified
+     */
+    @RequestMapping(value = "/{competitionID}/events", method = RequestMethod.GET)
+    public ResponseEntity<String> events(@PathVariable long competitionID,
+                                         @RequestHeader(value = "If-None-Match", required = false) String ifNoneMatch) {
+        return respond(competitionID, ifNoneMatch, () ->
+                eventLogService.competitionLog(competitionID).stream()
+                        .map(EventSummary::of)
+                        .collect(Collectors.toList()));
+    }
+
+    /**
+     * Exports the results of a competition: every participant of every
+     * ranking group, with every attempt, best lifts, total, Sinclair score
+     * and rank, in order of group, then of participant ID#.
+     *
+     * The results are streamed as they are read from the database, so that
+     * the response begins at once, however many participants there are.
+     * While the competition is in progress, its results are built in memory
+     * instead (see {@link ResultsExportService}).
+     *
+     * @param competitionID the ID# of the competition
+     * @param format        csv (the default) or jsonl, for JSON lines
+     * @param ifNoneMatch   the ETag held by the client, if any
+     * @return the results as an attachment, or 304 Not Modified
+     */
+    @RequestMapping(value = "/{competitionID}/results", method = RequestMethod.GET)
+    public ResponseEntity<StreamingResponseBody> results(@PathVariable long competitionID,
+                                                         @RequestParam(value = "format", required = false, defaultValue = "csv") String format,
+                                                         @RequestHeader(value = "If-None-Match", required = false) String ifNoneMatch) {
+        ResultWriter.Format f;
+        if (format.equalsIgnoreCase("csv")) {
+            f = ResultWriter.Format.CSV;
+        } else if (format.equalsIgnoreCase("jsonl")) {
+            f = ResultWriter.Format.JSON_LINES;
+        } else {
+            throw new ResourceNotFoundException();
+        }
+
+        String etag = competitionVersionService.getETag(competitionID);
+        if (competitionVersionService.isCurrent(competitionID, ifNoneMatch)) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED)
+                    .eTag(etag)
+                    .body(null);
+        }
+        if (competitionService.findSummary(competitionID) == null) {
+            throw new ResourceNotFoundException();
+        }
+
+        StreamingResponseBody body;
+        if (resultsExportService.isRecorded(competitionID)) {
+            body = out -> resultsExportService.export(competitionID, f.open(out));
+        } else {
+            List<ResultRow> rows = resultsExportService.findResults(competitionID);
+            body = out -> {
+                ResultWriter writer = f.open(out);
+                for (ResultRow row : rows) {
+                    writer.write(row);
+                }
+                writer.flush();
+            };
+        }
+        String filename = "results-" + competitionID + (f == ResultWriter.Format.CSV ? ".csv" : ".jsonl");
+        return ResponseEntity.ok()
+                .eTag(etag)
+                .header("Cache-Control", "no-cache")
+                .header("Content-Disposition", "attachment; filename=\"" + filename + "\"")
+                .contentType(MediaType.parseMediaType(f.getContentType()))
+                .body(body);
+    }
+
+    /**
+     * Builds the response to an API request.
+     *
+     * The ETag of the competition is read before the body is built, so that a
+     * change made while the body is being built causes the next request to
+     * fetch the data again, rather than to be told it is current.
+     *
+     * @param competitionID the ID# of the competition requested
+     * @param ifNoneMatch   the ETag held by the client, if any
+     * @param body          builds the body of the response; only called if
+     *                      the client's copy is not current
+     * @return the JSON response with its ETag, or 304 Not Modified
+     */
+    private ResponseEntity<String> respond(long competitionID,
+                                           String ifNoneMatch,
+                                           Supplier<Object> body) {
+        String etag = competitionVersionService.getETag(competitionID);
+        if (competitionVersionService.isCurrent(competitionID, ifNoneMatch)) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED)
+                    .eTag(etag)
+                    .body(null);
+        }
+        return ResponseEntity.ok()
+                .eTag(etag)
+                .header("Cache-Control", "no-cache")
+                .contentType(MediaType.APPLICATION_JSON)
+                .body(gson.toJson(body.get()));
+    }
+
+    private static Competition found(Competition competition) {
+        if (competition == null) {
+            throw new ResourceNotFoundException();
+        }
+        return competition;
+    }
+
+    private static List<GroupSummary> summariseGroups(List<Group> groups) {
+        return groups.stream()
+                .map(GroupSummary::of)
+                .collect(Collectors.toList());
+    }
+}
@@ -0,0 +1,42 @@
+package dk.aau.ida8.controller;
+
+import com.google.gson.Gson;
+import dk.aau.ida8.service.ReferenceCacheService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.MediaType;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestMethod;
+import org.springframework.web.bind.annotation.RestController;
+
+/**
+ * This class is the controller for operational statistics about the running
+ * application, returned as JSON.
+ */
+@RestController
+@RequestMapping("/api/v1/statistics")
+public class StatisticsApiController {
+
+    private ReferenceCacheService referenceCacheService;
+
+    /**
+     * Instantiates a StatisticsApiController.
+     *
+     * @param referenceCacheService the service managing the reference data
+     *                              cache
+     */
+    @Autowired
+    public StatisticsApiController(ReferenceCacheService referenceCacheService) {
+        this.referenceCacheService = referenceCacheService;
+    }
+
+    /**
+     * Gets the hit rate of each reference data cache region.
+     *
+     * @return JSON map of region name to hits, misses, hit rate and size
+     */
+    @RequestMapping(value = "/cache", method = RequestMethod.GET,
+            produces = MediaType.APPLICATION_JSON_VALUE)
+    public String cacheStatistics() {
+        return new Gson().toJson(referenceCacheService.getStatistics());
+    }
+}
@@ -2,12 +2,19 @@ package dk.aau.ida8.data;
 
 
 import dk.aau.ida8.model.Club;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.CrudRepository;
 import org.springframework.stereotype.Repository;
 
+import javax.persistence.QueryHint;
+
 /**
  * This interface represents the Repository for accessing Club data
  * persisted within the database.
+ *
+ * Clubs are held in the second-level cache, and the queries below are held
+ * in the query cache, so that repeated look-ups of clubs do not reach the
+ * database.
  */
 @Repository
 public interface ClubRepository extends CrudRepository<Club, Long> {
@@ -17,5 +24,18 @@ public interface ClubRepository extends CrudRepository<Club, Long> {
      * @param name the name of the club to search for
      * @return the club found as a result of the search
      */
+    @QueryHints(@QueryHint(name = "org.hibernate.cacheable", value = "true"))
     Club findByName(String name);
+
+    /**
+     * Finds all clubs.
+     *
+     * @return all clubs
+     */
+    @Override
+    @QueryHints({
+            @QueryHint(name = "org.hibernate.cacheable", value = "true"),
+            @QueryHint(name = "org.hibernate.cacheRegion", value = "query.clubs")
+    })
+    Iterable<Club> findAll();
 }
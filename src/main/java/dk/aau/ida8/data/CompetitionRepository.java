@@ -1,13 +1,161 @@
 package dk.aau.ida8.data;
 
+import dk.aau.ida8.api.CompetitionListing;
+import dk.aau.ida8.api.CompetitionSummary;
 import dk.aau.ida8.model.Competition;
+import dk.aau.ida8.util.WeightClassTable;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.CrudRepository;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.Date;
+import java.util.List;
 
 /**
  * This interface represents the Repository for accessing Competition data
  * persisted within the database.
+ *
+ * Besides {@link #findOne(java.io.Serializable) findOne}, which loads each
+ * association of a competition lazily as it is first used, there is one
+ * finder for each view of a competition. Each fetches the data its view uses
+ * together with the competition, so that a view is rendered with a small,
+ * fixed number of queries regardless of the number of participants.
+ *
+ * Only one collection can be fetched by each query. The remaining
+ * collections (lifts and group members) are loaded in batches, as set by the
+ * {@link org.hibernate.annotations.BatchSize BatchSize} of each collection.
+ *
+ * Listings of competitions are paginated by keyset, rather than by offset:
+ * each page begins after the date and ID# of the last competition of the
+ * previous page, and is read from the index on those columns, so that any
+ * page costs the same however many competitions precede it.
  */
 @Repository
 public interface CompetitionRepository extends CrudRepository<Competition, Long> {
-}
\ No newline at end of file
+
+    /**
+     * Finds the summary of a competition, projected directly from the
+     * database without loading its participants.
+     *
+     * @param id the ID# of the competition
+     * @return the summary of the competition, or null if not found
+     */
+    @Query("select new dk.aau.ida8.api.CompetitionSummary(" +
+            "c.id, c.competitionName, c.competitionType, c.competitionDate, " +
+            "c.lastRegistrationDate, c.maxNumParticipants, h.name, " +
+            "(select count(p) from Participant p where p.competition = c)) " +
+            "from Competition c left join c.host h where c.id = ?1")
+    CompetitionSummary findSummary(long id);
+
+    String LISTING = "select new dk.aau.ida8.api.CompetitionListing(" +
+            "c.id, c.competitionName, c.competitionType, c.competitionDate, " +
+            "c.lastRegistrationDate, h.name, loc.town, " +
+            "(select count(p) from Participant p where p.competition = c)) " +
+            "from Competition c left join c.host h left join c.location loc ";
+
+    /**
+     * Finds the listings of the competitions held after a given competition,
+     * in order of date and ID#.
+     *
+     * @param afterDate the date of the competition after which to begin
+     * @param afterID   the ID# of the competition after which to begin, or 0
+     *                  to begin with the first competition held on afterDate
+     * @param page      the number of listings to find, from the first page
+     * @return the listings
+     */
+    @Query(LISTING +
+            "where c.competitionDate > ?1 or (c.competitionDate = ?1 and c.id > ?2) " +
+            "order by c.competitionDate, c.id")
+    List<CompetitionListing> findListingsAfter(Date afterDate, long afterID, Pageable page);
+
+    /**
+     * Finds the listings of the competitions held after a given competition,
+     * but before a given date, in order of date and ID#.
+     *
+     * @param afterDate the date of the competition after which to begin
+     * @param afterID   the ID# of the competition after which to begin, or 0
+     *                  to begin with the first competition held on afterDate
+     * @param until     the date before which competitions are held
+     * @param page      the number of listings to find, from the first page
+     * @return the listings
+     */
+    @Query(LISTING +
+            "where (c.competitionDate > ?1 or (c.competitionDate = ?1 and c.id > ?2)) " +
+            "and c.competitionDate < ?3 " +
+            "order by c.competitionDate, c.id")
+    List<CompetitionListing> findListingsBetween(Date afterDate, long afterID, Date until, Pageable page);
+
+    /**
+     * Finds the listings of the competitions held before a given competition,
+     * latest first.
+     *
+     * @param beforeDate the date of the competition before which to begin
+     * @param beforeID   the ID# of the competition before which to begin, or
+     *                   0 to begin with the last competition held before
+     *                   beforeDate
+     * @param page       the number of listings to find, from the first page
+     * @return the listings
+     */
+    @Query(LISTING +
+            "where c.competitionDate < ?1 or (c.competitionDate = ?1 and c.id < ?2) " +
+            "order by c.competitionDate desc, c.id desc")
+    List<CompetitionListing> findListingsBefore(Date beforeDate, long beforeID, Pageable page);
+
+    /**
+     * Finds a competition together with its host, location and each
+     * participant's lifter and club, i.e. everything shown by the sign-up,
+     * participants and weigh-in views, in one query.
+     *
+     * @param id the ID# of the competition
+     * @return the competition, or null if not found
+     */
+    @Query("select distinct c from Competition c " +
+            "left join fetch c.host left join fetch c.location " +
+            "left join fetch c.participants p " +
+            "left join fetch p.lifter l left join fetch l.club cl left join fetch cl.address " +
+            "where c.id = ?1")
+    Competition findWithParticipants(long id);
+
+    /**
+     * Finds a competition for the dashboard view, together with its competing
+     * groups and the participants within them. The lifts of participants are
+     * loaded in batches on first use.
+     *
+     * @param id the ID# of the competition
+     * @return the competition, or null if not found
+     */
+    @Query("select distinct c from Competition c " +
+            "left join fetch c.host left join fetch c.location " +
+            "left join fetch c.competingGroups g " +
+            "where c.id = ?1")
+    Competition findForDashboard(long id);
+
+    /**
+     * Finds a competition for the results view, together with its ranking
+     * groups. The participants within groups, and their lifts, are loaded in
+     * batches on first use.
+     *
+     * @param id the ID# of the competition
+     * @return the competition, or null if not found
+     */
+    @Query("select distinct c from Competition c " +
+            "left join fetch c.host left join fetch c.location " +
+            "left join fetch c.rankingGroups g " +
+            "where c.id = ?1")
+    Competition findForResults(long id);
+
+    /**
+     * Sets the table of weight classes of every competition for which none
+     * is stored, being those stored before a table could be chosen.
+     *
+     * @param table the table of weight classes to set
+     * @return the number of competitions changed
+     */
+    @Modifying
+    @Transactional
+    @Query("update Competition c set c.weightClassTable = ?1 where c.weightClassTable is null")
+    int setMissingWeightClassTables(WeightClassTable table);
+}
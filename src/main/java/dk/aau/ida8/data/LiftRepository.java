@@ -1,13 +1,32 @@
 package dk.aau.ida8.data;
 
 import dk.aau.ida8.model.Lift;
+import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.CrudRepository;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
+import java.util.List;
+
 /**
  * This interface represents the Repository for accessing Lift data
  * persisted within the database.
  */
 @Repository
 public interface LiftRepository extends CrudRepository<Lift, Long> {
+
+    /**
+     * Finds the heaviest lift of each type with a given outcome, within
+     * every participation of a number of lifters, without loading the
+     * participants or their lifts.
+     *
+     * @param lifterIDs the ID#s of the lifters
+     * @param outcome   the outcome of the lifts
+     * @return rows of lifter ID#, participant ID#, lift type and greatest
+     *         weight
+     */
+    @Query("select p.lifter.id, p.id, l.liftType, max(l.weight) from Lift l join l.participant p " +
+           "where p.lifter.id in ?1 and l.outcome = ?2 " +
+           "group by p.lifter.id, p.id, l.liftType")
+    List<Object[]> findHeaviestLifts(Collection<Long> lifterIDs, Lift.LiftOutcome outcome);
 }
@@ -1,13 +1,36 @@
 package dk.aau.ida8.data;
 
 import dk.aau.ida8.model.Lifter;
+import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.CrudRepository;
 import org.springframework.stereotype.Repository;
 
+import java.util.List;
+
 /**
  * This interface represents the Repository for accessing Lifter data
  * persisted within the database.
  */
 @Repository
 public interface LifterRepository extends CrudRepository <Lifter, Long> {
+
+    /**
+     * Finds the fields of every lifter by which lifters are searched, by one
+     * query, without loading the lifters themselves.
+     *
+     * @return rows of ID#, forename, surname, club name, date of birth,
+     *         gender and whether active
+     */
+    @Query("select l.id, l.forename, l.surname, c.name, l.dateOfBirth, l.gender, l.active " +
+           "from Lifter l left join l.club c")
+    List<Object[]> findSearchFields();
+
+    /**
+     * Finds the ID#s of the lifters of a club, without loading the lifters.
+     *
+     * @param clubID the ID# of the club
+     * @return the ID#s of the club's lifters
+     */
+    @Query("select l.id from Lifter l where l.club.id = ?1")
+    List<Long> findIDsByClubID(long clubID);
 }
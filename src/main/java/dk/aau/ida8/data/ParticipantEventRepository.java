@@ -0,0 +1,82 @@
+package dk.aau.ida8.data;
+
+import dk.aau.ida8.model.ParticipantEvent;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.CrudRepository;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+/**
+ * This interface represents the Repository for accessing the log of
+ * participant events persisted within the database. Events are only ever
+ * inserted, and are always returned in the order in which they are to be
+ * applied.
+ */
+@Repository
+public interface ParticipantEventRepository extends CrudRepository<ParticipantEvent, Long> {
+
+    /**
+     * Finds the events of a competition recorded after a given event.
+     *
+     * @param competitionID the ID# of the competition
+     * @param id            the ID# of the event after which to find events
+     * @return the later events of the competition, in order
+     */
+    List<ParticipantEvent> findByCompetitionIDAndIdGreaterThanOrderByIdAsc(long competitionID, long id);
+
+    /**
+     * Finds the events of a participant recorded after a given event.
+     *
+     * @param participantID the ID# of the participant
+     * @param id            the ID# of the event after which to find events
+     * @return the later events of the participant, in order
+     */
+    List<ParticipantEvent> findByParticipantIDAndIdGreaterThanOrderByIdAsc(long participantID, long id);
+
+    /**
+     * Finds every event of a participant.
+     *
+     * @param participantID the ID# of the participant
+     * @return the events of the participant, in order
+     */
+    List<ParticipantEvent> findByParticipantIDOrderByIdAsc(long participantID);
+
+    /**
+     * Finds every event of a competition.
+     *
+     * @param competitionID the ID# of the competition
+     * @return the events of the competition, in order
+     */
+    List<ParticipantEvent> findByCompetitionIDOrderByIdAsc(long competitionID);
+
+    /**
+     * Counts the conflicted events of a competition; see
+     * {@link ParticipantEvent#isConflicted()}.
+     *
+     * @param competitionID the ID# of the competition
+     * @return the number of conflicted events
+     */
+    long countByCompetitionIDAndConflictedTrue(long competitionID);
+
+    /**
+     * Finds the events of a competition recorded from a range of positions
+     * within its journal.
+     *
+     * @param competitionID the ID# of the competition
+     * @param from          the first position
+     * @param to            the last position
+     * @return the events recorded from those positions
+     */
+    List<ParticipantEvent> findByCompetitionIDAndJournalSequenceBetween(long competitionID, long from, long to);
+
+    /**
+     * Finds the greatest journal position among the recorded events of a
+     * competition.
+     *
+     * @param competitionID the ID# of the competition
+     * @return the greatest journal position recorded, or 0 if none
+     */
+    @Query("select coalesce(max(e.journalSequence), 0) from ParticipantEvent e where e.competitionID = ?1")
+    long findLastJournalSequence(long competitionID);
+}
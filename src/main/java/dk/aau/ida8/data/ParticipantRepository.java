@@ -1,6 +1,7 @@
 package dk.aau.ida8.data;
 
 import dk.aau.ida8.model.Participant;
+import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.CrudRepository;
 import org.springframework.stereotype.Repository;
 
@@ -10,4 +11,14 @@ import org.springframework.stereotype.Repository;
  */
 @Repository
 public interface ParticipantRepository extends CrudRepository<Participant, Long> {
+
+    /**
+     * Finds the ID# of the competition in which a participant takes part,
+     * without loading the participant.
+     *
+     * @param id the ID# of the participant
+     * @return the ID# of the participant's competition, or null if not found
+     */
+    @Query("select p.competition.id from Participant p where p.id = ?1")
+    Long findCompetitionID(long id);
 }
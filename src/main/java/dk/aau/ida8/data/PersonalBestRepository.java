@@ -0,0 +1,24 @@
+package dk.aau.ida8.data;
+
+import dk.aau.ida8.model.PersonalBest;
+import org.springframework.data.repository.CrudRepository;
+import org.springframework.stereotype.Repository;
+
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * This interface represents the Repository for accessing PersonalBest data
+ * persisted within the database.
+ */
+@Repository
+public interface PersonalBestRepository extends CrudRepository<PersonalBest, Long> {
+
+    /**
+     * Finds the personal bests of a number of lifters.
+     *
+     * @param lifterIDs the ID#s of the lifters
+     * @return the personal bests of those lifters which have any recorded
+     */
+    List<PersonalBest> findByLifterIDIn(Collection<Long> lifterIDs);
+}
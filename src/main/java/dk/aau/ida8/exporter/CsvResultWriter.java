@@ -0,0 +1,116 @@
+package dk.aau.ida8.exporter;
+
+import dk.aau.ida8.api.ResultRow;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * This class writes exported results as comma-separated values, with a
+ * header row, and one row per participant.
+ *
+ * Each of the three attempts at each lift has its own column, holding the
+ * weight attempted: positive if the lift was made, negative if it failed,
+ * and 0 if the lifter abstained. The column is empty if the attempt has not
+ * been taken.
+ */
+public final class CsvResultWriter implements ResultWriter {
+
+    private static final String HEADER = "groupID,groupType,rank,startNumber," +
+            "participantID,forename,surname,gender,club,bodyWeight," +
+            "snatch1,snatch2,snatch3,cleanAndJerk1,cleanAndJerk2,cleanAndJerk3," +
+            "bestSnatch,bestCleanAndJerk,total,sinclair";
+
+    private static final int ATTEMPTS = 3;
+
+    private final Writer out;
+    private boolean headerWritten = false;
+
+    /**
+     * Instantiates a CsvResultWriter.
+     *
+     * @param out the stream to which to write, in UTF-8
+     */
+    public CsvResultWriter(OutputStream out) {
+        this.out = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8));
+    }
+
+    @Override
+    public void write(ResultRow row) throws IOException {
+        writeHeader();
+        StringBuilder line = new StringBuilder(160);
+        line.append(row.getGroupID()).append(',')
+                .append(row.getGroupType()).append(',')
+                .append(row.getRank()).append(',')
+                .append(row.getStartNumber()).append(',')
+                .append(row.getParticipantID()).append(',');
+        field(line, row.getForename());
+        field(line, row.getSurname());
+        field(line, row.getGender());
+        field(line, row.getClub());
+        line.append(row.getBodyWeight()).append(',');
+        attempts(line, row.getSnatches());
+        attempts(line, row.getCleanAndJerks());
+        line.append(row.getBestSnatch()).append(',')
+                .append(row.getBestCleanAndJerk()).append(',')
+                .append(row.getTotal()).append(',')
+                .append(String.format(Locale.ROOT, "%.3f", row.getSinclair()))
+                .append("\r\n");
+        out.write(line.toString());
+    }
+
+    /**
+     * Writes the header row, if not yet written.
+     *
+     * @throws IOException if the stream cannot be written
+     */
+    public void writeHeader() throws IOException {
+        if (!headerWritten) {
+            out.write(HEADER);
+            out.write("\r\n");
+            headerWritten = true;
+        }
+    }
+
+    @Override
+    public void flush() throws IOException {
+        writeHeader();
+        out.flush();
+    }
+
+    private static void attempts(StringBuilder line, List<ResultRow.Attempt> attempts) {
+        for (int i = 0; i < ATTEMPTS; i++) {
+            if (i < attempts.size()) {
+                ResultRow.Attempt a = attempts.get(i);
+                switch (a.getOutcome()) {
+                    case "PASS": line.append(a.getWeight()); break;
+                    case "FAIL": line.append(-a.getWeight()); break;
+                    default: line.append(0); break;
+                }
+            }
+            line.append(',');
+        }
+    }
+
+    /**
+     * Appends a text field and its separator, quoting the field if it holds
+     * a comma, quote or line break.
+     */
+    private static void field(StringBuilder line, String value) {
+        if (value != null) {
+            if (value.indexOf(',') >= 0 || value.indexOf('"') >= 0
+                    || value.indexOf('\n') >= 0 || value.indexOf('\r') >= 0) {
+                line.append('"').append(value.replace("\"", "\"\"")).append('"');
+            } else {
+                line.append(value);
+            }
+        }
+        line.append(',');
+    }
+}
@@ -0,0 +1,42 @@
+package dk.aau.ida8.exporter;
+
+import com.google.gson.Gson;
+import com.google.gson.GsonBuilder;
+import dk.aau.ida8.api.ResultRow;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * This class writes exported results as JSON lines: one JSON object per
+ * participant, with their attempts as arrays of weight and outcome.
+ */
+public final class JsonLinesResultWriter implements ResultWriter {
+
+    private final Writer out;
+    private final Gson gson = new GsonBuilder().serializeNulls().create();
+
+    /**
+     * Instantiates a JsonLinesResultWriter.
+     *
+     * @param out the stream to which to write, in UTF-8
+     */
+    public JsonLinesResultWriter(OutputStream out) {
+        this.out = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8));
+    }
+
+    @Override
+    public void write(ResultRow row) throws IOException {
+        out.write(gson.toJson(row));
+        out.write('\n');
+    }
+
+    @Override
+    public void flush() throws IOException {
+        out.flush();
+    }
+}
@@ -0,0 +1,65 @@
+package dk.aau.ida8.exporter;
+
+import dk.aau.ida8.api.ResultRow;
+
+import java.io.IOException;
+import java.io.OutputStream;
+
+/**
+ * This interface represents a writer of exported results, in one of the
+ * supported formats. Rows are written to the underlying stream as they are
+ * given, through a small buffer.
+ */
+public interface ResultWriter {
+
+    /**
+     * Defines the formats in which results may be exported.
+     */
+    enum Format {
+        CSV("text/csv"),
+        JSON_LINES("application/x-ndjson");
+
+        private final String contentType;
+
+        Format(String contentType) {
+            this.contentType = contentType;
+        }
+
+        /**
+         * Gets the content type of results in this format.
+         *
+         * @return the MIME type of this format
+         */
+        public String getContentType() {
+            return contentType;
+        }
+
+        /**
+         * Creates a writer of results in this format.
+         *
+         * @param out the stream to which to write, in UTF-8
+         * @return the writer
+         */
+        public ResultWriter open(OutputStream out) {
+            switch (this) {
+                case CSV: return new CsvResultWriter(out);
+                default: return new JsonLinesResultWriter(out);
+            }
+        }
+    }
+
+    /**
+     * Writes the result of one participant.
+     *
+     * @param row the result to write
+     * @throws IOException if the stream cannot be written
+     */
+    void write(ResultRow row) throws IOException;
+
+    /**
+     * Writes any buffered rows to the underlying stream.
+     *
+     * @throws IOException if the stream cannot be written
+     */
+    void flush() throws IOException;
+}
@@ -0,0 +1,152 @@
+package dk.aau.ida8.importer;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.Reader;
+import java.security.InvalidParameterException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * This class reads the rows of a lifter import from comma-separated values.
+ *
+ * The first line is a header naming the field of each column. Fields may be
+ * quoted with double quotes, within which commas, line breaks and doubled
+ * quotes ("") may appear, as described in RFC 4180.
+ */
+public final class CsvLifterRecordReader implements LifterRecordReader {
+
+    private static final int EOF = -1;
+
+    private final BufferedReader in;
+    private List<String> header;
+    private int row = 0;
+    private boolean quoteUnterminated = false;
+
+    /**
+     * Instantiates a CsvLifterRecordReader.
+     *
+     * @param in the stream of comma-separated values, including its header
+     */
+    public CsvLifterRecordReader(Reader in) {
+        this.in = in instanceof BufferedReader ? (BufferedReader) in : new BufferedReader(in);
+    }
+
+    @Override
+    public Map<String, String> next() throws IOException, InvalidParameterException {
+        if (header == null && !readHeader()) {
+            return null;
+        }
+        List<String> values = readRecord();
+        if (values == null) {
+            return null;
+        }
+        row++;
+        if (quoteUnterminated) {
+            throw new InvalidParameterException("quoted field is not terminated");
+        }
+        if (values.size() > header.size()) {
+            throw new InvalidParameterException("row has " + values.size()
+                    + " fields, but the header names " + header.size());
+        }
+        Map<String, String> fields = new HashMap<>();
+        for (int i = 0; i < values.size(); i++) {
+            fields.put(header.get(i), values.get(i));
+        }
+        return fields;
+    }
+
+    @Override
+    public int getRow() {
+        return row;
+    }
+
+    @Override
+    public void close() throws IOException {
+        in.close();
+    }
+
+    /**
+     * Reads the header.
+     *
+     * @return true, if the header was read, or false if the stream is empty
+     */
+    private boolean readHeader() throws IOException {
+        List<String> names = readRecord();
+        if (names == null) {
+            return false;
+        }
+        if (quoteUnterminated) {
+            throw new InvalidParameterException("quoted field of the header is not terminated");
+        }
+        header = new ArrayList<>(names.size());
+        for (String name : names) {
+            // a byte order mark may precede the first name
+            header.add(name.replace("\uFEFF", "").trim().toLowerCase(Locale.ROOT));
+        }
+        return true;
+    }
+
+    /**
+     * Reads the fields of the next record, skipping blank lines.
+     *
+     * @return the fields, or null at the end of the stream
+     */
+    private List<String> readRecord() throws IOException {
+        List<String> values = new ArrayList<>();
+        StringBuilder field = new StringBuilder();
+        boolean quoted = false;
+        boolean blank = true;
+        quoteUnterminated = false;
+
+        int c;
+        while (true) {
+            c = in.read();
+            if (quoted) {
+                if (c == EOF) {
+                    quoteUnterminated = true;
+                    break;
+                } else if (c == '"') {
+                    in.mark(1);
+                    if (in.read() == '"') {
+                        field.append('"');
+                    } else {
+                        in.reset();
+                        quoted = false;
+                    }
+                } else {
+                    field.append((char) c);
+                }
+            } else if (c == EOF || c == '\n' || c == '\r') {
+                if (c == '\r') {
+                    in.mark(1);
+                    if (in.read() != '\n') {
+                        in.reset();
+                    }
+                }
+                if (blank) {
+                    if (c == EOF) {
+                        return null;
+                    }
+                    continue;
+                }
+                break;
+            } else if (c == ',') {
+                values.add(field.toString());
+                field.setLength(0);
+                blank = false;
+            } else if (c == '"' && field.length() == 0) {
+                quoted = true;
+                blank = false;
+            } else {
+                field.append((char) c);
+                blank = false;
+            }
+        }
+        values.add(field.toString());
+        return values;
+    }
+}
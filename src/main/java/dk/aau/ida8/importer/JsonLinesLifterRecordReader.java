@@ -0,0 +1,85 @@
+package dk.aau.ida8.importer;
+
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParseException;
+import com.google.gson.JsonParser;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.Reader;
+import java.security.InvalidParameterException;
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * This class reads the rows of a lifter import from JSON lines: one JSON
+ * object per line, whose members are the fields of the row, e.g.
+ *
+ * <pre>
+ * {"forename": "Anna", "surname": "Holm", "gender": "F", "dateOfBirth": "1994-03-02", "club": "AK Jyden"}
+ * </pre>
+ *
+ * Members may be strings, numbers or booleans; null members are ignored.
+ */
+public final class JsonLinesLifterRecordReader implements LifterRecordReader {
+
+    private final BufferedReader in;
+    private final JsonParser parser = new JsonParser();
+    private int row = 0;
+
+    /**
+     * Instantiates a JsonLinesLifterRecordReader.
+     *
+     * @param in the stream of JSON lines
+     */
+    public JsonLinesLifterRecordReader(Reader in) {
+        this.in = in instanceof BufferedReader ? (BufferedReader) in : new BufferedReader(in);
+    }
+
+    @Override
+    public Map<String, String> next() throws IOException, InvalidParameterException {
+        String line;
+        do {
+            line = in.readLine();
+            if (line == null) {
+                return null;
+            }
+        } while (line.trim().isEmpty());
+        row++;
+
+        JsonElement element;
+        try {
+            element = parser.parse(line);
+        } catch (JsonParseException e) {
+            throw new InvalidParameterException("row is not valid JSON");
+        }
+        if (!element.isJsonObject()) {
+            throw new InvalidParameterException("row is not a JSON object");
+        }
+
+        Map<String, String> fields = new HashMap<>();
+        for (Map.Entry<String, JsonElement> member : ((JsonObject) element).entrySet()) {
+            JsonElement value = member.getValue();
+            if (value.isJsonNull()) {
+                continue;
+            }
+            if (!value.isJsonPrimitive()) {
+                throw new InvalidParameterException(member.getKey() + " must be a string, number or boolean");
+            }
+            fields.put(member.getKey().toLowerCase(Locale.ROOT), value.getAsString());
+        }
+        return fields;
+    }
+
+    @Override
+    public int getRow() {
+        return row;
+    }
+
+    @Override
+    public void close() throws IOException {
+        in.close();
+    }
+}
@@ -0,0 +1,229 @@
+package dk.aau.ida8.importer;
+
+import dk.aau.ida8.model.Lifter;
+
+import java.security.InvalidParameterException;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.time.format.ResolverStyle;
+import java.util.Date;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * This class represents one validated row of a lifter import.
+ *
+ * A row names the lifter's club, rather than giving its ID#; clubs are
+ * resolved by name once the row has been read. A lifter is identified by
+ * their forename, surname and date of birth, exactly as written: importing
+ * a row whose lifter already exists updates that lifter, rather than
+ * creating another.
+ *
+ * The following fields are recognised, regardless of case:
+ * <ul>
+ *     <li>forename (required)</li>
+ *     <li>surname (required)</li>
+ *     <li>gender (required): M, F, MALE or FEMALE</li>
+ *     <li>dateOfBirth (required): dd-MM-yyyy, as entered in the lifter
+ *     form, or yyyy-MM-dd</li>
+ *     <li>club (required): the name of the club, which is created if it
+ *     does not exist</li>
+ *     <li>bodyWeight: in kilograms, 0 if not given</li>
+ *     <li>active: true or false, true if not given</li>
+ * </ul>
+ */
+public final class LifterRecord {
+
+    private static final int MAX_LENGTH = 255;
+    private static final DateTimeFormatter FORM_DATE = DateTimeFormatter.ofPattern("dd-MM-uuuu")
+            .withResolverStyle(ResolverStyle.STRICT);
+
+    private final int row;
+    private final String forename;
+    private final String surname;
+    private final Lifter.Gender gender;
+    private final Date dateOfBirth;
+    private final String clubName;
+    private final double bodyWeight;
+    private final boolean active;
+
+    private LifterRecord(int row, String forename, String surname,
+                         Lifter.Gender gender, Date dateOfBirth,
+                         String clubName, double bodyWeight, boolean active) {
+        this.row = row;
+        this.forename = forename;
+        this.surname = surname;
+        this.gender = gender;
+        this.dateOfBirth = dateOfBirth;
+        this.clubName = clubName;
+        this.bodyWeight = bodyWeight;
+        this.active = active;
+    }
+
+    /**
+     * Validates the fields of a row.
+     *
+     * @param row    the number of the row within the import, from 1
+     * @param fields the fields of the row, keyed by lower-case name
+     * @return the validated row
+     * @throws InvalidParameterException if a field is missing or invalid,
+     *                                   describing the field
+     */
+    public static LifterRecord of(int row, Map<String, String> fields)
+            throws InvalidParameterException {
+        String forename = required(fields, "forename");
+        String surname = required(fields, "surname");
+        Lifter.Gender gender = parseGender(required(fields, "gender"));
+        Date dateOfBirth = parseDate(required(fields, "dateofbirth"));
+        String clubName = required(fields, "club");
+
+        double bodyWeight = 0;
+        String bw = optional(fields, "bodyweight");
+        if (bw != null) {
+            try {
+                bodyWeight = Double.parseDouble(bw);
+            } catch (NumberFormatException e) {
+                throw new InvalidParameterException("bodyWeight is not a number: " + bw);
+            }
+            if (bodyWeight < 0 || Double.isNaN(bodyWeight) || Double.isInfinite(bodyWeight)) {
+                throw new InvalidParameterException("bodyWeight must be 0 or more: " + bw);
+            }
+        }
+
+        boolean active = true;
+        String a = optional(fields, "active");
+        if (a != null) {
+            if (a.equalsIgnoreCase("true")) {
+                active = true;
+            } else if (a.equalsIgnoreCase("false")) {
+                active = false;
+            } else {
+                throw new InvalidParameterException("active must be true or false: " + a);
+            }
+        }
+
+        return new LifterRecord(row, forename, surname, gender, dateOfBirth,
+                clubName, bodyWeight, active);
+    }
+
+    private static String optional(Map<String, String> fields, String name) {
+        String value = fields.get(name);
+        if (value == null) {
+            return null;
+        }
+        value = value.trim();
+        return value.isEmpty() ? null : value;
+    }
+
+    private static String required(Map<String, String> fields, String name) {
+        String value = optional(fields, name);
+        if (value == null) {
+            throw new InvalidParameterException(name + " is required");
+        }
+        if (value.length() > MAX_LENGTH) {
+            throw new InvalidParameterException(name + " is longer than " + MAX_LENGTH + " characters");
+        }
+        return value;
+    }
+
+    private static Lifter.Gender parseGender(String s) {
+        switch (s.toUpperCase(Locale.ROOT)) {
+            case "M":
+            case "MALE":
+                return Lifter.Gender.MALE;
+            case "F":
+            case "FEMALE":
+                return Lifter.Gender.FEMALE;
+            default:
+                throw new InvalidParameterException("gender must be M or F: " + s);
+        }
+    }
+
+    private static Date parseDate(String s) {
+        LocalDate date;
+        try {
+            date = s.length() > 4 && s.charAt(4) == '-'
+                    ? LocalDate.parse(s)
+                    : LocalDate.parse(s, FORM_DATE);
+        } catch (DateTimeParseException e) {
+            throw new InvalidParameterException("dateOfBirth must be dd-MM-yyyy: " + s);
+        }
+        if (date.isAfter(LocalDate.now())) {
+            throw new InvalidParameterException("dateOfBirth is in the future: " + s);
+        }
+        return Date.from(date.atStartOfDay(ZoneId.systemDefault()).toInstant());
+    }
+
+    /**
+     * Gets the key by which a lifter is identified: their forename, surname
+     * and date of birth.
+     *
+     * @param forename    the lifter's forename
+     * @param surname     the lifter's surname
+     * @param dateOfBirth the lifter's date of birth
+     * @return the key of the lifter
+     */
+    public static String key(String forename, String surname, Date dateOfBirth) {
+        return forename.trim() + '\u0000' + surname.trim() + '\u0000'
+                + (dateOfBirth == null ? "" : dateOfBirth.getTime());
+    }
+
+    /**
+     * Gets the key by which the lifter of this row is identified.
+     *
+     * @return the key of the lifter
+     * @see #key(String, String, Date)
+     */
+    public String key() {
+        return key(forename, surname, dateOfBirth);
+    }
+
+    /**
+     * Copies the details of this row to a lifter, new or existing. The
+     * lifter's club is not set.
+     *
+     * @param lifter the lifter to update
+     */
+    public void copyTo(Lifter lifter) {
+        lifter.setForename(forename);
+        lifter.setSurname(surname);
+        lifter.setGender(gender);
+        lifter.setDateOfBirth(dateOfBirth);
+        lifter.setBodyWeight(bodyWeight);
+        lifter.setActive(active);
+    }
+
+    public int getRow() {
+        return row;
+    }
+
+    public String getForename() {
+        return forename;
+    }
+
+    public String getSurname() {
+        return surname;
+    }
+
+    public Lifter.Gender getGender() {
+        return gender;
+    }
+
+    public Date getDateOfBirth() {
+        return dateOfBirth;
+    }
+
+    public String getClubName() {
+        return clubName;
+    }
+
+    public double getBodyWeight() {
+        return bodyWeight;
+    }
+
+    public boolean isActive() {
+        return active;
+    }
+}
@@ -0,0 +1,37 @@
+package dk.aau.ida8.importer;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.security.InvalidParameterException;
+import java.util.Map;
+
+/**
+ * This interface represents a reader of the rows of a lifter import, in one
+ * of the supported formats.
+ *
+ * Rows are read one at a time from the underlying stream, so that an import
+ * of any size is read in constant memory. Rows are numbered from 1, not
+ * counting any header or blank lines.
+ */
+public interface LifterRecordReader extends Closeable {
+
+    /**
+     * Reads the next row.
+     *
+     * A row which cannot be read is skipped, so that reading may continue
+     * with the next row after an InvalidParameterException.
+     *
+     * @return the fields of the row, keyed by lower-case name, or null if
+     *         there are no more rows
+     * @throws InvalidParameterException if the row is malformed
+     * @throws IOException               if the stream cannot be read
+     */
+    Map<String, String> next() throws IOException, InvalidParameterException;
+
+    /**
+     * Gets the number of the row last read.
+     *
+     * @return the number of the row last read, or 0 if none has been read
+     */
+    int getRow();
+}
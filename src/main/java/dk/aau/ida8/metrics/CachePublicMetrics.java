@@ -0,0 +1,45 @@
+package dk.aau.ida8.metrics;
+
+import dk.aau.ida8.service.ReferenceCacheService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.actuate.endpoint.PublicMetrics;
+import org.springframework.boot.actuate.metrics.Metric;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Exposes the hit and miss counts of the reference data cache regions at
+ * {@code /metrics}, e.g. {@code cache.dk.aau.ida8.model.Club.hits}.
+ */
+@Component
+public class CachePublicMetrics implements PublicMetrics {
+
+    private ReferenceCacheService referenceCacheService;
+
+    /**
+     * Instantiates a CachePublicMetrics.
+     *
+     * @param referenceCacheService the service managing the reference data
+     *                              cache
+     */
+    @Autowired
+    public CachePublicMetrics(ReferenceCacheService referenceCacheService) {
+        this.referenceCacheService = referenceCacheService;
+    }
+
+    @Override
+    public Collection<Metric<?>> metrics() {
+        List<Metric<?>> metrics = new ArrayList<>();
+        for (Map.Entry<String, Map<String, Number>> region : referenceCacheService.getStatistics().entrySet()) {
+            for (Map.Entry<String, Number> statistic : region.getValue().entrySet()) {
+                metrics.add(new Metric<>("cache." + region.getKey() + "." + statistic.getKey(),
+                        statistic.getValue()));
+            }
+        }
+        return metrics;
+    }
+}
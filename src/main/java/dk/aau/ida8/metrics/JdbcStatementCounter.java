@@ -0,0 +1,82 @@
+package dk.aau.ida8.metrics;
+
+import org.springframework.beans.BeansException;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.stereotype.Component;
+
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.Statement;
+
+/**
+ * This class counts the JDBC statements executed by each thread.
+ *
+ * It wraps the application's DataSource, together with the connections and
+ * statements obtained from it, and counts each statement or batch executed.
+ * A batch counts as one statement, as it is sent to the database in one
+ * round trip. Counts are kept per thread, so that the statements executed
+ * by one request can be told apart from those of another.
+ */
+@Component
+public class JdbcStatementCounter implements BeanPostProcessor {
+
+    private static final ThreadLocal<int[]> COUNT = ThreadLocal.withInitial(() -> new int[1]);
+
+    /**
+     * Resets the count for the current thread to zero.
+     */
+    public void reset() {
+        COUNT.get()[0] = 0;
+    }
+
+    /**
+     * Gets the number of statements executed by the current thread since the
+     * count was last reset.
+     *
+     * @return the number of statements executed
+     */
+    public int getCount() {
+        return COUNT.get()[0];
+    }
+
+    @Override
+    public Object postProcessBeforeInitialization(Object bean, String name) throws BeansException {
+        return bean;
+    }
+
+    @Override
+    public Object postProcessAfterInitialization(Object bean, String name) throws BeansException {
+        if (bean instanceof DataSource) {
+            return wrap(bean, DataSource.class);
+        }
+        return bean;
+    }
+
+    /**
+     * Proxies a JDBC object, wrapping the connections and statements it
+     * returns, and counting each execution.
+     */
+    private Object wrap(Object target, Class<?> type) {
+        InvocationHandler handler = (proxy, method, args) -> {
+            if (method.getName().startsWith("execute")) {
+                COUNT.get()[0]++;
+            }
+            Object result;
+            try {
+                result = method.invoke(target, args);
+            } catch (InvocationTargetException e) {
+                throw e.getCause();
+            }
+            Class<?> returnType = method.getReturnType();
+            if (result != null &&
+                    (returnType == Connection.class || Statement.class.isAssignableFrom(returnType))) {
+                return wrap(result, returnType);
+            }
+            return result;
+        };
+        return Proxy.newProxyInstance(type.getClassLoader(), new Class<?>[]{type}, handler);
+    }
+}
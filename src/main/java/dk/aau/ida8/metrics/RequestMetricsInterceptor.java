@@ -0,0 +1,92 @@
+package dk.aau.ida8.metrics;
+
+import dk.aau.ida8.service.MetricsService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+import org.springframework.web.method.HandlerMethod;
+import org.springframework.web.servlet.HandlerMapping;
+import org.springframework.web.servlet.handler.HandlerInterceptorAdapter;
+
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.util.Map;
+
+/**
+ * This interceptor records the latency of, and the number of JDBC
+ * statements executed by, every request to a controller.
+ *
+ * Requests are named after the controller method handling them, e.g.
+ * {@code timer.request.CompetitionController.competitionDashboard}, and are
+ * also recorded against the competition in the request path, if any. The
+ * time recorded includes the rendering of the view.
+ */
+@Component
+public class RequestMetricsInterceptor extends HandlerInterceptorAdapter {
+
+    private static final String START = RequestMetricsInterceptor.class.getName() + ".START";
+
+    private MetricsService metricsService;
+    private JdbcStatementCounter statementCounter;
+
+    /**
+     * Instantiates a RequestMetricsInterceptor.
+     *
+     * @param metricsService   the service used to record metrics
+     * @param statementCounter the counter of JDBC statements executed
+     */
+    @Autowired
+    public RequestMetricsInterceptor(MetricsService metricsService,
+                                     JdbcStatementCounter statementCounter) {
+        this.metricsService = metricsService;
+        this.statementCounter = statementCounter;
+    }
+
+    @Override
+    public boolean preHandle(HttpServletRequest request,
+                             HttpServletResponse response,
+                             Object handler) {
+        if (handler instanceof HandlerMethod) {
+            request.setAttribute(START, System.nanoTime());
+            statementCounter.reset();
+        }
+        return true;
+    }
+
+    @Override
+    public void afterCompletion(HttpServletRequest request,
+                                HttpServletResponse response,
+                                Object handler,
+                                Exception ex) {
+        Long start = (Long) request.getAttribute(START);
+        if (start == null) {
+            return;
+        }
+        HandlerMethod method = (HandlerMethod) handler;
+        String endpoint = "request." + method.getBeanType().getSimpleName() +
+                "." + method.getMethod().getName();
+        Long competitionID = competitionID(request);
+        metricsService.recordTime(endpoint, competitionID, System.nanoTime() - start);
+        metricsService.recordValue(endpoint + ".jdbc-statements", competitionID,
+                statementCounter.getCount());
+    }
+
+    /**
+     * Finds the ID# of the competition in the path of a request.
+     *
+     * @param request the request
+     * @return the ID# of the competition, or null if there is none
+     */
+    @SuppressWarnings("unchecked")
+    private static Long competitionID(HttpServletRequest request) {
+        Map<String, String> variables = (Map<String, String>) request.getAttribute(
+                HandlerMapping.URI_TEMPLATE_VARIABLES_ATTRIBUTE);
+        if (variables == null || variables.get("competitionID") == null) {
+            return null;
+        }
+        try {
+            return Long.valueOf(variables.get("competitionID"));
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+}
@@ -1,13 +1,20 @@
 package dk.aau.ida8.model;
 
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+
 import javax.persistence.*;
 import java.util.Arrays;
 import java.util.List;
 
 /**
  * This class represents an address stored within the system.
+ *
+ * Addresses change rarely, and so are held in the second-level cache.
  */
 @Entity
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE)
 public class Address {
     @Id
     @GeneratedValue
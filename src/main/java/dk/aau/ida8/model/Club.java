@@ -1,5 +1,8 @@
 package dk.aau.ida8.model;
 
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+
 import javax.persistence.*;
 import java.util.ArrayList;
 import java.util.List;
@@ -10,8 +13,13 @@ import java.util.stream.Collectors;
  *
  * Each club has a number of lifters associated with it. These compete on behalf
  * of the club in competitions.
+ *
+ * Clubs change rarely, and so are held in the second-level cache, together
+ * with the list of lifters of each club.
  */
 @Entity
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE)
 public class Club {
 
     @Id
@@ -25,6 +33,7 @@ public class Club {
 
     @OneToMany(cascade = {CascadeType.ALL})
     @JoinColumn(name = "club_id")
+    @Cache(usage = CacheConcurrencyStrategy.READ_WRITE)
     private List<Lifter> lifters = new ArrayList<>();
 
     /**
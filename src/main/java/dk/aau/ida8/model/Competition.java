@@ -1,5 +1,8 @@
 package dk.aau.ida8.model;
 
+import dk.aau.ida8.util.LiftingOrder;
+import dk.aau.ida8.util.StartNumberPool;
+import dk.aau.ida8.util.WeightClassTable;
 import dk.aau.ida8.util.groupbuilders.GroupBuilder;
 import dk.aau.ida8.util.groupbuilders.SinclairGroupBuilder;
 import dk.aau.ida8.util.groupbuilders.TotalWeightGroupBuilder;
@@ -47,6 +50,10 @@ import java.util.stream.IntStream;
  * having each competing group carry-out all of their lifts in turn, until all
  * participants have completed their lifts.
  *
+ * Large competitions may take place on several platforms at once. Competing
+ * groups are then shared between the platforms, and each platform has its own
+ * lifting order, with its groups lifting in turn as above.
+ *
  * The ranking groups are then used to determine the winners within each
  * particular division of the competition. For example, in a Sinclair
  * competition, participants are divided into two groups based on gender. Then,
@@ -60,6 +67,7 @@ import java.util.stream.IntStream;
  * {@link Participant Participant} instance.
  */
 @Entity
+@Table(indexes = @Index(name = "competition_date_idx", columnList = "competitionDate,id"))
 public class Competition {
 
     /**
@@ -84,10 +92,37 @@ public class Competition {
         return competitionType;
     }
 
+    /**
+     * Defines the stages through which a competition passes, in order.
+     *
+     * The first three follow from the dates of the competition. The last two
+     * are entered explicitly: when weigh-in is finished, and when the last
+     * remaining attempt is made.
+     */
+    public enum Phase {
+        SIGN_UP,
+        CLOSED,
+        WEIGH_IN,
+        RUNNING,
+        COMPLETE
+    }
+
+    /**
+     * The source of randomness from which start numbers are drawn.
+     */
+    private static final Random RANDOM = new Random();
+
     @Id
     @GeneratedValue
     private long id;
 
+    /**
+     * The version of this competition, used to detect concurrent
+     * modification by another terminal.
+     */
+    @Version
+    private long version;
+
     @OneToMany(cascade = {CascadeType.ALL})
     @JoinColumn(name = "competition_id")
     private List<Participant> participants = new ArrayList<>();
@@ -104,6 +139,49 @@ public class Competition {
     private CompetitionType competitionType;
     private int maxNumParticipants;
 
+    /**
+     * The start numbers allocated to participants, as stored by {@link
+     * StartNumberPool#toByteArray()}: up to 524,288 numbers. Where this is not
+     * set, as for competitions created before it was stored, the numbers
+     * allocated are gathered from the participants.
+     */
+    @Column(length = 65536)
+    private byte[] allocatedStartNumbers;
+
+    /**
+     * The last phase which this competition has entered explicitly: SIGN_UP
+     * until weigh-in is finished, and then RUNNING or COMPLETE. Where this is
+     * not set, as for competitions created before it was stored, it is
+     * determined from the groups and lifts of the competition on first use.
+     */
+    @Enumerated(EnumType.STRING)
+    private Phase phase = Phase.SIGN_UP;
+
+    /**
+     * The number of attempts which remain to be made by all participants,
+     * once weigh-in is finished. This is maintained as each lift is added or
+     * removed (see {@link #attemptsChanged(int)}), so that whether the
+     * competition is complete is known without examining any lifts.
+     */
+    private Integer remainingAttempts;
+
+    /**
+     * The weight classes used by this competition, if a total weight
+     * competition. A competition created without choosing a table uses the
+     * IWF classes in force on its date. Competitions stored before a table
+     * could be chosen use the 1998 IWF classes, with which they were run; the
+     * table of each is set when the application starts (see
+     * {@link dk.aau.ida8.service.CompetitionService#assignWeightClassTables()}).
+     */
+    @Enumerated(EnumType.STRING)
+    private WeightClassTable weightClassTable;
+
+    /**
+     * The number of platforms on which competing groups lift in parallel.
+     * Where this is not set, the competition takes place on one platform.
+     */
+    private Integer numPlatforms;
+
     @DateTimeFormat(pattern = "dd-MM-yyyy HH:mm")
     private Date competitionDate;
 
@@ -123,6 +201,39 @@ public class Competition {
     @Transient
     private GroupBuilder groupBuilder;
 
+    /**
+     * Maps each participant to the ranking group containing them. This is
+     * built on first use, and discarded whenever groups are reallocated.
+     */
+    @Transient
+    private Map<Participant, Group> rankingGroupsByParticipant;
+
+    /**
+     * Contains the lifting order of each platform, indexed by platform
+     * number. Each is built on first use, and all are discarded whenever
+     * groups are reallocated.
+     */
+    @Transient
+    private Map<Integer, LiftingOrder> liftingOrders = new HashMap<>();
+
+    /**
+     * Allocates the start numbers of participants. This is built on first
+     * use, and discarded whenever the maximum number of participants
+     * changes.
+     */
+    @Transient
+    private StartNumberPool startNumberPool;
+
+    /**
+     * The times, in milliseconds, at which the day of the competition starts
+     * and ends. These are calculated on first use, and discarded whenever
+     * the date of the competition changes.
+     */
+    @Transient
+    private long competitionDayStart;
+    @Transient
+    private long competitionDayEnd;
+
     /**
      * Creates a new Competition object.
      *
@@ -156,6 +267,7 @@ public class Competition {
         this.lastRegistrationDate = lastRegistrationDate;
         this.maxNumParticipants = maxNumParticipants;
         this.host = host;
+        this.weightClassTable = WeightClassTable.forDate(competitionDate);
         createGroupBuilder();
     }
 
@@ -220,6 +332,7 @@ public class Competition {
 
     public void setCompetitionDate(Date competitionDate) {
         this.competitionDate = competitionDate;
+        this.competitionDayEnd = 0;
     }
 
     public void setLastRegistrationDate(Date lastRegistrationDate) {
@@ -228,6 +341,15 @@ public class Competition {
 
     public void setMaxNumParticipants(int maxNumParticipants) {
         this.maxNumParticipants = maxNumParticipants;
+        this.startNumberPool = null;
+    }
+
+    public void setWeightClassTable(WeightClassTable weightClassTable) {
+        this.weightClassTable = weightClassTable;
+    }
+
+    public void setNumPlatforms(Integer numPlatforms) {
+        this.numPlatforms = numPlatforms;
     }
 
     /**
@@ -237,6 +359,7 @@ public class Competition {
      */
     private void setRankingGroups(List<Group> rankingGroups) {
         this.rankingGroups = rankingGroups;
+        this.rankingGroupsByParticipant = null;
     }
 
     /**
@@ -247,6 +370,7 @@ public class Competition {
      */
     private void setCompetingGroups(List<Group> competingGroups) {
         this.competingGroups = competingGroups;
+        this.liftingOrders = new HashMap<>();
     }
 
     /******************
@@ -333,6 +457,43 @@ public class Competition {
         return maxNumParticipants;
     }
 
+    /**
+     * Gets the table of weight classes used by this competition.
+     *
+     * @return the table of weight classes, or the 1998 IWF table if none is
+     *         stored
+     */
+    public WeightClassTable getWeightClassTable() {
+        if (weightClassTable == null) {
+            return WeightClassTable.IWF_1998;
+        }
+        return weightClassTable;
+    }
+
+    /**
+     * Gets the number of platforms on which this competition takes place.
+     *
+     * @return the number of platforms, which is at least one
+     */
+    public int getNumPlatforms() {
+        if (numPlatforms == null || numPlatforms < 1) {
+            return 1;
+        }
+        return numPlatforms;
+    }
+
+    /**
+     * Gets the numbers of the platforms on which this competition takes
+     * place, from 1 up to the {@link #getNumPlatforms() number of platforms}.
+     *
+     * @return list of platform numbers
+     */
+    public List<Integer> getPlatforms() {
+        return IntStream.rangeClosed(1, getNumPlatforms())
+                .boxed()
+                .collect(Collectors.toList());
+    }
+
     /**
      * Gets the host club for this competition.
      *
@@ -389,6 +550,19 @@ public class Competition {
                 .collect(Collectors.toList());
     }
 
+    /**
+     * Gets the list of competing groups which lift on a given platform, in
+     * the order in which they are to compete.
+     *
+     * @param platform the number of the platform
+     * @return the list of competing groups on the platform
+     */
+    public List<Group> getCompetingGroups(int platform) {
+        return getCompetingGroups().stream()
+                .filter(g -> g.getPlatform() == platform)
+                .collect(Collectors.toList());
+    }
+
     /******************
      * END OF GETTERS *
      ******************/
@@ -402,12 +576,36 @@ public class Competition {
      * object to the competition.
      *
      * @param lifter the lifter to add to the competition
+     * @throws InvalidParameterException if the competition is full
      */
     public void addParticipant(Lifter lifter) {
         Participant p = new Participant(lifter, this);
         addParticipant(p);
     }
 
+    /**
+     * Adds a number of new participants to the competition, e.g. when
+     * signing-up the entries of a qualifier.
+     *
+     * Start numbers are drawn for all of the lifters at once. Should too few
+     * remain, none of the lifters is added.
+     *
+     * @param lifters the lifters to add to the competition
+     * @throws InvalidParameterException if too few places remain
+     */
+    public void addParticipants(List<Lifter> lifters) {
+        int[] startNumbers;
+        try {
+            startNumbers = getStartNumberPool().draw(lifters.size());
+        } catch (IllegalStateException e) {
+            throw new InvalidParameterException("competition has too few places remaining: " + e.getMessage());
+        }
+        for (int i = 0; i < startNumbers.length; i++) {
+            addParticipant(new Participant(lifters.get(i), this, startNumbers[i]));
+        }
+        storeStartNumbers();
+    }
+
     /**
      * Adds a new participant to the competition.
      *
@@ -415,6 +613,7 @@ public class Competition {
      */
     void addParticipant(Participant p) {
         participants.add(p);
+        attemptsChanged(-p.getLiftsRemaining());
     }
 
     /**
@@ -428,12 +627,30 @@ public class Competition {
     }
 
     /**
-     * Removes a participant from the participants list.
+     * Removes a participant from the participants list, and releases their
+     * start number.
      *
      * @param participant the participant object to remove
      */
     void removeParticipant(Participant participant) {
-        participants.remove(participant);
+        removeParticipants(Collections.singletonList(participant));
+    }
+
+    /**
+     * Removes a number of participants from the participants list, and
+     * releases their start numbers.
+     *
+     * @param ps the participants to remove
+     */
+    private void removeParticipants(Collection<Participant> ps) {
+        StartNumberPool pool = getStartNumberPool();
+        for (Participant p : ps) {
+            if (participants.remove(p)) {
+                pool.release(p.getStartNumber());
+                attemptsChanged(p.getLiftsRemaining());
+            }
+        }
+        storeStartNumbers();
     }
 
     /**
@@ -491,23 +708,95 @@ public class Competition {
     private void allocateGroups() {
         setRankingGroups(getGroupBuilder().createRankingGroups());
         setCompetingGroups(getGroupBuilder().createCompetingGroups());
+        allocatePlatforms();
+    }
+
+    /**
+     * Allocates competing groups to platforms.
+     *
+     * Groups are dealt to platforms in turn, in the order in which they are
+     * to compete, so that each platform receives a similar number of groups
+     * and the groups on each platform keep their relative order.
+     */
+    private void allocatePlatforms() {
+        List<Group> groups = getCompetingGroups();
+        for (int i = 0; i < groups.size(); i++) {
+            groups.get(i).setPlatform(i % getNumPlatforms() + 1);
+        }
     }
 
     /**
-     * Finds the participant who is to carry out a lift next. If the competing
-     * stage of the competition is complete, no value is returned.
+     * Finds the participant who is to carry out a lift next on the first
+     * platform. If the competing stage of the competition is complete on that
+     * platform, no value is returned.
      *
-     * @return the participant next to left
+     * @return the participant next to lift
      */
     public Optional<Participant> getCurrentParticipant() {
-        Optional<Group> currentGroup = getCurrentCompetingGroup();
-        if (currentGroup.isPresent()) {
-            return Optional.of(currentGroup.get().getFirstParticipant());
-        } else {
-            return Optional.empty();
+        return getCurrentParticipant(1);
+    }
+
+    /**
+     * Finds the participant who is to carry out a lift next on a given
+     * platform. If the competing stage of the competition is complete on that
+     * platform, no value is returned.
+     *
+     * The participant is found from the {@link LiftingOrder lifting order}
+     * of the platform, without sorting any group.
+     *
+     * @param platform the number of the platform
+     * @return the participant next to lift
+     */
+    public Optional<Participant> getCurrentParticipant(int platform) {
+        return getLiftingOrder(platform).getCurrentParticipant();
+    }
+
+    /**
+     * Finds the platform on which a participant lifts, being that of their
+     * competing group. No lifting order is built or consulted.
+     *
+     * @param participant the participant for whom to find the platform
+     * @return the number of the platform, or nothing if the participant is
+     *         not within any competing group
+     */
+    public Optional<Integer> getPlatform(Participant participant) {
+        return competingGroups.stream()
+                .filter(g -> g.isCompetingGroup() && g.containsParticipant(participant))
+                .map(Group::getPlatform)
+                .findFirst();
+    }
+
+    /**
+     * Updates a specific participant's position within the lifting order of
+     * their platform.
+     *
+     * This is to be called whenever a participant completes a lift or changes
+     * the weight of their next lift. Lifting orders which have not yet been
+     * built are unaffected, and participants not lifting on a platform are
+     * ignored by its lifting order.
+     *
+     * @param participant the participant whose lift or weight has changed
+     */
+    public void updateLiftingOrder(Participant participant) {
+        for (LiftingOrder liftingOrder : liftingOrders.values()) {
+            liftingOrder.update(participant);
         }
     }
 
+    /**
+     * Gets the lifting order for a platform.
+     *
+     * Generates the lifting order from the competing groups on the platform
+     * if not already generated.
+     *
+     * @param platform the number of the platform
+     * @return the lifting order for the platform
+     */
+    private LiftingOrder getLiftingOrder(int platform) {
+        return liftingOrders.computeIfAbsent(platform,
+                k -> new LiftingOrder(getCompetingGroups(k)));
+    }
+
     /**
      * Calculates a specific participant's rank within the competition.
      *
@@ -524,33 +813,86 @@ public class Competition {
      *                                   any ranking group
      */
     public int getRank(Participant participant) throws InvalidParameterException {
-        for (Group g : getRankingGroups()) {
-            if (g.containsParticipant(participant)) {
-                return g.getRank(participant);
-            }
+        Group g = getRankingGroupsByParticipant().get(participant);
+        if (g != null) {
+            return g.getRank(participant);
         }
         String msg = "unable to find Participant within any ranking group";
         throw new InvalidParameterException(msg);
     }
 
     /**
-     * Gets the competing group currently competing in the competition.
+     * Gets the ranking group containing a specific participant.
      *
-     * This returns an optional group: if the competition is complete, there
-     * is no currently competing group and nothing is returned.
+     * This returns an optional group: if the participant is not within any
+     * ranking group (for example, prior to the completion of weigh-in),
+     * nothing is returned.
      *
-     * @return the group currently competing, or nothing if the competition is
-     *         complete
+     * @param participant the participant for whom to find the ranking group
+     * @return the ranking group containing the participant, or nothing
      */
-    public Optional<Group> getCurrentCompetingGroup() {
-        for (Group g : getCompetingGroups()) {
-            for (Participant p : g.getParticipants()) {
-                if (!p.allLiftsComplete()) {
-                    return Optional.of(g);
-                }
+    public Optional<Group> getRankingGroup(Participant participant) {
+        return Optional.ofNullable(getRankingGroupsByParticipant().get(participant));
+    }
+
+    /**
+     * Updates a specific participant's rank within the competition.
+     *
+     * This is to be called whenever a participant's score changes, i.e. when
+     * a lift is added or corrected. If the participant is not within any
+     * ranking group (for example, prior to the completion of weigh-in), this
+     * method has no effect.
+     *
+     * @param participant the participant whose score has changed
+     */
+    public void updateRank(Participant participant) {
+        Group g = getRankingGroupsByParticipant().get(participant);
+        if (g != null) {
+            g.updateRank(participant);
+        }
+    }
+
+    /**
+     * Gets the map of participants to the ranking groups containing them.
+     *
+     * Generates this map if not already populated.
+     *
+     * @return map of ranking groups indexed by participant
+     */
+    private Map<Participant, Group> getRankingGroupsByParticipant() {
+        if (rankingGroupsByParticipant == null) {
+            rankingGroupsByParticipant = new HashMap<>();
+            for (Group g : getRankingGroups()) {
+                g.getUnsortedParticipants()
+                        .forEach(p -> rankingGroupsByParticipant.put(p, g));
             }
         }
-        return Optional.empty();
+        return rankingGroupsByParticipant;
+    }
+
+    /**
+     * Gets the competing group currently competing on the first platform.
+     *
+     * @return the group currently competing, or nothing if the competition is
+     *         complete on that platform
+     */
+    public Optional<Group> getCurrentCompetingGroup() {
+        return getCurrentCompetingGroup(1);
+    }
+
+    /**
+     * Gets the competing group currently competing on a given platform.
+     *
+     * This returns an optional group: if all groups on the platform have
+     * completed their lifts, there is no currently competing group and
+     * nothing is returned.
+     *
+     * @param platform the number of the platform
+     * @return the group currently competing, or nothing if the competition is
+     *         complete on that platform
+     */
+    public Optional<Group> getCurrentCompetingGroup(int platform) {
+        return getLiftingOrder(platform).getCurrentCompetingGroup();
     }
 
     /**
@@ -577,23 +919,64 @@ public class Competition {
 
 
     /**
-     * Lists all remaining available start numbers in the competition.
+     * Allocates a start number to a new participant.
      *
-     * Start numbers are allocated randomly from a range of numbers from 1 up
-     * to the maximum number of participants. The same number cannot be
-     * allocated twice. This method generates a range of numbers up to max
-     * participants, and excludes those already allocated. It then returns this
-     * list.
+     * Start numbers are drawn uniformly at random from a range of numbers
+     * from 1 up to the maximum number of participants. The same number cannot
+     * be allocated twice, until it is released by the removal of the
+     * participant to whom it was allocated.
      *
-     * @return list of all available start numbers
+     * @return the start number allocated
+     * @throws InvalidParameterException if the competition is full
      */
-    public List<Integer> availableStartNumbers() {
-        List<Integer> remainingNumbers = IntStream.rangeClosed(1, getMaxNumParticipants())
-                .boxed()
-                .collect(Collectors.toList());
-        getParticipants()
-                .forEach(p -> remainingNumbers.remove((Integer) p.getStartNumber()));
-        return remainingNumbers;
+    public int allocateStartNumber() {
+        int n;
+        try {
+            n = getStartNumberPool().draw();
+        } catch (IllegalStateException e) {
+            throw new InvalidParameterException("competition is full: " + e.getMessage());
+        }
+        storeStartNumbers();
+        return n;
+    }
+
+    /**
+     * Gets the number of start numbers which remain to be allocated.
+     *
+     * @return the number of places remaining in the competition
+     */
+    public int getRemainingStartNumbers() {
+        return getStartNumberPool().remaining();
+    }
+
+    /**
+     * Gets the allocator of start numbers, building it on first use from
+     * the numbers stored or, where none are, from the participants.
+     */
+    private StartNumberPool getStartNumberPool() {
+        if (startNumberPool == null) {
+            BitSet allocated;
+            if (allocatedStartNumbers != null) {
+                allocated = BitSet.valueOf(allocatedStartNumbers);
+            } else {
+                allocated = new BitSet();
+                for (Participant p : getParticipants()) {
+                    if (p.getStartNumber() > 0) {
+                        allocated.set(p.getStartNumber());
+                    }
+                }
+            }
+            startNumberPool = new StartNumberPool(getMaxNumParticipants(), allocated, RANDOM);
+        }
+        return startNumberPool;
+    }
+
+    /**
+     * Stores the start numbers allocated, so that they are saved with the
+     * competition.
+     */
+    private void storeStartNumbers() {
+        allocatedStartNumbers = getStartNumberPool().toByteArray();
     }
 
     /**
@@ -608,8 +991,96 @@ public class Competition {
         List<Participant> ps = getParticipants().stream()
                 .filter(Participant::isNotWeighedIn)
                 .collect(Collectors.toList());
-        ps.forEach(this::removeParticipant);
+        removeParticipants(ps);
         allocateGroups();
+        int attempts = 0;
+        for (Participant p : getParticipants()) {
+            attempts += p.getLiftsRemaining();
+        }
+        remainingAttempts = attempts;
+        phase = attempts > 0 ? Phase.RUNNING : Phase.COMPLETE;
+    }
+
+    /**
+     * Gets the phase of the competition.
+     *
+     * Until weigh-in is finished, the phase follows from the current time:
+     * sign-up is open until the last date of registration, and weigh-in
+     * starts on the day of the competition.
+     *
+     * @return the phase of the competition
+     */
+    public Phase getPhase() {
+        if (phase == null) {
+            determinePhase();
+        }
+        if (phase != Phase.SIGN_UP) {
+            return phase;
+        }
+        long now = System.currentTimeMillis();
+        if (now < getLastRegistrationDate().getTime()) {
+            return Phase.SIGN_UP;
+        } else if (now < getCompetitionDayStart()) {
+            return Phase.CLOSED;
+        } else {
+            return Phase.WEIGH_IN;
+        }
+    }
+
+    /**
+     * Gets the number of attempts which remain to be made by all
+     * participants.
+     *
+     * @return the number of attempts remaining, or 0 if weigh-in is not yet
+     *         finished
+     */
+    public int getRemainingAttempts() {
+        if (phase == null) {
+            determinePhase();
+        }
+        return remainingAttempts == null ? 0 : remainingAttempts;
+    }
+
+    /**
+     * Notifies the competition that the number of attempts made by one of
+     * its participants has changed.
+     *
+     * This is called by a participant when a lift is added, and when their
+     * lifts are removed to be rebuilt. It has no effect until weigh-in is
+     * finished. The competition is complete once no attempts remain, and is
+     * running again should an attempt be removed.
+     *
+     * @param made the number of attempts made, or, if negative, removed
+     */
+    public void attemptsChanged(int made) {
+        if (phase == null) {
+            determinePhase();
+            // the lifts examined already include this change
+            return;
+        }
+        if (remainingAttempts == null || made == 0) {
+            return;
+        }
+        remainingAttempts = Math.max(remainingAttempts - made, 0);
+        phase = remainingAttempts > 0 ? Phase.RUNNING : Phase.COMPLETE;
+    }
+
+    /**
+     * Determines the phase, and the number of attempts remaining, of a
+     * competition created before these were stored, from its groups and the
+     * lifts of its participants.
+     */
+    private void determinePhase() {
+        if (getCompetingGroups().isEmpty()) {
+            phase = Phase.SIGN_UP;
+            return;
+        }
+        int attempts = 0;
+        for (Participant p : getParticipants()) {
+            attempts += p.getLiftsRemaining();
+        }
+        remainingAttempts = attempts;
+        phase = attempts > 0 ? Phase.RUNNING : Phase.COMPLETE;
     }
 
     /**
@@ -620,7 +1091,7 @@ public class Competition {
      * @return true, if sign-up open, else false
      */
     public boolean isSignUpOpen() {
-        return getLastRegistrationDate().after(new Date());
+        return getLastRegistrationDate().getTime() > System.currentTimeMillis();
     }
 
     /**
@@ -631,7 +1102,7 @@ public class Competition {
      * @return true, if sign-up closed, else false
      */
     public boolean isSignUpClosed() {
-        return new Date().after(getLastRegistrationDate());
+        return System.currentTimeMillis() > getLastRegistrationDate().getTime();
     }
 
     /**
@@ -657,7 +1128,8 @@ public class Competition {
      *
      */
     public boolean isWeighInComplete() {
-        return (!getCompetingGroups().isEmpty());
+        Phase p = getPhase();
+        return p == Phase.RUNNING || p == Phase.COMPLETE;
     }
 
     /**
@@ -669,28 +1141,19 @@ public class Competition {
      * @return true, if complete, else false
      */
     public boolean isCompetitionStarted() {
-        return isWeighInComplete() && !isCompetitionComplete();
+        return getPhase() == Phase.RUNNING;
     }
 
     /**
      * Determines whether the competition is complete.
      *
      * A competition is complete when all participants have undertaken all of
-     * the required lifts.
+     * the required lifts, i.e. when no attempts remain.
      *
      * @return true, if complete, else false
      */
     public boolean isCompetitionComplete() {
-        if (isWeighInComplete()) {
-            for (Participant p : getParticipants()) {
-                if (!p.allLiftsComplete()) {
-                    return false;
-                }
-            }
-            return true;
-        } else {
-            return false;
-        }
+        return getPhase() == Phase.COMPLETE;
     }
 
     /**
@@ -699,22 +1162,28 @@ public class Competition {
      * @return true, if competition is to take place today, else false
      */
     public boolean isCompetitionToday() {
-        return areSameDay(new Date(), getCompetitionDate());
+        long now = System.currentTimeMillis();
+        return now >= getCompetitionDayStart() && now < competitionDayEnd;
     }
 
     /**
-     * Compares two Date objects to determine if they relate to the same day.
+     * Gets the time at which the day of the competition starts, calculating
+     * it, and the time at which the day ends, if not already calculated.
      *
-     * @param d1 the first date to test
-     * @param d2 the second date to test
-     * @return true, if both dates relate to the same day, else false
+     * @return the start of the day of the competition, in milliseconds
      */
-    private boolean areSameDay(Date d1, Date d2) {
-        Calendar cal1 = Calendar.getInstance();
-        Calendar cal2 = Calendar.getInstance();
-        cal1.setTime(d1);
-        cal2.setTime(d2);
-        return cal1.get(Calendar.YEAR) == cal2.get(Calendar.YEAR) &&
-               cal1.get(Calendar.DAY_OF_YEAR) == cal2.get(Calendar.DAY_OF_YEAR);
+    private long getCompetitionDayStart() {
+        if (competitionDayEnd == 0) {
+            Calendar cal = Calendar.getInstance();
+            cal.setTime(getCompetitionDate());
+            cal.set(Calendar.HOUR_OF_DAY, 0);
+            cal.set(Calendar.MINUTE, 0);
+            cal.set(Calendar.SECOND, 0);
+            cal.set(Calendar.MILLISECOND, 0);
+            competitionDayStart = cal.getTimeInMillis();
+            cal.add(Calendar.DAY_OF_MONTH, 1);
+            competitionDayEnd = cal.getTimeInMillis();
+        }
+        return competitionDayStart;
     }
 }
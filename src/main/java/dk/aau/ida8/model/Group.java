@@ -1,10 +1,12 @@
 package dk.aau.ida8.model;
 
 
+import dk.aau.ida8.util.RankIndex;
 import dk.aau.ida8.util.groupcomparators.CompetingComparator;
 import dk.aau.ida8.util.groupcomparators.SinclairRankingComparator;
 import dk.aau.ida8.util.groupcomparators.TotalWeightRankingComparator;
 
+import org.hibernate.annotations.BatchSize;
 import javax.persistence.*;
 import java.security.InvalidParameterException;
 import java.util.*;
@@ -55,24 +57,53 @@ public class Group {
         TOTAL_WEIGHT_RANKING
     }
 
+    /**
+     * IDs are drawn from a pooled sequence, fifty at a time, so that the groups
+     * created at the end of weigh-in can be inserted in batches.
+     */
     @Id
-    @GeneratedValue(strategy = GenerationType.TABLE)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "group_seq")
+    @SequenceGenerator(name = "group_seq", sequenceName = "group_seq", allocationSize = 50)
     private long id;
 
     /**
-     * The list of Participants within a Group.
+     * The version of this group, used to detect concurrent modification by
+     * another terminal.
+     */
+    @Version
+    private long version;
+
+    /**
+     * The list of Participants within a Group. When several groups are loaded
+     * together, their participants are loaded in batches rather than by one
+     * query per group.
      */
     @ManyToMany(cascade = {CascadeType.ALL})
+    @BatchSize(size = 100)
     private List<Participant> participants;
 
     private ComparatorType comparatorType;
 
+    /**
+     * The number of the platform on which a competing group lifts. Where
+     * this is not set, the group lifts on the first platform.
+     */
+    private Integer platform;
+
     @ManyToOne
     private Competition competition;
 
     @Transient
     private Comparator<Participant> groupComparator;
 
+    /**
+     * The index of participant ranks within a ranking group. This is built on
+     * first use, and is subsequently kept up-to-date by
+     * {@link #updateRank(Participant)} whenever a participant's score changes.
+     */
+    @Transient
+    private RankIndex<Participant> rankIndex;
+
     /**
      * Empty constructor required by Hibernate.
      */
@@ -133,17 +164,39 @@ public class Group {
      * @return the first participant within the group
      */
     public Participant getFirstParticipant() {
+        if (isRankingGroup()) {
+            return getRankIndex().getTop(1).get(0);
+        }
         return getParticipants().get(0);
     }
 
+    /**
+     * Gets the leading participants within a ranking group.
+     *
+     * This uses the group's rank index, and so does not require the whole
+     * group to be sorted.
+     *
+     * @param k the maximum number of participants to return
+     * @return  list of up to k participants, ordered by rank
+     * @throws UnsupportedOperationException if this is not a ranking group
+     */
+    public List<Participant> getLeadingParticipants(int k) throws UnsupportedOperationException {
+        return getRankIndex().getTop(k);
+    }
+
     /**
      * Gets a sorted list of all participants.
      *
+     * The participants are sorted into a new list. The persisted list is left
+     * in its original order, so that reading a group never marks it as
+     * modified (which would otherwise increment its version).
+     *
      * @return sorted list of all participants in the group
      */
     public List<Participant> getParticipants() {
-        sortParticipants();
-        return participants;
+        List<Participant> sorted = new ArrayList<>(participants);
+        sortParticipants(sorted);
+        return sorted;
     }
 
     /**
@@ -178,15 +231,25 @@ public class Group {
     }
 
     /**
-     * Sorts and returns the list of participants.
+     * Sorts a list of participants of this group.
      *
      * The identity of the next participant is calculated based on which
      * participant has chosen the lowest weight to lift. If two or more lifters
      * are to be lifting the same weight, the next participant is determined
      * by taking the lowest of these lifters' ID#.
+     *
+     * Competing groups are sorted using
+     * {@link CompetingComparator#sort(List)}, which computes each
+     * participant's sort key only once.
+     *
+     * @param ps the participants to sort
      */
-    public void sortParticipants() {
-        participants.sort(getGroupComparator());
+    private void sortParticipants(List<Participant> ps) {
+        if (isCompetingGroup()) {
+            CompetingComparator.sort(ps);
+        } else {
+            ps.sort(getGroupComparator());
+        }
     }
 
     /**
@@ -231,7 +294,7 @@ public class Group {
      * @return the gender of the participants in this group
      */
     public Lifter.Gender getGroupGender() {
-        return this.getParticipants().get(0).getGender();
+        return participants.get(0).getGender();
     }
 
     /**
@@ -240,7 +303,10 @@ public class Group {
      * @param p participant to add
      */
     public void addParticipant(Participant p){
-        getParticipants().add(p);
+        participants.add(p);
+        if (rankIndex != null) {
+            rankIndex.add(p);
+        }
     }
 
     /**
@@ -248,7 +314,8 @@ public class Group {
      *
      * The rank will relate either to the order of proceedings for a competing
      * group, or to the score of the participant within the group for a ranking
-     * group.
+     * group. Ranks within a ranking group are answered from the group's
+     * {@link RankIndex rank index}.
      *
      * @param p                          the participant of whom to obtain
      *                                   the rank
@@ -257,7 +324,9 @@ public class Group {
      *                                   group
      */
     public int getRank(Participant p) throws InvalidParameterException {
-        if (getParticipants().contains(p)) {
+        if (isRankingGroup() && getRankIndex().contains(p)) {
+            return getRankIndex().getRank(p);
+        } else if (!isRankingGroup() && participants.contains(p)) {
             return getRankings().get(p);
         } else {
             String msg = "participant " + p + " is not in this group";
@@ -265,6 +334,53 @@ public class Group {
         }
     }
 
+    /**
+     * Repositions a participant within this group's ranking following a
+     * change in their score.
+     *
+     * This is to be called whenever a lift is added to, or corrected for, a
+     * participant within this group. It has no effect on competing groups, or
+     * where the rank index has not yet been built.
+     *
+     * @param p the participant whose score has changed
+     */
+    public void updateRank(Participant p) {
+        if (rankIndex != null) {
+            rankIndex.update(p);
+        }
+    }
+
+    /**
+     * Gets the rank index for this group, building it if not yet built.
+     *
+     * @return the rank index for this group
+     * @throws UnsupportedOperationException if this is not a ranking group
+     */
+    private RankIndex<Participant> getRankIndex() throws UnsupportedOperationException {
+        if (rankIndex == null) {
+            createRankIndex();
+        }
+        return rankIndex;
+    }
+
+    /**
+     * Creates the rank index for this group.
+     *
+     * The score used to rank participants is determined by the ComparatorType
+     * associated with this group, and matches that used by the group
+     * comparator.
+     */
+    private void createRankIndex() {
+        if (getComparatorType() == ComparatorType.SINCLAIR_RANKING) {
+            this.rankIndex = new RankIndex<>(Participant::getSinclairScore, participants);
+        } else if (getComparatorType() == ComparatorType.TOTAL_WEIGHT_RANKING) {
+            this.rankIndex = new RankIndex<>(Participant::getTotalScore, participants);
+        } else {
+            String msg = "unable to rank group of type: " + getComparatorType();
+            throw new UnsupportedOperationException(msg);
+        }
+    }
+
     /**
      * Determines the rankings of all participants within the group.
      *
@@ -317,6 +433,24 @@ public class Group {
         return comparatorType;
     }
 
+    /**
+     * Gets the number of the platform on which this group lifts.
+     *
+     * @return the platform number, which is 1 where none has been set
+     */
+    public int getPlatform() {
+        return platform == null ? 1 : platform;
+    }
+
+    /**
+     * Sets the number of the platform on which this group lifts.
+     *
+     * @param platform the platform number
+     */
+    public void setPlatform(int platform) {
+        this.platform = platform;
+    }
+
     /**
      * Determines whether this group is a competing group.
      *
@@ -2,8 +2,12 @@ package dk.aau.ida8.model;
 
 import javax.persistence.Entity;
 import javax.persistence.GeneratedValue;
+import javax.persistence.GenerationType;
 import javax.persistence.Id;
+import javax.persistence.Index;
 import javax.persistence.ManyToOne;
+import javax.persistence.SequenceGenerator;
+import javax.persistence.Table;
 import java.security.InvalidParameterException;
 import java.time.Instant;
 import java.time.LocalDateTime;
@@ -18,8 +22,12 @@ import java.time.LocalDateTime;
  *
  * The class provides methods for determining the score for a lift (this will
  * be the weight lifted if successful, or 0 if not).
+ *
+ * Lifts are indexed by participant, so that the heaviest lifts of a lifter's
+ * participations may be found without loading them.
  */
 @Entity
+@Table(indexes = @Index(name = "lift_participant_idx", columnList = "participant_id"))
 public class Lift {
 
     /**
@@ -41,8 +49,13 @@ public class Lift {
         PASS, FAIL, ABSTAIN
     }
 
+    /**
+     * IDs are drawn from a pooled sequence, fifty at a time, so that lifts can
+     * be inserted in batches.
+     */
     @Id
-    @GeneratedValue
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "lift_seq")
+    @SequenceGenerator(name = "lift_seq", sequenceName = "lift_seq", allocationSize = 50)
     private Long id;
 
     private LiftOutcome outcome;
@@ -189,6 +202,9 @@ public class Lift {
     /**
      * Sets the weight for a particular lift.
      *
+     * This is used to correct the weight of a completed lift. The participant
+     * undertaking the lift is notified, so that their rank is updated.
+     *
      * @param weight the weight to set the lift to
      * @throws InvalidParameterException if weight passed is less than or
      *                                   equal to zero
@@ -199,6 +215,9 @@ public class Lift {
             throw new InvalidParameterException(msg);
         }
         this.weight = weight;
+        if (participant != null) {
+            participant.scoreChanged();
+        }
     }
 
     /**
@@ -245,4 +264,14 @@ public class Lift {
     public LocalDateTime getTimestamp() {
         return timestamp;
     }
+
+    /**
+     * Sets the timestamp for this lift, where the lift is recreated from a
+     * recorded {@link ParticipantEvent event}.
+     *
+     * @param timestamp the time at which the lift was taken
+     */
+    void setTimestamp(LocalDateTime timestamp) {
+        this.timestamp = timestamp;
+    }
 }
@@ -1,5 +1,7 @@
 package dk.aau.ida8.model;
 
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 import org.springframework.format.annotation.DateTimeFormat;
 
 import javax.persistence.*;
@@ -15,8 +17,17 @@ import java.util.List;
  *
  * Lifter objects are used in the {@link Participant Participant} class,
  * representing an individual's participation within a particular competition.
+ *
+ * Lifters change rarely during a competition, and so are held in the
+ * second-level cache.
+ *
+ * Lifters are indexed by surname, by which existing lifters are found when
+ * lifters are imported in bulk.
  */
 @Entity
+@Table(indexes = @Index(name = "lifter_surname_idx", columnList = "surname"))
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE)
 public class Lifter {
 
     /**
@@ -34,8 +45,13 @@ public class Lifter {
         }
     }
 
+    /**
+     * IDs are drawn from a pooled sequence, fifty at a time, so that lifters
+     * can be inserted in batches.
+     */
     @Id
-    @GeneratedValue
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "lifter_seq")
+    @SequenceGenerator(name = "lifter_seq", sequenceName = "lifter_seq", allocationSize = 50)
     private long id;
 
     private String forename;
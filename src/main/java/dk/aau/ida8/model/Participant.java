@@ -3,9 +3,11 @@ package dk.aau.ida8.model;
 import dk.aau.ida8.util.SinclairCalculator;
 import dk.aau.ida8.util.WeightClass;
 
+import org.hibernate.annotations.BatchSize;
 import javax.persistence.*;
 import java.security.InvalidParameterException;
 import java.text.SimpleDateFormat;
+import java.time.LocalDateTime;
 import java.util.*;
 import java.util.stream.Collectors;
 
@@ -21,14 +23,32 @@ import java.util.stream.Collectors;
  *
  * It should not be possible to carry-out more than six lifts, and it should not
  * be possible to carry-out more than three lifts of each type.
+ *
+ * Participants are indexed by lifter, so that the participations of a lifter
+ * may be found when their personal bests are calculated (see
+ * {@link PersonalBest}).
  */
 @Entity
+@Table(indexes = @Index(name = "participant_lifter_idx", columnList = "lifter_id"))
 public class Participant {
 
+    /**
+     * IDs are drawn from a pooled sequence, fifty at a time, so that
+     * participants can be inserted in batches.
+     */
     @Id
-    @GeneratedValue
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "participant_seq")
+    @SequenceGenerator(name = "participant_seq", sequenceName = "participant_seq", allocationSize = 50)
     private long id;
 
+    /**
+     * The version of this participation, used to detect concurrent
+     * modification by another terminal; for example, a lift registered by
+     * the jury while the marshal changes the weight of the next lift.
+     */
+    @Version
+    private long version;
+
     /**
      * This integer is used to track the number of weight changes made by a
      * participant between lifts.
@@ -59,12 +79,49 @@ public class Participant {
      */
     private int previousWeight;
 
-    @OneToMany(cascade = {CascadeType.ALL})
+    /**
+     * The lifts carried out by this participant. When several participants
+     * are loaded together, their lifts are loaded in batches rather than by
+     * one query per participant. Lifts removed when the participant is
+     * {@link #reset() reset} are deleted.
+     */
+    @OneToMany(cascade = {CascadeType.ALL}, orphanRemoval = true)
     @JoinColumn(name = "participant_id")
+    @BatchSize(size = 100)
     private List<Lift> lifts = new ArrayList<>();
 
     private boolean weighedIn = false;
 
+    /**
+     * The ID# of the last {@link ParticipantEvent event} included in the
+     * persisted state of this participant. The persisted state is a snapshot,
+     * to which later events are applied in order to obtain the current state
+     * (see {@link ParticipantEvent}).
+     */
+    private Long lastEventID;
+
+    /**
+     * The scoring summary for this participation: best snatch, best clean &
+     * jerk, total and Sinclair score. These are calculated from the lifts on
+     * first use, and cached until {@link #scoreChanged()} invalidates them.
+     *
+     * The Sinclair score additionally depends upon body weight, and so is
+     * recalculated if the body weight differs from that with which it was
+     * last calculated.
+     */
+    @Transient
+    private boolean scoresCalculated = false;
+    @Transient
+    private int bestSnatch;
+    @Transient
+    private int bestCleanAndJerk;
+    @Transient
+    private int totalScore;
+    @Transient
+    private double sinclairScore;
+    @Transient
+    private double sinclairBodyWeight = Double.NaN;
+
     public long getId() {
         return id;
     }
@@ -85,9 +142,21 @@ public class Participant {
      *                                   participating
      */
     public Participant(Lifter lifter, Competition competition) {
+        this(lifter, competition, competition.allocateStartNumber());
+    }
+
+    /**
+     * Creates a participant instance, whose start number has already been
+     * allocated by the competition.
+     *
+     * @param lifter      the lifter participating in a competition
+     * @param competition the competition in which the lifter is participating
+     * @param startNumber the start number allocated to the participant
+     */
+    Participant(Lifter lifter, Competition competition, int startNumber) {
         this.lifter = lifter;
         this.competition = competition;
-        this.startNumber = generateStartNumber();
+        this.startNumber = startNumber;
     }
 
     /**
@@ -117,17 +186,6 @@ public class Participant {
         return getId() == p.getId();
     }
 
-    /**
-     * Generates a random start number for a participant, between 1 and the
-     * maximum number of participants for a competition.
-     *
-     * @return a randomly generated start number
-     */
-    private int generateStartNumber() {
-        List<Integer> nums = getCompetition().availableStartNumbers();
-        return nums.get(new Random().nextInt(nums.size()));
-    }
-
     /**
      * Gets the lifter object to which this participant relates.
      *
@@ -378,6 +436,7 @@ public class Participant {
         }
         setCurrentWeight(newWeight);
         setWeightChanges(getWeightChanges() + 1);
+        liftingOrderChanged();
     }
 
     /**
@@ -391,6 +450,7 @@ public class Participant {
      */
     public void correctWeight(int newWeight) {
         setCurrentWeight(newWeight);
+        liftingOrderChanged();
     }
 
     /**
@@ -404,6 +464,7 @@ public class Participant {
     public void revertWeight() {
         setCurrentWeight(getPreviousWeight());
         setWeightChanges(getWeightChanges() - 1);
+        liftingOrderChanged();
     }
 
     /**
@@ -413,13 +474,8 @@ public class Participant {
      * @return the combined total of the best snatch and best clean & jerk
      */
     public int getTotalScore() {
-        int total;
-        if (getBestSnatch() == 0 || getBestCleanAndJerk() == 0) {
-            total = 0;
-        } else {
-            total = getBestSnatch() + getBestCleanAndJerk();
-        }
-        return total;
+        calculateScores();
+        return totalScore;
     }
 
     /**
@@ -429,15 +485,8 @@ public class Participant {
      * @return the best clean & jerk lift weight
      */
     public int getBestCleanAndJerk() {
-        Optional<Lift> l = getLifts().stream()
-                .filter(Lift::isCleanAndJerk)
-                .max(scoreComparator());
-
-        if (l.isPresent()) {
-            return l.get().getScore();
-        } else {
-            return 0;
-        }
+        calculateScores();
+        return bestCleanAndJerk;
     }
 
     /**
@@ -447,25 +496,38 @@ public class Participant {
      * @return the best snatch lift weight
      */
     public int getBestSnatch() {
-        Optional<Lift> l = getLifts().stream()
-                 .filter(Lift::isSnatch)
-                 .max(scoreComparator());
-
-        if (l.isPresent()) {
-            return l.get().getScore();
-        } else {
-            return 0;
-        }
+        calculateScores();
+        return bestSnatch;
     }
 
     /**
-     * Defines a comparator which is used to sort/select lifts based on their
-     * score.
+     * Calculates the best snatch, best clean & jerk and total for this
+     * participation, if these are not already cached.
      *
-     * @return the lift comparator
+     * This requires a single pass over the list of lifts.
      */
-    private Comparator<Lift> scoreComparator() {
-        return (l1, l2) -> l1.getScore() - l2.getScore();
+    private void calculateScores() {
+        if (scoresCalculated) {
+            return;
+        }
+        int snatch = 0;
+        int cleanAndJerk = 0;
+        for (Lift l : getLifts()) {
+            if (l.isSnatch()) {
+                snatch = Math.max(snatch, l.getScore());
+            } else if (l.isCleanAndJerk()) {
+                cleanAndJerk = Math.max(cleanAndJerk, l.getScore());
+            }
+        }
+        this.bestSnatch = snatch;
+        this.bestCleanAndJerk = cleanAndJerk;
+        if (snatch == 0 || cleanAndJerk == 0) {
+            this.totalScore = 0;
+        } else {
+            this.totalScore = snatch + cleanAndJerk;
+        }
+        this.sinclairBodyWeight = Double.NaN;
+        this.scoresCalculated = true;
     }
 
     /**
@@ -582,8 +644,9 @@ public class Participant {
      * Adds a lift to a participation instance.
      *
      * When a lift is complete, this will have an implication for the ordering
-     * of proceedings. As such, this method calls the sortParticipants methods
-     * in the current ranking and competing groups.
+     * of proceedings and for the participant's rank. As such, this method
+     * updates the participant's position within their ranking group and
+     * within the lifting order.
      *
      * @param lift the lift to add to the participation
      */
@@ -591,6 +654,123 @@ public class Participant {
         lifts.add(lift);
         setWeightChanges(0);
         checkAndUpdateStartingWeight();
+        scoreChanged();
+        liftingOrderChanged();
+        attemptsChanged(1);
+    }
+
+    /**
+     * Adds a lift with the given outcome, taken at the given time, to a
+     * participation instance.
+     *
+     * This is used to apply a recorded {@link ParticipantEvent event}, so
+     * that the lift has the time at which it was originally taken.
+     *
+     * @param outcome   the outcome of the lift
+     * @param timestamp the time at which the lift was taken
+     * @throws InvalidParameterException if all lifts are already complete
+     */
+    void addLift(Lift.LiftOutcome outcome, LocalDateTime timestamp) throws InvalidParameterException {
+        validateLiftConditions();
+        Lift lift;
+        switch (outcome) {
+            case PASS:
+                lift = Lift.passedLift(this, getCurrentLiftType(), getCurrentWeight());
+                incrementWeight();
+                break;
+            case FAIL:
+                lift = Lift.failedLift(this, getCurrentLiftType(), getCurrentWeight());
+                break;
+            default:
+                lift = Lift.abstainedLift(this, getCurrentLiftType(), getCurrentWeight());
+                break;
+        }
+        lift.setTimestamp(timestamp);
+        addLift(lift);
+    }
+
+    /**
+     * Returns this participant to their state before weigh-in, removing all
+     * of their lifts.
+     *
+     * This is used to rebuild the participant from their recorded
+     * {@link ParticipantEvent events}.
+     */
+    void reset() {
+        int made = lifts.size();
+        lifts.clear();
+        attemptsChanged(-made);
+        this.weighedIn = false;
+        this.startingSnatchWeight = 0;
+        this.startingCleanAndJerkWeight = 0;
+        this.currentWeight = 0;
+        this.previousWeight = 0;
+        setWeightChanges(0);
+        scoreChanged();
+        liftingOrderChanged();
+    }
+
+    /**
+     * Gets the ID# of the last event included in the state of this
+     * participant.
+     *
+     * @return the ID# of the last event applied, or 0 if none
+     */
+    public long getLastEventID() {
+        return lastEventID == null ? 0 : lastEventID;
+    }
+
+    /**
+     * Sets the ID# of the last event included in the state of this
+     * participant.
+     *
+     * @param lastEventID the ID# of the last event applied
+     */
+    void setLastEventID(long lastEventID) {
+        this.lastEventID = lastEventID;
+    }
+
+    /**
+     * Notifies the competition that this participant's position in the
+     * lifting order may have changed.
+     *
+     * This is called when a lift is added, and whenever the weight of the
+     * next lift is changed.
+     */
+    private void liftingOrderChanged() {
+        if (getCompetition() != null) {
+            getCompetition().updateLiftingOrder(this);
+        }
+    }
+
+    /**
+     * Notifies the competition that the number of attempts made by this
+     * participant has changed.
+     *
+     * This is called when a lift is added, and when all lifts are removed.
+     *
+     * @param made the number of attempts made, or, if negative, removed
+     */
+    private void attemptsChanged(int made) {
+        if (getCompetition() != null) {
+            getCompetition().attemptsChanged(made);
+        }
+    }
+
+    /**
+     * Notifies this participant that the score of one of their lifts has
+     * changed.
+     *
+     * This is called when a lift is added, and when the weight of a completed
+     * lift is corrected (see {@link Lift#setWeight(int)}). It invalidates the
+     * cached scoring summary, and updates the participant's rank within the
+     * competition.
+     */
+    void scoreChanged() {
+        scoresCalculated = false;
+        if (getCompetition() != null) {
+            getCompetition().updateRank(this);
+        }
     }
 
     /**
@@ -698,6 +878,7 @@ public class Participant {
      */
     public void setBodyWeight(double weight){
         getLifter().setBodyWeight(weight);
+        this.sinclairBodyWeight = Double.NaN;
     }
 
     public int getStartingSnatchWeight() {
@@ -773,10 +954,19 @@ public class Participant {
     /**
      * Calculates the sinclair score for this participation.
      *
+     * The score is cached alongside the rest of the scoring summary, and is
+     * recalculated only after a lift changes or the body weight changes.
+     *
      * @return the sinclair score for this participation
      */
     public double getSinclairScore(){
-        return new SinclairCalculator().apply(this);
+        calculateScores();
+        double bodyWeight = getBodyWeight();
+        if (Double.compare(bodyWeight, sinclairBodyWeight) != 0) {
+            this.sinclairScore = new SinclairCalculator().apply(this);
+            this.sinclairBodyWeight = bodyWeight;
+        }
+        return sinclairScore;
     }
 
     /**
@@ -0,0 +1,428 @@
+package dk.aau.ida8.model;
+
+import javax.persistence.*;
+import java.security.InvalidParameterException;
+import java.time.LocalDateTime;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * This class represents one event in the life of a participant during a
+ * competition: their weigh-in, a lift, a change to the weight of their next
+ * lift, the correction of a completed lift, or the undoing of an earlier
+ * event.
+ *
+ * Events form an append-only log for each competition. The state of a
+ * participant is that obtained by applying each of their events in order, by
+ * {@link #apply(Participant)}. As applying many events would be slow, the
+ * persisted state of each participant is a snapshot, recording the ID# of the
+ * last event it includes (see {@link Participant#getLastEventID()}). The
+ * current state is obtained by applying the later events to the snapshot.
+ *
+ * Recording an event therefore costs one small insert. Snapshots are written
+ * occasionally; see {@link dk.aau.ida8.pipeline.CommandPipelineService}.
+ *
+ * An event is never changed nor removed. Instead, an {@link Type#UNDONE}
+ * event marks an earlier event as undone, and the participant is rebuilt from
+ * all of their events except those undone (see {@link #rebuild(Participant,
+ * List)}).
+ */
+@Entity
+@Table(indexes = {
+        @Index(name = "participant_event_competition", columnList = "competitionID,id"),
+        @Index(name = "participant_event_participant", columnList = "participantID,id")
+}, uniqueConstraints = {
+        @UniqueConstraint(name = "participant_event_journal", columnNames = {"competitionID", "journalSequence"})
+})
+public class ParticipantEvent {
+
+    /**
+     * Defines the kinds of event.
+     */
+    public enum Type {
+        WEIGHED_IN,
+        LIFT_REGISTERED,
+        WEIGHT_INCREASED,
+        WEIGHT_CORRECTED,
+        WEIGHT_REVERTED,
+        LIFT_CORRECTED,
+        UNDONE
+    }
+
+    /**
+     * IDs are drawn from a pooled sequence, fifty at a time, so that events
+     * can be inserted in batches. Events are applied in the order of their
+     * IDs.
+     */
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "participant_event_seq")
+    @SequenceGenerator(name = "participant_event_seq", sequenceName = "participant_event_seq", allocationSize = 50)
+    private long id;
+
+    private long competitionID;
+    private long participantID;
+    private Type type;
+    private LocalDateTime timestamp;
+
+    private Lift.LiftOutcome outcome;
+    private int weight;
+    private int liftIndex;
+    private double bodyWeight;
+    private int startingSnatchWeight;
+    private int startingCleanAndJerkWeight;
+    private long undoneEventID;
+
+    /**
+     * The position of this event within the local journal of its
+     * competition, or null if it was not journalled. Replaying the journal
+     * skips the events already recorded, by comparing with the greatest
+     * position recorded. No position is recorded twice for a competition;
+     * events not journalled are left null, so as not to collide.
+     */
+    private Long journalSequence;
+
+    /**
+     * Whether this event, though acknowledged when first applied, could not
+     * be applied again when its competition was next loaded, e.g. because
+     * the participant had meanwhile been changed elsewhere. A conflicted
+     * event is recorded, so that the jury may review it, but is never
+     * applied.
+     */
+    private boolean conflicted;
+
+    /**
+     * Empty constructor required by Hibernate.
+     */
+    public ParticipantEvent() {
+
+    }
+
+    private ParticipantEvent(long competitionID, long participantID, Type type) {
+        this.competitionID = competitionID;
+        this.participantID = participantID;
+        this.type = type;
+        this.timestamp = LocalDateTime.now();
+    }
+
+    /**
+     * Creates the event of a participant's weigh-in.
+     *
+     * @param competitionID              the ID# of the competition
+     * @param participantID              the ID# of the participant
+     * @param bodyWeight                 the participant's body weight
+     * @param startingSnatchWeight       the starting snatch weight
+     * @param startingCleanAndJerkWeight the starting clean & jerk weight
+     * @return the event
+     */
+    public static ParticipantEvent weighedIn(long competitionID, long participantID,
+                                             double bodyWeight,
+                                             int startingSnatchWeight,
+                                             int startingCleanAndJerkWeight) {
+        ParticipantEvent e = new ParticipantEvent(competitionID, participantID, Type.WEIGHED_IN);
+        e.bodyWeight = bodyWeight;
+        e.startingSnatchWeight = startingSnatchWeight;
+        e.startingCleanAndJerkWeight = startingCleanAndJerkWeight;
+        return e;
+    }
+
+    /**
+     * Creates the event of a lift.
+     *
+     * @param competitionID the ID# of the competition
+     * @param participantID the ID# of the participant
+     * @param outcome       the outcome of the lift
+     * @return the event
+     */
+    public static ParticipantEvent liftRegistered(long competitionID, long participantID,
+                                                  Lift.LiftOutcome outcome) {
+        ParticipantEvent e = new ParticipantEvent(competitionID, participantID, Type.LIFT_REGISTERED);
+        e.outcome = outcome;
+        return e;
+    }
+
+    /**
+     * Creates the event of an increase to the weight of the next lift.
+     *
+     * @param competitionID the ID# of the competition
+     * @param participantID the ID# of the participant
+     * @param weight        the new weight
+     * @return the event
+     */
+    public static ParticipantEvent weightIncreased(long competitionID, long participantID, int weight) {
+        ParticipantEvent e = new ParticipantEvent(competitionID, participantID, Type.WEIGHT_INCREASED);
+        e.weight = weight;
+        return e;
+    }
+
+    /**
+     * Creates the event of a correction to the weight of the next lift.
+     *
+     * @param competitionID the ID# of the competition
+     * @param participantID the ID# of the participant
+     * @param weight        the corrected weight
+     * @return the event
+     */
+    public static ParticipantEvent weightCorrected(long competitionID, long participantID, int weight) {
+        ParticipantEvent e = new ParticipantEvent(competitionID, participantID, Type.WEIGHT_CORRECTED);
+        e.weight = weight;
+        return e;
+    }
+
+    /**
+     * Creates the event of the weight of the next lift being reverted to its
+     * previous value.
+     *
+     * @param competitionID the ID# of the competition
+     * @param participantID the ID# of the participant
+     * @return the event
+     */
+    public static ParticipantEvent weightReverted(long competitionID, long participantID) {
+        return new ParticipantEvent(competitionID, participantID, Type.WEIGHT_REVERTED);
+    }
+
+    /**
+     * Creates the event of a correction to the weight of a completed lift.
+     *
+     * @param competitionID the ID# of the competition
+     * @param participantID the ID# of the participant
+     * @param liftIndex     the position of the lift among the participant's
+     *                      lifts, starting from 0
+     * @param weight        the corrected weight
+     * @return the event
+     */
+    public static ParticipantEvent liftCorrected(long competitionID, long participantID,
+                                                 int liftIndex, int weight) {
+        ParticipantEvent e = new ParticipantEvent(competitionID, participantID, Type.LIFT_CORRECTED);
+        e.liftIndex = liftIndex;
+        e.weight = weight;
+        return e;
+    }
+
+    /**
+     * Creates the event of an earlier event being undone.
+     *
+     * @param competitionID the ID# of the competition
+     * @param participantID the ID# of the participant
+     * @param undoneEventID the ID# of the event undone
+     * @return the event
+     */
+    public static ParticipantEvent undone(long competitionID, long participantID, long undoneEventID) {
+        ParticipantEvent e = new ParticipantEvent(competitionID, participantID, Type.UNDONE);
+        e.undoneEventID = undoneEventID;
+        return e;
+    }
+
+    /**
+     * Applies this event to a participant.
+     *
+     * {@link Type#UNDONE} events cannot be applied alone, as the participant
+     * must be rebuilt from all of their events; see {@link #rebuild(Participant,
+     * List)}.
+     *
+     * @param p the participant to whom this event relates
+     * @throws InvalidParameterException if the event is not valid for the
+     *                                   participant's state, e.g. a seventh
+     *                                   lift
+     * @throws UnsupportedOperationException if the participant may not change
+     *                                       weight again before their next
+     *                                       lift, or this event undoes another
+     */
+    public void apply(Participant p) {
+        switch (type) {
+            case WEIGHED_IN:
+                p.weighIn(bodyWeight, startingSnatchWeight, startingCleanAndJerkWeight);
+                break;
+            case LIFT_REGISTERED:
+                p.addLift(outcome, timestamp);
+                break;
+            case WEIGHT_INCREASED:
+                p.increaseWeight(weight);
+                break;
+            case WEIGHT_CORRECTED:
+                p.correctWeight(weight);
+                break;
+            case WEIGHT_REVERTED:
+                p.revertWeight();
+                break;
+            case LIFT_CORRECTED:
+                if (liftIndex < 0 || liftIndex >= p.getLiftsCount()) {
+                    throw new InvalidParameterException("no lift " + liftIndex + " to correct");
+                }
+                Lift lift = p.getLifts().get(liftIndex);
+                if (lift.getWeight() != weight) {
+                    lift.setWeight(weight);
+                }
+                break;
+            default:
+                throw new UnsupportedOperationException("event cannot be applied alone: " + type);
+        }
+        if (id != 0) {
+            p.setLastEventID(id);
+        }
+    }
+
+    /**
+     * Records in a participant that their state includes this event. This is
+     * to be called once an event applied before it was inserted has been
+     * given its ID#.
+     *
+     * @param p the participant to whom this event has been applied
+     */
+    public void recordApplied(Participant p) {
+        if (id > p.getLastEventID()) {
+            p.setLastEventID(id);
+        }
+    }
+
+    /**
+     * Determines whether applying this event may change the best lifts of
+     * the participant, and so their {@link PersonalBest personal bests}: a
+     * passed lift, the correction of a lift, or the undoing of an event.
+     *
+     * @return true, if the participant's best lifts may change, else false
+     */
+    public boolean mayChangeBestLifts() {
+        return (type == Type.LIFT_REGISTERED && outcome == Lift.LiftOutcome.PASS)
+                || type == Type.LIFT_CORRECTED
+                || type == Type.UNDONE;
+    }
+
+    /**
+     * Creates a copy of this event, not yet recorded. Events are recorded as
+     * copies so that, should recording fail, the same events may be recorded
+     * again.
+     *
+     * @return the copy, without an ID#
+     */
+    public ParticipantEvent copy() {
+        ParticipantEvent e = new ParticipantEvent(competitionID, participantID, type);
+        e.timestamp = timestamp;
+        e.outcome = outcome;
+        e.weight = weight;
+        e.liftIndex = liftIndex;
+        e.bodyWeight = bodyWeight;
+        e.startingSnatchWeight = startingSnatchWeight;
+        e.startingCleanAndJerkWeight = startingCleanAndJerkWeight;
+        e.undoneEventID = undoneEventID;
+        e.journalSequence = journalSequence;
+        e.conflicted = conflicted;
+        return e;
+    }
+
+    /**
+     * Rebuilds a participant from their complete history of events.
+     *
+     * The participant is returned to their state before weigh-in, and every
+     * event of theirs which has not been undone is applied in order. Events
+     * which are no longer valid once others have been undone (for example, a
+     * weight increase which no longer exceeds the current weight) are
+     * skipped, as are {@link #isConflicted() conflicted} events.
+     *
+     * @param p       the participant to rebuild
+     * @param history every event of the participant, in order, beginning with
+     *                their weigh-in
+     * @throws UnsupportedOperationException if the history does not begin
+     *                                       with the participant's weigh-in
+     */
+    public static void rebuild(Participant p, List<ParticipantEvent> history) {
+        if (history.isEmpty() || history.get(0).getType() != Type.WEIGHED_IN) {
+            String msg = "the weigh-in of this participant was not recorded, " +
+                    "and so their history cannot be rebuilt";
+            throw new UnsupportedOperationException(msg);
+        }
+        Set<Long> undone = new HashSet<>();
+        for (ParticipantEvent e : history) {
+            if (e.getType() == Type.UNDONE && !e.isConflicted()) {
+                undone.add(e.getUndoneEventID());
+            }
+        }
+        p.reset();
+        for (ParticipantEvent e : history) {
+            if (e.getType() != Type.UNDONE && !e.isConflicted() && !undone.contains(e.getId())) {
+                try {
+                    e.apply(p);
+                } catch (InvalidParameterException | UnsupportedOperationException ex) {
+                    // no longer valid; skip
+                }
+            }
+            if (e.getId() != 0) {
+                p.setLastEventID(e.getId());
+            }
+        }
+    }
+
+    public long getId() {
+        return id;
+    }
+
+    public long getCompetitionID() {
+        return competitionID;
+    }
+
+    public long getParticipantID() {
+        return participantID;
+    }
+
+    public Type getType() {
+        return type;
+    }
+
+    public LocalDateTime getTimestamp() {
+        return timestamp;
+    }
+
+    public Lift.LiftOutcome getOutcome() {
+        return outcome;
+    }
+
+    public int getWeight() {
+        return weight;
+    }
+
+    public int getLiftIndex() {
+        return liftIndex;
+    }
+
+    public double getBodyWeight() {
+        return bodyWeight;
+    }
+
+    public int getStartingSnatchWeight() {
+        return startingSnatchWeight;
+    }
+
+    public int getStartingCleanAndJerkWeight() {
+        return startingCleanAndJerkWeight;
+    }
+
+    public long getUndoneEventID() {
+        return undoneEventID;
+    }
+
+    /**
+     * Gets the position of this event within the local journal of its
+     * competition.
+     *
+     * @return the position, or 0 if the event was not journalled
+     */
+    public long getJournalSequence() {
+        return journalSequence == null ? 0 : journalSequence;
+    }
+
+    public void setJournalSequence(long journalSequence) {
+        this.journalSequence = journalSequence == 0 ? null : journalSequence;
+    }
+
+    public boolean isConflicted() {
+        return conflicted;
+    }
+
+    /**
+     * Marks this event as conflicted: acknowledged, but no longer valid for
+     * its participant. It is to be recorded, but not applied.
+     */
+    public void markConflicted() {
+        this.conflicted = true;
+    }
+}
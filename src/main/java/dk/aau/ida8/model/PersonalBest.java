@@ -0,0 +1,199 @@
+package dk.aau.ida8.model;
+
+import javax.persistence.*;
+import java.util.Collection;
+
+/**
+ * This class represents the personal bests of one lifter: their best
+ * snatch, best clean & jerk and best total across all competitions.
+ *
+ * Personal bests are kept up to date as lifts are registered and corrected
+ * (see {@link dk.aau.ida8.service.PersonalBestService}), so that they may be
+ * shown without loading every participation of the lifter and their lifts.
+ *
+ * Each best records the ID# of the participation in which it was set. When
+ * the bests of that participation are lowered, e.g. because a lift was
+ * corrected or undone, the lifter's other participations must be consulted,
+ * and so {@link #update(Participation)} asks for the bests to be
+ * {@link #recalculate(Collection) recalculated}.
+ */
+@Entity
+public class PersonalBest {
+
+    /**
+     * The best results of one participation, as reported when its lifts
+     * change. Instances are immutable.
+     */
+    public static final class Participation {
+        private final long lifterID;
+        private final long participantID;
+        private final int snatch;
+        private final int cleanAndJerk;
+        private final int total;
+
+        /**
+         * Creates a Participation.
+         *
+         * @param lifterID      the ID# of the lifter
+         * @param participantID the ID# of the participation
+         * @param snatch        the best snatch, or 0 if none passed
+         * @param cleanAndJerk  the best clean & jerk, or 0 if none passed
+         * @param total         the total, or 0 if either lift has no pass
+         */
+        public Participation(long lifterID, long participantID,
+                             int snatch, int cleanAndJerk, int total) {
+            this.lifterID = lifterID;
+            this.participantID = participantID;
+            this.snatch = snatch;
+            this.cleanAndJerk = cleanAndJerk;
+            this.total = total;
+        }
+
+        /**
+         * Creates the Participation of a participant, from their current
+         * lifts.
+         *
+         * @param p the participant
+         * @return the best results of the participant
+         */
+        public static Participation of(Participant p) {
+            return new Participation(p.getLifter().getId(), p.getId(),
+                    p.getBestSnatch(), p.getBestCleanAndJerk(), p.getTotalScore());
+        }
+
+        public long getLifterID() {
+            return lifterID;
+        }
+
+        public long getParticipantID() {
+            return participantID;
+        }
+
+        public int getSnatch() {
+            return snatch;
+        }
+
+        public int getCleanAndJerk() {
+            return cleanAndJerk;
+        }
+
+        public int getTotal() {
+            return total;
+        }
+    }
+
+    @Id
+    private long lifterID;
+
+    /**
+     * The version of these bests, used to detect their concurrent
+     * modification by two competitions in which the lifter takes part.
+     */
+    @Version
+    private long version;
+
+    private int snatch;
+    private Long snatchParticipantID;
+
+    private int cleanAndJerk;
+    private Long cleanAndJerkParticipantID;
+
+    private int total;
+    private Long totalParticipantID;
+
+    /**
+     * Empty constructor required by Hibernate.
+     */
+    public PersonalBest() {
+
+    }
+
+    /**
+     * Creates the personal bests of a lifter who has none.
+     *
+     * @param lifterID the ID# of the lifter
+     */
+    public PersonalBest(long lifterID) {
+        this.lifterID = lifterID;
+    }
+
+    /**
+     * Updates these bests with the current results of one participation.
+     *
+     * @param p the results of the participation
+     * @return true, if updated, or false if the participation has lowered a
+     *         best which it had set, in which case these bests are unchanged
+     *         and must be recalculated
+     */
+    public boolean update(Participation p) {
+        if (lowered(snatch, snatchParticipantID, p.getSnatch(), p)
+                || lowered(cleanAndJerk, cleanAndJerkParticipantID, p.getCleanAndJerk(), p)
+                || lowered(total, totalParticipantID, p.getTotal(), p)) {
+            return false;
+        }
+        improve(p);
+        return true;
+    }
+
+    /**
+     * Recalculates these bests from the results of every participation of
+     * the lifter.
+     *
+     * @param participations the results of each participation
+     */
+    public void recalculate(Collection<Participation> participations) {
+        snatch = 0;
+        snatchParticipantID = null;
+        cleanAndJerk = 0;
+        cleanAndJerkParticipantID = null;
+        total = 0;
+        totalParticipantID = null;
+        for (Participation p : participations) {
+            improve(p);
+        }
+    }
+
+    private static boolean lowered(int best, Long setBy, int result, Participation p) {
+        return setBy != null && setBy == p.getParticipantID() && result < best;
+    }
+
+    private void improve(Participation p) {
+        if (p.getSnatch() > snatch) {
+            snatch = p.getSnatch();
+            snatchParticipantID = p.getParticipantID();
+        }
+        if (p.getCleanAndJerk() > cleanAndJerk) {
+            cleanAndJerk = p.getCleanAndJerk();
+            cleanAndJerkParticipantID = p.getParticipantID();
+        }
+        if (p.getTotal() > total) {
+            total = p.getTotal();
+            totalParticipantID = p.getParticipantID();
+        }
+    }
+
+    public long getLifterID() {
+        return lifterID;
+    }
+
+    public int getSnatch() {
+        return snatch;
+    }
+
+    public int getCleanAndJerk() {
+        return cleanAndJerk;
+    }
+
+    public int getTotal() {
+        return total;
+    }
+
+    /**
+     * Determines whether the lifter has passed any lift.
+     *
+     * @return true, if the lifter has a best snatch or clean & jerk
+     */
+    public boolean isSet() {
+        return snatch > 0 || cleanAndJerk > 0;
+    }
+}
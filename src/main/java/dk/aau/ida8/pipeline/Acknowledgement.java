@@ -0,0 +1,49 @@
+package dk.aau.ida8.pipeline;
+
+/**
+ * This class represents the acknowledgement of a {@link Command} by the
+ * command pipeline of a competition.
+ *
+ * A command is acknowledged once it has been applied to the competition held
+ * in memory, which may be before it has been written to the database.
+ */
+public final class Acknowledgement {
+
+    private final long competitionID;
+    private final long sequence;
+    private final int platform;
+
+    Acknowledgement(long competitionID, long sequence, int platform) {
+        this.competitionID = competitionID;
+        this.sequence = sequence;
+        this.platform = platform;
+    }
+
+    /**
+     * Gets the ID# of the competition to which the command was applied.
+     *
+     * @return the ID# of the competition
+     */
+    public long getCompetitionID() {
+        return competitionID;
+    }
+
+    /**
+     * Gets the position of the command among all commands applied to the
+     * competition since its pipeline was started.
+     *
+     * @return the sequence number of the command, starting from 1
+     */
+    public long getSequence() {
+        return sequence;
+    }
+
+    /**
+     * Gets the platform on which the participant concerned lifts.
+     *
+     * @return the number of the platform
+     */
+    public int getPlatform() {
+        return platform;
+    }
+}
@@ -0,0 +1,228 @@
+package dk.aau.ida8.pipeline;
+
+import dk.aau.ida8.model.Lift;
+import dk.aau.ida8.model.ParticipantEvent;
+
+/**
+ * This class represents one change made by the secretary to a participant
+ * during a live competition: the registration of a lift, a change to the
+ * weight of the participant's next lift, the correction of a completed lift,
+ * or the undoing of an earlier change.
+ *
+ * Commands are immutable, and are carried out by the {@link
+ * CommandPipelineService command pipeline} of the participant's competition,
+ * which records each as a {@link ParticipantEvent} (see {@link #toEvent(long)})
+ * and applies that event to the participant.
+ *
+ * A command may carry a token, drawn afresh each time the form submitting it
+ * is shown, so that a command submitted again, e.g. because its
+ * acknowledgement was slow to arrive, is applied only once.
+ */
+public final class Command {
+
+    /**
+     * Defines an enumeration of the kinds of command.
+     */
+    public enum Type {
+        PASS,
+        FAIL,
+        ABSTAIN,
+        INCREASE_WEIGHT,
+        CORRECT_WEIGHT,
+        REVERT_WEIGHT,
+        CORRECT_LIFT,
+        UNDO;
+
+        /**
+         * Determines whether this kind of command registers a lift.
+         *
+         * @return true if a lift is registered, else false
+         */
+        public boolean isLift() {
+            return this == PASS || this == FAIL || this == ABSTAIN;
+        }
+
+        /**
+         * Determines whether this kind of command changes the weight of the
+         * next lift.
+         *
+         * @return true if the weight of the next lift is changed, else false
+         */
+        public boolean isWeightChange() {
+            return this == INCREASE_WEIGHT || this == CORRECT_WEIGHT || this == REVERT_WEIGHT;
+        }
+    }
+
+    private final Type type;
+    private final long participantID;
+    private final int weight;
+    private final int liftIndex;
+    private final long eventID;
+    private final String token;
+
+    private Command(Type type, long participantID, int weight, int liftIndex, long eventID) {
+        this(type, participantID, weight, liftIndex, eventID, null);
+    }
+
+    private Command(Type type, long participantID, int weight, int liftIndex, long eventID,
+                    String token) {
+        this.type = type;
+        this.participantID = participantID;
+        this.weight = weight;
+        this.liftIndex = liftIndex;
+        this.eventID = eventID;
+        this.token = token;
+    }
+
+    /**
+     * Creates a command registering a lift.
+     *
+     * @param participantID the ID# of the participant who has lifted
+     * @param outcome       the outcome of the lift
+     * @return the command
+     */
+    public static Command registerLift(long participantID, Lift.LiftOutcome outcome) {
+        return new Command(Type.valueOf(outcome.name()), participantID, 0, -1, 0);
+    }
+
+    /**
+     * Creates a command increasing the weight of a participant's next lift.
+     *
+     * @param participantID the ID# of the participant
+     * @param weight        the new weight
+     * @return the command
+     */
+    public static Command increaseWeight(long participantID, int weight) {
+        return new Command(Type.INCREASE_WEIGHT, participantID, weight, -1, 0);
+    }
+
+    /**
+     * Creates a command correcting the weight of a participant's next lift.
+     *
+     * @param participantID the ID# of the participant
+     * @param weight        the corrected weight
+     * @return the command
+     */
+    public static Command correctWeight(long participantID, int weight) {
+        return new Command(Type.CORRECT_WEIGHT, participantID, weight, -1, 0);
+    }
+
+    /**
+     * Creates a command reverting the weight of a participant's next lift to
+     * its previous value.
+     *
+     * @param participantID the ID# of the participant
+     * @return the command
+     */
+    public static Command revertWeight(long participantID) {
+        return new Command(Type.REVERT_WEIGHT, participantID, 0, -1, 0);
+    }
+
+    /**
+     * Creates a command correcting the weight of a completed lift.
+     *
+     * @param participantID the ID# of the participant
+     * @param liftIndex     the position of the lift among the participant's
+     *                      lifts, starting from 0
+     * @param weight        the corrected weight
+     * @return the command
+     */
+    public static Command correctLift(long participantID, int liftIndex, int weight) {
+        return new Command(Type.CORRECT_LIFT, participantID, weight, liftIndex, 0);
+    }
+
+    /**
+     * Creates a command undoing an earlier event of a participant, such as a
+     * lift registered in error.
+     *
+     * @param participantID the ID# of the participant
+     * @param eventID       the ID# of the event to undo
+     * @return the command
+     */
+    public static Command undo(long participantID, long eventID) {
+        return new Command(Type.UNDO, participantID, 0, -1, eventID);
+    }
+
+    /**
+     * Creates a copy of this command carrying a token, by which the pipeline
+     * recognises the command should it be submitted again.
+     *
+     * @param token the token of the form submitting the command, or null if
+     *              none
+     * @return the command carrying the token
+     */
+    public Command withToken(String token) {
+        if (token != null && token.isEmpty()) {
+            token = null;
+        }
+        return new Command(type, participantID, weight, liftIndex, eventID, token);
+    }
+
+    public Type getType() {
+        return type;
+    }
+
+    public long getParticipantID() {
+        return participantID;
+    }
+
+    public int getWeight() {
+        return weight;
+    }
+
+    public int getLiftIndex() {
+        return liftIndex;
+    }
+
+    public long getEventID() {
+        return eventID;
+    }
+
+    public String getToken() {
+        return token;
+    }
+
+    /**
+     * Gets the key by which this command is recognised if submitted again:
+     * its token, together with what it changes, so that the several commands
+     * submitted by one form are told apart.
+     *
+     * @return the key, or null if this command carries no token
+     */
+    String getIdempotencyKey() {
+        return token == null ? null : token + "/" + type + "/" + participantID + "/" + liftIndex;
+    }
+
+    /**
+     * Creates the event recording this command.
+     *
+     * @param competitionID the ID# of the participant's competition
+     * @return the event, not yet applied nor recorded
+     */
+    public ParticipantEvent toEvent(long competitionID) {
+        switch (type) {
+            case PASS:
+            case FAIL:
+            case ABSTAIN:
+                return ParticipantEvent.liftRegistered(competitionID, participantID,
+                        Lift.LiftOutcome.valueOf(type.name()));
+            case INCREASE_WEIGHT:
+                return ParticipantEvent.weightIncreased(competitionID, participantID, weight);
+            case CORRECT_WEIGHT:
+                return ParticipantEvent.weightCorrected(competitionID, participantID, weight);
+            case REVERT_WEIGHT:
+                return ParticipantEvent.weightReverted(competitionID, participantID);
+            case CORRECT_LIFT:
+                return ParticipantEvent.liftCorrected(competitionID, participantID, liftIndex, weight);
+            case UNDO:
+                return ParticipantEvent.undone(competitionID, participantID, eventID);
+            default:
+                throw new UnsupportedOperationException("unrecognised command: " + type);
+        }
+    }
+
+    @Override
+    public String toString() {
+        return type + "(" + participantID + ", " + weight + ", " + liftIndex + ", " + eventID + ")";
+    }
+}
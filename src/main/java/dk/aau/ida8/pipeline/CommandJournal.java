@@ -0,0 +1,312 @@
+package dk.aau.ida8.pipeline;
+
+import com.google.gson.*;
+import dk.aau.ida8.model.ParticipantEvent;
+
+import java.io.IOException;
+import java.lang.reflect.Type;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.zip.CRC32;
+
+/**
+ * This class represents the local journal of one competition: a file on the
+ * venue machine, written through a memory-mapped buffer, holding every event
+ * applied by the competition's pipeline which has not yet been recorded in
+ * the database.
+ *
+ * The file begins with a header holding the journal position up to which
+ * every event has been recorded (the checkpoint). Each event follows as one
+ * record: its length, its position, the event itself as JSON, and a CRC-32
+ * checksum of the position and event. Reading stops at the first record
+ * which is incomplete or whose checksum does not match, so that a record
+ * torn by a crash is discarded rather than replayed.
+ *
+ * Once every event in the journal has been recorded, the journal is emptied,
+ * and the position of the next event continues from the checkpoint.
+ *
+ * A journal is only used while holding the lock of its pipeline.
+ */
+public final class CommandJournal {
+
+    /**
+     * Defines when appended events are forced to the storage device.
+     */
+    public enum FsyncPolicy {
+        /**
+         * Each event is forced before it is acknowledged. No acknowledged
+         * event is lost, even on a power failure.
+         */
+        ALWAYS,
+        /**
+         * Events are forced every {@link CompetitionPipeline#FLUSH_INTERVAL_MS}
+         * milliseconds. Should the process fail, the operating system still
+         * writes every event; should the machine lose power, the events of
+         * the last interval may be lost.
+         */
+        INTERVAL,
+        /**
+         * Events are written by the operating system in its own time.
+         */
+        NEVER
+    }
+
+    private static final int MAGIC = 0x574c4a31;
+    private static final int HEADER_SIZE = 16;
+    private static final int CHECKPOINT_OFFSET = 8;
+    private static final int RECORD_OVERHEAD = 4 + 8 + 4;
+    static final int INITIAL_SIZE = 1 << 20;
+
+    private static final Gson GSON = new GsonBuilder()
+            .registerTypeAdapter(LocalDateTime.class, new LocalDateTimeAdapter())
+            .create();
+
+    private final Path path;
+    private final FsyncPolicy fsync;
+    private final FileChannel channel;
+    private MappedByteBuffer buffer;
+
+    private final List<ParticipantEvent> recovered = new ArrayList<>();
+    private long checkpoint;
+    private long lastSequence;
+    private int position;
+    private boolean dirty = false;
+
+    private CommandJournal(Path path, FsyncPolicy fsync) throws IOException {
+        this.path = path;
+        this.fsync = fsync;
+        this.channel = FileChannel.open(path, StandardOpenOption.CREATE,
+                StandardOpenOption.READ, StandardOpenOption.WRITE);
+        long size = Math.max(channel.size(), INITIAL_SIZE);
+        this.buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, size);
+        if (buffer.getInt(0) != MAGIC) {
+            buffer.putInt(0, MAGIC);
+            buffer.putLong(CHECKPOINT_OFFSET, 0);
+            buffer.putInt(HEADER_SIZE, 0);
+            buffer.force();
+        }
+        checkpoint = buffer.getLong(CHECKPOINT_OFFSET);
+        position = HEADER_SIZE;
+        read();
+    }
+
+    /**
+     * Opens the journal held in a file, creating the file if it does not
+     * exist, and reads the events not yet recorded.
+     *
+     * @param path  the file of the journal
+     * @param fsync when appended events are forced to the storage device
+     * @return the journal
+     * @throws IOException if the file cannot be opened or mapped
+     */
+    static CommandJournal open(Path path, FsyncPolicy fsync) throws IOException {
+        return new CommandJournal(path, fsync);
+    }
+
+    /**
+     * Reads every valid record following the header, leaving the position
+     * after the last. Records up to the checkpoint are skipped, but not
+     * recovered. Positions continue from the later of the checkpoint and the
+     * last record read.
+     */
+    private void read() {
+        CRC32 crc = new CRC32();
+        long previous = 0;
+        while (position + RECORD_OVERHEAD <= buffer.capacity()) {
+            int length = buffer.getInt(position);
+            if (length <= 0 || position + RECORD_OVERHEAD + length > buffer.capacity()) {
+                break;
+            }
+            long sequence = buffer.getLong(position + 4);
+            byte[] payload = new byte[length];
+            buffer.position(position + 12);
+            buffer.get(payload);
+            int checksum = buffer.getInt(position + 12 + length);
+            crc.reset();
+            crc.update(longBytes(sequence));
+            crc.update(payload);
+            // positions only increase from one record to the next
+            if ((int) crc.getValue() != checksum || sequence <= previous) {
+                break;
+            }
+            if (sequence > checkpoint) {
+                ParticipantEvent e = GSON.fromJson(new String(payload, StandardCharsets.UTF_8),
+                        ParticipantEvent.class);
+                e.setJournalSequence(sequence);
+                recovered.add(e);
+            }
+            previous = sequence;
+            position += RECORD_OVERHEAD + length;
+        }
+        lastSequence = Math.max(checkpoint, previous);
+        // discard anything after the last valid record
+        if (position + 4 <= buffer.capacity()) {
+            buffer.putInt(position, 0);
+        }
+    }
+
+    /**
+     * Gets the events found in the journal when it was opened which had not
+     * been recorded by its checkpoint, in order. Some may nonetheless have
+     * been recorded since; compare their positions with that last recorded.
+     *
+     * @return the events read from the journal, each with its position
+     */
+    List<ParticipantEvent> getRecovered() {
+        return recovered;
+    }
+
+    /**
+     * Appends an event to the journal, giving it the next position. The event
+     * is forced to the storage device at once if the policy is
+     * {@link FsyncPolicy#ALWAYS}.
+     *
+     * @param event the event, once applied
+     * @return the position of the event
+     * @throws IOException if the journal cannot be extended
+     */
+    long append(ParticipantEvent event) throws IOException {
+        long sequence = lastSequence + 1;
+        event.setJournalSequence(sequence);
+        byte[] payload = GSON.toJson(event).getBytes(StandardCharsets.UTF_8);
+        ensureCapacity(RECORD_OVERHEAD + payload.length + 4);
+
+        CRC32 crc = new CRC32();
+        crc.update(longBytes(sequence));
+        crc.update(payload);
+
+        // the terminator of the next record is written before the length of
+        // this one, so that the record is never read until complete
+        int next = position + RECORD_OVERHEAD + payload.length;
+        buffer.putInt(next, 0);
+        buffer.putLong(position + 4, sequence);
+        buffer.position(position + 12);
+        buffer.put(payload);
+        buffer.putInt(position + 12 + payload.length, (int) crc.getValue());
+        buffer.putInt(position, payload.length);
+
+        position = next;
+        lastSequence = sequence;
+        dirty = true;
+        if (fsync == FsyncPolicy.ALWAYS) {
+            sync();
+        }
+        return sequence;
+    }
+
+    /**
+     * Records that every event up to and including a position has been
+     * recorded in the database. If no later event is held, the journal is
+     * emptied.
+     *
+     * @param sequence the position of the last event recorded
+     */
+    void checkpoint(long sequence) {
+        if (sequence <= checkpoint) {
+            return;
+        }
+        checkpoint = sequence;
+        if (checkpoint >= lastSequence) {
+            lastSequence = checkpoint;
+            position = HEADER_SIZE;
+            buffer.putInt(HEADER_SIZE, 0);
+        }
+        buffer.putLong(CHECKPOINT_OFFSET, checkpoint);
+        dirty = true;
+        if (fsync != FsyncPolicy.NEVER) {
+            sync();
+        }
+    }
+
+    /**
+     * Forces the journal to the storage device if the policy is
+     * {@link FsyncPolicy#INTERVAL}; this is to be called every
+     * {@link CompetitionPipeline#FLUSH_INTERVAL_MS} milliseconds.
+     */
+    void syncPeriodically() {
+        if (fsync == FsyncPolicy.INTERVAL) {
+            sync();
+        }
+    }
+
+    /**
+     * Forces the journal to the storage device, if changed since last
+     * forced.
+     */
+    void sync() {
+        if (dirty) {
+            buffer.force();
+            dirty = false;
+        }
+    }
+
+    /**
+     * Determines whether every event appended has been recorded.
+     *
+     * @return true, if no event awaits recording, else false
+     */
+    boolean isEmpty() {
+        return checkpoint >= lastSequence;
+    }
+
+    /**
+     * Closes the journal, deleting its file if every event has been
+     * recorded.
+     *
+     * @throws IOException if the file cannot be closed or deleted
+     */
+    void close() throws IOException {
+        sync();
+        channel.close();
+        buffer = null;
+        if (isEmpty()) {
+            Files.deleteIfExists(path);
+        }
+    }
+
+    /**
+     * Maps a larger region of the file if fewer than the given number of
+     * bytes remain.
+     */
+    private void ensureCapacity(int bytes) throws IOException {
+        if (position + bytes <= buffer.capacity()) {
+            return;
+        }
+        long size = Math.max(2L * buffer.capacity(), (long) position + bytes);
+        buffer.force();
+        buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, size);
+    }
+
+    private static byte[] longBytes(long value) {
+        byte[] bytes = new byte[8];
+        for (int i = 7; i >= 0; i--) {
+            bytes[i] = (byte) value;
+            value >>>= 8;
+        }
+        return bytes;
+    }
+
+    /**
+     * Writes and reads times as ISO-8601 strings.
+     */
+    private static class LocalDateTimeAdapter
+            implements JsonSerializer<LocalDateTime>, JsonDeserializer<LocalDateTime> {
+
+        @Override
+        public JsonElement serialize(LocalDateTime src, Type type, JsonSerializationContext ctx) {
+            return new JsonPrimitive(src.toString());
+        }
+
+        @Override
+        public LocalDateTime deserialize(JsonElement json, Type type, JsonDeserializationContext ctx) {
+            return LocalDateTime.parse(json.getAsString());
+        }
+    }
+}
@@ -0,0 +1,23 @@
+package dk.aau.ida8.pipeline;
+
+/**
+ * This class represents an exception caused by a command which was accepted
+ * by the pipeline of its competition, but had not been applied within the
+ * time allowed for its acknowledgement.
+ *
+ * The command is not withdrawn, and will still be applied. It must therefore
+ * not be taken to have failed; should it be submitted again, it must carry
+ * the same token (see {@link Command#withToken(String)}), so that it is not
+ * applied twice.
+ */
+public final class CommandPendingException extends RuntimeException {
+
+    /**
+     * Creates the exception.
+     *
+     * @param msg description of the command awaiting its acknowledgement
+     */
+    public CommandPendingException(String msg) {
+        super(msg);
+    }
+}
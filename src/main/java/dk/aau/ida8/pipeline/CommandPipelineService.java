@@ -0,0 +1,353 @@
+package dk.aau.ida8.pipeline;
+
+import dk.aau.ida8.controller.ResourceNotFoundException;
+import dk.aau.ida8.data.ParticipantRepository;
+import dk.aau.ida8.model.Competition;
+import dk.aau.ida8.service.CompetitionVersionService;
+import dk.aau.ida8.service.EventLogService;
+import dk.aau.ida8.service.MetricsService;
+import dk.aau.ida8.service.ScoreboardService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import javax.persistence.EntityManagerFactory;
+import java.io.IOException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.*;
+import java.util.function.Function;
+
+/**
+ * This service applies the changes made by the secretary during a live
+ * competition through a {@link CompetitionPipeline command pipeline}, one for
+ * each competition.
+ *
+ * Each pipeline has one lane for each platform of its competition, which
+ * applies the commands of that platform, in order, to a copy of the
+ * competition held in memory, and acknowledges them at once, without
+ * waiting on the database. Each command is recorded as a
+ * {@link dk.aau.ida8.model.ParticipantEvent}, and events are inserted into
+ * the event log in batches shortly afterwards; the participants themselves
+ * are written only occasionally, as snapshots. A pipeline is started by the first command submitted for its
+ * competition, and closes itself once the competition is complete or idle.
+ *
+ * Durability: every command is appended to a local {@link CommandJournal
+ * journal} of its competition, within the directory given by the
+ * {@code journal.directory} property, before it is acknowledged; the
+ * {@code journal.fsync} property determines when the journal is forced to
+ * the storage device. A command is recorded in the event log within
+ * {@link CompetitionPipeline#FLUSH_INTERVAL_MS} milliseconds of being
+ * acknowledged while the database is available. While it is not, commands
+ * continue to be applied and acknowledged from memory, and recording is
+ * retried until it succeeds. Commands left in a journal when the application
+ * stops are recorded once it starts again and the database is available.
+ *
+ * Back-pressure: a pipeline refuses the commands of a platform, with a
+ * {@link PipelineOverloadedException}, while too many of that platform's
+ * commands are waiting to be applied or to be written; other platforms are
+ * unaffected. A command accepted, but not
+ * applied in time, is reported by a {@link CommandPendingException}, and is
+ * still applied; commands carry a token from the form submitting them, so
+ * that one submitted again is not applied twice.
+ *
+ * Pages and API responses built from the database should first call
+ * {@link #awaitFlushed(long)}, so that they include every acknowledged
+ * command, and must bring participants up to date from the event log (see
+ * {@link EventLogService}). While the database is unavailable, pages may
+ * instead be built from the resident competition through
+ * {@link #view(long, Function)}.
+ */
+@Service
+public class CommandPipelineService {
+
+    /**
+     * The time in seconds to wait for a command to be applied.
+     */
+    private static final long ACKNOWLEDGEMENT_TIMEOUT = 10;
+
+    /**
+     * The time in milliseconds to wait for each pipeline to close when the
+     * application stops.
+     */
+    private static final long CLOSE_TIMEOUT = 10000;
+
+    private final Map<Long, CompetitionPipeline> pipelines = new ConcurrentHashMap<>();
+    private final Map<Long, Long> competitionIDs = new ConcurrentHashMap<>();
+
+    private EntityManagerFactory entityManagerFactory;
+    private ParticipantRepository participantRepository;
+    private ScoreboardService scoreboardService;
+    private CompetitionVersionService competitionVersionService;
+    private EventLogService eventLogService;
+    private MetricsService metricsService;
+    private Path journalDirectory;
+    private CommandJournal.FsyncPolicy fsyncPolicy;
+
+    /**
+     * Instantiates a CommandPipelineService.
+     *
+     * @param entityManagerFactory      the factory of the persistence contexts
+     *                                  holding resident competitions
+     * @param participantRepository     the repository used to find the
+     *                                  competition of a participant
+     * @param scoreboardService         the service through which applied
+     *                                  commands are published
+     * @param competitionVersionService the service through which written
+     *                                  changes are recorded
+     * @param eventLogService           the service through which events are
+     *                                  recorded
+     * @param metricsService            the service used to record metrics
+     * @param journalDirectory          the directory holding the journals of
+     *                                  competitions
+     * @param fsyncPolicy               when journals are forced to the
+     *                                  storage device
+     */
+    @Autowired
+    public CommandPipelineService(EntityManagerFactory entityManagerFactory,
+                                  ParticipantRepository participantRepository,
+                                  ScoreboardService scoreboardService,
+                                  CompetitionVersionService competitionVersionService,
+                                  EventLogService eventLogService,
+                                  MetricsService metricsService,
+                                  @Value("${journal.directory:journal}") String journalDirectory,
+                                  @Value("${journal.fsync:INTERVAL}") CommandJournal.FsyncPolicy fsyncPolicy) {
+        this.entityManagerFactory = entityManagerFactory;
+        this.participantRepository = participantRepository;
+        this.scoreboardService = scoreboardService;
+        this.competitionVersionService = competitionVersionService;
+        this.eventLogService = eventLogService;
+        this.metricsService = metricsService;
+        this.journalDirectory = Paths.get(journalDirectory);
+        this.fsyncPolicy = fsyncPolicy;
+    }
+
+    /**
+     * Starts a pipeline for each competition whose journal holds commands
+     * not known to have been recorded, so that they are recorded once the
+     * database is available.
+     *
+     * @throws IOException if the journal directory cannot be created or read
+     */
+    @PostConstruct
+    public void recoverJournals() throws IOException {
+        Files.createDirectories(journalDirectory);
+        try (DirectoryStream<Path> journals =
+                     Files.newDirectoryStream(journalDirectory, "competition-*.journal")) {
+            for (Path journal : journals) {
+                String name = journal.getFileName().toString();
+                long competitionID = Long.parseLong(
+                        name.substring("competition-".length(), name.length() - ".journal".length()));
+                pipeline(competitionID);
+            }
+        }
+    }
+
+    /**
+     * Finds the ID# of the competition in which a participant takes part.
+     * The participants of competitions with an open pipeline are known; any
+     * other participant is looked up in the database.
+     *
+     * @param participantID the ID# of the participant
+     * @return the ID# of the participant's competition
+     * @throws ResourceNotFoundException if there is no such participant
+     */
+    public long getCompetitionID(long participantID) throws ResourceNotFoundException {
+        Long competitionID = competitionIDs.get(participantID);
+        if (competitionID == null) {
+            competitionID = participantRepository.findCompetitionID(participantID);
+            if (competitionID == null) {
+                throw new ResourceNotFoundException();
+            }
+        }
+        return competitionID;
+    }
+
+    /**
+     * Applies a command to the competition of its participant, waiting only
+     * until it has been applied in memory.
+     *
+     * Should the command not be applied within
+     * {@link #ACKNOWLEDGEMENT_TIMEOUT} seconds, it is not withdrawn, but is
+     * reported as pending; it will still be applied. A command submitted
+     * again with the same token is applied only once.
+     *
+     * @param command the command to apply
+     * @return the acknowledgement of the command
+     * @throws PipelineOverloadedException if the competition's pipeline
+     *                                     cannot accept further commands
+     * @throws CommandPendingException     if the command has been accepted,
+     *                                     but not yet applied
+     * @throws RuntimeException            if the command is not valid for its
+     *                                     participant; see
+     *                                     {@link dk.aau.ida8.model.ParticipantEvent#apply}
+     */
+    public Acknowledgement execute(Command command) {
+        long competitionID = getCompetitionID(command.getParticipantID());
+        while (true) {
+            CompetitionPipeline pipeline = pipeline(competitionID);
+            try {
+                return awaitAcknowledgement(pipeline.submit(command));
+            } catch (RejectedExecutionException e) {
+                // the pipeline closed in the meantime; start a new one
+                pipelines.remove(competitionID, pipeline);
+            }
+        }
+    }
+
+    /**
+     * Waits until every command acknowledged for a competition has been
+     * recorded in the event log. This returns at once if the competition has
+     * no pipeline, or if the database is unavailable to it, in which case the
+     * caller should check {@link #isDatabaseAvailable(long)} and build its
+     * view through {@link #view(long, Function)}.
+     *
+     * @param competitionID the ID# of the competition
+     */
+    public void awaitFlushed(long competitionID) {
+        CompetitionPipeline pipeline = pipelines.get(competitionID);
+        if (pipeline == null) {
+            return;
+        }
+        try {
+            await(pipeline.submitFlush());
+        } catch (RejectedExecutionException e) {
+            // the pipeline has closed, having recorded every command
+        }
+    }
+
+    /**
+     * Determines whether the database is available to the pipeline of a
+     * competition. This is true if the competition has no pipeline.
+     *
+     * @param competitionID the ID# of the competition
+     * @return true, if the database was available when last used, else false
+     */
+    public boolean isDatabaseAvailable(long competitionID) {
+        CompetitionPipeline pipeline = pipelines.get(competitionID);
+        return pipeline == null || pipeline.isDatabaseAvailable();
+    }
+
+    /**
+     * Builds a view of a competition from its copy held in memory by its
+     * pipeline, for use while the database is unavailable. The view is built
+     * on the pipeline's writer thread, and so must only read the
+     * competition, and must not refer to it.
+     *
+     * @param competitionID the ID# of the competition
+     * @param view          builds the view from the competition
+     * @param <T>           the type of the view
+     * @return the view, or empty if the competition has no pipeline or it
+     *         cannot be loaded
+     */
+    public <T> Optional<T> view(long competitionID, Function<Competition, T> view) {
+        CompetitionPipeline pipeline = pipelines.get(competitionID);
+        if (pipeline == null) {
+            return Optional.empty();
+        }
+        try {
+            return Optional.ofNullable(await(pipeline.read(view)));
+        } catch (RuntimeException e) {
+            return Optional.empty();
+        }
+    }
+
+    /**
+     * Gets the pipeline of a competition, starting one if there is none. Once
+     * the pipeline closes, its participants are forgotten.
+     */
+    private CompetitionPipeline pipeline(long competitionID) {
+        return pipelines.computeIfAbsent(competitionID, id -> {
+            CompetitionPipeline[] created = new CompetitionPipeline[1];
+            created[0] = new CompetitionPipeline(id, entityManagerFactory,
+                    scoreboardService, competitionVersionService, eventLogService, metricsService,
+                    openJournal(id), competitionIDs,
+                    () -> {
+                        competitionIDs.values().removeIf(id::equals);
+                        pipelines.remove(id, created[0]);
+                    });
+            return created[0];
+        });
+    }
+
+    /**
+     * Opens the journal of a competition. Should it fail to open, the
+     * competition's commands are held only in memory until recorded.
+     */
+    private CommandJournal openJournal(long competitionID) {
+        try {
+            return CommandJournal.open(
+                    journalDirectory.resolve("competition-" + competitionID + ".journal"),
+                    fsyncPolicy);
+        } catch (IOException e) {
+            metricsService.increment("pipeline.journal.failure", competitionID);
+            return null;
+        }
+    }
+
+    /**
+     * Waits for a read submitted to a pipeline, rethrowing any exception it
+     * raised. A read which takes too long is cancelled, as it changes
+     * nothing.
+     */
+    private static <T> T await(Future<T> future) {
+        try {
+            return future.get(ACKNOWLEDGEMENT_TIMEOUT, TimeUnit.SECONDS);
+        } catch (ExecutionException e) {
+            throw rethrow(e);
+        } catch (TimeoutException e) {
+            future.cancel(false);
+            throw new PipelineOverloadedException(
+                    "this competition is not responding; please try again shortly");
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new PipelineOverloadedException("interrupted");
+        }
+    }
+
+    /**
+     * Waits for a command submitted to a pipeline to be applied, rethrowing
+     * any exception it raised. A command which takes too long is left to be
+     * applied, as it may already have started, and is reported as pending.
+     */
+    private static Acknowledgement awaitAcknowledgement(Future<Acknowledgement> future) {
+        try {
+            return future.get(ACKNOWLEDGEMENT_TIMEOUT, TimeUnit.SECONDS);
+        } catch (ExecutionException e) {
+            throw rethrow(e);
+        } catch (TimeoutException | InterruptedException e) {
+            if (e instanceof InterruptedException) {
+                Thread.currentThread().interrupt();
+            }
+            throw new CommandPendingException("this change has been received, and will be " +
+                    "applied shortly; reload to see it, rather than submitting it again");
+        }
+    }
+
+    private static RuntimeException rethrow(ExecutionException e) {
+        if (e.getCause() instanceof RuntimeException) {
+            return (RuntimeException) e.getCause();
+        }
+        return new IllegalStateException(e.getCause());
+    }
+
+    /**
+     * Records every applied command, and closes all pipelines.
+     */
+    @PreDestroy
+    public void shutdown() {
+        List<CompetitionPipeline> open = new ArrayList<>(pipelines.values());
+        for (CompetitionPipeline pipeline : open) {
+            pipeline.close(CLOSE_TIMEOUT);
+        }
+        pipelines.clear();
+    }
+}
@@ -0,0 +1,941 @@
+package dk.aau.ida8.pipeline;
+
+import dk.aau.ida8.model.Competition;
+import dk.aau.ida8.model.Group;
+import dk.aau.ida8.model.Participant;
+import dk.aau.ida8.model.ParticipantEvent;
+import dk.aau.ida8.model.PersonalBest;
+import dk.aau.ida8.service.CompetitionVersionService;
+import dk.aau.ida8.service.EventLogService;
+import dk.aau.ida8.service.MetricsService;
+import dk.aau.ida8.service.ScoreboardService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.persistence.EntityManager;
+import javax.persistence.EntityManagerFactory;
+import javax.persistence.EntityTransaction;
+import javax.persistence.FlushModeType;
+import java.io.IOException;
+import java.security.InvalidParameterException;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * This class represents the command pipeline of one live competition.
+ *
+ * The pipeline holds a copy of the competition resident in memory. Each
+ * platform of the competition has its own lane: a thread, a queue of
+ * {@link #QUEUE_CAPACITY} commands and a budget of {@link #MAX_UNFLUSHED}
+ * unrecorded events. Commands are routed to the lane of their participant's
+ * platform, applied to the resident competition on that lane, in the order
+ * they are submitted, and acknowledged immediately, so that a burst of
+ * commands at one platform neither queues ahead of another platform's
+ * commands nor uses up its budget. Each command is applied as a
+ * {@link ParticipantEvent}, which is appended to the competition's local
+ * {@link CommandJournal journal} before the command is acknowledged.
+ *
+ * Ranking groups, the journal and the event log span platforms, so the
+ * resident competition is guarded by one fair lock, held only while a
+ * command is applied, or while the pipeline's own writer thread loads,
+ * records or snapshots the competition. Besides loading and snapshots, a
+ * command therefore waits on at most one command of each other platform.
+ *
+ * Every {@link #FLUSH_INTERVAL_MS} milliseconds, the events applied since the
+ * last flush are inserted into the event log in the database, in one
+ * transaction, together with the personal bests of the participants whose
+ * best lifts they may have changed. Inserting takes place on a separate recorder thread, so that
+ * commands continue to be applied and acknowledged from memory while the
+ * database is slow or unavailable. Once inserted, the events are removed
+ * from the journal; should inserting fail, it is retried every
+ * {@link #RETRY_INTERVAL_MS} milliseconds. A batch reported as failed may
+ * nonetheless have been inserted; retrying it inserts only those events
+ * whose journal positions were not recorded (see
+ * {@link EventLogService#record}), so that no lift is applied twice.
+ *
+ * The resident competition is held in its own persistence context, so that
+ * its participants and lifts stay managed, and is written to the database as
+ * a snapshot only once {@link #SNAPSHOT_INTERVAL} events have been recorded
+ * since the last, and when the pipeline closes. Until then, readers bring the
+ * persisted participants up to date from the event log. Should writing a
+ * snapshot fail, the resident competition is discarded, and is loaded again
+ * from the last snapshot and the event log, and the snapshot retried, every
+ * {@link #RETRY_INTERVAL_MS} milliseconds; the pipeline does not close itself
+ * until a snapshot has been written. A competition whose snapshot lags the
+ * event log when loaded, e.g. because the process stopped first, is written
+ * when the pipeline closes, so that its results may again be read directly
+ * from the database.
+ *
+ * When the resident competition is first loaded, any events left in the
+ * journal by an earlier process which were not recorded are applied again
+ * and recorded. Events are compared with the greatest journal position
+ * recorded in the database, so that none is recorded twice. An event which
+ * no longer applies, having been acknowledged, is not dropped: it is
+ * recorded as {@link ParticipantEvent#isConflicted() conflicted}, shown on
+ * the dashboard and in the log reviewed by the jury, and logged.
+ *
+ * A pipeline closes itself, after recording all changes, once every lift of
+ * the competition is complete or once no command has been submitted for
+ * {@link #IDLE_TIMEOUT_MS} milliseconds.
+ */
+class CompetitionPipeline {
+
+    private static final Logger LOG = LoggerFactory.getLogger(CompetitionPipeline.class);
+
+    /**
+     * The interval in milliseconds at which changes are written.
+     */
+    static final long FLUSH_INTERVAL_MS = 100;
+
+    /**
+     * The time in milliseconds to wait after the database fails before
+     * trying again.
+     */
+    static final long RETRY_INTERVAL_MS = 2000;
+
+    /**
+     * The time in milliseconds without commands after which a pipeline is
+     * closed.
+     */
+    static final long IDLE_TIMEOUT_MS = 30 * 60 * 1000L;
+
+    /**
+     * The maximum number of commands which may wait to be applied at each
+     * platform.
+     */
+    static final int QUEUE_CAPACITY = 256;
+
+    /**
+     * The maximum number of commands of each platform which may be applied
+     * but not recorded, beyond which that platform's commands are refused
+     * until recording succeeds.
+     */
+    static final int MAX_UNFLUSHED = 2048;
+
+    /**
+     * The number of recorded events after which a snapshot of the resident
+     * competition is written.
+     */
+    static final int SNAPSHOT_INTERVAL = 50;
+
+    /**
+     * The number of most recent commands whose tokens are remembered, so
+     * that a command submitted again is acknowledged without being applied
+     * twice.
+     */
+    static final int REMEMBERED_TOKENS = 1024;
+
+    /**
+     * The time in milliseconds without commands after which the thread of a
+     * platform's lane is stopped, to be started again by its next command.
+     */
+    static final long IDLE_LANE_MS = 60000;
+
+    private final long competitionID;
+    private final EntityManagerFactory entityManagerFactory;
+    private final ScoreboardService scoreboardService;
+    private final CompetitionVersionService competitionVersionService;
+    private final EventLogService eventLogService;
+    private final MetricsService metricsService;
+    private final Map<Long, Long> competitionIDs;
+    private final Runnable onClose;
+
+    private final ScheduledThreadPoolExecutor writer;
+    private final ExecutorService recorder;
+    private final Map<Integer, Lane> lanes = new ConcurrentHashMap<>();
+    private final Map<Long, Integer> platforms = new ConcurrentHashMap<>();
+    private final ReentrantLock lock = new ReentrantLock(true);
+    private volatile boolean closed = false;
+    private volatile boolean databaseAvailable = true;
+
+    /*
+     * The following are guarded by the lock.
+     */
+    private EntityManager entityManager;
+    private Competition competition;
+    private Map<Long, Participant> participants;
+    private CommandJournal journal;
+    private boolean journalRecovered = false;
+    private final List<ParticipantEvent> unflushed = new ArrayList<>();
+    private final Map<Long, PersonalBest.Participation> unflushedBests = new HashMap<>();
+    private Map<Long, PersonalBest.Participation> recordingBests;
+    private CompletableFuture<List<ParticipantEvent>> recording;
+    private final List<CompletableFuture<Void>> flushWaiters = new ArrayList<>();
+    private final Map<String, Acknowledgement> acknowledged =
+            new LinkedHashMap<String, Acknowledgement>() {
+                @Override
+                protected boolean removeEldestEntry(Map.Entry<String, Acknowledgement> eldest) {
+                    return size() > REMEMBERED_TOKENS;
+                }
+            };
+    private long retryAfter = 0;
+    private int unsnapshotted = 0;
+    private boolean snapshotFailed = false;
+    private long sequence = 0;
+    private long lastCommandTime = System.currentTimeMillis();
+
+    /**
+     * Creates and starts the pipeline of a competition. The competition is
+     * loaded when the first command is applied, or, if the journal holds
+     * events, as soon as the database is available.
+     *
+     * @param competitionID             the ID# of the competition
+     * @param entityManagerFactory      the factory of the persistence context
+     *                                  holding the resident competition
+     * @param scoreboardService         the service through which applied
+     *                                  commands are published
+     * @param competitionVersionService the service through which written
+     *                                  changes are recorded
+     * @param eventLogService           the service through which events are
+     *                                  recorded
+     * @param metricsService            the service used to record metrics
+     * @param journal                   the local journal of the competition,
+     *                                  or null if it could not be opened
+     * @param competitionIDs            the map of participants to their
+     *                                  competitions, to which the
+     *                                  participants of this competition are
+     *                                  added when it is loaded, and from
+     *                                  which they are removed by onClose
+     * @param onClose                   called on the writer thread once the
+     *                                  pipeline has closed itself
+     */
+    CompetitionPipeline(long competitionID,
+                        EntityManagerFactory entityManagerFactory,
+                        ScoreboardService scoreboardService,
+                        CompetitionVersionService competitionVersionService,
+                        EventLogService eventLogService,
+                        MetricsService metricsService,
+                        CommandJournal journal,
+                        Map<Long, Long> competitionIDs,
+                        Runnable onClose) {
+        this.competitionID = competitionID;
+        this.entityManagerFactory = entityManagerFactory;
+        this.scoreboardService = scoreboardService;
+        this.competitionVersionService = competitionVersionService;
+        this.eventLogService = eventLogService;
+        this.metricsService = metricsService;
+        this.journal = journal;
+        this.journalRecovered = journal == null;
+        this.competitionIDs = competitionIDs;
+        this.onClose = onClose;
+        this.writer = new ScheduledThreadPoolExecutor(1, r -> {
+            Thread t = new Thread(r, "competition-" + competitionID + "-writer");
+            t.setDaemon(true);
+            return t;
+        });
+        this.recorder = Executors.newSingleThreadExecutor(r -> {
+            Thread t = new Thread(r, "competition-" + competitionID + "-recorder");
+            t.setDaemon(true);
+            return t;
+        });
+        metricsService.track(competitionID);
+        writer.scheduleWithFixedDelay(() -> locked(this::tick),
+                FLUSH_INTERVAL_MS, FLUSH_INTERVAL_MS, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Determines whether this pipeline has closed, and so accepts no further
+     * commands.
+     *
+     * @return true, if closed, else false
+     */
+    boolean isClosed() {
+        return closed;
+    }
+
+    /**
+     * Determines whether the database was available when last used by this
+     * pipeline.
+     *
+     * @return true, if the database is available, else false
+     */
+    boolean isDatabaseAvailable() {
+        return databaseAvailable;
+    }
+
+    /**
+     * Submits a command to be applied on the lane of its participant's
+     * platform. Until the competition has been loaded, every participant is
+     * taken to lift on the first platform.
+     *
+     * @param command the command to apply
+     * @return the acknowledgement of the command, once applied
+     * @throws PipelineOverloadedException if the participant's platform
+     *                                     cannot accept further commands
+     * @throws RejectedExecutionException  if the pipeline has closed
+     */
+    Future<Acknowledgement> submit(Command command)
+            throws PipelineOverloadedException, RejectedExecutionException {
+        if (closed) {
+            throw new RejectedExecutionException("pipeline closed");
+        }
+        Lane lane = lane(platforms.getOrDefault(command.getParticipantID(), 1));
+        if (lane.unflushedCount >= MAX_UNFLUSHED) {
+            throw new PipelineOverloadedException(
+                    "changes at this platform could not be saved; please try again shortly");
+        }
+        if (!lane.queueCapacity.tryAcquire()) {
+            throw new PipelineOverloadedException(
+                    "too many changes at this platform are waiting; please try again shortly");
+        }
+        try {
+            return lane.executor.submit(() -> {
+                try {
+                    return locked(() -> apply(command));
+                } finally {
+                    lane.queueCapacity.release();
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            lane.queueCapacity.release();
+            throw e;
+        }
+    }
+
+    /**
+     * Submits a request to record all applied commands in the event log.
+     *
+     * While the database is unavailable, the future is completed at once,
+     * without trying the database again before it is due to be retried, so
+     * that readers are not held up; they are to be shown the resident
+     * competition instead (see {@link #read(Function)}).
+     *
+     * @return a future completed once the commands applied before this call
+     *         have been recorded, or recording has failed
+     * @throws RejectedExecutionException if the pipeline has closed
+     */
+    Future<?> submitFlush() throws RejectedExecutionException {
+        if (!databaseAvailable) {
+            return CompletableFuture.completedFuture(null);
+        }
+        CompletableFuture<Void> flushed = new CompletableFuture<>();
+        writer.execute(() -> locked(() -> {
+            if (closed || !databaseAvailable || (unflushed.isEmpty() && recording == null)) {
+                flushed.complete(null);
+            } else {
+                flushWaiters.add(flushed);
+                flush();
+            }
+        }));
+        return flushed;
+    }
+
+    /**
+     * Submits a function to be applied to the resident competition on the
+     * writer thread, loading the competition if necessary. The function must
+     * only read the competition, and must return values which do not refer
+     * to it.
+     *
+     * @param view the function to apply
+     * @param <T>  the type of the result
+     * @return the result of the function
+     * @throws RejectedExecutionException if the pipeline has closed
+     */
+    <T> Future<T> read(Function<Competition, T> view) throws RejectedExecutionException {
+        return writer.submit(() -> locked(() -> {
+            if (closed) {
+                throw new RejectedExecutionException("pipeline closed");
+            }
+            load();
+            return view.apply(competition);
+        }));
+    }
+
+    /**
+     * Records all applied commands, writes a snapshot of the resident
+     * competition, and closes this pipeline, waiting for the writer thread to
+     * finish. Commands which cannot be recorded, or are not tried because
+     * the database is unavailable, remain in the journal.
+     *
+     * @param timeout the maximum time to wait, in milliseconds
+     */
+    void close(long timeout) {
+        try {
+            writer.submit(() -> locked(() -> {
+                if (!closed) {
+                    // while the database is unavailable, changes are left in
+                    // the journal, rather than waiting on it
+                    if (databaseAvailable) {
+                        drain();
+                        if (!snapshot() && snapshotFailed && !retrySnapshot()) {
+                            LOG.warn("The snapshot of competition {} could not be written, " +
+                                    "and is written when the competition is next loaded",
+                                    competitionID);
+                        }
+                    }
+                    shutdown();
+                }
+            }));
+            writer.awaitTermination(timeout, TimeUnit.MILLISECONDS);
+        } catch (RejectedExecutionException e) {
+            // already closed
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Applies a command to the resident competition, appends it to the
+     * journal, and publishes it to the live scoreboard. A command carrying
+     * the token of one already applied is acknowledged again, but not
+     * applied.
+     *
+     * @param command the command to apply
+     * @return the acknowledgement of the command
+     */
+    private Acknowledgement apply(Command command) {
+        if (closed) {
+            throw new RejectedExecutionException("pipeline closed");
+        }
+        lastCommandTime = System.currentTimeMillis();
+        String key = command.getIdempotencyKey();
+        if (key != null && acknowledged.containsKey(key)) {
+            // submitted again, e.g. after its acknowledgement was slow to arrive
+            metricsService.increment("pipeline.duplicate", competitionID);
+            return acknowledged.get(key);
+        }
+        if (command.getType() == Command.Type.UNDO) {
+            // undoing reads the participant's history from the database, and
+            // so is refused at once, rather than holding up every platform,
+            // while the database is unavailable
+            if (!databaseAvailable) {
+                throw new PipelineOverloadedException(
+                        "changes cannot be undone while the database is unavailable; " +
+                                "please try again shortly");
+            }
+            // the event to undo, and every event before it, must be recorded
+            drain();
+            if (!unflushed.isEmpty()) {
+                throw new PipelineOverloadedException(
+                        "changes to this competition could not be saved; please try again shortly");
+            }
+        }
+        load();
+        Participant p = participants.get(command.getParticipantID());
+        if (p == null) {
+            String msg = "participant " + command.getParticipantID() +
+                    " is not within competition " + competitionID;
+            throw new InvalidParameterException(msg);
+        }
+        // ranks are only published where the scoreboard is followed
+        Map<Long, Integer> ranksBefore = scoreboardService.getSubscriberCount(competitionID) == 0
+                ? Collections.emptyMap()
+                : metricsService.time("ranking", competitionID,
+                        () -> scoreboardService.snapshotRanks(p));
+        ParticipantEvent event = command.toEvent(competitionID);
+        if (command.getType() == Command.Type.UNDO) {
+            undo(p, event);
+        } else {
+            event.apply(p);
+        }
+        journal(event);
+        unflushed.add(event);
+        bestLiftsChanged(p, event);
+        lane(platforms.getOrDefault(p.getId(), 1)).unflushedCount++;
+        sequence++;
+
+        if (command.getType().isLift()) {
+            scoreboardService.publishLift(p, ranksBefore);
+        } else if (command.getType().isWeightChange()) {
+            scoreboardService.publishWeightChange(p);
+        } else {
+            scoreboardService.publishLiftCorrection(p, ranksBefore);
+        }
+        Acknowledgement ack = new Acknowledgement(competitionID, sequence,
+                competition.getPlatform(p).orElse(1));
+        if (key != null) {
+            acknowledged.put(key, ack);
+        }
+        return ack;
+    }
+
+    /**
+     * Appends an applied event to the journal. Should the journal fail, it
+     * is abandoned, and events are held only in memory until recorded.
+     */
+    private void journal(ParticipantEvent event) {
+        if (journal == null) {
+            return;
+        }
+        try {
+            long start = System.nanoTime();
+            journal.append(event);
+            metricsService.recordValue("pipeline.journal.append", competitionID,
+                    TimeUnit.NANOSECONDS.toMicros(System.nanoTime() - start));
+        } catch (IOException e) {
+            metricsService.increment("pipeline.journal.failure", competitionID);
+            journal = null;
+        }
+    }
+
+    /**
+     * Notes the current results of a participant, to be recorded with the
+     * next batch of events, if an event applied to them may have changed
+     * their best lifts.
+     */
+    private void bestLiftsChanged(Participant p, ParticipantEvent event) {
+        if (event.mayChangeBestLifts() && p.getLifter() != null) {
+            unflushedBests.put(p.getId(), PersonalBest.Participation.of(p));
+        }
+    }
+
+    /**
+     * Undoes an earlier event of a participant, by rebuilding the participant
+     * from their recorded history without it.
+     *
+     * @param p     the participant
+     * @param event the event undoing the earlier event
+     * @throws InvalidParameterException if the event to undo is not one of
+     *                                   the participant's, is their weigh-in,
+     *                                   or has already been undone
+     */
+    private void undo(Participant p, ParticipantEvent event) {
+        List<ParticipantEvent> history = new ArrayList<>(eventLogService.history(p.getId()));
+        ParticipantEvent undone = null;
+        for (ParticipantEvent e : history) {
+            if (e.getId() == event.getUndoneEventID()) {
+                undone = e;
+            } else if (e.getType() == ParticipantEvent.Type.UNDONE && !e.isConflicted()
+                    && e.getUndoneEventID() == event.getUndoneEventID()) {
+                throw new InvalidParameterException("this change has already been undone");
+            }
+        }
+        if (undone == null) {
+            throw new InvalidParameterException("no change " + event.getUndoneEventID() +
+                    " of participant " + p.getId() + " to undo");
+        }
+        if (undone.getType() == ParticipantEvent.Type.WEIGHED_IN
+                || undone.getType() == ParticipantEvent.Type.UNDONE) {
+            throw new InvalidParameterException("a weigh-in or an undo cannot be undone");
+        }
+        if (undone.isConflicted()) {
+            throw new InvalidParameterException("this change was never applied; " +
+                    "it awaits review by the jury");
+        }
+        history.add(event);
+        ParticipantEvent.rebuild(p, history);
+    }
+
+    /**
+     * Loads the resident competition into a new persistence context, if not
+     * already loaded, and brings it up to date from the event log and the
+     * journal.
+     *
+     * The persistence context is only written to the database when a
+     * snapshot is taken.
+     */
+    private void load() {
+        if (competition != null) {
+            return;
+        }
+        // events being recorded must not be applied a second time
+        awaitRecording();
+        entityManager = entityManagerFactory.createEntityManager();
+        entityManager.setFlushMode(FlushModeType.COMMIT);
+        try {
+            competition = entityManager.find(Competition.class, competitionID);
+            if (competition == null) {
+                throw new InvalidParameterException("no competition " + competitionID);
+            }
+            long snapshotted = sumOfLastEventIDs(competition);
+            eventLogService.catchUp(competition);
+            if (sumOfLastEventIDs(competition) != snapshotted) {
+                // the last snapshot lags the event log; write it on closing
+                // at the latest
+                unsnapshotted = Math.max(unsnapshotted, 1);
+            }
+            participants = new HashMap<>();
+            for (Participant p : competition.getParticipants()) {
+                participants.put(p.getId(), p);
+                competitionIDs.put(p.getId(), competitionID);
+            }
+            for (Group g : competition.getCompetingGroups()) {
+                for (Participant p : g.getUnsortedParticipants()) {
+                    platforms.put(p.getId(), g.getPlatform());
+                }
+            }
+            recoverJournal();
+        } catch (RuntimeException e) {
+            discard();
+            throw e;
+        }
+        // apply once more the events not yet recorded; those which are no
+        // longer valid, for example where the participant has been changed
+        // elsewhere, were nonetheless acknowledged, and so are kept and
+        // recorded as conflicted, for the jury to review
+        for (ParticipantEvent e : unflushed) {
+            if (e.isConflicted()) {
+                continue;
+            }
+            Participant p = participants.get(e.getParticipantID());
+            try {
+                if (p == null) {
+                    throw new InvalidParameterException("participant removed");
+                }
+                if (e.getType() == ParticipantEvent.Type.UNDONE) {
+                    undo(p, e);
+                } else {
+                    e.apply(p);
+                }
+                bestLiftsChanged(p, e);
+            } catch (RuntimeException ex) {
+                e.markConflicted();
+                metricsService.increment("pipeline.replay.conflict", competitionID);
+                LOG.warn("Acknowledged {} of participant {} in competition {} no longer applies " +
+                                "and is recorded for review by the jury: {}",
+                        e.getType(), e.getParticipantID(), competitionID, ex.getMessage());
+            }
+        }
+        countUnflushed();
+    }
+
+    private static long sumOfLastEventIDs(Competition competition) {
+        long sum = 0;
+        for (Participant p : competition.getParticipants()) {
+            sum += p.getLastEventID();
+        }
+        return sum;
+    }
+
+    /**
+     * Takes, on first load, the events left in the journal by an earlier
+     * process which have not been recorded, to be applied and recorded. The
+     * journal continues from the greatest position recorded, so that later
+     * events are never mistaken for recorded ones.
+     */
+    private void recoverJournal() {
+        if (journalRecovered) {
+            return;
+        }
+        long recorded = eventLogService.lastJournalSequence(competitionID);
+        List<ParticipantEvent> pending = new ArrayList<>();
+        for (ParticipantEvent e : journal.getRecovered()) {
+            if (e.getJournalSequence() > recorded) {
+                pending.add(e);
+            }
+        }
+        journal.getRecovered().clear();
+        journal.checkpoint(recorded);
+        unflushed.addAll(0, pending);
+        journalRecovered = true;
+        metricsService.recordValue("pipeline.journal.replayed", competitionID, pending.size());
+    }
+
+    /**
+     * Gets the lane of a platform, creating it if there is none.
+     */
+    private Lane lane(int platform) {
+        return lanes.computeIfAbsent(platform, n -> new Lane(competitionID, n));
+    }
+
+    /**
+     * Counts the events of each platform which are yet to be recorded.
+     */
+    private void countUnflushed() {
+        Map<Integer, Integer> counts = new HashMap<>();
+        for (ParticipantEvent e : unflushed) {
+            counts.merge(platforms.getOrDefault(e.getParticipantID(), 1), 1, Integer::sum);
+        }
+        for (Integer platform : counts.keySet()) {
+            lane(platform);
+        }
+        for (Map.Entry<Integer, Lane> e : lanes.entrySet()) {
+            e.getValue().unflushedCount = counts.getOrDefault(e.getKey(), 0);
+        }
+    }
+
+    private void locked(Runnable action) {
+        lock.lock();
+        try {
+            action.run();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private <T> T locked(Supplier<T> action) {
+        lock.lock();
+        try {
+            return action.get();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Discards the resident competition, together with its persistence
+     * context and any changes not written as a snapshot.
+     */
+    private void discard() {
+        competition = null;
+        participants = null;
+        if (entityManager != null) {
+            entityManager.close();
+            entityManager = null;
+        }
+    }
+
+    /**
+     * Starts recording, on the recorder thread, the events applied since the
+     * last flush, unless a batch is already being recorded or the database
+     * recently failed.
+     */
+    private void flush() {
+        collect();
+        if (unflushed.isEmpty() || recording != null
+                || System.currentTimeMillis() < retryAfter) {
+            return;
+        }
+        List<ParticipantEvent> batch = new ArrayList<>(unflushed);
+        Map<Long, PersonalBest.Participation> bests = new HashMap<>(unflushedBests);
+        recordingBests = bests;
+        recording = CompletableFuture.supplyAsync(() -> metricsService.time("pipeline.flush",
+                competitionID, () -> eventLogService.record(batch, bests.values())), recorder);
+        recording.whenComplete((recorded, e) -> {
+            try {
+                writer.execute(() -> locked(this::collect));
+            } catch (RejectedExecutionException ex) {
+                // closed; the batch has already been collected
+            }
+        });
+    }
+
+    /**
+     * Completes the batch being recorded, if the recorder thread has
+     * finished with it. Once recorded, the events are checkpointed in the
+     * journal, and a snapshot is written if enough events have been recorded
+     * since the last.
+     */
+    private void collect() {
+        if (recording == null || !recording.isDone()) {
+            return;
+        }
+        List<ParticipantEvent> recorded;
+        try {
+            recorded = recording.join();
+        } catch (CompletionException | CancellationException e) {
+            recording = null;
+            recordingBests = null;
+            failed();
+            metricsService.increment("pipeline.flush.failure", competitionID);
+            completeFlushWaiters();
+            return;
+        }
+        recording = null;
+        databaseAvailable = true;
+        metricsService.recordValue("pipeline.flush.size", competitionID, recorded.size());
+        unflushed.subList(0, recorded.size()).clear();
+        // results changed again while recording remain to be recorded
+        for (Map.Entry<Long, PersonalBest.Participation> e : recordingBests.entrySet()) {
+            unflushedBests.remove(e.getKey(), e.getValue());
+        }
+        recordingBests = null;
+        countUnflushed();
+        long lastSequence = 0;
+        for (ParticipantEvent e : recorded) {
+            Participant p = participants == null ? null : participants.get(e.getParticipantID());
+            if (p != null) {
+                e.recordApplied(p);
+            }
+            lastSequence = Math.max(lastSequence, e.getJournalSequence());
+        }
+        if (journal != null) {
+            journal.checkpoint(lastSequence);
+        }
+        unsnapshotted += recorded.size();
+        competitionVersionService.markChanged(competitionID);
+        if (unflushed.isEmpty()) {
+            completeFlushWaiters();
+            if (unsnapshotted >= SNAPSHOT_INTERVAL) {
+                snapshot();
+            }
+        } else {
+            flush();
+        }
+    }
+
+    /**
+     * Records every applied event before returning, waiting on the recorder
+     * thread. Events which cannot be recorded remain unflushed. The database
+     * is not tried again before it is due to be retried.
+     */
+    private void drain() {
+        awaitRecording();
+        flush();
+        awaitRecording();
+    }
+
+    /**
+     * Waits for the batch being recorded, if any, and completes it.
+     */
+    private void awaitRecording() {
+        if (recording == null) {
+            return;
+        }
+        try {
+            recording.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (ExecutionException e) {
+            // reported by collect
+        }
+        collect();
+    }
+
+    private void completeFlushWaiters() {
+        for (CompletableFuture<Void> f : flushWaiters) {
+            f.complete(null);
+        }
+        flushWaiters.clear();
+    }
+
+    /**
+     * Records that the database has failed, so that it is not used again
+     * for a while.
+     */
+    private void failed() {
+        databaseAvailable = false;
+        retryAfter = System.currentTimeMillis() + RETRY_INTERVAL_MS;
+    }
+
+    /**
+     * Writes the resident competition to the database, in one transaction
+     * using batched statements. This is to be called only once every applied
+     * event has been recorded.
+     *
+     * If writing fails, the resident competition is discarded, to be loaded
+     * again from the last snapshot and the event log, and the snapshot is
+     * retried by {@link #tick()} once the database is due to be tried again.
+     *
+     * @return true, if every recorded event is included in the last snapshot,
+     *         else false
+     */
+    private boolean snapshot() {
+        if (competition == null || unsnapshotted == 0 || !unflushed.isEmpty()
+                || recording != null || !databaseAvailable) {
+            return unsnapshotted == 0;
+        }
+        EntityTransaction tx = entityManager.getTransaction();
+        try {
+            metricsService.time("pipeline.snapshot", competitionID, () -> {
+                tx.begin();
+                tx.commit();
+            });
+            unsnapshotted = 0;
+            snapshotFailed = false;
+            return true;
+        } catch (RuntimeException e) {
+            metricsService.increment("pipeline.snapshot.failure", competitionID);
+            if (tx.isActive()) {
+                tx.rollback();
+            }
+            discard();
+            snapshotFailed = true;
+            retryAfter = System.currentTimeMillis() + RETRY_INTERVAL_MS;
+            return false;
+        }
+    }
+
+    /**
+     * Loads the resident competition again, after writing its snapshot
+     * failed, and writes the snapshot.
+     *
+     * @return true, if the snapshot was written, else false
+     */
+    private boolean retrySnapshot() {
+        try {
+            load();
+        } catch (RuntimeException e) {
+            failed();
+            return false;
+        }
+        return snapshot();
+    }
+
+    /**
+     * Carries out the periodic work of the writer thread: forcing the
+     * journal, recovering it once the database is available, recording
+     * events, retrying a snapshot which failed, and closing the pipeline once
+     * it is no longer required.
+     */
+    private void tick() {
+        if (closed) {
+            return;
+        }
+        if (journal != null) {
+            journal.syncPeriodically();
+        }
+        if (competition == null && !journalRecovered
+                && System.currentTimeMillis() >= retryAfter) {
+            try {
+                load();
+            } catch (RuntimeException e) {
+                // the database is unavailable; try again shortly
+                failed();
+                return;
+            }
+        }
+        flush();
+        if (!unflushed.isEmpty() || recording != null || !journalRecovered) {
+            return;
+        }
+        if (snapshotFailed && System.currentTimeMillis() >= retryAfter && !retrySnapshot()) {
+            return;
+        }
+        boolean idle = System.currentTimeMillis() - lastCommandTime > IDLE_TIMEOUT_MS;
+        boolean complete = competition != null && competition.isCompetitionComplete();
+        // a pipeline whose snapshot cannot be written stays open to retry it
+        if ((idle || complete) && snapshot()) {
+            shutdown();
+        }
+    }
+
+    /**
+     * Closes this pipeline on the writer thread. Commands still queued are
+     * refused, so that they may be submitted to a new pipeline.
+     */
+    private void shutdown() {
+        closed = true;
+        discard();
+        if (journal != null) {
+            try {
+                journal.close();
+            } catch (IOException e) {
+                metricsService.increment("pipeline.journal.failure", competitionID);
+            }
+            journal = null;
+        }
+        completeFlushWaiters();
+        recorder.shutdown();
+        for (Lane lane : lanes.values()) {
+            lane.executor.shutdown();
+        }
+        writer.shutdown();
+        metricsService.evict(competitionID);
+        onClose.run();
+    }
+
+    /**
+     * The lane of one platform: the thread on which its commands are applied,
+     * in order, and its share of the pipeline's back-pressure. The thread is
+     * stopped while the platform is idle.
+     */
+    private static final class Lane {
+        private final ThreadPoolExecutor executor;
+        private final Semaphore queueCapacity = new Semaphore(QUEUE_CAPACITY);
+        private volatile int unflushedCount = 0;
+
+        private Lane(long competitionID, int platform) {
+            executor = new ThreadPoolExecutor(1, 1, IDLE_LANE_MS, TimeUnit.MILLISECONDS,
+                    new LinkedBlockingQueue<>(), r -> {
+                Thread t = new Thread(r, "competition-" + competitionID + "-platform-" + platform);
+                t.setDaemon(true);
+                return t;
+            });
+            executor.allowCoreThreadTimeOut(true);
+        }
+    }
+}
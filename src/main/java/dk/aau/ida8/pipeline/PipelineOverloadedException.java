@@ -0,0 +1,19 @@
+package dk.aau.ida8.pipeline;
+
+/**
+ * This class represents an exception caused by submitting a command to the
+ * pipeline of a competition which cannot accept further commands, either
+ * because too many are waiting to be applied, or because too many have not
+ * yet been written to the database.
+ */
+public final class PipelineOverloadedException extends RuntimeException {
+
+    /**
+     * Creates the exception.
+     *
+     * @param msg description of the reason the command was refused
+     */
+    public PipelineOverloadedException(String msg) {
+        super(msg);
+    }
+}
@@ -11,10 +11,13 @@ import java.util.Iterator;
 public class ClubService {
 
     private ClubRepository clubRepository;
+    private ReferenceCacheService referenceCacheService;
 
     @Autowired
-    public ClubService(ClubRepository clubRepository) {
+    public ClubService(ClubRepository clubRepository,
+                       ReferenceCacheService referenceCacheService) {
         this.clubRepository = clubRepository;
+        this.referenceCacheService = referenceCacheService;
     }
 
     public Iterable<Club> findAll() {
@@ -30,7 +33,9 @@ public class ClubService {
     }
 
     public Club saveClub(Club club) {
-        return clubRepository.save(club);
+        Club saved = clubRepository.save(club);
+        referenceCacheService.evictClub(saved);
+        return saved;
     }
 
 }
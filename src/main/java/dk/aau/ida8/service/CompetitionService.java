@@ -2,24 +2,61 @@ package dk.aau.ida8.service;
 
 //This service layer handles the explicit access given to approved methods
 
+import dk.aau.ida8.api.CompetitionListing;
+import dk.aau.ida8.api.CompetitionSummary;
 import dk.aau.ida8.data.CompetitionRepository;
 import dk.aau.ida8.model.Competition;
+import dk.aau.ida8.util.WeightClassTable;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.annotation.PostConstruct;
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+import java.util.Date;
+import java.util.List;
+import java.util.function.Consumer;
 
 //service annotation to tell Spring that this is a service-class
 @Service
 //Service-class CompetitionService creation
 public class CompetitionService {
 
+    //Number of attempts made by update before a conflict is reported
+    private static final int UPDATE_ATTEMPTS = 5;
+
     //Instance variable instantiation
     private CompetitionRepository competitionRepository;
+    private CompetitionVersionService competitionVersionService;
+    private EventLogService eventLogService;
+
+    private TransactionTemplate transactionTemplate;
+
+    @PersistenceContext
+    private EntityManager entityManager;
 
     //Autowired annotation to tell Spring to create new instance of competitionRepository
     @Autowired
     //Constructor to instantiate class
-    public CompetitionService(CompetitionRepository competitionRepository) {
+    public CompetitionService(CompetitionRepository competitionRepository,
+                              CompetitionVersionService competitionVersionService,
+                              EventLogService eventLogService,
+                              PlatformTransactionManager transactionManager) {
         this.competitionRepository = competitionRepository;
+        this.competitionVersionService = competitionVersionService;
+        this.eventLogService = eventLogService;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    //Method to give every competition stored before weight class tables could be chosen the 1998 IWF classes
+    //These are the classes such competitions were run with, whatever their date
+    @PostConstruct
+    public void assignWeightClassTables() {
+        competitionRepository.setMissingWeightClassTables(WeightClassTable.IWF_1998);
     }
 
     //Method to find all the competitions
@@ -27,19 +64,98 @@ public class CompetitionService {
         return competitionRepository.findAll();
     }
 
-    //Method to find one competition based on the competition ID
+    //Method to find one competition based on the competition ID, with its participants brought up to date
     public Competition findOne(Long id) {
-        return competitionRepository.findOne(id);
+        return eventLogService.catchUp(competitionRepository.findOne(id));
+    }
+
+    //Method to find one competition with the data needed by the sign-up view
+    public Competition findForSignUp(Long id) {
+        return competitionRepository.findWithParticipants(id);
+    }
+
+    //Method to find one competition with the data needed by the weigh-in view
+    public Competition findForWeighIn(Long id) {
+        return eventLogService.catchUp(competitionRepository.findWithParticipants(id));
+    }
+
+    //Method to find one competition with the data needed by the dashboard view
+    public Competition findForDashboard(Long id) {
+        return eventLogService.catchUp(competitionRepository.findForDashboard(id));
+    }
+
+    //Method to find one competition with the data needed by the results view
+    public Competition findForResults(Long id) {
+        return eventLogService.catchUp(competitionRepository.findForResults(id));
+    }
+
+    //Method to find the summary of one competition, without loading its participants
+    public CompetitionSummary findSummary(Long id) {
+        return competitionRepository.findSummary(id);
+    }
+
+    //Method to list up to size competitions held after the competition of the given date and ID#, earliest first
+    public List<CompetitionListing> findListingsAfter(Date afterDate, long afterID, int size) {
+        return competitionRepository.findListingsAfter(afterDate, afterID, new PageRequest(0, size));
+    }
+
+    //Method to list up to size competitions held after the competition of the given date and ID#, and before until
+    public List<CompetitionListing> findListingsBetween(Date afterDate, long afterID, Date until, int size) {
+        return competitionRepository.findListingsBetween(afterDate, afterID, until, new PageRequest(0, size));
+    }
+
+    //Method to list up to size competitions held before the competition of the given date and ID#, latest first
+    public List<CompetitionListing> findListingsBefore(Date beforeDate, long beforeID, int size) {
+        return competitionRepository.findListingsBefore(beforeDate, beforeID, new PageRequest(0, size));
     }
 
 
     //Method to save a competition. Takes a competition object and saves in database.
     public Competition save (Competition competition){
-        return competitionRepository.save(competition);
+        Competition saved = competitionRepository.save(competition);
+        competitionVersionService.markChanged(saved.getId());
+        return saved;
+    }
+
+    /**
+     * Applies a change to a competition and saves it, retrying the change if
+     * another terminal modifies the competition at the same time.
+     *
+     * Each attempt takes place within its own transaction, in which the
+     * competition is loaded afresh and the change is applied to it. This must
+     * therefore only be used for changes which commute with any other change,
+     * such as signing-up or removing different lifters; other changes must
+     * report the conflict instead.
+     *
+     * @param id     the ID# of the competition to change
+     * @param change the change to apply to the competition
+     * @return the saved competition
+     * @throws OptimisticLockingFailureException if the competition could not
+     *                                           be saved after several
+     *                                           attempts
+     */
+    public Competition update(Long id, Consumer<Competition> change)
+            throws OptimisticLockingFailureException {
+        for (int attempt = 1; ; attempt++) {
+            try {
+                return transactionTemplate.execute(status -> {
+                    Competition competition = competitionRepository.findOne(id);
+                    change.accept(competition);
+                    return save(competition);
+                });
+            } catch (OptimisticLockingFailureException e) {
+                if (attempt >= UPDATE_ATTEMPTS) {
+                    throw e;
+                }
+                // discard the stale competition, so that it is reloaded
+                entityManager.clear();
+            }
+        }
     }
 
     //Method to delete a competition
     public void delete (Long id){
         competitionRepository.delete(id);
+        competitionVersionService.markChanged(id);
     }
 }
@@ -0,0 +1,83 @@
+package dk.aau.ida8.service;
+
+import org.springframework.stereotype.Service;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * This service keeps a mutation counter for each competition, from which
+ * entity tags (ETags) for the results API are derived.
+ *
+ * The counter of a competition is advanced each time any part of it is saved:
+ * the competition itself, one of its participants or one of their lifts. As
+ * the counters are held in memory, a client holding a current ETag can be
+ * answered with 304 Not Modified without any database access.
+ *
+ * Counters are not persisted. Every ETag therefore also contains an
+ * identifier unique to this instance of the application, so that an ETag
+ * issued before a restart is never mistaken for a current one.
+ */
+@Service
+public class CompetitionVersionService {
+
+    private final String instanceID = Long.toString(System.currentTimeMillis(), 36);
+    private final Map<Long, AtomicLong> versions = new ConcurrentHashMap<>();
+
+    /**
+     * Records that a competition has changed.
+     *
+     * @param competitionID the ID# of the changed competition
+     */
+    public void markChanged(long competitionID) {
+        versions.computeIfAbsent(competitionID, id -> new AtomicLong()).incrementAndGet();
+    }
+
+    /**
+     * Gets the current version of a competition.
+     *
+     * @param competitionID the ID# of the competition
+     * @return the number of changes recorded for the competition
+     */
+    public long getVersion(long competitionID) {
+        AtomicLong version = versions.get(competitionID);
+        return version == null ? 0 : version.get();
+    }
+
+    /**
+     * Gets the current ETag of a competition.
+     *
+     * @param competitionID the ID# of the competition
+     * @return the quoted ETag for the current version of the competition
+     */
+    public String getETag(long competitionID) {
+        return "\"" + instanceID + "-" + competitionID + "-" + getVersion(competitionID) + "\"";
+    }
+
+    /**
+     * Determines whether the value of an If-None-Match request header
+     * matches the current ETag of a competition.
+     *
+     * @param competitionID the ID# of the competition
+     * @param ifNoneMatch   the value of the If-None-Match header, which may
+     *                      be null
+     * @return true if the client's copy is current, else false
+     */
+    public boolean isCurrent(long competitionID, String ifNoneMatch) {
+        if (ifNoneMatch == null) {
+            return false;
+        }
+        String etag = getETag(competitionID);
+        for (String candidate : ifNoneMatch.split(",")) {
+            String tag = candidate.trim();
+            if (tag.startsWith("W/")) {
+                tag = tag.substring(2);
+            }
+            if (tag.equals("*") || tag.equals(etag)) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
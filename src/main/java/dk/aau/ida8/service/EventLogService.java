@@ -0,0 +1,294 @@
+package dk.aau.ida8.service;
+
+import dk.aau.ida8.data.ParticipantEventRepository;
+import dk.aau.ida8.data.ParticipantRepository;
+import dk.aau.ida8.model.Competition;
+import dk.aau.ida8.model.Participant;
+import dk.aau.ida8.model.ParticipantEvent;
+import dk.aau.ida8.model.PersonalBest;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.security.InvalidParameterException;
+import java.util.*;
+
+/**
+ * This service records and reads the log of {@link ParticipantEvent events}
+ * of each competition.
+ *
+ * Participants are persisted as snapshots, which may lag behind the log. Any
+ * participant read from the database must therefore be brought up to date by
+ * {@link #catchUp(Competition)} or {@link #catchUp(Participant)} before it is
+ * shown.
+ */
+@Service
+public class EventLogService {
+
+    private ParticipantEventRepository participantEventRepository;
+    private ParticipantRepository participantRepository;
+    private CompetitionVersionService competitionVersionService;
+    private PersonalBestService personalBestService;
+
+    private TransactionTemplate transactionTemplate;
+
+    /**
+     * Instantiates an EventLogService.
+     *
+     * @param participantEventRepository the repository of events
+     * @param participantRepository      the repository of participants, used
+     *                                   to save a participant together with
+     *                                   their weigh-in
+     * @param competitionVersionService  the service through which recorded
+     *                                   changes are published
+     * @param personalBestService        the service through which personal
+     *                                   bests are updated as lifts are
+     *                                   recorded
+     * @param transactionManager         the transaction manager
+     */
+    @Autowired
+    public EventLogService(ParticipantEventRepository participantEventRepository,
+                           ParticipantRepository participantRepository,
+                           CompetitionVersionService competitionVersionService,
+                           PersonalBestService personalBestService,
+                           PlatformTransactionManager transactionManager) {
+        this.participantEventRepository = participantEventRepository;
+        this.participantRepository = participantRepository;
+        this.competitionVersionService = competitionVersionService;
+        this.personalBestService = personalBestService;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    /**
+     * Inserts events into the log, and updates the personal bests of the
+     * lifters whose lifts they change, in one transaction. Copies of the
+     * events are inserted, leaving the given events untouched should this
+     * fail.
+     *
+     * Recording is idempotent for journalled events: an event whose journal
+     * position has already been recorded, e.g. by an earlier attempt which
+     * committed but was reported as failed, is not inserted again, and the
+     * event recorded by that attempt is returned in its place. A unique
+     * constraint on the journal position of each competition guards against
+     * the same event being inserted by two attempts at once.
+     *
+     * @param events         the events to insert, in the order in which they
+     *                       were applied
+     * @param participations the results of the participants whose best
+     *                       lifts may have been changed by the events, after
+     *                       applying them
+     * @return the inserted copies, or the events already recorded, in the
+     *         same order, each with its ID#
+     */
+    public List<ParticipantEvent> record(List<ParticipantEvent> events,
+                                         Collection<PersonalBest.Participation> participations) {
+        if (events.isEmpty() && participations.isEmpty()) {
+            return new ArrayList<>();
+        }
+        return transactionTemplate.execute(status -> {
+            Map<Long, ParticipantEvent> recorded = findRecorded(events);
+            List<ParticipantEvent> copies = new ArrayList<>(events.size());
+            List<ParticipantEvent> inserted = new ArrayList<>(events.size());
+            for (ParticipantEvent e : events) {
+                ParticipantEvent copy = recorded.get(e.getJournalSequence());
+                if (copy == null) {
+                    copy = e.copy();
+                    inserted.add(copy);
+                }
+                copies.add(copy);
+            }
+            if (!inserted.isEmpty()) {
+                participantEventRepository.save(inserted);
+            }
+            personalBestService.record(participations);
+            return copies;
+        });
+    }
+
+    /**
+     * Weighs in a participant, recording their weigh-in as the first event in
+     * their history. The event and the participant are saved in one
+     * transaction.
+     *
+     * @param participant                the participant to weigh in
+     * @param bodyWeight                 the participant's body weight
+     * @param startingSnatchWeight       the starting snatch weight
+     * @param startingCleanAndJerkWeight the starting clean & jerk weight
+     * @return the saved participant
+     * @throws InvalidParameterException if a starting weight is not valid
+     */
+    public Participant weighIn(Participant participant, double bodyWeight,
+                               int startingSnatchWeight,
+                               int startingCleanAndJerkWeight)
+            throws InvalidParameterException {
+        ParticipantEvent event = ParticipantEvent.weighedIn(
+                participant.getCompetition().getId(), participant.getId(),
+                bodyWeight, startingSnatchWeight, startingCleanAndJerkWeight);
+        event.apply(participant);
+        Participant saved = transactionTemplate.execute(status -> {
+            participantEventRepository.save(event);
+            event.recordApplied(participant);
+            return participantRepository.save(participant);
+        });
+        competitionVersionService.markChanged(participant.getCompetition().getId());
+        return saved;
+    }
+
+    /**
+     * Brings every participant of a competition up to date, by applying the
+     * events recorded since their snapshots. This takes one query, for the
+     * events later than the oldest snapshot.
+     *
+     * @param competition the competition, as read from the database
+     * @return the competition
+     */
+    public Competition catchUp(Competition competition) {
+        if (competition == null) {
+            return null;
+        }
+        Map<Long, Participant> participants = new HashMap<>();
+        long oldest = Long.MAX_VALUE;
+        for (Participant p : competition.getParticipants()) {
+            participants.put(p.getId(), p);
+            if (p.getLastEventID() > 0) {
+                oldest = Math.min(oldest, p.getLastEventID());
+            }
+        }
+        if (oldest == Long.MAX_VALUE) {
+            return competition;
+        }
+        List<ParticipantEvent> events = participantEventRepository
+                .findByCompetitionIDAndIdGreaterThanOrderByIdAsc(competition.getId(), oldest);
+        apply(participants, events);
+        return competition;
+    }
+
+    /**
+     * Brings a participant up to date, by applying the events recorded since
+     * their snapshot.
+     *
+     * @param participant the participant, as read from the database
+     * @return the participant
+     */
+    public Participant catchUp(Participant participant) {
+        if (participant == null || participant.getLastEventID() == 0) {
+            return participant;
+        }
+        List<ParticipantEvent> events = participantEventRepository
+                .findByParticipantIDAndIdGreaterThanOrderByIdAsc(
+                        participant.getId(), participant.getLastEventID());
+        apply(Collections.singletonMap(participant.getId(), participant), events);
+        return participant;
+    }
+
+    /**
+     * Gets the complete history of a participant.
+     *
+     * @param participantID the ID# of the participant
+     * @return every event of the participant, in order
+     */
+    public List<ParticipantEvent> history(long participantID) {
+        return participantEventRepository.findByParticipantIDOrderByIdAsc(participantID);
+    }
+
+    /**
+     * Gets the greatest journal position among the recorded events of a
+     * competition; journalled events at or before this position have been
+     * recorded.
+     *
+     * @param competitionID the ID# of the competition
+     * @return the greatest journal position recorded, or 0 if none
+     */
+    public long lastJournalSequence(long competitionID) {
+        return participantEventRepository.findLastJournalSequence(competitionID);
+    }
+
+    /**
+     * Gets every event of a competition, for review by the jury.
+     *
+     * @param competitionID the ID# of the competition
+     * @return every event of the competition, in order
+     */
+    public List<ParticipantEvent> competitionLog(long competitionID) {
+        return participantEventRepository.findByCompetitionIDOrderByIdAsc(competitionID);
+    }
+
+    /**
+     * Counts the events of a competition which were acknowledged, but could
+     * not be applied when the competition was loaded again, and so await
+     * review by the jury.
+     *
+     * @param competitionID the ID# of the competition
+     * @return the number of conflicted events
+     */
+    public long countConflicts(long competitionID) {
+        return participantEventRepository.countByCompetitionIDAndConflictedTrue(competitionID);
+    }
+
+    /**
+     * Finds those of the given journalled events which have already been
+     * recorded, by comparing their journal positions with the greatest
+     * recorded. Events which were not journalled cannot be found.
+     *
+     * @return map of journal position to the event recorded from it
+     */
+    private Map<Long, ParticipantEvent> findRecorded(List<ParticipantEvent> events) {
+        Map<Long, ParticipantEvent> recorded = new HashMap<>();
+        long first = Long.MAX_VALUE;
+        for (ParticipantEvent e : events) {
+            if (e.getJournalSequence() > 0) {
+                first = Math.min(first, e.getJournalSequence());
+            }
+        }
+        if (first == Long.MAX_VALUE) {
+            return recorded;
+        }
+        long competitionID = events.get(0).getCompetitionID();
+        long last = participantEventRepository.findLastJournalSequence(competitionID);
+        if (first > last) {
+            return recorded;
+        }
+        for (ParticipantEvent e : participantEventRepository
+                .findByCompetitionIDAndJournalSequenceBetween(competitionID, first, last)) {
+            recorded.put(e.getJournalSequence(), e);
+        }
+        return recorded;
+    }
+
+    /**
+     * Applies to each participant those of the given events which are later
+     * than their snapshot, except those conflicted. A participant for whom an
+     * event has been undone is instead rebuilt from their complete history.
+     */
+    private void apply(Map<Long, Participant> participants, List<ParticipantEvent> events) {
+        Set<Long> rebuilt = new HashSet<>();
+        for (ParticipantEvent e : events) {
+            Participant p = participants.get(e.getParticipantID());
+            if (p != null && e.getType() == ParticipantEvent.Type.UNDONE
+                    && !e.isConflicted() && e.getId() > p.getLastEventID()) {
+                rebuilt.add(p.getId());
+            }
+        }
+        for (Long id : rebuilt) {
+            ParticipantEvent.rebuild(participants.get(id), history(id));
+        }
+        for (ParticipantEvent e : events) {
+            Participant p = participants.get(e.getParticipantID());
+            if (p == null || rebuilt.contains(p.getId()) || e.getId() <= p.getLastEventID()) {
+                continue;
+            }
+            if (e.isConflicted()) {
+                // recorded for review by the jury, but never applied
+                e.recordApplied(p);
+                continue;
+            }
+            try {
+                e.apply(p);
+            } catch (InvalidParameterException | UnsupportedOperationException ex) {
+                // rejected when first applied, and so never acknowledged
+                e.recordApplied(p);
+            }
+        }
+    }
+}
@@ -3,6 +3,7 @@ package dk.aau.ida8.service;
 import dk.aau.ida8.data.LiftRepository;
 import dk.aau.ida8.model.Lift;
 import dk.aau.ida8.model.Lifter;
+import dk.aau.ida8.model.Participant;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.autoconfigure.AutoConfigureOrder;
 import org.springframework.stereotype.Service;
@@ -14,10 +15,13 @@ import org.springframework.stereotype.Service;
 public class LiftService {
 
     private LiftRepository liftRepository;
+    private CompetitionVersionService competitionVersionService;
 
     @Autowired
-    public LiftService(LiftRepository liftRepository) {
+    public LiftService(LiftRepository liftRepository,
+                       CompetitionVersionService competitionVersionService) {
         this.liftRepository = liftRepository;
+        this.competitionVersionService = competitionVersionService;
     }
 
     /**Method to find all lifts in the system
@@ -35,7 +39,12 @@ public class LiftService {
 
     //Save method to save a lift-object to a database
     public Lift saveLift(Lift lift){
-        return liftRepository.save(lift);
+        Lift saved = liftRepository.save(lift);
+        Participant participant = saved.getParticipant();
+        if (participant != null && participant.getCompetition() != null) {
+            competitionVersionService.markChanged(participant.getCompetition().getId());
+        }
+        return saved;
     }
 
 }
@@ -0,0 +1,237 @@
+package dk.aau.ida8.service;
+
+import dk.aau.ida8.api.ImportReport;
+import dk.aau.ida8.importer.LifterRecord;
+import dk.aau.ida8.importer.LifterRecordReader;
+import dk.aau.ida8.model.Club;
+import dk.aau.ida8.model.Lifter;
+import dk.aau.ida8.util.LifterSearchIndex;
+import org.hibernate.CacheMode;
+import org.hibernate.Session;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+import javax.persistence.EntityManager;
+import javax.persistence.EntityManagerFactory;
+import javax.persistence.EntityTransaction;
+import javax.persistence.PersistenceException;
+import java.io.IOException;
+import java.security.InvalidParameterException;
+import java.util.*;
+
+/**
+ * This service imports lifters, and the clubs of which they are members, in
+ * bulk, e.g. from the roster of a federation.
+ *
+ * Rows are read one at a time, and saved in chunks of {@link #CHUNK_SIZE},
+ * so that an import of any size takes constant memory. Each chunk is saved
+ * in its own transaction and persistence context: the lifters of the chunk
+ * which already exist are found by one query, and the rest are inserted in
+ * JDBC batches (see hibernate.jdbc.batch_size). Clubs are resolved by name
+ * from a map of every club, read once; clubs not found are created.
+ *
+ * Rows which are invalid are rejected individually, and reported with the
+ * reason for which they were rejected. Should a chunk fail to save, every
+ * row of that chunk is reported, and the import continues with the next.
+ *
+ * Lifters and clubs are saved bypassing the second-level cache, which is
+ * evicted once the import is complete. The lifters of each chunk are updated
+ * within the {@link LifterSearchService} once the chunk is committed.
+ */
+@Service
+public class LifterImportService {
+
+    /**
+     * The number of rows saved in each transaction.
+     */
+    static final int CHUNK_SIZE = 1000;
+
+    private EntityManagerFactory entityManagerFactory;
+    private ClubService clubService;
+    private ReferenceCacheService referenceCacheService;
+    private MetricsService metricsService;
+    private LifterSearchService lifterSearchService;
+
+    /**
+     * Instantiates a LifterImportService.
+     *
+     * @param entityManagerFactory  the factory of the persistence context in
+     *                              which each chunk is saved
+     * @param clubService           the service used to read existing clubs
+     * @param referenceCacheService the service used to evict imported
+     *                              lifters and clubs from the cache
+     * @param metricsService        the service used to record the time taken
+     * @param lifterSearchService   the service whose index of lifters is
+     *                              updated with the lifters imported
+     */
+    @Autowired
+    public LifterImportService(EntityManagerFactory entityManagerFactory,
+                               ClubService clubService,
+                               ReferenceCacheService referenceCacheService,
+                               MetricsService metricsService,
+                               LifterSearchService lifterSearchService) {
+        this.entityManagerFactory = entityManagerFactory;
+        this.clubService = clubService;
+        this.referenceCacheService = referenceCacheService;
+        this.metricsService = metricsService;
+        this.lifterSearchService = lifterSearchService;
+    }
+
+    /**
+     * Imports every row read by a reader. Each valid row creates a lifter,
+     * or updates the existing lifter of the same forename, surname and date
+     * of birth.
+     *
+     * @param reader the reader of the rows to import, which is closed once
+     *               read
+     * @return the report of the rows imported and rejected
+     * @throws IOException if the rows cannot be read
+     */
+    public ImportReport importLifters(LifterRecordReader reader) throws IOException {
+        long start = System.nanoTime();
+        ImportReport report = new ImportReport();
+        Map<String, Long> clubIDs = new HashMap<>();
+        for (Club c : clubService.findAll()) {
+            clubIDs.putIfAbsent(c.getName(), c.getId());
+        }
+
+        List<LifterRecord> chunk = new ArrayList<>(CHUNK_SIZE);
+        try (LifterRecordReader in = reader) {
+            while (true) {
+                LifterRecord record;
+                try {
+                    Map<String, String> fields = in.next();
+                    if (fields == null) {
+                        break;
+                    }
+                    record = LifterRecord.of(in.getRow(), fields);
+                } catch (InvalidParameterException e) {
+                    report.addError(in.getRow(), e.getMessage());
+                    continue;
+                }
+                chunk.add(record);
+                if (chunk.size() == CHUNK_SIZE) {
+                    save(chunk, clubIDs, report);
+                    chunk.clear();
+                }
+            }
+            if (!chunk.isEmpty()) {
+                save(chunk, clubIDs, report);
+            }
+            report.setRows(in.getRow());
+        } finally {
+            if (report.getCreated() + report.getUpdated() > 0) {
+                referenceCacheService.evictAllLifters();
+            }
+            metricsService.recordTime("lifter.import", null, System.nanoTime() - start);
+            metricsService.recordValue("lifter.import.rows", null, report.getRows());
+        }
+        return report;
+    }
+
+    /**
+     * Saves one chunk of rows in one transaction, adding any clubs created
+     * to the map of clubs.
+     */
+    private void save(List<LifterRecord> chunk, Map<String, Long> clubIDs, ImportReport report) {
+        EntityManager em = entityManagerFactory.createEntityManager();
+        em.unwrap(Session.class).setCacheMode(CacheMode.IGNORE);
+        EntityTransaction tx = em.getTransaction();
+        Map<String, Club> newClubs = new HashMap<>();
+        Map<String, Lifter> lifters;
+        int created = 0;
+        int updated = 0;
+        try {
+            tx.begin();
+            lifters = findExisting(em, chunk);
+            for (LifterRecord r : chunk) {
+                Lifter l = lifters.get(r.key());
+                if (l == null) {
+                    l = new Lifter();
+                    r.copyTo(l);
+                    l.setClub(club(em, r.getClubName(), clubIDs, newClubs));
+                    em.persist(l);
+                    lifters.put(r.key(), l);
+                    created++;
+                } else {
+                    r.copyTo(l);
+                    l.setClub(club(em, r.getClubName(), clubIDs, newClubs));
+                    updated++;
+                }
+            }
+            tx.commit();
+        } catch (PersistenceException e) {
+            if (tx.isActive()) {
+                tx.rollback();
+            }
+            String msg = "not saved: " + rootCause(e).getMessage();
+            for (LifterRecord r : chunk) {
+                report.addError(r.getRow(), msg);
+            }
+            return;
+        } finally {
+            em.close();
+        }
+        for (Club c : newClubs.values()) {
+            clubIDs.put(c.getName(), c.getId());
+        }
+        for (LifterRecord r : chunk) {
+            Lifter l = lifters.get(r.key());
+            lifterSearchService.update(new LifterSearchIndex.Entry(l.getId(), l.getForename(),
+                    l.getSurname(), r.getClubName(), l.getDateOfBirth(), l.getGender(), l.isActive()));
+        }
+        report.addSaved(created, updated, newClubs.size());
+    }
+
+    /**
+     * Finds the existing lifters of a chunk of rows, by one query on their
+     * surnames.
+     *
+     * @return map of the key of each lifter found to the lifter
+     */
+    private static Map<String, Lifter> findExisting(EntityManager em, List<LifterRecord> chunk) {
+        Set<String> surnames = new HashSet<>();
+        for (LifterRecord r : chunk) {
+            surnames.add(r.getSurname());
+        }
+        List<Lifter> found = em.createQuery(
+                "select l from Lifter l left join fetch l.club where l.surname in :surnames", Lifter.class)
+                .setParameter("surnames", surnames)
+                .getResultList();
+        Map<String, Lifter> lifters = new HashMap<>();
+        for (Lifter l : found) {
+            if (l.getForename() != null && l.getDateOfBirth() != null) {
+                lifters.putIfAbsent(LifterRecord.key(l.getForename(), l.getSurname(),
+                        l.getDateOfBirth()), l);
+            }
+        }
+        return lifters;
+    }
+
+    /**
+     * Resolves a club by name, creating it if neither it exists nor it has
+     * been created within this chunk. Existing clubs are referenced by ID#,
+     * without being read.
+     */
+    private static Club club(EntityManager em, String name,
+                             Map<String, Long> clubIDs, Map<String, Club> newClubs) {
+        Long id = clubIDs.get(name);
+        if (id != null) {
+            return em.getReference(Club.class, id);
+        }
+        Club club = newClubs.get(name);
+        if (club == null) {
+            club = new Club(name, null);
+            em.persist(club);
+            newClubs.put(name, club);
+        }
+        return club;
+    }
+
+    private static Throwable rootCause(Throwable e) {
+        while (e.getCause() != null && e.getCause() != e) {
+            e = e.getCause();
+        }
+        return e;
+    }
+}
@@ -0,0 +1,136 @@
+package dk.aau.ida8.service;
+
+import dk.aau.ida8.data.LifterRepository;
+import dk.aau.ida8.model.Lifter;
+import dk.aau.ida8.util.LifterSearchIndex;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+
+/**
+ * This service searches every lifter in the system, across all clubs, by
+ * partial name, club name or date of birth, e.g. to sign lifters up to a
+ * competition as their names are typed.
+ *
+ * Lifters are searched within a {@link LifterSearchIndex}, held in memory.
+ * The index is built from one query when first searched, and thereafter
+ * kept up to date as lifters are saved and deleted, so that no search
+ * reaches the database. Bulk changes made outside of {@link LifterService}
+ * either update the index themselves or invalidate it, in which case it is
+ * rebuilt when next searched.
+ */
+@Service
+public class LifterSearchService {
+
+    /**
+     * The greatest number of lifters returned by one search.
+     */
+    public static final int MAX_RESULTS = 100;
+
+    private LifterRepository lifterRepository;
+    private MetricsService metricsService;
+    private final LifterSearchIndex index = new LifterSearchIndex();
+    private volatile boolean built = false;
+
+    /**
+     * Instantiates a LifterSearchService.
+     *
+     * @param lifterRepository the repository from which the index is built
+     * @param metricsService   the service used to record the time taken
+     */
+    @Autowired
+    public LifterSearchService(LifterRepository lifterRepository,
+                               MetricsService metricsService) {
+        this.lifterRepository = lifterRepository;
+        this.metricsService = metricsService;
+    }
+
+    /**
+     * Searches for the lifters matching a query.
+     *
+     * @param query  the partial names, club name or date of birth of the
+     *               lifter, separated by whitespace
+     * @param gender the gender of the lifters to find, or null for either
+     * @param active whether to find only active, or only inactive, lifters,
+     *               or null for both
+     * @param limit  the greatest number of lifters to find, at most
+     *               {@link #MAX_RESULTS}
+     * @return the lifters found, best matches first
+     */
+    public List<LifterSearchIndex.Entry> search(String query, Lifter.Gender gender,
+                                                Boolean active, int limit) {
+        if (!built) {
+            build();
+        }
+        long start = System.nanoTime();
+        List<LifterSearchIndex.Entry> found =
+                index.search(query, gender, active, Math.min(limit, MAX_RESULTS));
+        metricsService.recordTime("lifter.search", null, System.nanoTime() - start);
+        return found;
+    }
+
+    /**
+     * Adds a lifter to the index, or replaces the lifter of the same ID#.
+     *
+     * @param entry the lifter's entry
+     */
+    public synchronized void update(LifterSearchIndex.Entry entry) {
+        // until built, the lifter is found by the query which builds the index
+        if (built) {
+            index.put(entry);
+        }
+    }
+
+    /**
+     * Adds a lifter to the index, or replaces the lifter of the same ID#.
+     *
+     * @param lifter the lifter, whose club must be loaded
+     */
+    public void update(Lifter lifter) {
+        update(LifterSearchIndex.Entry.of(lifter));
+    }
+
+    /**
+     * Removes a lifter from the index.
+     *
+     * @param id the ID# of the lifter
+     */
+    public synchronized void remove(long id) {
+        if (built) {
+            index.remove(id);
+        }
+    }
+
+    /**
+     * Discards the index, so that it is rebuilt from the database when next
+     * searched.
+     */
+    public synchronized void invalidate() {
+        built = false;
+    }
+
+    /**
+     * Builds the index from every lifter in the database. Lifters are updated
+     * while holding the same lock, so that no change committed while the
+     * index is built is lost.
+     */
+    private synchronized void build() {
+        if (built) {
+            return;
+        }
+        long start = System.nanoTime();
+        List<LifterSearchIndex.Entry> entries = new ArrayList<>();
+        for (Object[] row : lifterRepository.findSearchFields()) {
+            entries.add(new LifterSearchIndex.Entry((Long) row[0], (String) row[1],
+                    (String) row[2], (String) row[3], (Date) row[4],
+                    (Lifter.Gender) row[5], (Boolean) row[6]));
+        }
+        index.replaceAll(entries);
+        built = true;
+        metricsService.recordTime("lifter.search.build", null, System.nanoTime() - start);
+        metricsService.recordValue("lifter.search.size", null, index.size());
+    }
+}
@@ -13,11 +13,17 @@ public class LifterService {
 
     //instance variable to instantiate LifterRepository
     private LifterRepository lifterRepository;
+    private ReferenceCacheService referenceCacheService;
+    private LifterSearchService lifterSearchService;
 
     //Constructor to create a new lifterservice object
     @Autowired
-    public LifterService(LifterRepository lifterRepository){
+    public LifterService(LifterRepository lifterRepository,
+                         ReferenceCacheService referenceCacheService,
+                         LifterSearchService lifterSearchService){
         this.lifterRepository = lifterRepository;
+        this.referenceCacheService = referenceCacheService;
+        this.lifterSearchService = lifterSearchService;
     }
 
     /**Method to find all lifters in the system
@@ -34,13 +40,19 @@ public class LifterService {
     }
 
     //Save method to save a lifter-object to a database
+    //The lifter is evicted from the cache, together with the lists of lifters of clubs,
+    //and updated within the search index
     public Lifter saveLifter(Lifter lifter){
-        return lifterRepository.save(lifter);
+        Lifter saved = lifterRepository.save(lifter);
+        referenceCacheService.evictLifter(saved);
+        lifterSearchService.update(saved);
+        return saved;
     }
 
     //Delete method to delete a lifter-object from a database
     public void deleteLifter(Long id){
         lifterRepository.delete(id);
+        lifterSearchService.remove(id);
     }
 }
 
@@ -0,0 +1,145 @@
+package dk.aau.ida8.service;
+
+import com.codahale.metrics.MetricRegistry;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * This service records operational metrics: the time taken by each
+ * operation on the hot paths of a competition, and counts of events.
+ *
+ * Metrics are held in the application's metric registry, and are exposed
+ * with the rest of the application's metrics at {@code /metrics}. Each
+ * timer there reports its count, mean and percentiles (including the median
+ * and 99th percentile) in milliseconds.
+ *
+ * Every metric is recorded in total, e.g. {@code timer.lift.register}.
+ * While a competition is live, i.e. while it is {@link #track(long)
+ * tracked}, its metrics are also recorded for it alone, e.g.
+ * {@code timer.lift.register.competition.5}; these are removed once it is
+ * {@link #evict(long) evicted}, so that the registry holds the metrics of
+ * live competitions only, rather than growing with every competition.
+ */
+@Service
+public class MetricsService {
+
+    private MetricRegistry registry;
+    private final Set<Long> tracked = ConcurrentHashMap.newKeySet();
+
+    /**
+     * Instantiates a MetricsService.
+     *
+     * @param registry the registry in which to hold metrics
+     */
+    @Autowired
+    public MetricsService(MetricRegistry registry) {
+        this.registry = registry;
+    }
+
+    /**
+     * Carries out an operation, recording the time it takes.
+     *
+     * @param operation     the name of the operation, e.g. "lift.register"
+     * @param competitionID the ID# of the competition concerned, recorded
+     *                      only while tracked
+     * @param action        the operation to carry out
+     * @param <T>           the type of the result of the operation
+     * @return the result of the operation
+     */
+    public <T> T time(String operation, long competitionID, Supplier<T> action) {
+        long start = System.nanoTime();
+        try {
+            return action.get();
+        } finally {
+            recordTime(operation, competitionID, System.nanoTime() - start);
+        }
+    }
+
+    /**
+     * Carries out an operation, recording the time it takes.
+     *
+     * @param operation     the name of the operation, e.g. "lift.register"
+     * @param competitionID the ID# of the competition concerned, recorded
+     *                      only while tracked
+     * @param action        the operation to carry out
+     */
+    public void time(String operation, long competitionID, Runnable action) {
+        time(operation, competitionID, () -> {
+            action.run();
+            return null;
+        });
+    }
+
+    /**
+     * Records the time taken by an operation.
+     *
+     * @param operation     the name of the operation
+     * @param competitionID the ID# of the competition concerned, or null
+     * @param nanos         the time taken in nanoseconds
+     */
+    public void recordTime(String operation, Long competitionID, long nanos) {
+        for (String name : names("timer." + operation, competitionID)) {
+            registry.timer(name).update(nanos, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    /**
+     * Records one value of a quantity whose distribution is of interest,
+     * such as the number of statements executed by a request.
+     *
+     * @param quantity      the name of the quantity
+     * @param competitionID the ID# of the competition concerned, or null
+     * @param value         the value to record
+     */
+    public void recordValue(String quantity, Long competitionID, long value) {
+        for (String name : names("histogram." + quantity, competitionID)) {
+            registry.histogram(name).update(value);
+        }
+    }
+
+    /**
+     * Counts the occurrence of an event.
+     *
+     * @param event         the name of the event, e.g. "lift.pass"
+     * @param competitionID the ID# of the competition concerned, or null
+     */
+    public void increment(String event, Long competitionID) {
+        for (String name : names("counter." + event, competitionID)) {
+            registry.counter(name).inc();
+        }
+    }
+
+    /**
+     * Begins recording metrics for a live competition alone, as well as in
+     * total.
+     *
+     * @param competitionID the ID# of the competition
+     */
+    public void track(long competitionID) {
+        tracked.add(competitionID);
+    }
+
+    /**
+     * Stops recording metrics for a competition alone, and removes those
+     * recorded, e.g. once it is complete.
+     *
+     * @param competitionID the ID# of the competition
+     */
+    public void evict(long competitionID) {
+        tracked.remove(competitionID);
+        String suffix = ".competition." + competitionID;
+        registry.removeMatching((name, metric) -> name.endsWith(suffix));
+    }
+
+    private String[] names(String name, Long competitionID) {
+        if (competitionID == null || !tracked.contains(competitionID)) {
+            return new String[] {name};
+        }
+        return new String[] {name, name + ".competition." + competitionID};
+    }
+}
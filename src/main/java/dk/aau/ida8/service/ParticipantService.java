@@ -10,11 +10,17 @@ public class ParticipantService {
 
     // instance variable to instantiate ParticipantRepositry
     private ParticipantRepository participantRepository;
+    private CompetitionVersionService competitionVersionService;
+    private EventLogService eventLogService;
 
     // Constructor to create a new ParticipantService object
     @Autowired
-    public ParticipantService(ParticipantRepository participantRepository) {
+    public ParticipantService(ParticipantRepository participantRepository,
+                              CompetitionVersionService competitionVersionService,
+                              EventLogService eventLogService) {
         this.participantRepository = participantRepository;
+        this.competitionVersionService = competitionVersionService;
+        this.eventLogService = eventLogService;
     }
 
     /** Method to find all participants in the system
@@ -26,18 +32,26 @@ public class ParticipantService {
     }
 
     /**Method to find one specific lifter in the system based on the lifter ID
-    * Lifter = find a lifter object based on ID **/
+    * Lifter = find a lifter object based on ID, brought up to date with its recorded events **/
     public Participant findOne(Long id){
-        return participantRepository.findOne(id);
+        return eventLogService.catchUp(participantRepository.findOne(id));
     }
 
     //Save method to save a lifter-object to a database
     public Participant saveParticipant(Participant participant){
-        return participantRepository.save(participant);
+        Participant saved = participantRepository.save(participant);
+        if (saved.getCompetition() != null) {
+            competitionVersionService.markChanged(saved.getCompetition().getId());
+        }
+        return saved;
     }
 
     //Delete method to delete a lifter-object from a database
     public void deleteParticipant(Long id){
+        Participant participant = participantRepository.findOne(id);
         participantRepository.delete(id);
+        if (participant != null && participant.getCompetition() != null) {
+            competitionVersionService.markChanged(participant.getCompetition().getId());
+        }
     }
 }
@@ -0,0 +1,154 @@
+package dk.aau.ida8.service;
+
+import dk.aau.ida8.data.LiftRepository;
+import dk.aau.ida8.data.LifterRepository;
+import dk.aau.ida8.data.PersonalBestRepository;
+import dk.aau.ida8.model.Lift;
+import dk.aau.ida8.model.PersonalBest;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.DataAccessException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.TransactionException;
+
+import java.util.*;
+
+/**
+ * This service keeps and reads the {@link PersonalBest personal bests} of
+ * lifters.
+ *
+ * Personal bests are updated as the events of a live competition are
+ * recorded, within the same transaction (see
+ * {@link EventLogService#record(List, Collection)}), from the current results
+ * of each participant whose lifts have changed. Only where a participation
+ * lowers a best it had set, or a lifter has no personal bests yet, are the
+ * heaviest lifts of the lifter's participations read, by one aggregate query.
+ *
+ * Personal bests of lifters who have not lifted since they were first kept
+ * are calculated in the same way when first read, and saved.
+ */
+@Service
+public class PersonalBestService {
+
+    private PersonalBestRepository personalBestRepository;
+    private LiftRepository liftRepository;
+    private LifterRepository lifterRepository;
+
+    @Autowired
+    public PersonalBestService(PersonalBestRepository personalBestRepository,
+                               LiftRepository liftRepository,
+                               LifterRepository lifterRepository) {
+        this.personalBestRepository = personalBestRepository;
+        this.liftRepository = liftRepository;
+        this.lifterRepository = lifterRepository;
+    }
+
+    //Method to update the personal bests of lifters with the current results of their participations
+    //This must be called within the transaction which records the changes to those participations
+    public void record(Collection<PersonalBest.Participation> participations) {
+        if (participations.isEmpty()) {
+            return;
+        }
+        Map<Long, PersonalBest.Participation> byLifter = new HashMap<>();
+        for (PersonalBest.Participation p : participations) {
+            byLifter.put(p.getLifterID(), p);
+        }
+        Map<Long, PersonalBest> bests = new HashMap<>();
+        for (PersonalBest pb : personalBestRepository.findByLifterIDIn(byLifter.keySet())) {
+            bests.put(pb.getLifterID(), pb);
+        }
+        Set<Long> recalculate = new HashSet<>();
+        for (PersonalBest.Participation p : byLifter.values()) {
+            PersonalBest pb = bests.get(p.getLifterID());
+            if (pb == null || !pb.update(p)) {
+                recalculate.add(p.getLifterID());
+            }
+        }
+        if (!recalculate.isEmpty()) {
+            Map<Long, Map<Long, PersonalBest.Participation>> history = history(recalculate);
+            for (Long lifterID : recalculate) {
+                PersonalBest.Participation p = byLifter.get(lifterID);
+                Map<Long, PersonalBest.Participation> all = history.getOrDefault(lifterID, new HashMap<>());
+                // the lifts persisted for this participation may lag behind its results
+                all.put(p.getParticipantID(), p);
+                PersonalBest pb = bests.computeIfAbsent(lifterID, PersonalBest::new);
+                pb.recalculate(all.values());
+            }
+        }
+        personalBestRepository.save(bests.values());
+    }
+
+    //Method to find the personal bests of one lifter
+    //A lifter who has not passed a lift has personal bests of 0
+    public PersonalBest findForLifter(long lifterID) {
+        PersonalBest pb = findForLifters(Collections.singleton(lifterID)).get(lifterID);
+        return pb == null ? new PersonalBest(lifterID) : pb;
+    }
+
+    //Method to find the personal bests of every lifter of a club
+    //Returns a map of lifter ID# to personal bests, for those lifters who have passed a lift
+    public Map<Long, PersonalBest> findForClub(long clubID) {
+        return findForLifters(lifterRepository.findIDsByClubID(clubID));
+    }
+
+    //Method to find the personal bests of a number of lifters, calculating those not yet kept
+    //Returns a map of lifter ID# to personal bests, for those lifters who have passed a lift
+    public Map<Long, PersonalBest> findForLifters(Collection<Long> lifterIDs) {
+        Map<Long, PersonalBest> bests = new HashMap<>();
+        if (lifterIDs.isEmpty()) {
+            return bests;
+        }
+        for (PersonalBest pb : personalBestRepository.findByLifterIDIn(lifterIDs)) {
+            bests.put(pb.getLifterID(), pb);
+        }
+        Set<Long> missing = new HashSet<>(lifterIDs);
+        missing.removeAll(bests.keySet());
+        if (missing.isEmpty()) {
+            return bests;
+        }
+        List<PersonalBest> calculated = new ArrayList<>();
+        for (Map.Entry<Long, Map<Long, PersonalBest.Participation>> e : history(missing).entrySet()) {
+            PersonalBest pb = new PersonalBest(e.getKey());
+            pb.recalculate(e.getValue().values());
+            bests.put(e.getKey(), pb);
+            calculated.add(pb);
+        }
+        try {
+            personalBestRepository.save(calculated);
+        } catch (DataAccessException | TransactionException e) {
+            // saved meanwhile as a lift was recorded; those saved are used when next read
+        }
+        return bests;
+    }
+
+    /**
+     * Reads the results of every participation of a number of lifters, from
+     * their persisted lifts.
+     *
+     * @return map of lifter ID# to map of participant ID# to the results of
+     *         that participation, for those lifters who have passed a lift
+     */
+    private Map<Long, Map<Long, PersonalBest.Participation>> history(Collection<Long> lifterIDs) {
+        // participant ID# -> {lifter ID#, best snatch, best clean & jerk}
+        Map<Long, long[]> lifts = new HashMap<>();
+        for (Object[] row : liftRepository.findHeaviestLifts(lifterIDs, Lift.LiftOutcome.PASS)) {
+            long[] best = lifts.computeIfAbsent((Long) row[1], id -> new long[]{(Long) row[0], 0, 0});
+            int weight = ((Number) row[3]).intValue();
+            if (row[2] == Lift.LiftType.SNATCH) {
+                best[1] = weight;
+            } else {
+                best[2] = weight;
+            }
+        }
+        Map<Long, Map<Long, PersonalBest.Participation>> history = new HashMap<>();
+        for (Map.Entry<Long, long[]> e : lifts.entrySet()) {
+            long[] best = e.getValue();
+            int snatch = (int) best[1];
+            int cleanAndJerk = (int) best[2];
+            int total = snatch == 0 || cleanAndJerk == 0 ? 0 : snatch + cleanAndJerk;
+            history.computeIfAbsent(best[0], id -> new HashMap<>())
+                    .put(e.getKey(), new PersonalBest.Participation(best[0], e.getKey(),
+                            snatch, cleanAndJerk, total));
+        }
+        return history;
+    }
+}
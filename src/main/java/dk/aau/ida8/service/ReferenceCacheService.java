@@ -0,0 +1,115 @@
+package dk.aau.ida8.service;
+
+import dk.aau.ida8.model.Address;
+import dk.aau.ida8.model.Club;
+import dk.aau.ida8.model.Lifter;
+import org.hibernate.Cache;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.SecondLevelCacheStatistics;
+import org.hibernate.stat.Statistics;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+import javax.persistence.EntityManagerFactory;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * This service manages the second-level cache of reference data: clubs,
+ * their addresses and lifters.
+ *
+ * Hibernate keeps cached entities up-to-date as they are saved. The list of
+ * lifters within a cached club is not, however, as it is mapped to the same
+ * column as the club of each lifter: saving a lifter who has changed club
+ * leaves both clubs' cached lists out of date. Such lists are therefore
+ * evicted explicitly whenever a club or lifter is saved.
+ */
+@Service
+public class ReferenceCacheService {
+
+    /**
+     * The cache regions for which statistics are reported.
+     */
+    private static final List<String> REGIONS = Arrays.asList(
+            Club.class.getName(),
+            Club.class.getName() + ".lifters",
+            Address.class.getName(),
+            Lifter.class.getName(),
+            "query.clubs",
+            "org.hibernate.cache.internal.StandardQueryCache"
+    );
+
+    private SessionFactory sessionFactory;
+
+    @Autowired
+    public ReferenceCacheService(EntityManagerFactory entityManagerFactory) {
+        this.sessionFactory = entityManagerFactory.unwrap(SessionFactory.class);
+    }
+
+    /**
+     * Evicts a club, its list of lifters and any cached club queries.
+     *
+     * @param club the club which has been saved
+     */
+    public void evictClub(Club club) {
+        Cache cache = sessionFactory.getCache();
+        cache.evictEntity(Club.class, club.getId());
+        cache.evictCollection(Club.class.getName() + ".lifters", club.getId());
+        cache.evictQueryRegion("query.clubs");
+        cache.evictDefaultQueryRegion();
+    }
+
+    /**
+     * Evicts a lifter, together with the cached lists of lifters of all clubs
+     * (as the lifter's previous club is not known).
+     *
+     * @param lifter the lifter which has been saved
+     */
+    public void evictLifter(Lifter lifter) {
+        Cache cache = sessionFactory.getCache();
+        cache.evictEntity(Lifter.class, lifter.getId());
+        cache.evictCollectionRegion(Club.class.getName() + ".lifters");
+    }
+
+    /**
+     * Evicts every lifter, the lists of lifters of all clubs and any cached
+     * club queries, as after lifters and clubs have been imported in bulk.
+     */
+    public void evictAllLifters() {
+        Cache cache = sessionFactory.getCache();
+        cache.evictEntityRegion(Lifter.class);
+        cache.evictCollectionRegion(Club.class.getName() + ".lifters");
+        cache.evictQueryRegion("query.clubs");
+        cache.evictDefaultQueryRegion();
+    }
+
+    /**
+     * Gets the hit and miss counts, and hit rate, of each reference data
+     * cache region.
+     *
+     * @return map of region name to statistics for that region
+     */
+    public Map<String, Map<String, Number>> getStatistics() {
+        Statistics stats = sessionFactory.getStatistics();
+        Map<String, Map<String, Number>> result = new LinkedHashMap<>();
+        for (String region : REGIONS) {
+            SecondLevelCacheStatistics s = stats.getSecondLevelCacheStatistics(region);
+            if (s != null) {
+                result.put(region, regionStatistics(s.getHitCount(), s.getMissCount(),
+                        s.getElementCountInMemory()));
+            }
+        }
+        return result;
+    }
+
+    private static Map<String, Number> regionStatistics(long hits, long misses, long size) {
+        Map<String, Number> map = new LinkedHashMap<>();
+        map.put("hits", hits);
+        map.put("misses", misses);
+        map.put("hitRate", hits + misses == 0 ? 0.0 : (double) hits / (hits + misses));
+        map.put("size", size);
+        return map;
+    }
+}
@@ -0,0 +1,335 @@
+package dk.aau.ida8.service;
+
+import dk.aau.ida8.api.ResultRow;
+import dk.aau.ida8.exporter.ResultWriter;
+import dk.aau.ida8.model.Competition;
+import dk.aau.ida8.model.Group;
+import dk.aau.ida8.model.Lift;
+import dk.aau.ida8.model.Lifter;
+import dk.aau.ida8.model.Participant;
+import dk.aau.ida8.util.SinclairCoefficient;
+import org.hibernate.CacheMode;
+import org.hibernate.ScrollMode;
+import org.hibernate.ScrollableResults;
+import org.hibernate.Session;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+import javax.persistence.EntityManager;
+import javax.persistence.EntityManagerFactory;
+import javax.persistence.EntityTransaction;
+import java.io.IOException;
+import java.util.*;
+
+/**
+ * This service exports the results of a competition: the result of every
+ * participant within every ranking group, with every attempt, best lifts,
+ * total, Sinclair score and rank.
+ *
+ * Results are read from the database with a forward-only cursor, fetching
+ * {@link #FETCH_SIZE} rows at a time, and written as they are read, so that
+ * neither the competition nor its participants are held in memory. Two
+ * passes are made over the lifts of the ranking groups: the first scores
+ * each participant and ranks each group, holding only the rank of each
+ * participant; the second writes each participant's result, in order of
+ * group and participant ID#.
+ *
+ * The persisted participants are snapshots, which may lag behind the event
+ * log (see {@link EventLogService}). Where they do, as during a competition,
+ * {@link #findResults(long)} builds the results from the competition brought
+ * up to date in memory instead.
+ */
+@Service
+public class ResultsExportService {
+
+    /**
+     * The number of rows fetched from the database at a time.
+     */
+    static final int FETCH_SIZE = 500;
+
+    private static final List<Group.ComparatorType> RANKING_TYPES = Arrays.asList(
+            Group.ComparatorType.SINCLAIR_RANKING,
+            Group.ComparatorType.TOTAL_WEIGHT_RANKING);
+
+    private static final String FROM_LIFTS =
+            " from Competition c join c.rankingGroups g join g.participants p" +
+            " join p.lifter lf left join lf.club cl left join p.lifts l" +
+            " where c.id = :competitionID and g.comparatorType in (:rankingTypes)" +
+            " order by g.id, p.id, l.id";
+
+    private EntityManagerFactory entityManagerFactory;
+    private CompetitionService competitionService;
+    private MetricsService metricsService;
+
+    /**
+     * Instantiates a ResultsExportService.
+     *
+     * @param entityManagerFactory the factory of the persistence context from
+     *                             which results are read
+     * @param competitionService   the service used to load a competition
+     *                             whose snapshots are not current
+     * @param metricsService       the service used to record the time taken
+     */
+    @Autowired
+    public ResultsExportService(EntityManagerFactory entityManagerFactory,
+                                CompetitionService competitionService,
+                                MetricsService metricsService) {
+        this.entityManagerFactory = entityManagerFactory;
+        this.competitionService = competitionService;
+        this.metricsService = metricsService;
+    }
+
+    /**
+     * Determines whether the persisted participants of a competition include
+     * every recorded event, so that its results may be read directly by
+     * {@link #export(long, ResultWriter)}.
+     *
+     * @param competitionID the ID# of the competition
+     * @return true, if no participant lags behind the event log, else false
+     */
+    public boolean isRecorded(long competitionID) {
+        EntityManager em = entityManagerFactory.createEntityManager();
+        try {
+            long lagging = em.createQuery(
+                    "select count(e) from ParticipantEvent e, Participant p " +
+                    "where p.id = e.participantID and e.competitionID = :competitionID " +
+                    "and e.id > coalesce(p.lastEventID, 0)", Long.class)
+                    .setParameter("competitionID", competitionID)
+                    .getSingleResult();
+            return lagging == 0;
+        } finally {
+            em.close();
+        }
+    }
+
+    /**
+     * Builds the results of a competition from the competition, brought up
+     * to date with the event log. The results are in the same order as those
+     * written by {@link #export(long, ResultWriter)}: of group, then of
+     * participant ID#.
+     *
+     * @param competitionID the ID# of the competition
+     * @return the results of the competition, or an empty list if it does
+     *         not exist
+     */
+    public List<ResultRow> findResults(long competitionID) {
+        Competition competition = competitionService.findForResults(competitionID);
+        List<ResultRow> rows = new ArrayList<>();
+        if (competition == null) {
+            return rows;
+        }
+        for (Group g : competition.getRankingGroups()) {
+            for (Participant p : g.getParticipants()) {
+                rows.add(ResultRow.of(g, p));
+            }
+        }
+        rows.sort(Comparator.comparingLong(ResultRow::getGroupID)
+                .thenComparingLong(ResultRow::getParticipantID));
+        return rows;
+    }
+
+    /**
+     * Writes the results of a competition as they are read from the
+     * database. The writer is flushed before the results are read, so that
+     * the response begins at once, and again once all are written.
+     *
+     * @param competitionID the ID# of the competition
+     * @param writer        the writer of the results
+     * @throws IOException if the results cannot be written
+     */
+    public void export(long competitionID, ResultWriter writer) throws IOException {
+        long start = System.nanoTime();
+        writer.flush();
+        EntityManager em = entityManagerFactory.createEntityManager();
+        try {
+            Session session = em.unwrap(Session.class);
+            session.setDefaultReadOnly(true);
+            session.setCacheMode(CacheMode.IGNORE);
+            // PostgreSQL only honours the fetch size within a transaction
+            EntityTransaction tx = em.getTransaction();
+            tx.begin();
+            try {
+                Date date = (Date) session.createQuery(
+                        "select c.competitionDate from Competition c where c.id = :competitionID")
+                        .setParameter("competitionID", competitionID)
+                        .uniqueResult();
+                SinclairCoefficient coefficient = SinclairCoefficient.forDate(date);
+                Map<Long, Integer> ranks = rank(session, competitionID, coefficient);
+                write(session, competitionID, coefficient, ranks, writer);
+            } finally {
+                tx.rollback();
+            }
+        } finally {
+            em.close();
+            metricsService.recordTime("results.export", competitionID, System.nanoTime() - start);
+        }
+        writer.flush();
+    }
+
+    /**
+     * Scores every participant of every ranking group, and ranks each group.
+     *
+     * @return map of the ID# of each participant to their rank
+     */
+    private static Map<Long, Integer> rank(Session session, long competitionID,
+                                           SinclairCoefficient coefficient) {
+        Map<Long, Integer> ranks = new HashMap<>();
+        List<Score> group = new ArrayList<>();
+        Score current = null;
+        ScrollableResults rs = scroll(session, "select g.id, g.comparatorType, p.id, " +
+                "lf.gender, lf.bodyWeight, l.liftType, l.outcome, l.weight", competitionID);
+        try {
+            while (rs.next()) {
+                long groupID = rs.getLong(0);
+                long participantID = rs.getLong(2);
+                if (current == null || current.participantID != participantID
+                        || current.groupID != groupID) {
+                    if (current != null && current.groupID != groupID) {
+                        rankGroup(group, ranks, coefficient);
+                    }
+                    current = new Score(groupID, (Group.ComparatorType) rs.get(1), participantID,
+                            (Lifter.Gender) rs.get(3), rs.getDouble(4));
+                    group.add(current);
+                }
+                current.add((Lift.LiftType) rs.get(5), (Lift.LiftOutcome) rs.get(6), rs.getInteger(7));
+            }
+            rankGroup(group, ranks, coefficient);
+        } finally {
+            rs.close();
+        }
+        return ranks;
+    }
+
+    /**
+     * Ranks the participants of one group, in the same manner as
+     * {@link Group#getRank(Participant)}, and clears the group.
+     */
+    private static void rankGroup(List<Score> group, Map<Long, Integer> ranks,
+                                  SinclairCoefficient coefficient) {
+        for (Score s : group) {
+            s.score = s.type == Group.ComparatorType.SINCLAIR_RANKING
+                    ? s.sinclair(coefficient)
+                    : s.total();
+        }
+        group.sort((a, b) -> Double.compare(b.score, a.score));
+        for (int i = 0; i < group.size(); i++) {
+            Score s = group.get(i);
+            if (i > 0 && Double.compare(group.get(i - 1).score, s.score) == 0) {
+                ranks.put(s.participantID, ranks.get(group.get(i - 1).participantID));
+            } else {
+                ranks.put(s.participantID, i + 1);
+            }
+        }
+        group.clear();
+    }
+
+    /**
+     * Writes the result of every participant of every ranking group.
+     */
+    private static void write(Session session, long competitionID,
+                              SinclairCoefficient coefficient, Map<Long, Integer> ranks,
+                              ResultWriter writer) throws IOException {
+        ResultRow row = null;
+        Score score = null;
+        ScrollableResults rs = scroll(session, "select g.id, g.comparatorType, p.id, " +
+                "p.startNumber, lf.forename, lf.surname, lf.gender, cl.name, lf.bodyWeight, " +
+                "l.liftType, l.outcome, l.weight", competitionID);
+        try {
+            while (rs.next()) {
+                long groupID = rs.getLong(0);
+                long participantID = rs.getLong(2);
+                if (row == null || row.getParticipantID() != participantID
+                        || row.getGroupID() != groupID) {
+                    if (row != null) {
+                        finish(row, score, coefficient, ranks);
+                        writer.write(row);
+                    }
+                    Group.ComparatorType type = (Group.ComparatorType) rs.get(1);
+                    Lifter.Gender gender = (Lifter.Gender) rs.get(6);
+                    double bodyWeight = rs.getDouble(8);
+                    row = new ResultRow(groupID, type, participantID, rs.getInteger(3),
+                            rs.getString(4), rs.getString(5), String.valueOf(gender),
+                            rs.getString(7), bodyWeight);
+                    score = new Score(groupID, type, participantID, gender, bodyWeight);
+                }
+                Lift.LiftType liftType = (Lift.LiftType) rs.get(9);
+                if (liftType != null) {
+                    Lift.LiftOutcome outcome = (Lift.LiftOutcome) rs.get(10);
+                    int weight = rs.getInteger(11);
+                    row.addAttempt(liftType, weight, outcome);
+                    score.add(liftType, outcome, weight);
+                }
+            }
+            if (row != null) {
+                finish(row, score, coefficient, ranks);
+                writer.write(row);
+            }
+        } finally {
+            rs.close();
+        }
+    }
+
+    private static void finish(ResultRow row, Score score, SinclairCoefficient coefficient,
+                               Map<Long, Integer> ranks) {
+        row.setScores(score.bestSnatch, score.bestCleanAndJerk, score.total(),
+                score.sinclair(coefficient));
+        row.setRank(ranks.getOrDefault(row.getParticipantID(), 0));
+    }
+
+    private static ScrollableResults scroll(Session session, String select, long competitionID) {
+        return session.createQuery(select + FROM_LIFTS)
+                .setParameter("competitionID", competitionID)
+                .setParameterList("rankingTypes", RANKING_TYPES)
+                .setReadOnly(true)
+                .setCacheable(false)
+                .setFetchSize(FETCH_SIZE)
+                .scroll(ScrollMode.FORWARD_ONLY);
+    }
+
+    /**
+     * The scores of one participant, accumulated from their lifts as they
+     * are read, in the same manner as {@link Participant#getTotalScore()} and
+     * {@link Participant#getSinclairScore()}.
+     */
+    private static final class Score {
+        private final long groupID;
+        private final Group.ComparatorType type;
+        private final long participantID;
+        private final Lifter.Gender gender;
+        private final double bodyWeight;
+        private int bestSnatch = 0;
+        private int bestCleanAndJerk = 0;
+        private double score;
+
+        private Score(long groupID, Group.ComparatorType type, long participantID,
+                      Lifter.Gender gender, double bodyWeight) {
+            this.groupID = groupID;
+            this.type = type;
+            this.participantID = participantID;
+            this.gender = gender;
+            this.bodyWeight = bodyWeight;
+        }
+
+        private void add(Lift.LiftType liftType, Lift.LiftOutcome outcome, Integer weight) {
+            if (liftType == null || outcome != Lift.LiftOutcome.PASS) {
+                return;
+            }
+            if (liftType == Lift.LiftType.SNATCH) {
+                bestSnatch = Math.max(bestSnatch, weight);
+            } else {
+                bestCleanAndJerk = Math.max(bestCleanAndJerk, weight);
+            }
+        }
+
+        private int total() {
+            return bestSnatch == 0 || bestCleanAndJerk == 0 ? 0 : bestSnatch + bestCleanAndJerk;
+        }
+
+        private double sinclair(SinclairCoefficient coefficient) {
+            if (gender == null) {
+                return 0;
+            }
+            return total() * coefficient.getCoefficient(gender, bodyWeight);
+        }
+    }
+}
@@ -0,0 +1,538 @@
+package dk.aau.ida8.service;
+
+import com.google.gson.Gson;
+import dk.aau.ida8.model.Competition;
+import dk.aau.ida8.model.Group;
+import dk.aau.ida8.model.Lift;
+import dk.aau.ida8.model.Participant;
+import org.springframework.stereotype.Service;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import javax.annotation.PreDestroy;
+import javax.servlet.http.HttpServletRequest;
+import java.io.IOException;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * This service pushes live scoreboard updates to connected clients using
+ * Server-Sent Events.
+ *
+ * Clients {@link #subscribe(long) subscribe} to a competition, and then
+ * receive a compact event each time a lift is registered or corrected, or a
+ * weight is changed. Each event contains only what has changed: the outcome
+ * of a lift, the participant now next to lift and any ranks which have moved.
+ * Where a competition takes place on several platforms, each event names the
+ * platform concerned, and the participant next to lift on that platform.
+ *
+ * Events are built from the model on the registering request's thread, as
+ * this requires access to lazily loaded data, and serialised there once.
+ * Each subscriber has its own bounded queue, to which events are added
+ * without waiting; they are sent from the queue, in order, on a shared
+ * delivery executor, so the registering request does not wait on any client,
+ * and a slow client holds up no other. A client which falls
+ * {@link #SUBSCRIBER_QUEUE_CAPACITY} events behind is disconnected; browsers
+ * reconnect automatically, and reload the scoreboard as it stands.
+ *
+ * Every {@link #HEARTBEAT_INTERVAL_MS} milliseconds a comment is sent to each
+ * subscriber, so that connections which have been lost are noticed and
+ * removed. A subscriber whose last send has been blocked for longer than
+ * {@link #SEND_TIMEOUT_MS} milliseconds, e.g. a phone which has left the
+ * network, is disconnected by completing its request, which fails the
+ * blocked send. Until it fails, the delivery executor is given a thread in
+ * place of the blocked one, so that blocked sends never hold up the
+ * delivery of events to other subscribers.
+ *
+ * Events are only built where a competition has subscribers.
+ */
+@Service
+public class ScoreboardService {
+
+    /**
+     * The time in milliseconds after which a subscription expires. Browsers
+     * reconnect automatically once a subscription expires.
+     */
+    private static final long SUBSCRIPTION_TIMEOUT = 30 * 60 * 1000L;
+
+    /**
+     * The greatest number of events which may wait to be sent to one
+     * subscriber, beyond which it is disconnected.
+     */
+    private static final int SUBSCRIBER_QUEUE_CAPACITY = 64;
+
+    /**
+     * The interval in milliseconds at which a heartbeat is sent to each
+     * subscriber.
+     */
+    private static final long HEARTBEAT_INTERVAL_MS = 15000;
+
+    /**
+     * The time in milliseconds for which sending to a subscriber may be
+     * blocked before it is disconnected.
+     */
+    private static final long SEND_TIMEOUT_MS = 30000;
+
+    /**
+     * The number of threads delivering events, besides any in place of
+     * threads whose sends are blocked.
+     */
+    private static final int DELIVERY_THREADS = 8;
+
+    /**
+     * The greatest number of delivery threads, including those whose sends
+     * are blocked.
+     */
+    private static final int MAX_DELIVERY_THREADS = 64;
+
+    private final Map<Long, List<Subscriber>> subscribers = new ConcurrentHashMap<>();
+    private final ThreadPoolExecutor deliveryExecutor;
+    private final AtomicInteger blockedSends = new AtomicInteger();
+    private final ScheduledExecutorService heartbeatExecutor;
+    private final Gson gson = new Gson();
+
+    /**
+     * Creates the ScoreboardService, together with its delivery and
+     * heartbeat executors. At most one delivery task is queued for each
+     * subscriber at a time.
+     */
+    public ScoreboardService() {
+        deliveryExecutor = new ThreadPoolExecutor(DELIVERY_THREADS, DELIVERY_THREADS,
+                60, TimeUnit.SECONDS, new LinkedBlockingQueue<>(), r -> {
+            Thread t = new Thread(r, "scoreboard-delivery");
+            t.setDaemon(true);
+            return t;
+        });
+        heartbeatExecutor = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "scoreboard-heartbeat");
+            t.setDaemon(true);
+            return t;
+        });
+        heartbeatExecutor.scheduleWithFixedDelay(this::heartbeat,
+                HEARTBEAT_INTERVAL_MS, HEARTBEAT_INTERVAL_MS, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Subscribes a new client to the live scoreboard for a competition.
+     *
+     * @param competitionID the ID# of the competition
+     * @param request       the client's request, which is completed should
+     *                      sending to the client be blocked for too long
+     * @return the emitter through which events are pushed to the client
+     */
+    public SseEmitter subscribe(long competitionID, HttpServletRequest request) {
+        SseEmitter emitter = new SseEmitter(SUBSCRIPTION_TIMEOUT);
+        List<Subscriber> list = subscribers.computeIfAbsent(
+                competitionID, id -> new CopyOnWriteArrayList<>());
+        Subscriber subscriber = new Subscriber(emitter, request);
+        list.add(subscriber);
+        Runnable ended = () -> {
+            // completed by the container; it must not be completed again
+            subscriber.completed.set(true);
+            drop(list, subscriber);
+        };
+        emitter.onCompletion(ended);
+        emitter.onTimeout(ended);
+        return emitter;
+    }
+
+    /**
+     * Counts the clients subscribed to a competition.
+     *
+     * @param competitionID the ID# of the competition
+     * @return the number of subscribed clients
+     */
+    public int getSubscriberCount(long competitionID) {
+        List<Subscriber> list = subscribers.get(competitionID);
+        return list == null ? 0 : list.size();
+    }
+
+    /**
+     * Records the ranks within the ranking group of a participant.
+     *
+     * This is to be called before a change which may affect ranks, so that
+     * only those ranks which have changed are published afterwards. Where
+     * the competition has no subscribers, it need not be called; every rank
+     * published is then included.
+     *
+     * @param p the participant about to be changed
+     * @return map of participant ID# to rank, or an empty map if the
+     *         participant is not yet within a ranking group
+     */
+    public Map<Long, Integer> snapshotRanks(Participant p) {
+        Map<Long, Integer> ranks = new HashMap<>();
+        Optional<Group> g = p.getCompetition().getRankingGroup(p);
+        if (g.isPresent()) {
+            for (Participant q : g.get().getUnsortedParticipants()) {
+                ranks.put(q.getId(), g.get().getRank(q));
+            }
+        }
+        return ranks;
+    }
+
+    /**
+     * Publishes the registration of a lift.
+     *
+     * @param p           the participant who has carried out the lift
+     * @param ranksBefore the ranks recorded by {@link
+     *                    #snapshotRanks(Participant)} prior to registration
+     */
+    public void publishLift(Participant p, Map<Long, Integer> ranksBefore) {
+        if (getSubscriberCount(p.getCompetition().getId()) == 0) {
+            return;
+        }
+        Lift lift = p.getLifts().get(p.getLiftsCount() - 1);
+        LiftEvent event = new LiftEvent();
+        event.participantID = p.getId();
+        event.liftType = lift.getLiftType().toString();
+        event.outcome = lift.getOutcome().toString();
+        event.weight = lift.getWeight();
+        event.attempt = p.getLiftsCount();
+        event.platform = platform(p);
+        event.currentLifter = currentLifter(p.getCompetition(), event.platform);
+        event.ranks = changedRanks(p, ranksBefore);
+        publish(p.getCompetition().getId(), "lift", event);
+    }
+
+    /**
+     * Publishes the correction of a participant's completed lifts.
+     *
+     * @param p           the participant whose lifts have been corrected
+     * @param ranksBefore the ranks recorded by {@link
+     *                    #snapshotRanks(Participant)} prior to correction
+     */
+    public void publishLiftCorrection(Participant p, Map<Long, Integer> ranksBefore) {
+        if (getSubscriberCount(p.getCompetition().getId()) == 0) {
+            return;
+        }
+        CorrectionEvent event = new CorrectionEvent();
+        event.participantID = p.getId();
+        event.bestSnatch = p.getBestSnatch();
+        event.bestCleanAndJerk = p.getBestCleanAndJerk();
+        event.total = p.getTotalScore();
+        event.ranks = changedRanks(p, ranksBefore);
+        publish(p.getCompetition().getId(), "correction", event);
+    }
+
+    /**
+     * Publishes a change to the weight a participant is next to lift.
+     *
+     * @param p the participant whose weight has changed
+     */
+    public void publishWeightChange(Participant p) {
+        if (getSubscriberCount(p.getCompetition().getId()) == 0) {
+            return;
+        }
+        WeightEvent event = new WeightEvent();
+        event.participantID = p.getId();
+        event.weight = p.getCurrentWeight();
+        event.platform = platform(p);
+        event.currentLifter = currentLifter(p.getCompetition(), event.platform);
+        publish(p.getCompetition().getId(), "weight", event);
+    }
+
+    /**
+     * Serialises an event and queues it for every subscriber to a
+     * competition. This returns without waiting on any subscriber.
+     *
+     * @param competitionID the ID# of the competition
+     * @param name          the name of the event
+     * @param event         the event data
+     */
+    private void publish(long competitionID, String name, Object event) {
+        List<Subscriber> list = subscribers.get(competitionID);
+        if (list == null || list.isEmpty()) {
+            return;
+        }
+        String json = gson.toJson(event);
+        for (Subscriber s : list) {
+            enqueue(list, s, SseEmitter.event().name(name).data(json));
+        }
+    }
+
+    /**
+     * Queues an event for a subscriber, and schedules its delivery unless
+     * already scheduled. A subscriber whose queue is full is disconnected.
+     */
+    private void enqueue(List<Subscriber> list, Subscriber s, SseEmitter.SseEventBuilder event) {
+        if (s.closed) {
+            return;
+        }
+        if (!s.queue.offer(event)) {
+            // the client is not keeping up; it is completed by its delivery
+            // task, which is bound to be scheduled while its queue is full
+            drop(list, s);
+            return;
+        }
+        schedule(list, s);
+    }
+
+    private void schedule(List<Subscriber> list, Subscriber s) {
+        if (s.scheduled.compareAndSet(false, true)) {
+            try {
+                deliveryExecutor.execute(() -> deliver(list, s));
+            } catch (RejectedExecutionException e) {
+                // shutting down
+                s.scheduled.set(false);
+            }
+        }
+    }
+
+    /**
+     * Sends the events queued for a subscriber, in order, on the delivery
+     * executor. A subscriber which cannot be sent to is removed, and one
+     * which has been dropped is completed.
+     */
+    private void deliver(List<Subscriber> list, Subscriber s) {
+        do {
+            SseEmitter.SseEventBuilder event;
+            while (!s.closed && (event = s.queue.poll()) != null) {
+                synchronized (s) {
+                    s.sendingSince = System.currentTimeMillis();
+                }
+                try {
+                    s.emitter.send(event);
+                } catch (IOException | IllegalStateException e) {
+                    drop(list, s);
+                    s.complete(e);
+                } finally {
+                    boolean replaced;
+                    synchronized (s) {
+                        s.sendingSince = 0;
+                        replaced = s.blocked;
+                        s.blocked = false;
+                    }
+                    if (replaced) {
+                        resizeDelivery(blockedSends.decrementAndGet());
+                    }
+                }
+            }
+            if (s.closed) {
+                s.queue.clear();
+                s.complete(null);
+            }
+            s.scheduled.set(false);
+            // an event may have been queued after the queue was found empty
+        } while (!s.closed && !s.queue.isEmpty() && s.scheduled.compareAndSet(false, true));
+    }
+
+    /**
+     * Removes a subscriber, so that no further events are queued for it.
+     */
+    private void drop(List<Subscriber> list, Subscriber s) {
+        s.closed = true;
+        list.remove(s);
+    }
+
+    /**
+     * Sends a heartbeat to every subscriber, and disconnects those whose
+     * last send has been blocked for too long.
+     */
+    private void heartbeat() {
+        long now = System.currentTimeMillis();
+        for (List<Subscriber> list : subscribers.values()) {
+            for (Subscriber s : list) {
+                boolean blocked = false;
+                synchronized (s) {
+                    if (s.sendingSince != 0 && now - s.sendingSince > SEND_TIMEOUT_MS) {
+                        blocked = true;
+                        s.blocked = true;
+                    }
+                }
+                if (blocked) {
+                    // the client no longer reads; its delivery thread is
+                    // replaced until the blocked send fails
+                    drop(list, s);
+                    resizeDelivery(blockedSends.incrementAndGet());
+                    s.abort();
+                } else {
+                    enqueue(list, s, SseEmitter.event().comment("heartbeat"));
+                }
+            }
+        }
+    }
+
+    /**
+     * Sizes the delivery executor so that {@link #DELIVERY_THREADS} threads
+     * remain besides those whose sends are blocked, up to
+     * {@link #MAX_DELIVERY_THREADS}.
+     *
+     * @param blocked the number of sends blocked
+     */
+    private synchronized void resizeDelivery(int blocked) {
+        int size = Math.min(DELIVERY_THREADS + blocked, MAX_DELIVERY_THREADS);
+        if (size > deliveryExecutor.getMaximumPoolSize()) {
+            deliveryExecutor.setMaximumPoolSize(size);
+            deliveryExecutor.setCorePoolSize(size);
+        } else {
+            deliveryExecutor.setCorePoolSize(size);
+            deliveryExecutor.setMaximumPoolSize(size);
+        }
+    }
+
+    /**
+     * Finds the platform on which a participant lifts.
+     *
+     * @param p the participant
+     * @return the number of the platform, which is 1 if the participant is
+     *         not within any competing group
+     */
+    private int platform(Participant p) {
+        return p.getCompetition().getPlatform(p).orElse(1);
+    }
+
+    /**
+     * Describes the participant currently next to lift on a platform.
+     *
+     * @param c        the competition
+     * @param platform the number of the platform
+     * @return description of the current lifter, or null if all lifts on the
+     *         platform are complete
+     */
+    private CurrentLifter currentLifter(Competition c, int platform) {
+        Optional<Participant> current = c.getCurrentParticipant(platform);
+        if (!current.isPresent()) {
+            return null;
+        }
+        Participant p = current.get();
+        CurrentLifter lifter = new CurrentLifter();
+        lifter.participantID = p.getId();
+        lifter.name = p.getFullName();
+        lifter.weight = p.getCurrentWeight();
+        lifter.liftType = p.getCurrentLiftType().toString();
+        lifter.attempt = p.getLiftsCount() + 1;
+        return lifter;
+    }
+
+    /**
+     * Finds the ranks within a participant's ranking group which differ from
+     * those previously recorded.
+     *
+     * @param p           the participant who has changed
+     * @param ranksBefore the ranks recorded prior to the change
+     * @return map of participant ID# to new rank, for changed ranks only
+     */
+    private Map<Long, Integer> changedRanks(Participant p, Map<Long, Integer> ranksBefore) {
+        Map<Long, Integer> changed = new HashMap<>();
+        snapshotRanks(p).forEach((id, rank) -> {
+            if (!rank.equals(ranksBefore.get(id))) {
+                changed.put(id, rank);
+            }
+        });
+        return changed;
+    }
+
+    /**
+     * Shuts down the delivery and heartbeat executors and completes all
+     * subscriptions.
+     */
+    @PreDestroy
+    public void shutdown() {
+        heartbeatExecutor.shutdown();
+        deliveryExecutor.shutdown();
+        subscribers.values().forEach(list -> list.forEach(s -> s.complete(null)));
+        subscribers.clear();
+    }
+
+    /**
+     * A client subscribed to the scoreboard of a competition, with the
+     * events waiting to be sent to it.
+     */
+    private static final class Subscriber {
+        private final SseEmitter emitter;
+        private final HttpServletRequest request;
+        private final BlockingQueue<SseEmitter.SseEventBuilder> queue =
+                new ArrayBlockingQueue<>(SUBSCRIBER_QUEUE_CAPACITY);
+        private final AtomicBoolean scheduled = new AtomicBoolean(false);
+        private final AtomicBoolean completed = new AtomicBoolean(false);
+        private volatile boolean closed = false;
+
+        /*
+         * The following are guarded by the subscriber.
+         */
+        private long sendingSince = 0;
+        private boolean blocked = false;
+
+        private Subscriber(SseEmitter emitter, HttpServletRequest request) {
+            this.emitter = emitter;
+            this.request = request;
+        }
+
+        /**
+         * Completes the client's request, closing its connection, so that a
+         * send blocked on it fails. The emitter cannot be completed instead,
+         * as the blocked send holds it.
+         */
+        private void abort() {
+            if (!completed.compareAndSet(false, true)) {
+                return;
+            }
+            try {
+                if (request.isAsyncStarted()) {
+                    request.getAsyncContext().complete();
+                }
+            } catch (IllegalStateException e) {
+                // already completed by the container
+            }
+        }
+
+        /**
+         * Completes the subscription, unless already completed.
+         *
+         * @param error the error with which to complete it, or null if none
+         */
+        private void complete(Throwable error) {
+            if (!completed.compareAndSet(false, true)) {
+                return;
+            }
+            try {
+                if (error == null) {
+                    emitter.complete();
+                } else {
+                    emitter.completeWithError(error);
+                }
+            } catch (IllegalStateException e) {
+                // already completed by the container
+            }
+        }
+    }
+
+    /*
+     * The following classes define the data sent with each event.
+     */
+
+    private static class CurrentLifter {
+        private long participantID;
+        private String name;
+        private int weight;
+        private String liftType;
+        private int attempt;
+    }
+
+    private static class LiftEvent {
+        private long participantID;
+        private String liftType;
+        private String outcome;
+        private int weight;
+        private int attempt;
+        private int platform;
+        private CurrentLifter currentLifter;
+        private Map<Long, Integer> ranks;
+    }
+
+    private static class CorrectionEvent {
+        private long participantID;
+        private int bestSnatch;
+        private int bestCleanAndJerk;
+        private int total;
+        private Map<Long, Integer> ranks;
+    }
+
+    private static class WeightEvent {
+        private long participantID;
+        private int weight;
+        private int platform;
+        private CurrentLifter currentLifter;
+    }
+}
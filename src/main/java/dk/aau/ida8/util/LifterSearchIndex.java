@@ -0,0 +1,521 @@
+package dk.aau.ida8.util;
+
+import dk.aau.ida8.model.Lifter;
+
+import java.text.Normalizer;
+import java.text.SimpleDateFormat;
+import java.util.*;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.regex.Pattern;
+
+/**
+ * This class represents an in-memory index of lifters, searched by partial
+ * forename, surname, club name or date of birth as the user types.
+ *
+ * Each lifter is broken into tokens: the words of their names and of their
+ * club's name, and their date of birth, as dd-MM-yyyy and as the year alone.
+ * Tokens are compared in lower case, ignoring accents. A query is broken into
+ * terms at whitespace, and a lifter matches if every term begins one of
+ * their tokens or, for terms of three or more characters, appears within one.
+ * Lifters in which more terms begin a token are listed first, and then in
+ * order of surname and forename.
+ *
+ * Two structures are kept, each mapping a key to the slots of the lifters
+ * having it, in ascending order:
+ * <ul>
+ *     <li>every token, in order, so that the lifters with a token beginning
+ *     with a short term are found by a range of keys; and</li>
+ *     <li>every trigram (sequence of three characters) of every token, so
+ *     that the lifters with a token containing a longer term are found by
+ *     intersecting the slots of each of its trigrams.</li>
+ * </ul>
+ *
+ * Changing a lifter places it in a new slot, leaving its old slot empty.
+ * Empty slots are skipped when searching, and the index is compacted once
+ * they outnumber the occupied ones.
+ *
+ * The index may be searched by any number of threads at once, and is locked
+ * while being changed.
+ */
+public class LifterSearchIndex {
+
+    /**
+     * This class represents one lifter within the index.
+     */
+    public static final class Entry {
+        private final long id;
+        private final String forename;
+        private final String surname;
+        private final String club;
+        private final Date dateOfBirth;
+        private final Lifter.Gender gender;
+        private final boolean active;
+        private final String[] tokens;
+        private final String sortKey;
+
+        /**
+         * Creates an entry.
+         *
+         * @param id          the ID# of the lifter
+         * @param forename    the lifter's forename
+         * @param surname     the lifter's surname
+         * @param club        the name of the lifter's club, or null
+         * @param dateOfBirth the lifter's date of birth, or null
+         * @param gender      the lifter's gender
+         * @param active      whether the lifter is active
+         */
+        public Entry(long id, String forename, String surname, String club,
+                     Date dateOfBirth, Lifter.Gender gender, boolean active) {
+            this.id = id;
+            this.forename = forename;
+            this.surname = surname;
+            this.club = club;
+            this.dateOfBirth = dateOfBirth;
+            this.gender = gender;
+            this.active = active;
+            this.tokens = tokenize(forename, surname, club, dateOfBirth);
+            this.sortKey = normalize(nullToEmpty(surname)) + '\u0000' + normalize(nullToEmpty(forename));
+        }
+
+        /**
+         * Creates the entry of a lifter, whose club must be loaded.
+         *
+         * @param lifter the lifter
+         * @return the entry of the lifter
+         */
+        public static Entry of(Lifter lifter) {
+            return new Entry(lifter.getId(), lifter.getForename(), lifter.getSurname(),
+                    lifter.getClub() == null ? null : lifter.getClub().getName(),
+                    lifter.getDateOfBirth(), lifter.getGender(), lifter.isActive());
+        }
+
+        public long getId() {
+            return id;
+        }
+
+        public String getForename() {
+            return forename;
+        }
+
+        public String getSurname() {
+            return surname;
+        }
+
+        public String getClub() {
+            return club;
+        }
+
+        public Date getDateOfBirth() {
+            return dateOfBirth;
+        }
+
+        public Lifter.Gender getGender() {
+            return gender;
+        }
+
+        public boolean isActive() {
+            return active;
+        }
+    }
+
+    /**
+     * Holds, in ascending order, the slots of the lifters having one key.
+     */
+    private static final class Postings {
+        private int[] slots = new int[4];
+        private int size = 0;
+
+        private void add(int slot) {
+            if (size == slots.length) {
+                slots = Arrays.copyOf(slots, size * 2);
+            }
+            slots[size++] = slot;
+        }
+    }
+
+    /**
+     * A lifter matched by a search, with the number of terms which begin one
+     * of their tokens.
+     */
+    private static final class Match {
+        private final Entry entry;
+        private final int prefixes;
+
+        private Match(Entry entry, int prefixes) {
+            this.entry = entry;
+            this.prefixes = prefixes;
+        }
+    }
+
+    private static final int GRAM = 3;
+    private static final Pattern WORD_SEPARATOR = Pattern.compile("[\\s\\-]+");
+    private static final Pattern TERM_SEPARATOR = Pattern.compile("\\s+");
+    private static final Pattern ACCENTS = Pattern.compile("\\p{M}+");
+    private static final Comparator<Match> ORDER = (a, b) -> compare(a.prefixes, a.entry, b.prefixes, b.entry);
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private Entry[] entries = new Entry[1024];
+    private int slots = 0;
+    private final Map<Long, Integer> slotsByID = new HashMap<>();
+    private final NavigableMap<String, Postings> tokens = new TreeMap<>();
+    private final Map<String, Postings> trigrams = new HashMap<>();
+
+    /**
+     * Adds a lifter to the index, or replaces the lifter of the same ID#.
+     *
+     * @param entry the entry of the lifter
+     */
+    public void put(Entry entry) {
+        lock.writeLock().lock();
+        try {
+            removeSlot(entry.id);
+            addSlot(entry);
+            compactIfSparse();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Removes a lifter from the index.
+     *
+     * @param id the ID# of the lifter
+     */
+    public void remove(long id) {
+        lock.writeLock().lock();
+        try {
+            removeSlot(id);
+            compactIfSparse();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Replaces every lifter in the index.
+     *
+     * @param all the entries of every lifter
+     */
+    public void replaceAll(Collection<Entry> all) {
+        lock.writeLock().lock();
+        try {
+            clear(all.size());
+            for (Entry e : all) {
+                removeSlot(e.id);
+                addSlot(e);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Gets the number of lifters in the index.
+     *
+     * @return the number of lifters
+     */
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return slotsByID.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Searches for the lifters matching a query.
+     *
+     * @param query  the partial names, club name or date of birth of the
+     *               lifter, separated by whitespace
+     * @param gender the gender of the lifters to find, or null for either
+     * @param active whether to find only active, or only inactive, lifters,
+     *               or null for both
+     * @param limit  the greatest number of lifters to find
+     * @return the lifters found, best matches first
+     */
+    public List<Entry> search(String query, Lifter.Gender gender, Boolean active, int limit) {
+        String[] terms = terms(query);
+        if (terms.length == 0 || limit <= 0) {
+            return Collections.emptyList();
+        }
+        String longest = terms[0];
+        for (String t : terms) {
+            if (t.length() > longest.length()) {
+                longest = t;
+            }
+        }
+
+        lock.readLock().lock();
+        try {
+            List<Match> matches = new ArrayList<>();
+            if (longest.length() >= GRAM) {
+                // the best matches are kept in a heap, worst first
+                PriorityQueue<Match> best = new PriorityQueue<>(limit + 1, ORDER.reversed());
+                int[] candidates = null;
+                for (String t : terms) {
+                    if (t.length() >= GRAM) {
+                        candidates = intersectTrigrams(t, candidates);
+                    }
+                }
+                for (int slot : candidates) {
+                    Entry e = entries[slot];
+                    int prefixes = match(e, terms, gender, active);
+                    if (prefixes < 0) {
+                        continue;
+                    }
+                    if (best.size() == limit) {
+                        Match worst = best.peek();
+                        if (compare(prefixes, e, worst.prefixes, worst.entry) >= 0) {
+                            continue;
+                        }
+                        best.poll();
+                    }
+                    best.add(new Match(e, prefixes));
+                }
+                matches.addAll(best);
+            } else {
+                // every term is short, and so must begin a token: take the
+                // first lifters found, in order of token
+                BitSet seen = new BitSet(slots);
+                String end = longest + Character.MAX_VALUE;
+                search:
+                for (Postings p : tokens.subMap(longest, true, end, false).values()) {
+                    for (int i = 0; i < p.size; i++) {
+                        int slot = p.slots[i];
+                        if (seen.get(slot)) {
+                            continue;
+                        }
+                        seen.set(slot);
+                        int prefixes = match(entries[slot], terms, gender, active);
+                        if (prefixes >= 0) {
+                            matches.add(new Match(entries[slot], prefixes));
+                            if (matches.size() == limit) {
+                                break search;
+                            }
+                        }
+                    }
+                }
+            }
+            matches.sort(ORDER);
+            List<Entry> found = new ArrayList<>(Math.min(limit, matches.size()));
+            for (int i = 0; i < matches.size() && i < limit; i++) {
+                found.add(matches.get(i).entry);
+            }
+            return found;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Determines whether a lifter matches every term of a query.
+     *
+     * @return the number of terms which begin a token of the lifter, or -1 if
+     *         the lifter does not match
+     */
+    private static int match(Entry e, String[] terms, Lifter.Gender gender, Boolean active) {
+        if (e == null
+                || (gender != null && e.gender != gender)
+                || (active != null && e.active != active)) {
+            return -1;
+        }
+        int prefixes = 0;
+        for (String term : terms) {
+            boolean contained = false;
+            boolean prefix = false;
+            for (String token : e.tokens) {
+                if (token.startsWith(term)) {
+                    prefix = true;
+                    break;
+                } else if (term.length() >= GRAM && token.contains(term)) {
+                    contained = true;
+                }
+            }
+            if (prefix) {
+                prefixes++;
+            } else if (!contained) {
+                return -1;
+            }
+        }
+        return prefixes;
+    }
+
+    /**
+     * Orders matches: those in which more terms begin a token first, and
+     * then by surname, forename and ID#.
+     */
+    private static int compare(int prefixes1, Entry e1, int prefixes2, Entry e2) {
+        if (prefixes1 != prefixes2) {
+            return prefixes2 - prefixes1;
+        }
+        int c = e1.sortKey.compareTo(e2.sortKey);
+        return c != 0 ? c : Long.compare(e1.id, e2.id);
+    }
+
+    /**
+     * Finds the slots of the lifters having every trigram of a term, by
+     * intersecting the slots of each trigram, fewest first.
+     *
+     * @param term       the term, of at least three characters
+     * @param candidates the slots to which to restrict the result, or null
+     *                   for any
+     * @return the slots found, in ascending order
+     */
+    private int[] intersectTrigrams(String term, int[] candidates) {
+        List<Postings> ps = new ArrayList<>();
+        for (int i = 0; i + GRAM <= term.length(); i++) {
+            Postings p = trigrams.get(term.substring(i, i + GRAM));
+            if (p == null) {
+                return new int[0];
+            }
+            ps.add(p);
+        }
+        ps.sort(Comparator.comparingInt(p -> p.size));
+        int[] result;
+        int size;
+        int k;
+        if (candidates == null) {
+            result = Arrays.copyOf(ps.get(0).slots, ps.get(0).size);
+            size = result.length;
+            k = 1;
+        } else {
+            result = candidates.clone();
+            size = result.length;
+            k = 0;
+        }
+        for (; k < ps.size() && size > 0; k++) {
+            Postings p = ps.get(k);
+            int n = 0;
+            for (int i = 0, j = 0; i < size && j < p.size; ) {
+                if (result[i] < p.slots[j]) {
+                    i++;
+                } else if (result[i] > p.slots[j]) {
+                    j++;
+                } else {
+                    result[n++] = result[i];
+                    i++;
+                    j++;
+                }
+            }
+            size = n;
+        }
+        return Arrays.copyOf(result, size);
+    }
+
+    private void addSlot(Entry e) {
+        if (slots == entries.length) {
+            entries = Arrays.copyOf(entries, slots * 2);
+        }
+        int slot = slots++;
+        entries[slot] = e;
+        slotsByID.put(e.id, slot);
+
+        Set<String> grams = new HashSet<>();
+        Set<String> distinct = new HashSet<>();
+        for (String token : e.tokens) {
+            if (distinct.add(token)) {
+                tokens.computeIfAbsent(token, k -> new Postings()).add(slot);
+            }
+            for (int i = 0; i + GRAM <= token.length(); i++) {
+                grams.add(token.substring(i, i + GRAM));
+            }
+        }
+        for (String gram : grams) {
+            trigrams.computeIfAbsent(gram, k -> new Postings()).add(slot);
+        }
+    }
+
+    private void removeSlot(long id) {
+        Integer slot = slotsByID.remove(id);
+        if (slot != null) {
+            entries[slot] = null;
+        }
+    }
+
+    /**
+     * Rebuilds the index from its lifters, once the empty slots outnumber
+     * the occupied ones.
+     */
+    private void compactIfSparse() {
+        int occupied = slotsByID.size();
+        if (slots < 1024 || slots - occupied <= occupied) {
+            return;
+        }
+        List<Entry> all = new ArrayList<>(occupied);
+        for (int i = 0; i < slots; i++) {
+            if (entries[i] != null) {
+                all.add(entries[i]);
+            }
+        }
+        clear(occupied);
+        for (Entry e : all) {
+            addSlot(e);
+        }
+    }
+
+    private void clear(int capacity) {
+        entries = new Entry[Math.max(1024, capacity)];
+        slots = 0;
+        slotsByID.clear();
+        tokens.clear();
+        trigrams.clear();
+    }
+
+    /**
+     * Breaks the details of a lifter into tokens.
+     */
+    private static String[] tokenize(String forename, String surname, String club, Date dateOfBirth) {
+        List<String> ts = new ArrayList<>();
+        for (String s : new String[]{forename, surname, club}) {
+            if (s == null) {
+                continue;
+            }
+            String n = normalize(s);
+            for (String word : WORD_SEPARATOR.split(n)) {
+                if (!word.isEmpty()) {
+                    ts.add(word);
+                }
+            }
+            // a hyphenated name is also a token in whole
+            if (n.indexOf('-') >= 0) {
+                for (String word : TERM_SEPARATOR.split(n)) {
+                    if (word.indexOf('-') >= 0) {
+                        ts.add(word);
+                    }
+                }
+            }
+        }
+        if (dateOfBirth != null) {
+            String date = new SimpleDateFormat("dd-MM-yyyy").format(dateOfBirth);
+            ts.add(date);
+            ts.add(date.substring(6));
+        }
+        return ts.toArray(new String[ts.size()]);
+    }
+
+    /**
+     * Breaks a query into normalised terms.
+     */
+    private static String[] terms(String query) {
+        if (query == null) {
+            return new String[0];
+        }
+        String n = normalize(query).trim();
+        return n.isEmpty() ? new String[0] : TERM_SEPARATOR.split(n);
+    }
+
+    private static String normalize(String s) {
+        String decomposed = Normalizer.normalize(s.toLowerCase(Locale.ROOT), Normalizer.Form.NFD);
+        // the Danish o-slash and ae have no decomposition, and are spelled o
+        // and ae where the letters are not to hand
+        return ACCENTS.matcher(decomposed).replaceAll("")
+                .replace("\u00f8", "o")
+                .replace("\u00e6", "ae");
+    }
+
+    private static String nullToEmpty(String s) {
+        return s == null ? "" : s;
+    }
+}
@@ -0,0 +1,229 @@
+package dk.aau.ida8.util;
+
+import dk.aau.ida8.model.Group;
+import dk.aau.ida8.model.Participant;
+import dk.aau.ida8.util.groupcomparators.CompetingComparator;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * This class represents the lifting order of a competition: the order in
+ * which participants with lifts outstanding are to carry out their next lift.
+ *
+ * Competing groups carry out all of their lifts in turn. Within the current
+ * group, participants lift in the order given by the {@link
+ * CompetingComparator}. The lifting order holds every participant with lifts
+ * outstanding in an indexed binary heap, ordered first by the position of
+ * their competing group and then by their {@link
+ * CompetingComparator#sortKey(Participant) sort key}. The participant next to
+ * lift is therefore always at the head of the heap, and may be found in O(1)
+ * time regardless of the number of groups.
+ *
+ * The lifting order does not observe participants. Whenever a participant
+ * completes a lift or changes their weight, {@link #update(Participant)} must
+ * be called to reposition them, which takes O(log n) time.
+ */
+public class LiftingOrder {
+
+    private final List<Group> competingGroups;
+
+    /**
+     * The position of each participant's competing group within the list of
+     * competing groups, and the position of the participant within the heap.
+     */
+    private final Map<Participant, Integer> groupIndices = new HashMap<>();
+    private final Map<Participant, Integer> sequences = new HashMap<>();
+    private final Map<Participant, Integer> positions = new HashMap<>();
+
+    private final Participant[] heap;
+    private final int[] heapGroups;
+    private final long[] heapKeys;
+    private final int[] heapSequences;
+    private int size = 0;
+
+    /**
+     * Creates the lifting order for a list of competing groups.
+     *
+     * @param competingGroups the competing groups of a competition, in the
+     *                        order in which they are to compete
+     */
+    public LiftingOrder(List<Group> competingGroups) {
+        this.competingGroups = competingGroups;
+        int sequence = 0;
+        for (int g = 0; g < competingGroups.size(); g++) {
+            for (Participant p : competingGroups.get(g).getUnsortedParticipants()) {
+                groupIndices.put(p, g);
+                sequences.put(p, sequence++);
+            }
+        }
+        heap = new Participant[sequence];
+        heapGroups = new int[sequence];
+        heapKeys = new long[sequence];
+        heapSequences = new int[sequence];
+        for (Participant p : groupIndices.keySet()) {
+            if (!p.allLiftsComplete()) {
+                set(size++, p);
+            }
+        }
+        for (int i = size / 2 - 1; i >= 0; i--) {
+            siftDown(i);
+        }
+    }
+
+    /**
+     * Gets the participant who is to carry out a lift next.
+     *
+     * @return the participant next to lift, or nothing if all lifts are
+     *         complete
+     */
+    public Optional<Participant> getCurrentParticipant() {
+        return size == 0 ? Optional.empty() : Optional.of(heap[0]);
+    }
+
+    /**
+     * Gets the competing group currently competing.
+     *
+     * @return the group of the participant next to lift, or nothing if all
+     *         lifts are complete
+     */
+    public Optional<Group> getCurrentCompetingGroup() {
+        return size == 0 ? Optional.empty() : Optional.of(competingGroups.get(heapGroups[0]));
+    }
+
+    /**
+     * Counts the participants with lifts outstanding.
+     *
+     * @return the number of participants with lifts outstanding
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Determines whether a participant is within one of the competing groups
+     * of this lifting order, whether or not they have lifts outstanding.
+     *
+     * @param p the participant to look for
+     * @return true, if the participant is within a competing group, else
+     *         false
+     */
+    public boolean contains(Participant p) {
+        return groupIndices.containsKey(p);
+    }
+
+    /**
+     * Repositions a participant within the lifting order.
+     *
+     * This must be called after a participant completes a lift or changes the
+     * weight of their next lift. A participant who has completed all of their
+     * lifts is removed from the lifting order. A participant who is not in any
+     * competing group is ignored.
+     *
+     * @param p the participant to reposition
+     */
+    public void update(Participant p) {
+        if (!groupIndices.containsKey(p)) {
+            return;
+        }
+        Integer pos = positions.get(p);
+        if (p.allLiftsComplete()) {
+            if (pos != null) {
+                removeAt(pos);
+            }
+        } else if (pos == null) {
+            set(size, p);
+            siftUp(size++);
+        } else {
+            set(pos, p);
+            siftDown(pos);
+            siftUp(positions.get(p));
+        }
+    }
+
+    /**
+     * Stores a participant, and their current ordering values, at a position
+     * within the heap.
+     */
+    private void set(int i, Participant p) {
+        heap[i] = p;
+        heapGroups[i] = groupIndices.get(p);
+        heapKeys[i] = CompetingComparator.sortKey(p);
+        heapSequences[i] = sequences.get(p);
+        positions.put(p, i);
+    }
+
+    private void removeAt(int i) {
+        positions.remove(heap[i]);
+        size--;
+        if (i != size) {
+            move(size, i);
+            siftDown(i);
+            siftUp(positions.get(heap[i]));
+        }
+        heap[size] = null;
+    }
+
+    private void move(int from, int to) {
+        heap[to] = heap[from];
+        heapGroups[to] = heapGroups[from];
+        heapKeys[to] = heapKeys[from];
+        heapSequences[to] = heapSequences[from];
+        positions.put(heap[to], to);
+    }
+
+    private boolean less(int i, int j) {
+        if (heapGroups[i] != heapGroups[j]) {
+            return heapGroups[i] < heapGroups[j];
+        }
+        if (heapKeys[i] != heapKeys[j]) {
+            return heapKeys[i] < heapKeys[j];
+        }
+        return heapSequences[i] < heapSequences[j];
+    }
+
+    private void swap(int i, int j) {
+        Participant p = heap[i];
+        int group = heapGroups[i];
+        long key = heapKeys[i];
+        int sequence = heapSequences[i];
+        move(j, i);
+        heap[j] = p;
+        heapGroups[j] = group;
+        heapKeys[j] = key;
+        heapSequences[j] = sequence;
+        positions.put(p, j);
+    }
+
+    private void siftUp(int i) {
+        while (i > 0) {
+            int parent = (i - 1) / 2;
+            if (!less(i, parent)) {
+                return;
+            }
+            swap(i, parent);
+            i = parent;
+        }
+    }
+
+    private void siftDown(int i) {
+        while (true) {
+            int smallest = i;
+            int left = 2 * i + 1;
+            int right = left + 1;
+            if (left < size && less(left, smallest)) {
+                smallest = left;
+            }
+            if (right < size && less(right, smallest)) {
+                smallest = right;
+            }
+            if (smallest == i) {
+                return;
+            }
+            swap(i, smallest);
+            i = smallest;
+        }
+    }
+}
@@ -0,0 +1,309 @@
+package dk.aau.ida8.util;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.function.ToDoubleFunction;
+
+/**
+ * This class represents an index of ranks over a collection of elements, each
+ * of which is scored by a key function. Higher scores rank first.
+ *
+ * The index is an order-statistic tree (a randomised treap in which each node
+ * records the size of its subtree). This permits the rank of an element, and
+ * the top k elements, to be found in O(log n) time (plus k for the latter),
+ * without sorting the whole collection on every query.
+ *
+ * Rank is reported in the same manner as within a {@link
+ * dk.aau.ida8.model.Group Group}: elements with equal scores share the same
+ * rank, and the next distinct score takes the rank following all of those
+ * tied elements. For example, scores of 100, 90, 90 and 80 rank 1, 2, 2 and
+ * 4, respectively.
+ *
+ * The index does not observe its elements. When the score of an element
+ * changes, {@link #update(Object)} must be called to reposition it.
+ *
+ * @param <T> the type of element ranked by this index
+ */
+public class RankIndex<T> {
+
+    /**
+     * Represents one node of the treap.
+     */
+    private static final class Node<T> {
+        private final T element;
+        private final double score;
+        private final long sequence;
+        private final int priority;
+        private int size = 1;
+        private Node<T> left;
+        private Node<T> right;
+
+        private Node(T element, double score, long sequence, int priority) {
+            this.element = element;
+            this.score = score;
+            this.sequence = sequence;
+            this.priority = priority;
+        }
+    }
+
+    private final ToDoubleFunction<T> scorer;
+    private final Map<T, Node<T>> nodes = new HashMap<>();
+    private final Random random = new Random();
+    private Node<T> root;
+    private long nextSequence = 0;
+
+    /**
+     * Creates an empty RankIndex.
+     *
+     * @param scorer the function used to score each element
+     */
+    public RankIndex(ToDoubleFunction<T> scorer) {
+        this.scorer = scorer;
+    }
+
+    /**
+     * Creates a RankIndex containing the passed elements.
+     *
+     * @param scorer   the function used to score each element
+     * @param elements the elements with which to populate the index
+     */
+    public RankIndex(ToDoubleFunction<T> scorer, Iterable<T> elements) {
+        this(scorer);
+        elements.forEach(this::add);
+    }
+
+    /**
+     * Adds an element to the index, scoring it with the key function.
+     *
+     * If the element is already present, it is repositioned instead.
+     *
+     * @param element the element to add
+     */
+    public void add(T element) {
+        if (nodes.containsKey(element)) {
+            update(element);
+            return;
+        }
+        Node<T> node = new Node<>(element, scorer.applyAsDouble(element),
+                nextSequence++, random.nextInt());
+        nodes.put(element, node);
+        root = insert(root, node);
+    }
+
+    /**
+     * Removes an element from the index.
+     *
+     * @param element the element to remove
+     * @return true if the element was present, else false
+     */
+    public boolean remove(T element) {
+        Node<T> node = nodes.remove(element);
+        if (node == null) {
+            return false;
+        }
+        root = delete(root, node);
+        return true;
+    }
+
+    /**
+     * Re-scores an element and repositions it within the index.
+     *
+     * This is to be called whenever the score of an element changes. If the
+     * score is unchanged, the index is left as it is.
+     *
+     * @param element the element whose score has changed
+     * @return true if the element is within the index, else false
+     */
+    public boolean update(T element) {
+        Node<T> node = nodes.get(element);
+        if (node == null) {
+            return false;
+        }
+        double score = scorer.applyAsDouble(element);
+        if (Double.compare(score, node.score) != 0) {
+            root = delete(root, node);
+            Node<T> updated = new Node<>(element, score, node.sequence, node.priority);
+            nodes.put(element, updated);
+            root = insert(root, updated);
+        }
+        return true;
+    }
+
+    /**
+     * Determines whether an element is within the index.
+     *
+     * @param element the element to look for
+     * @return true if the element is within the index, else false
+     */
+    public boolean contains(T element) {
+        return nodes.containsKey(element);
+    }
+
+    /**
+     * Counts the number of elements within the index.
+     *
+     * @return the number of elements within the index
+     */
+    public int size() {
+        return size(root);
+    }
+
+    /**
+     * Gets the rank of an element within the index.
+     *
+     * The rank is one more than the number of elements with a strictly higher
+     * score than the passed element.
+     *
+     * @param element the element for which to find the rank
+     * @return the rank of the element
+     * @throws IllegalArgumentException if the element is not in the index
+     */
+    public int getRank(T element) throws IllegalArgumentException {
+        Node<T> node = nodes.get(element);
+        if (node == null) {
+            throw new IllegalArgumentException("element " + element + " is not in this index");
+        }
+        return countHigherThan(node.score) + 1;
+    }
+
+    /**
+     * Gets the top k elements within the index, highest score first.
+     *
+     * Elements with equal scores are listed in the order in which they were
+     * added to the index.
+     *
+     * @param k the maximum number of elements to return
+     * @return list of up to k elements, ordered by rank
+     */
+    public List<T> getTop(int k) {
+        List<T> result = new ArrayList<>(Math.min(Math.max(k, 0), size()));
+        collectTop(root, k, result);
+        return result;
+    }
+
+    /**
+     * Counts the elements with a score strictly higher than that passed.
+     *
+     * @param score the score to compare against
+     * @return number of elements scoring higher
+     */
+    private int countHigherThan(double score) {
+        int count = 0;
+        Node<T> n = root;
+        while (n != null) {
+            if (n.score > score) {
+                count += size(n.left) + 1;
+                n = n.right;
+            } else {
+                n = n.left;
+            }
+        }
+        return count;
+    }
+
+    /**
+     * Appends, in order, up to k elements of the subtree to the result list.
+     */
+    private void collectTop(Node<T> n, int k, List<T> result) {
+        if (n == null || result.size() >= k) {
+            return;
+        }
+        collectTop(n.left, k, result);
+        if (result.size() < k) {
+            result.add(n.element);
+            collectTop(n.right, k, result);
+        }
+    }
+
+    /**
+     * Determines whether node a sorts before node b: higher scores first,
+     * then earlier additions first.
+     */
+    private static <T> boolean before(Node<T> a, Node<T> b) {
+        int cmp = Double.compare(b.score, a.score);
+        return cmp < 0 || (cmp == 0 && a.sequence < b.sequence);
+    }
+
+    private static <T> int size(Node<T> n) {
+        return n == null ? 0 : n.size;
+    }
+
+    private static <T> void resize(Node<T> n) {
+        n.size = size(n.left) + size(n.right) + 1;
+    }
+
+    private static <T> Node<T> insert(Node<T> n, Node<T> node) {
+        if (n == null) {
+            return node;
+        }
+        if (before(node, n)) {
+            n.left = insert(n.left, node);
+            resize(n);
+            if (n.left.priority > n.priority) {
+                n = rotateRight(n);
+            }
+        } else {
+            n.right = insert(n.right, node);
+            resize(n);
+            if (n.right.priority > n.priority) {
+                n = rotateLeft(n);
+            }
+        }
+        return n;
+    }
+
+    private static <T> Node<T> delete(Node<T> n, Node<T> node) {
+        if (n == null) {
+            return null;
+        }
+        if (n == node) {
+            return merge(n.left, n.right);
+        }
+        if (before(node, n)) {
+            n.left = delete(n.left, node);
+        } else {
+            n.right = delete(n.right, node);
+        }
+        resize(n);
+        return n;
+    }
+
+    private static <T> Node<T> merge(Node<T> a, Node<T> b) {
+        if (a == null) {
+            return b;
+        }
+        if (b == null) {
+            return a;
+        }
+        if (a.priority > b.priority) {
+            a.right = merge(a.right, b);
+            resize(a);
+            return a;
+        } else {
+            b.left = merge(a, b.left);
+            resize(b);
+            return b;
+        }
+    }
+
+    private static <T> Node<T> rotateRight(Node<T> n) {
+        Node<T> l = n.left;
+        n.left = l.right;
+        l.right = n;
+        resize(n);
+        resize(l);
+        return l;
+    }
+
+    private static <T> Node<T> rotateLeft(Node<T> n) {
+        Node<T> r = n.right;
+        n.right = r.left;
+        r.left = n;
+        resize(n);
+        resize(r);
+        return r;
+    }
+}
@@ -1,6 +1,6 @@
 package dk.aau.ida8.util;
 
-import dk.aau.ida8.model.Lifter;
+import dk.aau.ida8.model.Competition;
 import dk.aau.ida8.model.Participant;
 
 import java.util.function.Function;
@@ -17,27 +17,27 @@ public class SinclairCalculator implements Function<Participant, Double> {
      * The calculation is described by the formula: 10^(A log10(x/b)^2, where
      *
      *  x is the participant's body weight
-     *  A is the official coefficient for this Olympic cycle, where this
+     *  A is the official coefficient for the Olympic cycle, where this
      *    coefficient is less than the participant's bodyweight, otherwise it is set
      *    to 1.0
      *  b is the bodyweight of the world record holder in the heaviest category
      *
+     * The coefficients used are those for the Olympic cycle in which the
+     * participant's competition takes place, and the coefficient is looked-up
+     * from the table precomputed for that cycle (see
+     * {@link SinclairCoefficient}).
+     *
      * @param participant the participant for whom to calculate the Sinclair coefficient
      * @return the Sinclair coefficient for the passed participant
      */
     private static double sinclairCoefficient(Participant participant) {
-        double genderCoefficient;
-        double genderBodyweight;
-        if (participant.getGender().equals(Lifter.Gender.MALE)) {
-            genderCoefficient = SinclairCoefficient.getMaleCoefficient();
-            genderBodyweight = SinclairCoefficient.getMaleWrhBodyweight();
-        } else if (participant.getGender().equals(Lifter.Gender.FEMALE)) {
-            genderCoefficient = SinclairCoefficient.getFemaleCoefficient();
-            genderBodyweight = SinclairCoefficient.getFemaleWrhBodyweight();
-        } else {
+        if (participant.getGender() == null) {
             throw new IllegalArgumentException("unknown gender for lifter: " + participant);
         }
-        return Math.pow(10, genderCoefficient * Math.pow(Math.log10(participant.getBodyWeight() / genderBodyweight), 2));
+        Competition competition = participant.getCompetition();
+        SinclairCoefficient coefficient = SinclairCoefficient.forDate(
+                competition == null ? null : competition.getCompetitionDate());
+        return coefficient.getCoefficient(participant.getGender(), participant.getBodyWeight());
     }
 
     /**
@@ -56,8 +56,6 @@ public class SinclairCalculator implements Function<Participant, Double> {
      * @return the "Sinclair" total score for the competition
      */
     public double calculateScore(Participant participant) {
-        int rawScore = participant.getBestCleanAndJerk() +
-                participant.getBestSnatch();
         return participant.getTotalScore() * sinclairCoefficient(participant);
     }
 }
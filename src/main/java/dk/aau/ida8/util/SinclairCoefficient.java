@@ -1,28 +1,208 @@
 package dk.aau.ida8.util;
 
-public class SinclairCoefficient {
+import dk.aau.ida8.model.Lifter;
 
-    // The coefficient for this Olympic cycle
-    private static double MALE_COEFFICIENT = 0.704358141;
-    private static double FEMALE_COEFFICIENT = 0.897260740;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.util.Date;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.concurrent.ConcurrentSkipListMap;
 
-    //male and female world record holder's bodyweight (in the heaviest category)
-    private static double MALE_WRH_BODYWEIGHT = 174.393;
-    private static double FEMALE_WRH_BODYWEIGHT = 148.026;
+/**
+ * This class represents the set of Sinclair coefficients published for one
+ * Olympic cycle.
+ *
+ * Each set contains, for each gender, the coefficient A and the body weight
+ * b of the world record holder in the heaviest category. The Sinclair
+ * coefficient of a lifter whose body weight is x is then 10^(A log10(x/b)^2)
+ * where x is less than b, and 1.0 otherwise.
+ *
+ * Body weights are measured to the nearest 0.01 kg. Rather than evaluating
+ * the formula on every call, each set precomputes a table of coefficients
+ * for every body weight up to b at that resolution, so that a coefficient
+ * is found by a single array access. The tables are built on first use.
+ *
+ * The sets for each cycle are held in a registry, ordered by the date from
+ * which they apply. {@link #forDate(Date)} selects the set applicable to a
+ * competition, so that historical competitions continue to be scored using
+ * the coefficients in force at the time.
+ */
+public final class SinclairCoefficient {
 
-    public static double getMaleCoefficient() {
-        return MALE_COEFFICIENT;
+    /**
+     * The number of table entries per kilogram of body weight.
+     */
+    private static final int RESOLUTION = 100;
+
+    private static final NavigableMap<Long, SinclairCoefficient> REGISTRY = new ConcurrentSkipListMap<>();
+
+    static {
+        register(new SinclairCoefficient("2009-2012", LocalDate.of(2009, 1, 1),
+                0.784780654, 173.961, 1.056683941, 125.441));
+        register(new SinclairCoefficient("2013-2016", LocalDate.of(2013, 1, 1),
+                0.794358141, 174.393, 0.897260740, 148.026));
+        register(new SinclairCoefficient("2017-2020", LocalDate.of(2017, 1, 1),
+                0.751945030, 175.508, 0.783497476, 153.655));
+        register(new SinclairCoefficient("2021-2024", LocalDate.of(2021, 1, 1),
+                0.722762521, 193.609, 0.787004341, 153.757));
+    }
+
+    private final String cycle;
+    private final LocalDate validFrom;
+    private final Map<Lifter.Gender, Double> coefficients = new EnumMap<>(Lifter.Gender.class);
+    private final Map<Lifter.Gender, Double> wrhBodyWeights = new EnumMap<>(Lifter.Gender.class);
+
+    private volatile Map<Lifter.Gender, double[]> tables;
+
+    /**
+     * Creates a set of Sinclair coefficients.
+     *
+     * @param cycle               the Olympic cycle to which the set applies,
+     *                            e.g. "2013-2016"
+     * @param validFrom           the date from which the set applies
+     * @param maleCoefficient     the coefficient A for male lifters
+     * @param maleWrhBodyWeight   the body weight b for male lifters
+     * @param femaleCoefficient   the coefficient A for female lifters
+     * @param femaleWrhBodyWeight the body weight b for female lifters
+     */
+    public SinclairCoefficient(String cycle,
+                               LocalDate validFrom,
+                               double maleCoefficient,
+                               double maleWrhBodyWeight,
+                               double femaleCoefficient,
+                               double femaleWrhBodyWeight) {
+        this.cycle = cycle;
+        this.validFrom = validFrom;
+        coefficients.put(Lifter.Gender.MALE, maleCoefficient);
+        coefficients.put(Lifter.Gender.FEMALE, femaleCoefficient);
+        wrhBodyWeights.put(Lifter.Gender.MALE, maleWrhBodyWeight);
+        wrhBodyWeights.put(Lifter.Gender.FEMALE, femaleWrhBodyWeight);
+    }
+
+    /**
+     * Adds a set of coefficients to the registry.
+     *
+     * A set replaces any set previously registered from the same date.
+     *
+     * @param coefficient the set of coefficients to add
+     */
+    public static void register(SinclairCoefficient coefficient) {
+        REGISTRY.put(startOf(coefficient.getValidFrom()), coefficient);
+    }
+
+    /**
+     * Gets the set of coefficients applicable on a given date.
+     *
+     * This is the most recent set to apply from on or before the date. Dates
+     * before the earliest set use the earliest set, and an absent date uses
+     * the most recent set.
+     *
+     * @param date the date of a competition, or null
+     * @return the set of coefficients applicable on that date
+     */
+    public static SinclairCoefficient forDate(Date date) {
+        if (date == null) {
+            return REGISTRY.lastEntry().getValue();
+        }
+        Map.Entry<Long, SinclairCoefficient> entry = REGISTRY.floorEntry(date.getTime());
+        return entry != null ? entry.getValue() : REGISTRY.firstEntry().getValue();
+    }
+
+    /**
+     * Gets the Sinclair coefficient for a lifter of a given gender and body
+     * weight.
+     *
+     * The body weight is rounded to the nearest 0.01 kg. Body weights below
+     * this (i.e. those of lifters yet to be weighed-in) fall outside the table,
+     * and are calculated directly.
+     *
+     * @param gender     the gender of the lifter
+     * @param bodyWeight the body weight of the lifter in kilograms
+     * @return the Sinclair coefficient for the lifter
+     */
+    public double getCoefficient(Lifter.Gender gender, double bodyWeight) {
+        if (bodyWeight >= getWrhBodyWeight(gender)) {
+            return 1.0;
+        }
+        int i = (int) Math.round(bodyWeight * RESOLUTION);
+        if (i < 1) {
+            return calculateCoefficient(gender, bodyWeight);
+        }
+        return getTable(gender)[i];
+    }
+
+    /**
+     * Calculates the Sinclair coefficient directly from the formula.
+     *
+     * @param gender     the gender of the lifter
+     * @param bodyWeight the body weight of the lifter in kilograms
+     * @return the Sinclair coefficient for the lifter
+     */
+    double calculateCoefficient(Lifter.Gender gender, double bodyWeight) {
+        double b = getWrhBodyWeight(gender);
+        if (bodyWeight >= b) {
+            return 1.0;
+        }
+        return Math.pow(10, getCoefficientA(gender) * Math.pow(Math.log10(bodyWeight / b), 2));
+    }
+
+    public String getCycle() {
+        return cycle;
+    }
+
+    public LocalDate getValidFrom() {
+        return validFrom;
+    }
+
+    public double getCoefficientA(Lifter.Gender gender) {
+        return coefficients.get(gender);
+    }
+
+    public double getWrhBodyWeight(Lifter.Gender gender) {
+        return wrhBodyWeights.get(gender);
+    }
+
+    /**
+     * Gets the table of coefficients for a gender, building the tables if not
+     * yet built.
+     *
+     * @param gender the gender of the lifter
+     * @return the table of coefficients, indexed by body weight in units of
+     *         0.01 kg
+     */
+    private double[] getTable(Lifter.Gender gender) {
+        Map<Lifter.Gender, double[]> t = tables;
+        if (t == null) {
+            synchronized (this) {
+                if (tables == null) {
+                    tables = createTables();
+                }
+                t = tables;
+            }
+        }
+        return t.get(gender);
     }
 
-    public static double getFemaleCoefficient() {
-        return FEMALE_COEFFICIENT;
+    private Map<Lifter.Gender, double[]> createTables() {
+        Map<Lifter.Gender, double[]> t = new EnumMap<>(Lifter.Gender.class);
+        for (Lifter.Gender gender : Lifter.Gender.values()) {
+            double[] table = new double[(int) Math.ceil(getWrhBodyWeight(gender) * RESOLUTION) + 1];
+            for (int i = 1; i < table.length; i++) {
+                table[i] = calculateCoefficient(gender, (double) i / RESOLUTION);
+            }
+            t.put(gender, table);
+        }
+        return t;
     }
 
-    public static double getMaleWrhBodyweight() {
-        return MALE_WRH_BODYWEIGHT;
+    private static long startOf(LocalDate date) {
+        return date.atStartOfDay(ZoneId.systemDefault()).toInstant().toEpochMilli();
     }
 
-    public static double getFemaleWrhBodyweight() {
-        return FEMALE_WRH_BODYWEIGHT;
+    @Override
+    public String toString() {
+        return "Sinclair coefficients " + cycle;
     }
 }
@@ -0,0 +1,129 @@
+package dk.aau.ida8.util;
+
+import java.util.BitSet;
+import java.util.Random;
+
+/**
+ * This class allocates the start numbers of a competition: numbers from 1 up
+ * to the maximum number of participants, drawn uniformly at random, and
+ * never allocated twice.
+ *
+ * The numbers allocated are held in a bit set, which may be stored (see
+ * {@link #toByteArray()}) and restored, so that the numbers in use need not
+ * be gathered from every participant. The numbers not allocated are held in
+ * an array, the first {@code size} elements of which are free. A number is
+ * drawn by choosing one of those elements at random and swapping it with the
+ * last, and released by appending it, so that both take O(1) time. Building
+ * the pool takes time proportional to the maximum number of participants.
+ *
+ * Numbers greater than the maximum, which may remain allocated where the
+ * maximum has been reduced, are never drawn, but may be released.
+ */
+public class StartNumberPool {
+
+    private final int max;
+    private final BitSet allocated;
+    private final int[] free;
+    private int size = 0;
+    private final Random random;
+
+    /**
+     * Creates a pool from the numbers already allocated.
+     *
+     * @param max       the greatest start number which may be drawn
+     * @param allocated the numbers already allocated, which is copied
+     * @param random    the source of randomness from which numbers are drawn
+     */
+    public StartNumberPool(int max, BitSet allocated, Random random) {
+        this.max = Math.max(max, 0);
+        this.allocated = (BitSet) allocated.clone();
+        this.allocated.clear(0);
+        this.random = random;
+        this.free = new int[this.max];
+        for (int n = this.allocated.nextClearBit(1); n <= this.max; n = this.allocated.nextClearBit(n + 1)) {
+            free[size++] = n;
+        }
+    }
+
+    /**
+     * Draws one unallocated start number, uniformly at random.
+     *
+     * @return the start number, now allocated
+     * @throws IllegalStateException if every start number is allocated
+     */
+    public int draw() {
+        if (size == 0) {
+            throw new IllegalStateException("every start number is allocated");
+        }
+        int i = random.nextInt(size);
+        int n = free[i];
+        free[i] = free[--size];
+        allocated.set(n);
+        return n;
+    }
+
+    /**
+     * Draws a number of unallocated start numbers, each uniformly at random
+     * from those remaining.
+     *
+     * @param count the number of start numbers to draw
+     * @return the start numbers, now allocated, in the order drawn
+     * @throws IllegalStateException if fewer than count start numbers remain,
+     *                               in which case none are drawn
+     */
+    public int[] draw(int count) {
+        if (count > size) {
+            throw new IllegalStateException("only " + size + " start numbers remain");
+        }
+        int[] ns = new int[count];
+        for (int i = 0; i < count; i++) {
+            ns[i] = draw();
+        }
+        return ns;
+    }
+
+    /**
+     * Releases a start number, so that it may be drawn again. Releasing a
+     * number which is not allocated has no effect.
+     *
+     * @param n the start number to release
+     */
+    public void release(int n) {
+        if (n < 1 || !allocated.get(n)) {
+            return;
+        }
+        allocated.clear(n);
+        if (n <= max) {
+            free[size++] = n;
+        }
+    }
+
+    /**
+     * Determines whether a start number is allocated.
+     *
+     * @param n the start number
+     * @return true, if n is allocated, else false
+     */
+    public boolean isAllocated(int n) {
+        return n >= 1 && allocated.get(n);
+    }
+
+    /**
+     * Gets the number of start numbers which remain to be drawn.
+     *
+     * @return the number of start numbers remaining
+     */
+    public int remaining() {
+        return size;
+    }
+
+    /**
+     * Gets the numbers allocated, in the form from which {@link
+     * BitSet#valueOf(byte[])} restores them.
+     *
+     * @return the numbers allocated, as a little-endian bit set
+     */
+    public byte[] toByteArray() {
+        return allocated.toByteArray();
+    }
+}
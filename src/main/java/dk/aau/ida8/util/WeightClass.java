@@ -1,13 +1,9 @@
 package dk.aau.ida8.util;
 
+import dk.aau.ida8.model.Competition;
 import dk.aau.ida8.model.Lifter;
 import dk.aau.ida8.model.Participant;
 
-import java.util.Arrays;
-import java.util.HashMap;
-import java.util.List;
-import java.util.Map;
-
 /**
  * This class is used to determine the weight class of a given lifter within a
  * total weight competition.
@@ -17,72 +13,56 @@ import java.util.Map;
  * This class provides a number of static methods for determining which weight
  * class a participant is in.
  *
+ * The weight classes themselves are defined by a {@link WeightClassTable},
+ * chosen for each competition.
  */
 public class WeightClass {
 
-    private static Map<Lifter.Gender, List<Integer>> weightClasses = new HashMap<>();
-
-    private static List<Integer> maleClasses = Arrays.asList(56, 62, 69, 77, 85, 94, 105);
-    private static List<Integer> femaleClasses = Arrays.asList(48, 53, 58, 63, 69, 75);
+    /**
+     * The table used where no competition is known.
+     */
+    private static final WeightClassTable DEFAULT_TABLE = WeightClassTable.IWF_1998;
 
     /**
      * Finds the weight class for a given participant.
      *
-     * This method extracts the lifter underlying a participant, and passes this
-     * to the {@link #findWeightClass(Lifter)} method. See that method for more
-     * details.
+     * The weight class is found within the table of weight classes for the
+     * participant's competition. See {@link #findWeightClass(Lifter,
+     * WeightClassTable)} for more details.
      *
      * @param p the participant for whom to find the weight class
      * @return  the weight class number for this participant
      */
     public static int findWeightClass(Participant p) {
-        return findWeightClass(p.getLifter());
+        Competition c = p.getCompetition();
+        return findWeightClass(p.getLifter(), c == null ? DEFAULT_TABLE : c.getWeightClassTable());
     }
 
     /**
-     * Find the weight class for a given lifter.
-     *
-     * Each gender has a number of weight classes associated with it, based on
-     * weight bandings. This method calculates which banding a lifter is in by
-     * filtering the list of weight categories to select only those for which
-     * the given lifter has a body weight higher than. This is then incremented
-     * by 1, and the result is the weight category for this lifter.
-     *
-     * This functionality is based on the fact that the weight bandings listed
-     * are for up to and including that weight. Thus, a lifter whose weight is
-     * lower than that listed in Group 3 will be lighter than the weight listed
-     * for Group 3, but heavier than that for Group 2. Filtering the list will
-     * result in two entries being returned, with one needed to be added to get
-     * the result of Group 3.
+     * Find the weight class for a given lifter, within the IWF weight classes
+     * in use from 1998 until 2018.
      *
      * @param l the lifter for whom to find the weight class
-     * @return  the weight class number for this participant
+     * @return  the weight class number for this lifter
      */
     public static int findWeightClass(Lifter l) {
-        return (int) getWeightClasses().get(l.getGender()).stream()
-                .filter(wc -> l.getBodyWeight() > wc)
-                .count() + 1;
+        return findWeightClass(l, DEFAULT_TABLE);
     }
 
     /**
-     * Gets the Map of weight classes.
+     * Find the weight class for a given lifter.
      *
-     * Generates this map if not already populated.
+     * Each gender has a number of weight classes associated with it, based on
+     * weight bandings. The weight bandings listed are for up to and including
+     * that weight. Thus, a lifter whose weight is lower than that listed in
+     * Group 3 will be lighter than the weight listed for Group 3, but heavier
+     * than that for Group 2, and so is in Group 3.
      *
-     * @return map of weight classes indexed by gender
-     */
-    private static Map<Lifter.Gender, List<Integer>> getWeightClasses() {
-        if (weightClasses.isEmpty()) {
-            populateWeightClasses();
-        }
-        return weightClasses;
-    }
-
-    /**
-     * Populates the Map of weight classes.
+     * @param l     the lifter for whom to find the weight class
+     * @param table the table of weight classes to use
+     * @return      the weight class number for this lifter
      */
-    private static void populateWeightClasses() {
-        weightClasses.put(Lifter.Gender.MALE, maleClasses);
-        weightClasses.put(Lifter.Gender.FEMALE, femaleClasses);
+    public static int findWeightClass(Lifter l, WeightClassTable table) {
+        return table.findWeightClass(l.getGender(), l.getBodyWeight());
     }
 }
@@ -0,0 +1,118 @@
+package dk.aau.ida8.util;
+
+import dk.aau.ida8.model.Lifter;
+
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.util.Arrays;
+import java.util.Date;
+import java.util.EnumMap;
+import java.util.Map;
+
+/**
+ * Defines the tables of weight classes used by total weight competitions.
+ *
+ * Each table lists, for each gender, the upper limit of every weight class
+ * but the heaviest, which has no upper limit. A lifter is in the lightest
+ * class whose limit is at least their body weight, with classes numbered
+ * from 1; a lifter heavier than every limit is in the heaviest class.
+ *
+ * The limits are held in sorted primitive arrays, so that a class is found
+ * by binary search without any allocation. The tables are immutable, and so
+ * may be used by any number of threads at once.
+ */
+public enum WeightClassTable {
+
+    /**
+     * The IWF classes in use from 1998 until 2018.
+     */
+    IWF_1998("IWF 1998",
+            new double[] {56, 62, 69, 77, 85, 94, 105},
+            new double[] {48, 53, 58, 63, 69, 75}),
+
+    /**
+     * The IWF classes in use since 2018.
+     */
+    IWF_2018("IWF 2018",
+            new double[] {55, 61, 67, 73, 81, 89, 96, 102, 109},
+            new double[] {45, 49, 55, 59, 64, 71, 76, 81, 87}),
+
+    /**
+     * The IWF youth classes in use since 2018.
+     */
+    YOUTH("IWF youth",
+            new double[] {49, 55, 61, 67, 73, 81, 89, 96, 102},
+            new double[] {40, 45, 49, 55, 59, 64, 71, 76, 81});
+
+    /**
+     * The date from which the {@link #IWF_2018} classes apply by default.
+     */
+    private static final long IWF_2018_FROM = LocalDate.of(2018, 11, 1)
+            .atStartOfDay(ZoneId.systemDefault()).toInstant().toEpochMilli();
+
+    private final String name;
+    private final Map<Lifter.Gender, double[]> limits = new EnumMap<>(Lifter.Gender.class);
+
+    WeightClassTable(String name, double[] maleLimits, double[] femaleLimits) {
+        this.name = name;
+        limits.put(Lifter.Gender.MALE, maleLimits);
+        limits.put(Lifter.Gender.FEMALE, femaleLimits);
+    }
+
+    /**
+     * Gets the IWF table in force on a given date.
+     *
+     * This is used for competitions created without choosing a table.
+     *
+     * @param date the date of a competition, or null
+     * @return the IWF table in force on that date
+     */
+    public static WeightClassTable forDate(Date date) {
+        if (date == null || date.getTime() < IWF_2018_FROM) {
+            return IWF_1998;
+        }
+        return IWF_2018;
+    }
+
+    /**
+     * Finds the weight class of a lifter within this table.
+     *
+     * @param gender     the gender of the lifter
+     * @param bodyWeight the body weight of the lifter in kilograms
+     * @return the weight class number for the lifter
+     */
+    public int findWeightClass(Lifter.Gender gender, double bodyWeight) {
+        double[] ls = limits.get(gender);
+        int i = Arrays.binarySearch(ls, bodyWeight);
+        return (i >= 0 ? i : -(i + 1)) + 1;
+    }
+
+    /**
+     * Counts the weight classes for a gender within this table.
+     *
+     * @param gender the gender of the lifters
+     * @return the number of weight classes for that gender
+     */
+    public int getWeightClassCount(Lifter.Gender gender) {
+        return limits.get(gender).length + 1;
+    }
+
+    /**
+     * Describes a weight class, e.g. "77 kg" or "+105 kg".
+     *
+     * @param gender      the gender of the lifters
+     * @param weightClass the weight class number
+     * @return the description of the weight class
+     */
+    public String describe(Lifter.Gender gender, int weightClass) {
+        double[] ls = limits.get(gender);
+        if (weightClass > ls.length) {
+            return "+" + (int) ls[ls.length - 1] + " kg";
+        }
+        return (int) ls[weightClass - 1] + " kg";
+    }
+
+    public String toString() {
+        return name;
+    }
+}
@@ -1,9 +1,9 @@
 package dk.aau.ida8.util.groupcomparators;
 
-import dk.aau.ida8.model.Lift;
 import dk.aau.ida8.model.Participant;
 
-import java.util.Arrays;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
 import java.util.Comparator;
 import java.util.List;
 
@@ -15,11 +15,32 @@ import java.util.List;
  * method to provide a custom comparison between participants within a group.
  * See {@link #compare(Participant, Participant)} for details of this
  * comparison.
+ *
+ * Each participant is reduced to a single packed {@code long} sort key (see
+ * {@link #sortKey(Participant)}), so that a comparison is a primitive compare
+ * of two keys. The comparator holds no state, and so one instance may be
+ * shared between threads. Where a list is to be sorted, {@link #sort(List)}
+ * computes each key only once.
  */
 public class CompetingComparator implements Comparator<Participant> {
 
-    private Participant p1;
-    private Participant p2;
+    /*
+     * Layout of the packed sort key, from most to least significant bits:
+     *
+     *   phase (2) | weight (10) | attempts (3) | sequence (32) | start no. (16)
+     *
+     * The top bit is unused, so that keys are never negative.
+     */
+    private static final int START_NUMBER_BITS = 16;
+    private static final int SEQUENCE_BITS = 32;
+    private static final int ATTEMPT_BITS = 3;
+    private static final int WEIGHT_BITS = 10;
+    private static final int PHASE_BITS = 2;
+
+    private static final int SEQUENCE_SHIFT = START_NUMBER_BITS;
+    private static final int ATTEMPT_SHIFT = SEQUENCE_SHIFT + SEQUENCE_BITS;
+    private static final int WEIGHT_SHIFT = ATTEMPT_SHIFT + ATTEMPT_BITS;
+    private static final int PHASE_SHIFT = WEIGHT_SHIFT + WEIGHT_BITS;
 
     /**
      * Compares two participants based on a number of comparison
@@ -46,6 +67,10 @@ public class CompetingComparator implements Comparator<Participant> {
      * should not be possible, but it is included for completeness) then start
      * numbers are compared.
      *
+     * Each of these factors occupies a field within the participant's
+     * {@link #sortKey(Participant) sort key}, ordered by significance, so the
+     * comparison reduces to comparing the two keys.
+     *
      * @param p1 The first participant to compare
      * @param p2 The second participant to compare
      * @return a negative value where p1 comes first, positive where
@@ -53,124 +78,136 @@ public class CompetingComparator implements Comparator<Participant> {
      */
     @Override
     public int compare(Participant p1, Participant p2) {
-        this.p1 = p1;
-        this.p2 = p2;
-
-        List<Integer> comparators = Arrays.asList(
-                compareCompletions(),
-                compareWeights(),
-                compareAttempts(),
-                compareTimestamps(),
-                compareStartNumbers()
-        );
-
-        for (Integer comparatorValue : comparators) {
-            if (comparatorValue != 0) {
-                return comparatorValue;
-            }
-        }
-        return 0;
+        return Long.compare(sortKey(p1), sortKey(p2));
     }
 
     /**
-     * Compares two participants based on whether they have completed
-     * all snatches, or all lifts.
-     *
-     * If one has not completed all snatches, this is ordered first.
+     * Sorts a list of participants into lifting order.
      *
-     * If both have completed all lifts, then return 0. If p1 has
-     * completed all lifts, returns 1. If p2 has completed all lifts,
-     * returns -1.
+     * This computes the sort key of each participant once, rather than once
+     * per comparison, and then carries out a stable merge sort on the keys.
      *
-     * @return comparator value after carrying-out comparison
+     * @param participants the list of participants to sort in place
      */
-    private int compareCompletions() {
-        int p1Count = p1.getLiftsCount();
-        int p2Count = p2.getLiftsCount();
-
-        // Compare for snatch completion first.
-        if (p1Count < 3 ^ p2Count < 3) {
-            if (p1Count < 3) {
-                return -1;
-            } else if (p2Count < 3) {
-                return 1;
-            }
+    public static void sort(List<Participant> participants) {
+        int n = participants.size();
+        if (n < 2) {
+            return;
         }
-        // Then check for clean & jerk completion
-        if (p1Count == 6 ^ p2Count == 6) {
-            if (p1Count == 6) {
-                return 1;
-            } else {
-                return -1;
-            }
+        long[] keys = new long[n];
+        Participant[] ps = new Participant[n];
+        for (int i = 0; i < n; i++) {
+            ps[i] = participants.get(i);
+            keys[i] = sortKey(ps[i]);
+        }
+        mergeSort(keys, ps, new long[n], new Participant[n], 0, n);
+        for (int i = 0; i < n; i++) {
+            participants.set(i, ps[i]);
         }
-        return 0;
     }
 
     /**
-     * Compares the lift weights of two participants.
+     * Computes the packed sort key for a participant.
      *
-     * This method compares the weights next to be lifted by two
-     * participants. The participant with the lower lift weight should
-     * come first.
+     * The key packs the five comparison factors into one {@code long}:-
      *
-     * @return comparator value after carrying-out comparison
-     */
-    private int compareWeights() {
-        return p1.getCurrentWeight() - p2.getCurrentWeight();
-    }
-
-    /**
-     * Compares the number of attempts of two participants.
+     * <ol>
+     *     <li>
+     *         The completion phase: 0 whilst snatches remain, 1 whilst clean
+     *         & jerks remain, and 2 once all lifts are complete;
+     *     </li>
+     *     <li>The next weight to be lifted, up to 1023 kg;</li>
+     *     <li>The number of completed attempts;</li>
+     *     <li>
+     *         The attempt sequence: the time, in seconds, of the first lift
+     *         of the current phase, or 0 where there is no such lift or the
+     *         phase has not yet begun; and
+     *     </li>
+     *     <li>The start number, up to 65535.</li>
+     * </ol>
      *
-     * The participant with the fewer attempts should come first.
+     * Values outwith the range of a field are clamped to that range.
      *
-     * @return comparator value after carrying-out comparison
+     * @param p the participant for whom to compute the key
+     * @return the packed sort key for the participant
      */
-    private int compareAttempts() {
-        return p1.getLiftsCount() - p2.getLiftsCount();
+    public static long sortKey(Participant p) {
+        int count = p.getLiftsCount();
+        long phase;
+        if (count < 3) {
+            phase = 0;
+        } else if (count < 6) {
+            phase = 1;
+        } else {
+            phase = 2;
+        }
+        return (phase << PHASE_SHIFT)
+                | (clamp(p.getCurrentWeight(), WEIGHT_BITS) << WEIGHT_SHIFT)
+                | (clamp(count, ATTEMPT_BITS) << ATTEMPT_SHIFT)
+                | (attemptSequence(p, count) << SEQUENCE_SHIFT)
+                | clamp(p.getStartNumber(), START_NUMBER_BITS);
     }
 
     /**
-     * Compares two Participants based on the timestamps of their first
-     * completed lifts for snatch or C&J.
+     * Determines the attempt sequence for a participant.
      *
-     * If both have completed no lifts, then neither comes first.
+     * If the participant has completed one or two snatches, this is the time
+     * of the first snatch. If they have completed one or two clean & jerks,
+     * this is the time of the first clean & jerk. Otherwise it is zero.
      *
-     * If one of the participants has fewer than three completed lifts, that is
-     * he is doing snatch lifts, then the timestamps for the first completed snatch
-     * lifts will be compared.
-     *
-     * If one of the participants has more than three completed lifts, that is he is
-     * doing C&J lifts, then the timestamps for the first completed C&J lifts
-     * will be compared.
-     *
-     * @return comparator value after carrying-out comparison
+     * @param p     the participant
+     * @param count the number of lifts completed by the participant
+     * @return the attempt sequence value for the participant
      */
-    private int compareTimestamps() {
-        int p1Count = p1.getLiftsCount();
-        int p2Count = p2.getLiftsCount();
-
-        if (p1Count > 0 && p1Count < 3 && p2Count > 0 && p2Count < 3) {
-            Lift p1FirstSnatch = p1.getLifts().get(0);
-            Lift p2FirstSnatch = p2.getLifts().get(0);
-            return p1FirstSnatch.getTimestamp().compareTo(p2FirstSnatch.getTimestamp());
-        } else if (p1Count > 3 && p1Count < 6 && p2Count > 3 && p2Count < 6){
-            Lift p1FirstCJ = p1.getLifts().get(3);
-            Lift p2FirstCJ = p2.getLifts().get(3);
-            return p1FirstCJ.getTimestamp().compareTo(p2FirstCJ.getTimestamp());
+    private static long attemptSequence(Participant p, int count) {
+        LocalDateTime timestamp;
+        if (count > 0 && count < 3) {
+            timestamp = p.getLifts().get(0).getTimestamp();
+        } else if (count > 3 && count < 6) {
+            timestamp = p.getLifts().get(3).getTimestamp();
+        } else {
+            return 0;
+        }
+        if (timestamp == null) {
+            return 0;
         }
-        return 0;
+        return clamp(timestamp.toEpochSecond(ZoneOffset.UTC), SEQUENCE_BITS);
     }
 
     /**
-     * Compares the ID#s of two participants.
+     * Clamps a value to the range of an unsigned field of the given width.
      *
-     * The participant with the lower ID should come first.
-     *
-     * @return comparator value after carrying-out comparison
+     * @param value the value to clamp
+     * @param bits  the width of the field
+     * @return the clamped value
      */
-    private int compareStartNumbers() {
-        return p1.getStartNumber() - p2.getStartNumber();
+    private static long clamp(long value, int bits) {
+        long max = (1L << bits) - 1;
+        return Math.max(0, Math.min(value, max));
+    }
+
+    private static void mergeSort(long[] keys, Participant[] ps,
+                                  long[] keyBuf, Participant[] psBuf,
+                                  int from, int to) {
+        if (to - from < 2) {
+            return;
+        }
+        int mid = (from + to) >>> 1;
+        mergeSort(keys, ps, keyBuf, psBuf, from, mid);
+        mergeSort(keys, ps, keyBuf, psBuf, mid, to);
+        if (keys[mid - 1] <= keys[mid]) {
+            return;
+        }
+        System.arraycopy(keys, from, keyBuf, from, to - from);
+        System.arraycopy(ps, from, psBuf, from, to - from);
+        for (int i = from, l = from, r = mid; i < to; i++) {
+            if (r >= to || (l < mid && keyBuf[l] <= keyBuf[r])) {
+                keys[i] = keyBuf[l];
+                ps[i] = psBuf[l++];
+            } else {
+                keys[i] = keyBuf[r];
+                ps[i] = psBuf[r++];
+            }
+        }
     }
 }
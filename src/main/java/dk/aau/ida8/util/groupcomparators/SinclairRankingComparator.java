@@ -30,6 +30,6 @@ public class SinclairRankingComparator implements Comparator<Participant> {
      */
     @Override
     public int compare(Participant p1, Participant p2) {
-        return (int) (p2.getSinclairScore() - p1.getSinclairScore());
+        return Double.compare(p2.getSinclairScore(), p1.getSinclairScore());
     }
 }
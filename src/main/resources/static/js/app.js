@@ -21,6 +21,37 @@ $(document).ready(function () {
         $('#lifter-club-id').val(value);
     });
 
+    var lifterSearchTimer;
+    $('#lifter-search').on('input', function() {
+        var input = $(this);
+        clearTimeout(lifterSearchTimer);
+        lifterSearchTimer = setTimeout(function() {
+            var results = $('#lifter-search-results tbody').empty();
+            var q = input.val();
+            if ($.trim(q) === '') {
+                return;
+            }
+            $.getJSON('/api/v1/lifters/search', {q: q, active: true}, function(lifters) {
+                // a later query may have been typed before this one is answered
+                if (input.val() !== q) {
+                    return;
+                }
+                results.empty();
+                $.each(lifters, function(i, lifter) {
+                    var form = $('<form method="POST"><input type="submit" value="+" /></form>')
+                        .attr('action', input.data('sign-up') + '?id=' + lifter.id);
+                    $('<tr>')
+                        .append($('<td>').text(lifter.forename))
+                        .append($('<td>').text(lifter.surname))
+                        .append($('<td>').text(lifter.club || ''))
+                        .append($('<td>').text(lifter.dateOfBirth || ''))
+                        .append($('<td>').append(form))
+                        .appendTo(results);
+                });
+            });
+        }, 150);
+    });
+
     $('i .glyphicon-pencil').on('click', function() {
         var id = $('i .glyphicon-pencil').closest('td .lifter-list-id').html();
         $('.lifter-id').val(id);
@@ -0,0 +1,110 @@
+package dk.aau.ida8.benchmark;
+
+import dk.aau.ida8.Application;
+import dk.aau.ida8.data.ClubRepository;
+import dk.aau.ida8.data.CompetitionRepository;
+import dk.aau.ida8.data.LifterRepository;
+import dk.aau.ida8.metrics.JdbcStatementCounter;
+import dk.aau.ida8.model.Club;
+import dk.aau.ida8.model.Competition;
+import dk.aau.ida8.model.Lifter;
+import dk.aau.ida8.model.Participant;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.SpringApplicationConfiguration;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.context.junit4.SpringJUnit4ClassRunner;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.GregorianCalendar;
+import java.util.List;
+
+import static org.junit.Assert.assertTrue;
+
+/**
+ * This test measures the number of JDBC statements executed when finishing
+ * the weigh-in of a competition with 500 participants, i.e. when persisting
+ * all of its competing and ranking groups, as counted by the application's
+ * {@link JdbcStatementCounter}. A batch counts as one statement, as it is
+ * sent to the database in one round trip.
+ *
+ * The count is required to stay well below one statement per participant,
+ * so that rows are written in batches rather than one at a time.
+ *
+ * The test has its own application context, and so uses its own database
+ * rather than recreating the schema beneath other tests.
+ */
+@RunWith(SpringJUnit4ClassRunner.class)
+@SpringApplicationConfiguration(classes = Application.class)
+@TestPropertySource(properties = "spring.datasource.url=jdbc:h2:mem:benchmark;DB_CLOSE_ON_EXIT=FALSE")
+public class FinishWeighInStatementsTest {
+
+    private static final int PARTICIPANTS = 500;
+
+    @Autowired
+    private CompetitionRepository competitionRepository;
+
+    @Autowired
+    private LifterRepository lifterRepository;
+
+    @Autowired
+    private ClubRepository clubRepository;
+
+    @Autowired
+    private JdbcStatementCounter statementCounter;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Test
+    public void finishWeighInStatements() throws Exception {
+        TransactionTemplate tx = new TransactionTemplate(transactionManager);
+        long competitionID = tx.execute(status -> createCompetition().getId());
+
+        statementCounter.reset();
+        tx.execute(status -> {
+            Competition c = competitionRepository.findOne(competitionID);
+            c.finishWeighIn();
+            return competitionRepository.save(c);
+        });
+        long statements = statementCounter.getCount();
+
+        assertTrue("finishWeighIn() with " + PARTICIPANTS + " participants executed " +
+                statements + " statements", statements < PARTICIPANTS / 2);
+    }
+
+    private Competition createCompetition() {
+        Club club = clubRepository.findAll().iterator().next();
+        Competition c = new Competition(
+                "Benchmark",
+                club,
+                club.getAddress(),
+                Competition.CompetitionType.TOTAL_WEIGHT,
+                new Date(),
+                new Date(),
+                PARTICIPANTS
+        );
+        List<Lifter> lifters = new ArrayList<>();
+        for (int i = 0; i < PARTICIPANTS; i++) {
+            Lifter l = new Lifter(
+                    "Lifter", Integer.toString(i), club,
+                    i % 2 == 0 ? Lifter.Gender.MALE : Lifter.Gender.FEMALE,
+                    new GregorianCalendar(1990, 0, 1).getTime(),
+                    50.0 + i % 60
+            );
+            lifters.add(l);
+        }
+        lifterRepository.save(lifters);
+        lifters.forEach(c::addParticipant);
+        int i = 0;
+        for (Participant p : c.getParticipants()) {
+            p.weighIn(50.0 + i % 60, 40 + i % 50, 60 + i % 50);
+            i++;
+        }
+        return competitionRepository.save(c);
+    }
+}
@@ -0,0 +1,148 @@
+package dk.aau.ida8.benchmark;
+
+import dk.aau.ida8.Application;
+import dk.aau.ida8.data.ClubRepository;
+import dk.aau.ida8.data.CompetitionRepository;
+import dk.aau.ida8.data.LifterRepository;
+import dk.aau.ida8.metrics.JdbcStatementCounter;
+import dk.aau.ida8.model.Club;
+import dk.aau.ida8.model.Competition;
+import dk.aau.ida8.model.Lifter;
+import dk.aau.ida8.model.Participant;
+import dk.aau.ida8.service.CompetitionService;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.SpringApplicationConfiguration;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.context.junit4.SpringJUnit4ClassRunner;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.persistence.EntityManagerFactory;
+import java.util.*;
+
+import static org.junit.Assert.assertTrue;
+
+/**
+ * This test measures the number of JDBC statements executed when reading a
+ * competition with 200 participants, from several clubs, for the sign-up
+ * and weigh-in views, and reading everything those views show, as counted
+ * by the application's {@link JdbcStatementCounter}.
+ *
+ * The count is required not to grow with the number of participants, so
+ * that each participant's lifter and club are read with the competition
+ * rather than one at a time. The second-level cache is emptied first, so
+ * that it does not hide statements which would otherwise be executed.
+ *
+ * The test has its own application context, and so uses its own database
+ * rather than recreating the schema beneath other tests.
+ */
+@RunWith(SpringJUnit4ClassRunner.class)
+@SpringApplicationConfiguration(classes = Application.class)
+@TestPropertySource(properties = "spring.datasource.url=jdbc:h2:mem:weigh-in;DB_CLOSE_ON_EXIT=FALSE")
+public class WeighInStatementsTest {
+
+    private static final int PARTICIPANTS = 200;
+    private static final int CLUBS = 10;
+    private static final int MAX_STATEMENTS = 5;
+
+    @Autowired
+    private CompetitionService competitionService;
+
+    @Autowired
+    private CompetitionRepository competitionRepository;
+
+    @Autowired
+    private LifterRepository lifterRepository;
+
+    @Autowired
+    private ClubRepository clubRepository;
+
+    @Autowired
+    private JdbcStatementCounter statementCounter;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Test
+    public void weighInStatements() throws Exception {
+        TransactionTemplate tx = new TransactionTemplate(transactionManager);
+        long competitionID = tx.execute(status -> createCompetition().getId());
+
+        long statements = count(tx, () -> show(competitionService.findForWeighIn(competitionID)));
+        assertTrue("weigh-in view of " + PARTICIPANTS + " participants executed " +
+                statements + " statements", statements <= MAX_STATEMENTS);
+    }
+
+    @Test
+    public void signUpStatements() throws Exception {
+        TransactionTemplate tx = new TransactionTemplate(transactionManager);
+        long competitionID = tx.execute(status -> createCompetition().getId());
+
+        long statements = count(tx, () -> show(competitionService.findForSignUp(competitionID)));
+        assertTrue("sign-up view of " + PARTICIPANTS + " participants executed " +
+                statements + " statements", statements <= MAX_STATEMENTS);
+    }
+
+    /**
+     * Counts the statements executed by reading a view within a new
+     * transaction, with an empty second-level cache.
+     */
+    private long count(TransactionTemplate tx, Runnable view) {
+        entityManagerFactory.getCache().evictAll();
+        statementCounter.reset();
+        tx.execute(status -> {
+            view.run();
+            return null;
+        });
+        return statementCounter.getCount();
+    }
+
+    /**
+     * Reads what the sign-up and weigh-in views show of a competition.
+     */
+    private static void show(Competition c) {
+        c.getHostName();
+        c.getLocation().toString();
+        for (Participant p : c.getParticipants()) {
+            p.getFullName();
+            p.getClubName();
+            p.getBodyWeight();
+            p.getStartingSnatchWeight();
+        }
+    }
+
+    private Competition createCompetition() {
+        Club host = clubRepository.findAll().iterator().next();
+        List<Club> clubs = new ArrayList<>();
+        for (int i = 0; i < CLUBS; i++) {
+            clubs.add(new Club("Club " + i, host.getAddress()));
+        }
+        clubRepository.save(clubs);
+        Competition c = new Competition(
+                "Weigh-in",
+                host,
+                host.getAddress(),
+                Competition.CompetitionType.TOTAL_WEIGHT,
+                new Date(),
+                new Date(),
+                PARTICIPANTS
+        );
+        List<Lifter> lifters = new ArrayList<>();
+        for (int i = 0; i < PARTICIPANTS; i++) {
+            lifters.add(new Lifter(
+                    "Lifter", Integer.toString(i), clubs.get(i % CLUBS),
+                    i % 2 == 0 ? Lifter.Gender.MALE : Lifter.Gender.FEMALE,
+                    new GregorianCalendar(1990, 0, 1).getTime(),
+                    50.0 + i % 60
+            ));
+        }
+        lifterRepository.save(lifters);
+        lifters.forEach(c::addParticipant);
+        return competitionRepository.save(c);
+    }
+}
@@ -0,0 +1,61 @@
+package dk.aau.ida8.exporter;
+
+import dk.aau.ida8.api.ResultRow;
+import dk.aau.ida8.model.Group;
+import dk.aau.ida8.model.Lift;
+import org.junit.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.Assert.*;
+
+public class CsvResultWriterTest {
+
+    private static ResultRow row() {
+        ResultRow row = new ResultRow(3, Group.ComparatorType.SINCLAIR_RANKING, 7, 12,
+                "Anna", "O\"Neill", "F", "AK Jyden, Aarhus", 63.5);
+        row.addAttempt(Lift.LiftType.SNATCH, 80, Lift.LiftOutcome.PASS);
+        row.addAttempt(Lift.LiftType.SNATCH, 85, Lift.LiftOutcome.FAIL);
+        row.addAttempt(Lift.LiftType.SNATCH, 85, Lift.LiftOutcome.ABSTAIN);
+        row.addAttempt(Lift.LiftType.CLEAN_AND_JERK, 100, Lift.LiftOutcome.PASS);
+        row.setScores(80, 100, 180, 234.5678);
+        row.setRank(2);
+        return row;
+    }
+
+    @Test
+    public void headerIsWrittenOnFlush() throws Exception {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        ResultWriter writer = ResultWriter.Format.CSV.open(out);
+        writer.flush();
+        String csv = new String(out.toByteArray(), StandardCharsets.UTF_8);
+        assertTrue(csv.startsWith("groupID,groupType,rank,"));
+        assertTrue(csv.endsWith("sinclair\r\n"));
+    }
+
+    @Test
+    public void rowHoldsAttemptsAndScores() throws Exception {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        ResultWriter writer = ResultWriter.Format.CSV.open(out);
+        writer.write(row());
+        writer.flush();
+        String[] lines = new String(out.toByteArray(), StandardCharsets.UTF_8).split("\r\n");
+        assertEquals(2, lines.length);
+        assertEquals("3,SINCLAIR_RANKING,2,12,7,Anna,\"O\"\"Neill\",F,\"AK Jyden, Aarhus\",63.5," +
+                "80,-85,0,100,,,80,100,180,234.568", lines[1]);
+    }
+
+    @Test
+    public void jsonLinesHoldOneObjectPerRow() throws Exception {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        ResultWriter writer = ResultWriter.Format.JSON_LINES.open(out);
+        writer.write(row());
+        writer.write(row());
+        writer.flush();
+        String[] lines = new String(out.toByteArray(), StandardCharsets.UTF_8).split("\n");
+        assertEquals(2, lines.length);
+        assertTrue(lines[0].contains("\"snatches\":[{\"weight\":80,\"outcome\":\"PASS\"}"));
+        assertTrue(lines[0].contains("\"rank\":2"));
+    }
+}
@@ -0,0 +1,64 @@
+package dk.aau.ida8.importer;
+
+import org.junit.Test;
+
+import java.io.StringReader;
+import java.security.InvalidParameterException;
+import java.util.Map;
+
+import static org.junit.Assert.*;
+
+public class CsvLifterRecordReaderTest {
+
+    private static CsvLifterRecordReader reader(String csv) {
+        return new CsvLifterRecordReader(new StringReader(csv));
+    }
+
+    @Test
+    public void readsRowsByHeader() throws Exception {
+        CsvLifterRecordReader r = reader("Forename,Surname,Club\r\nAnna,Holm,AK Jyden\r\nBo,Berg,Viking\r\n");
+        Map<String, String> first = r.next();
+        assertEquals("Anna", first.get("forename"));
+        assertEquals("AK Jyden", first.get("club"));
+        assertEquals(1, r.getRow());
+        assertEquals("Berg", r.next().get("surname"));
+        assertNull(r.next());
+        assertEquals(2, r.getRow());
+    }
+
+    @Test
+    public void readsQuotedFields() throws Exception {
+        CsvLifterRecordReader r = reader("forename,surname,club\n\"Anna, Marie\",\"O\"\"Neill\",\"AK\nJyden\"\n");
+        Map<String, String> fields = r.next();
+        assertEquals("Anna, Marie", fields.get("forename"));
+        assertEquals("O\"Neill", fields.get("surname"));
+        assertEquals("AK\nJyden", fields.get("club"));
+        assertNull(r.next());
+    }
+
+    @Test
+    public void skipsBlankLinesAndByteOrderMark() throws Exception {
+        CsvLifterRecordReader r = reader("\uFEFFforename,surname\n\nAnna,Holm\n\n");
+        assertEquals("Anna", r.next().get("forename"));
+        assertNull(r.next());
+        assertEquals(1, r.getRow());
+    }
+
+    @Test
+    public void rowWithTooManyFieldsIsRejected() throws Exception {
+        CsvLifterRecordReader r = reader("forename,surname\nAnna,Holm,extra\nBo,Berg\n");
+        try {
+            r.next();
+            fail();
+        } catch (InvalidParameterException e) {
+            assertEquals(1, r.getRow());
+        }
+        assertEquals("Bo", r.next().get("forename"));
+        assertEquals(2, r.getRow());
+    }
+
+    @Test
+    public void emptyStreamHasNoRows() throws Exception {
+        assertNull(reader("").next());
+    }
+}
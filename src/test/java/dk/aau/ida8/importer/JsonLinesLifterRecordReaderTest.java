@@ -0,0 +1,43 @@
+package dk.aau.ida8.importer;
+
+import org.junit.Test;
+
+import java.io.StringReader;
+import java.security.InvalidParameterException;
+import java.util.Map;
+
+import static org.junit.Assert.*;
+
+public class JsonLinesLifterRecordReaderTest {
+
+    @Test
+    public void readsOneRowPerLine() throws Exception {
+        JsonLinesLifterRecordReader r = new JsonLinesLifterRecordReader(new StringReader(
+                "{\"Forename\": \"Anna\", \"bodyWeight\": 63.5, \"active\": false, \"club\": null}\n"
+                        + "\n"
+                        + "{\"forename\": \"Bo\"}\n"));
+        Map<String, String> first = r.next();
+        assertEquals("Anna", first.get("forename"));
+        assertEquals("63.5", first.get("bodyweight"));
+        assertEquals("false", first.get("active"));
+        assertFalse(first.containsKey("club"));
+        assertEquals("Bo", r.next().get("forename"));
+        assertEquals(2, r.getRow());
+        assertNull(r.next());
+    }
+
+    @Test
+    public void malformedRowIsRejected() throws Exception {
+        JsonLinesLifterRecordReader r = new JsonLinesLifterRecordReader(new StringReader(
+                "{\"forename\": \n[1, 2]\n{\"forename\": \"Bo\"}\n"));
+        for (int row = 1; row <= 2; row++) {
+            try {
+                r.next();
+                fail();
+            } catch (InvalidParameterException e) {
+                assertEquals(row, r.getRow());
+            }
+        }
+        assertEquals("Bo", r.next().get("forename"));
+    }
+}
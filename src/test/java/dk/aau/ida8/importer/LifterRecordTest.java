@@ -0,0 +1,82 @@
+package dk.aau.ida8.importer;
+
+import dk.aau.ida8.model.Lifter;
+import org.junit.Test;
+
+import java.security.InvalidParameterException;
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.junit.Assert.*;
+
+public class LifterRecordTest {
+
+    private static Map<String, String> fields() {
+        Map<String, String> fields = new HashMap<>();
+        fields.put("forename", " Anna ");
+        fields.put("surname", "Holm");
+        fields.put("gender", "f");
+        fields.put("dateofbirth", "02-03-1994");
+        fields.put("club", "AK Jyden");
+        return fields;
+    }
+
+    @Test
+    public void validRowIsCopiedToLifter() throws Exception {
+        Map<String, String> fields = fields();
+        fields.put("bodyweight", "63.5");
+        fields.put("active", "FALSE");
+        LifterRecord record = LifterRecord.of(7, fields);
+
+        Lifter lifter = new Lifter();
+        record.copyTo(lifter);
+        assertEquals(7, record.getRow());
+        assertEquals("Anna", lifter.getForename());
+        assertEquals(Lifter.Gender.FEMALE, lifter.getGender());
+        assertEquals(63.5, lifter.getBodyWeight(), 0.0);
+        assertFalse(lifter.isActive());
+        assertEquals("AK Jyden", record.getClubName());
+    }
+
+    @Test
+    public void bothDateFormatsGiveTheSameKey() throws Exception {
+        Map<String, String> iso = fields();
+        iso.put("dateofbirth", "1994-03-02");
+        assertEquals(LifterRecord.of(1, fields()).key(), LifterRecord.of(2, iso).key());
+    }
+
+    @Test
+    public void optionalFieldsHaveDefaults() throws Exception {
+        LifterRecord record = LifterRecord.of(1, fields());
+        assertEquals(0, record.getBodyWeight(), 0.0);
+        assertTrue(record.isActive());
+    }
+
+    @Test(expected = InvalidParameterException.class)
+    public void missingFieldIsRejected() throws Exception {
+        Map<String, String> fields = fields();
+        fields.put("surname", "  ");
+        LifterRecord.of(1, fields);
+    }
+
+    @Test(expected = InvalidParameterException.class)
+    public void invalidGenderIsRejected() throws Exception {
+        Map<String, String> fields = fields();
+        fields.put("gender", "X");
+        LifterRecord.of(1, fields);
+    }
+
+    @Test(expected = InvalidParameterException.class)
+    public void invalidDateIsRejected() throws Exception {
+        Map<String, String> fields = fields();
+        fields.put("dateofbirth", "31-02-1994");
+        LifterRecord.of(1, fields);
+    }
+
+    @Test(expected = InvalidParameterException.class)
+    public void negativeBodyWeightIsRejected() throws Exception {
+        Map<String, String> fields = fields();
+        fields.put("bodyweight", "-1");
+        LifterRecord.of(1, fields);
+    }
+}
@@ -1,9 +1,11 @@
 package dk.aau.ida8.model;
 
+import dk.aau.ida8.util.WeightClassTable;
 import org.junit.Before;
 import org.junit.Test;
 
-import java.util.Date;
+import java.security.InvalidParameterException;
+import java.util.*;
 
 import static dk.aau.ida8.model.Lifter.Gender.FEMALE;
 import static org.junit.Assert.*;
@@ -88,6 +90,21 @@ public class CompetitionTest {
         assertEquals(firstGroup, competition.getCurrentCompetingGroup().get());
     }
 
+    @Test
+    public void competingGroupsSharedBetweenPlatforms() throws Exception {
+        competition.setNumPlatforms(2);
+        competition.finishWeighIn();
+        List<Group> groups = competition.getCompetingGroups();
+        for (int i = 0; i < groups.size(); i++) {
+            assertEquals(i % 2 + 1, groups.get(i).getPlatform());
+        }
+        assertEquals(groups.get(0), competition.getCurrentCompetingGroup(1).get());
+        assertEquals(groups.get(1), competition.getCurrentCompetingGroup(2).get());
+        Participant firstOnSecondPlatform = groups.get(1).getFirstParticipant();
+        assertEquals(firstOnSecondPlatform, competition.getCurrentParticipant(2).get());
+        assertEquals(Optional.of(2), competition.getPlatform(firstOnSecondPlatform));
+    }
+
     @Test
     public void getCurrentRankingGroup() throws Exception {
         competition.finishWeighIn();
@@ -96,4 +113,97 @@ public class CompetitionTest {
         assertEquals(firstGroup, competition.getCurrentRankingGroup().get());
     }
 
-}
\ No newline at end of file
+    @Test
+    public void addParticipantsAllocatesDistinctStartNumbers() throws Exception {
+        List<Lifter> lifters = new ArrayList<>();
+        for (int i = 0; i < 50; i++) {
+            lifters.add(mock(Lifter.class));
+        }
+        competition.addParticipants(lifters);
+        Set<Integer> startNumbers = new HashSet<>();
+        for (Participant p : competition.getParticipants().subList(20, 70)) {
+            assertTrue(p.getStartNumber() >= 1 && p.getStartNumber() <= 50);
+            assertTrue(startNumbers.add(p.getStartNumber()));
+        }
+        assertEquals(0, competition.getRemainingStartNumbers());
+    }
+
+    @Test(expected = InvalidParameterException.class)
+    public void addParticipantWhenFull() throws Exception {
+        competition.setMaxNumParticipants(1);
+        competition.addParticipant(mock(Lifter.class));
+        competition.addParticipant(mock(Lifter.class));
+    }
+
+    @Test
+    public void removeParticipantReleasesStartNumber() throws Exception {
+        Competition c = new Competition("Test Competition", mock(Club.class),
+                mock(Address.class), Competition.CompetitionType.SINCLAIR,
+                mock(Date.class), mock(Date.class), 1);
+        // a real lifter, so that its participation is found by ID#
+        Lifter lifter = new Lifter("Test", "Lifter", mock(Club.class), Lifter.Gender.MALE,
+                new Date(), 80.0);
+        lifter.setId(7);
+        c.addParticipant(lifter);
+        assertEquals(0, c.getRemainingStartNumbers());
+        c.removeParticipant(lifter);
+        assertEquals(1, c.getRemainingStartNumbers());
+        c.addParticipant(mock(Lifter.class));
+        assertEquals(1, c.getParticipants().get(0).getStartNumber());
+    }
+
+    @Test
+    public void phaseFollowsRemainingAttempts() throws Exception {
+        Competition c = new Competition("Test Competition", mock(Club.class),
+                mock(Address.class), Competition.CompetitionType.SINCLAIR,
+                new Date(), new Date(), 10);
+        Lifter lifter = mock(Lifter.class);
+        when(lifter.getGender()).thenReturn(Lifter.Gender.MALE);
+        c.addParticipant(lifter);
+        Participant p = c.getParticipants().get(0);
+        p.weighIn(80.0, 50, 70);
+        assertFalse(c.isWeighInComplete());
+
+        c.finishWeighIn();
+        assertEquals(Competition.Phase.RUNNING, c.getPhase());
+        assertEquals(6, c.getRemainingAttempts());
+        assertTrue(c.isCompetitionStarted());
+
+        for (int i = 0; i < 5; i++) {
+            p.addPassedLift();
+        }
+        assertEquals(1, c.getRemainingAttempts());
+        assertFalse(c.isCompetitionComplete());
+        p.addFailedLift();
+        assertEquals(0, c.getRemainingAttempts());
+        assertTrue(c.isCompetitionComplete());
+        assertFalse(c.isCompetitionStarted());
+
+        p.reset();
+        assertEquals(6, c.getRemainingAttempts());
+        assertEquals(Competition.Phase.RUNNING, c.getPhase());
+    }
+
+    @Test
+    public void finishWeighInWithoutParticipantsCompletes() throws Exception {
+        Competition c = new Competition("Test Competition", mock(Club.class),
+                mock(Address.class), Competition.CompetitionType.SINCLAIR,
+                new Date(), new Date(), 10);
+        c.finishWeighIn();
+        assertTrue(c.isWeighInComplete());
+        assertTrue(c.isCompetitionComplete());
+    }
+
+    @Test
+    public void weightClassTableOfStoredAndNewCompetitions() throws Exception {
+        Date date = new GregorianCalendar(2019, Calendar.JANUARY, 1).getTime();
+        // stored before a table could be chosen, and so run with the 1998 classes
+        Competition stored = new Competition();
+        stored.setCompetitionDate(date);
+        assertEquals(WeightClassTable.IWF_1998, stored.getWeightClassTable());
+
+        Competition created = new Competition("New Competition", mock(Club.class),
+                mock(Address.class), Competition.CompetitionType.TOTAL_WEIGHT, date, date, 50);
+        assertEquals(WeightClassTable.IWF_2018, created.getWeightClassTable());
+    }
+}
@@ -0,0 +1,134 @@
+package dk.aau.ida8.model;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.*;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+public class ParticipantEventTest {
+
+    private Participant participant;
+    private List<ParticipantEvent> history;
+
+    @Before
+    public void setUp() throws Exception {
+        Competition competition = mock(Competition.class);
+        when(competition.allocateStartNumber()).thenReturn(1, 2, 3);
+        participant = new Participant(mock(Lifter.class), competition);
+        history = new ArrayList<>();
+        record(ParticipantEvent.weighedIn(1, 1, 70.0, 50, 70));
+    }
+
+    /**
+     * Applies an event to the participant and adds it to their history, with
+     * the next ID#, as if it had been recorded.
+     */
+    private ParticipantEvent record(ParticipantEvent e) {
+        ReflectionTestUtils.setField(e, "id", (long) history.size() + 1);
+        e.apply(participant);
+        history.add(e);
+        return e;
+    }
+
+    @Test
+    public void applySetsLastEventID() throws Exception {
+        record(ParticipantEvent.liftRegistered(1, 1, Lift.LiftOutcome.PASS));
+        assertEquals(2, participant.getLastEventID());
+        assertEquals(1, participant.getLiftsCount());
+    }
+
+    @Test
+    public void rebuildReproducesState() throws Exception {
+        record(ParticipantEvent.liftRegistered(1, 1, Lift.LiftOutcome.PASS));
+        record(ParticipantEvent.weightIncreased(1, 1, 55));
+        record(ParticipantEvent.liftRegistered(1, 1, Lift.LiftOutcome.FAIL));
+
+        Competition competition = mock(Competition.class);
+        when(competition.allocateStartNumber()).thenReturn(1, 2, 3);
+        Participant rebuilt = new Participant(mock(Lifter.class), competition);
+        ParticipantEvent.rebuild(rebuilt, history);
+
+        assertEquals(participant.getLiftsCount(), rebuilt.getLiftsCount());
+        assertEquals(participant.getCurrentWeight(), rebuilt.getCurrentWeight());
+        assertEquals(participant.getBestSnatch(), rebuilt.getBestSnatch());
+        assertEquals(participant.getLifts().get(0).getTimestamp(),
+                rebuilt.getLifts().get(0).getTimestamp());
+        assertEquals(participant.getLastEventID(), rebuilt.getLastEventID());
+    }
+
+    @Test
+    public void undoLift() throws Exception {
+        ParticipantEvent lift = record(ParticipantEvent.liftRegistered(1, 1, Lift.LiftOutcome.FAIL));
+        record(ParticipantEvent.liftRegistered(1, 1, Lift.LiftOutcome.PASS));
+        ParticipantEvent undo = ParticipantEvent.undone(1, 1, lift.getId());
+        ReflectionTestUtils.setField(undo, "id", 4L);
+        history.add(undo);
+
+        ParticipantEvent.rebuild(participant, history);
+
+        assertEquals(1, participant.getLiftsCount());
+        assertEquals(Lift.LiftOutcome.PASS, participant.getLifts().get(0).getOutcome());
+        assertEquals(50, participant.getBestSnatch());
+        assertEquals(4, participant.getLastEventID());
+    }
+
+    @Test
+    public void undoSkipsEventsNoLongerValid() throws Exception {
+        ParticipantEvent correction = record(ParticipantEvent.weightCorrected(1, 1, 45));
+        record(ParticipantEvent.weightIncreased(1, 1, 48));
+        ParticipantEvent undo = ParticipantEvent.undone(1, 1, correction.getId());
+        ReflectionTestUtils.setField(undo, "id", 4L);
+        history.add(undo);
+
+        ParticipantEvent.rebuild(participant, history);
+
+        // without the correction, the increase to 48 no longer exceeds the
+        // starting weight of 50, and so is skipped
+        assertEquals(50, participant.getCurrentWeight());
+        assertEquals(0, participant.getWeightChanges());
+    }
+
+    @Test
+    public void rebuildSkipsConflictedEvents() throws Exception {
+        ParticipantEvent lift = record(ParticipantEvent.liftRegistered(1, 1, Lift.LiftOutcome.PASS));
+        ParticipantEvent conflicted = ParticipantEvent.liftRegistered(1, 1, Lift.LiftOutcome.PASS);
+        conflicted.markConflicted();
+        ReflectionTestUtils.setField(conflicted, "id", 3L);
+        history.add(conflicted);
+        ParticipantEvent undo = ParticipantEvent.undone(1, 1, lift.getId());
+        undo.markConflicted();
+        ReflectionTestUtils.setField(undo, "id", 4L);
+        history.add(undo);
+
+        ParticipantEvent.rebuild(participant, history);
+
+        assertEquals(1, participant.getLiftsCount());
+        assertEquals(4, participant.getLastEventID());
+        assertTrue(conflicted.copy().isConflicted());
+    }
+
+    @Test
+    public void copyKeepsJournalPosition() throws Exception {
+        ParticipantEvent e = ParticipantEvent.liftRegistered(1, 1, Lift.LiftOutcome.PASS);
+        assertEquals(0, e.copy().getJournalSequence());
+        e.setJournalSequence(7);
+        assertEquals(7, e.copy().getJournalSequence());
+        assertEquals(0, e.copy().getId());
+    }
+
+    @Test(expected = UnsupportedOperationException.class)
+    public void rebuildRequiresWeighIn() throws Exception {
+        ParticipantEvent.rebuild(participant, history.subList(1, 1));
+    }
+
+    @Test(expected = UnsupportedOperationException.class)
+    public void undoCannotBeAppliedAlone() throws Exception {
+        ParticipantEvent.undone(1, 1, 1).apply(participant);
+    }
+}
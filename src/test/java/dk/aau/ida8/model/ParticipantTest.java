@@ -6,7 +6,6 @@ import org.junit.Test;
 import static org.mockito.Mockito.*;
 
 import java.security.InvalidParameterException;
-import java.util.Arrays;
 import java.util.List;
 import java.util.Optional;
 
@@ -27,7 +26,7 @@ public class ParticipantTest {
         lifter = mock(Lifter.class);
         when(lifter.getFullName()).thenReturn(lifterFullName);
         competition = mock(Competition.class);
-        when(competition.availableStartNumbers()).thenReturn(Arrays.asList(1,2,3,4,5,6,7,8,9,10));
+        when(competition.allocateStartNumber()).thenReturn(1,2,3,4,5,6,7,8,9,10);
         when(competition.getCurrentCompetingGroup()).thenReturn(Optional.empty());
         when(competition.getCurrentRankingGroup()).thenReturn(Optional.empty());
         participant = new Participant(lifter, competition);
@@ -97,6 +96,32 @@ public class ParticipantTest {
         assertEquals(15, participant.getBestSnatch());
     }
 
+    /**
+     * This test ensures that cached scores are updated when the weight of a
+     * completed lift is corrected.
+     */
+    @Test
+    public void testCorrectLiftUpdatesScore() throws Exception {
+        assertEquals(50, participant.getTotalScore());
+        participant.getLifts().get(3).setWeight(45);
+        assertEquals(45, participant.getBestCleanAndJerk());
+        assertEquals(60, participant.getTotalScore());
+    }
+
+    /**
+     * This test ensures that the cached Sinclair score is updated when the
+     * participant's body weight changes.
+     */
+    @Test
+    public void testBodyWeightChangeUpdatesSinclairScore() throws Exception {
+        when(lifter.getGender()).thenReturn(Lifter.Gender.MALE);
+        when(lifter.getBodyWeight()).thenReturn(86.0);
+        double heavier = participant.getSinclairScore();
+        when(lifter.getBodyWeight()).thenReturn(70.0);
+        double lighter = participant.getSinclairScore();
+        assertTrue(lighter > heavier);
+    }
+
     /**
      * This test ensures that a seventh lift cannot be added to a participant.
      */
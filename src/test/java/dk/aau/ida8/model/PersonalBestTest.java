@@ -0,0 +1,71 @@
+package dk.aau.ida8.model;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.Arrays;
+
+import static org.junit.Assert.*;
+
+public class PersonalBestTest {
+
+    private PersonalBest pb;
+
+    @Before
+    public void setUp() throws Exception {
+        pb = new PersonalBest(7);
+        pb.recalculate(Arrays.asList(
+                new PersonalBest.Participation(7, 1, 80, 100, 180),
+                new PersonalBest.Participation(7, 2, 85, 0, 0)
+        ));
+    }
+
+    @Test
+    public void recalculateTakesBestOfEachParticipation() throws Exception {
+        assertEquals(85, pb.getSnatch());
+        assertEquals(100, pb.getCleanAndJerk());
+        assertEquals(180, pb.getTotal());
+        assertTrue(pb.isSet());
+        assertFalse(new PersonalBest(8).isSet());
+    }
+
+    @Test
+    public void updateImprovesBests() throws Exception {
+        assertTrue(pb.update(new PersonalBest.Participation(7, 3, 82, 105, 187)));
+        assertEquals(85, pb.getSnatch());
+        assertEquals(105, pb.getCleanAndJerk());
+        assertEquals(187, pb.getTotal());
+    }
+
+    @Test
+    public void updateBelowBestsSetElsewhereChangesNothing() throws Exception {
+        assertTrue(pb.update(new PersonalBest.Participation(7, 3, 70, 90, 160)));
+        assertEquals(85, pb.getSnatch());
+        assertEquals(100, pb.getCleanAndJerk());
+        assertEquals(180, pb.getTotal());
+    }
+
+    @Test
+    public void loweringBestSetByParticipationRequiresRecalculation() throws Exception {
+        // participation 2 set the best snatch; a correction lowers it
+        assertFalse(pb.update(new PersonalBest.Participation(7, 2, 75, 0, 0)));
+        assertEquals(85, pb.getSnatch());
+
+        pb.recalculate(Arrays.asList(
+                new PersonalBest.Participation(7, 1, 80, 100, 180),
+                new PersonalBest.Participation(7, 2, 75, 0, 0)
+        ));
+        assertEquals(80, pb.getSnatch());
+        assertTrue(pb.update(new PersonalBest.Participation(7, 2, 78, 0, 0)));
+        assertEquals(80, pb.getSnatch());
+    }
+
+    @Test
+    public void eventsWhichMayChangeBestLifts() throws Exception {
+        assertTrue(ParticipantEvent.liftRegistered(1, 2, Lift.LiftOutcome.PASS).mayChangeBestLifts());
+        assertFalse(ParticipantEvent.liftRegistered(1, 2, Lift.LiftOutcome.FAIL).mayChangeBestLifts());
+        assertTrue(ParticipantEvent.liftCorrected(1, 2, 0, 90).mayChangeBestLifts());
+        assertTrue(ParticipantEvent.undone(1, 2, 3).mayChangeBestLifts());
+        assertFalse(ParticipantEvent.weightIncreased(1, 2, 90).mayChangeBestLifts());
+    }
+}
@@ -0,0 +1,137 @@
+package dk.aau.ida8.pipeline;
+
+import dk.aau.ida8.model.Lift;
+import dk.aau.ida8.model.ParticipantEvent;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.RandomAccessFile;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+public class CommandJournalTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private Path path;
+
+    @Before
+    public void setUp() throws Exception {
+        path = folder.getRoot().toPath().resolve("competition-1.journal");
+    }
+
+    @Test
+    public void appendedEventsAreRecovered() throws Exception {
+        CommandJournal journal = CommandJournal.open(path, CommandJournal.FsyncPolicy.ALWAYS);
+        ParticipantEvent lift = ParticipantEvent.liftRegistered(1, 2, Lift.LiftOutcome.PASS);
+        assertEquals(1, journal.append(lift));
+        assertEquals(2, journal.append(ParticipantEvent.weightIncreased(1, 2, 60)));
+        journal.close();
+
+        List<ParticipantEvent> recovered = CommandJournal.open(path, CommandJournal.FsyncPolicy.ALWAYS)
+                .getRecovered();
+        assertEquals(2, recovered.size());
+        assertEquals(ParticipantEvent.Type.LIFT_REGISTERED, recovered.get(0).getType());
+        assertEquals(Lift.LiftOutcome.PASS, recovered.get(0).getOutcome());
+        assertEquals(lift.getTimestamp(), recovered.get(0).getTimestamp());
+        assertEquals(1, recovered.get(0).getJournalSequence());
+        assertEquals(60, recovered.get(1).getWeight());
+        assertEquals(2, recovered.get(1).getJournalSequence());
+    }
+
+    @Test
+    public void checkpointedEventsAreNotRecovered() throws Exception {
+        CommandJournal journal = CommandJournal.open(path, CommandJournal.FsyncPolicy.INTERVAL);
+        journal.append(ParticipantEvent.weightIncreased(1, 2, 60));
+        journal.append(ParticipantEvent.weightIncreased(1, 2, 65));
+        journal.checkpoint(1);
+        journal.close();
+        assertTrue(Files.exists(path));
+
+        journal = CommandJournal.open(path, CommandJournal.FsyncPolicy.INTERVAL);
+        assertEquals(1, journal.getRecovered().size());
+        assertEquals(65, journal.getRecovered().get(0).getWeight());
+        journal.close();
+    }
+
+    @Test
+    public void emptiedJournalContinuesNumbering() throws Exception {
+        CommandJournal journal = CommandJournal.open(path, CommandJournal.FsyncPolicy.NEVER);
+        journal.append(ParticipantEvent.weightIncreased(1, 2, 60));
+        journal.append(ParticipantEvent.weightIncreased(1, 2, 65));
+        journal.checkpoint(2);
+        assertTrue(journal.isEmpty());
+        assertEquals(3, journal.append(ParticipantEvent.weightReverted(1, 2)));
+        journal.close();
+
+        journal = CommandJournal.open(path, CommandJournal.FsyncPolicy.NEVER);
+        assertEquals(1, journal.getRecovered().size());
+        assertEquals(ParticipantEvent.Type.WEIGHT_REVERTED, journal.getRecovered().get(0).getType());
+        assertEquals(3, journal.getRecovered().get(0).getJournalSequence());
+    }
+
+    @Test
+    public void checkpointBeyondJournalAdvancesNumbering() throws Exception {
+        CommandJournal journal = CommandJournal.open(path, CommandJournal.FsyncPolicy.NEVER);
+        journal.checkpoint(40);
+        assertEquals(41, journal.append(ParticipantEvent.weightReverted(1, 2)));
+    }
+
+    @Test
+    public void emptyJournalIsDeletedOnClose() throws Exception {
+        CommandJournal journal = CommandJournal.open(path, CommandJournal.FsyncPolicy.ALWAYS);
+        journal.append(ParticipantEvent.weightIncreased(1, 2, 60));
+        journal.checkpoint(1);
+        journal.close();
+        assertFalse(Files.exists(path));
+    }
+
+    @Test
+    public void corruptRecordIsDiscarded() throws Exception {
+        CommandJournal journal = CommandJournal.open(path, CommandJournal.FsyncPolicy.ALWAYS);
+        journal.append(ParticipantEvent.weightIncreased(1, 2, 60));
+        journal.append(ParticipantEvent.weightIncreased(1, 2, 65));
+        journal.append(ParticipantEvent.weightIncreased(1, 2, 70));
+        journal.close();
+
+        try (RandomAccessFile file = new RandomAccessFile(path.toFile(), "rw")) {
+            int firstLength = readIntAt(file, 16);
+            long second = 16 + 16 + firstLength;
+            file.seek(second + 12);
+            int b = file.read();
+            file.seek(second + 12);
+            file.write(b ^ 0xff);
+        }
+
+        journal = CommandJournal.open(path, CommandJournal.FsyncPolicy.ALWAYS);
+        assertEquals(1, journal.getRecovered().size());
+        assertEquals(60, journal.getRecovered().get(0).getWeight());
+        // the journal continues after the last valid record
+        assertEquals(2, journal.append(ParticipantEvent.weightIncreased(1, 2, 62)));
+    }
+
+    @Test
+    public void journalGrowsBeyondInitialSize() throws Exception {
+        CommandJournal journal = CommandJournal.open(path, CommandJournal.FsyncPolicy.NEVER);
+        int count = CommandJournal.INITIAL_SIZE / 100;
+        for (int i = 0; i < count; i++) {
+            journal.append(ParticipantEvent.weightCorrected(1, 2, i));
+        }
+        journal.close();
+
+        journal = CommandJournal.open(path, CommandJournal.FsyncPolicy.NEVER);
+        assertEquals(count, journal.getRecovered().size());
+        assertEquals(count - 1, journal.getRecovered().get(count - 1).getWeight());
+    }
+
+    private static int readIntAt(RandomAccessFile file, long position) throws Exception {
+        file.seek(position);
+        return file.readInt();
+    }
+}
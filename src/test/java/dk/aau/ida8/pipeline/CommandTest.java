@@ -0,0 +1,107 @@
+package dk.aau.ida8.pipeline;
+
+import dk.aau.ida8.model.Competition;
+import dk.aau.ida8.model.Lift;
+import dk.aau.ida8.model.Lifter;
+import dk.aau.ida8.model.Participant;
+import dk.aau.ida8.model.ParticipantEvent;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.security.InvalidParameterException;
+import java.util.Arrays;
+
+import static org.junit.Assert.*;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+public class CommandTest {
+
+    private Participant participant;
+
+    @Before
+    public void setUp() throws Exception {
+        Competition competition = mock(Competition.class);
+        when(competition.allocateStartNumber()).thenReturn(1, 2, 3);
+        participant = new Participant(mock(Lifter.class), competition);
+        participant.weighIn(70.0, 50, 70);
+    }
+
+    @Test
+    public void registerLift() throws Exception {
+        apply(Command.registerLift(1, Lift.LiftOutcome.PASS), participant);
+        apply(Command.registerLift(1, Lift.LiftOutcome.FAIL), participant);
+        assertEquals(2, participant.getLiftsCount());
+        assertEquals(50, participant.getBestSnatch());
+        assertEquals(Lift.LiftOutcome.FAIL, participant.getLifts().get(1).getOutcome());
+    }
+
+    @Test
+    public void changeWeight() throws Exception {
+        apply(Command.increaseWeight(1, 55), participant);
+        assertEquals(55, participant.getCurrentWeight());
+        apply(Command.revertWeight(1), participant);
+        assertEquals(50, participant.getCurrentWeight());
+        apply(Command.correctWeight(1, 52), participant);
+        assertEquals(52, participant.getCurrentWeight());
+    }
+
+    @Test(expected = InvalidParameterException.class)
+    public void invalidWeightIncrease() throws Exception {
+        apply(Command.increaseWeight(1, 45), participant);
+    }
+
+    @Test
+    public void correctLift() throws Exception {
+        apply(Command.registerLift(1, Lift.LiftOutcome.PASS), participant);
+        apply(Command.correctLift(1, 0, 48), participant);
+        assertEquals(48, participant.getBestSnatch());
+    }
+
+    @Test
+    public void undoIsRecordedAsEvent() throws Exception {
+        ParticipantEvent e = Command.undo(1, 42).toEvent(7);
+        assertEquals(ParticipantEvent.Type.UNDONE, e.getType());
+        assertEquals(7, e.getCompetitionID());
+        assertEquals(42, e.getUndoneEventID());
+    }
+
+    @Test
+    public void idempotencyKeyTellsCommandsOfOneFormApart() throws Exception {
+        assertNull(Command.increaseWeight(1, 55).getIdempotencyKey());
+        assertNull(Command.increaseWeight(1, 55).withToken("").getIdempotencyKey());
+        assertEquals(Command.increaseWeight(1, 55).withToken("abc").getIdempotencyKey(),
+                Command.increaseWeight(1, 55).withToken("abc").getIdempotencyKey());
+        assertNotEquals(Command.correctWeight(1, 55).withToken("abc").getIdempotencyKey(),
+                Command.revertWeight(1).withToken("abc").getIdempotencyKey());
+        assertNotEquals(Command.correctLift(1, 0, 55).withToken("abc").getIdempotencyKey(),
+                Command.correctLift(1, 1, 55).withToken("abc").getIdempotencyKey());
+    }
+
+    /**
+     * Applying the same commands to two participants in the same state must
+     * leave them in the same state, so that commands may be replayed.
+     */
+    @Test
+    public void replayIsDeterministic() throws Exception {
+        Competition competition = mock(Competition.class);
+        when(competition.allocateStartNumber()).thenReturn(1, 2, 3);
+        Participant copy = new Participant(mock(Lifter.class), competition);
+        copy.weighIn(70.0, 50, 70);
+        for (Command c : Arrays.asList(
+                Command.registerLift(1, Lift.LiftOutcome.PASS),
+                Command.increaseWeight(1, 60),
+                Command.registerLift(1, Lift.LiftOutcome.FAIL),
+                Command.registerLift(1, Lift.LiftOutcome.PASS))) {
+            apply(c, participant);
+            apply(c, copy);
+        }
+        assertEquals(participant.getCurrentWeight(), copy.getCurrentWeight());
+        assertEquals(participant.getTotalScore(), copy.getTotalScore());
+        assertEquals(participant.getLiftsCount(), copy.getLiftsCount());
+    }
+
+    private static void apply(Command command, Participant p) {
+        command.toEvent(1).apply(p);
+    }
+}
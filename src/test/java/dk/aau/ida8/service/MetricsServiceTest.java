@@ -0,0 +1,74 @@
+package dk.aau.ida8.service;
+
+import com.codahale.metrics.MetricRegistry;
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class MetricsServiceTest {
+
+    private MetricRegistry registry;
+    private MetricsService metricsService;
+
+    @Before
+    public void setUp() throws Exception {
+        registry = new MetricRegistry();
+        metricsService = new MetricsService(registry);
+    }
+
+    @Test
+    public void timeRecordsTotalAndCompetition() throws Exception {
+        metricsService.track(5);
+        metricsService.track(6);
+        int result = metricsService.time("lift.register", 5, () -> 42);
+        metricsService.time("lift.register", 6, () -> { });
+        assertEquals(42, result);
+        assertEquals(2, registry.timer("timer.lift.register").getCount());
+        assertEquals(1, registry.timer("timer.lift.register.competition.5").getCount());
+        assertEquals(1, registry.timer("timer.lift.register.competition.6").getCount());
+    }
+
+    @Test
+    public void timeRecordsFailedOperations() throws Exception {
+        metricsService.track(5);
+        try {
+            metricsService.time("weight.change", 5, () -> {
+                throw new IllegalStateException();
+            });
+            fail();
+        } catch (IllegalStateException e) {
+            assertEquals(1, registry.timer("timer.weight.change.competition.5").getCount());
+        }
+    }
+
+    @Test
+    public void untrackedCompetitionsAreRecordedInTotalOnly() throws Exception {
+        metricsService.increment("lift.pass", 7L);
+        assertEquals(1, registry.counter("counter.lift.pass").getCount());
+        assertEquals(1, registry.getMetrics().size());
+    }
+
+    @Test
+    public void evictRemovesCompetitionMetrics() throws Exception {
+        metricsService.track(5);
+        metricsService.track(15);
+        metricsService.increment("lift.pass", 5L);
+        metricsService.increment("lift.pass", 15L);
+        metricsService.evict(5);
+        metricsService.increment("lift.pass", 5L);
+        assertEquals(3, registry.counter("counter.lift.pass").getCount());
+        assertFalse(registry.getMetrics().containsKey("counter.lift.pass.competition.5"));
+        assertTrue(registry.getMetrics().containsKey("counter.lift.pass.competition.15"));
+    }
+
+    @Test
+    public void recordWithoutCompetition() throws Exception {
+        metricsService.recordValue("request.IndexController.index.jdbc-statements", null, 3);
+        metricsService.increment("lift.pass", null);
+        assertEquals(3, registry.histogram("histogram.request.IndexController.index.jdbc-statements")
+                .getSnapshot().getMax());
+        assertEquals(1, registry.counter("counter.lift.pass").getCount());
+        assertEquals(2, registry.getMetrics().size());
+    }
+}
@@ -0,0 +1,86 @@
+package dk.aau.ida8.service;
+
+import dk.aau.ida8.Application;
+import dk.aau.ida8.model.Competition;
+import dk.aau.ida8.model.Lifter;
+import dk.aau.ida8.model.Participant;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.SpringApplicationConfiguration;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.test.context.junit4.SpringJUnit4ClassRunner;
+
+import java.util.Date;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.*;
+
+/**
+ * This test simulates two terminals changing the same data at once, with
+ * each terminal loading, changing and saving its own copy.
+ */
+@RunWith(SpringJUnit4ClassRunner.class)
+@SpringApplicationConfiguration(classes = Application.class)
+public class OptimisticLockingTest {
+
+    @Autowired
+    private CompetitionService competitionService;
+
+    @Autowired
+    private ParticipantService participantService;
+
+    @Autowired
+    private LifterService lifterService;
+
+    private Competition competition;
+    private Lifter first;
+    private Lifter second;
+
+    @Before
+    public void setUp() throws Exception {
+        Competition c = competitionService.findAll().iterator().next();
+        competition = competitionService.save(new Competition(
+                "Concurrent", c.getHost(), c.getLocation(),
+                Competition.CompetitionType.SINCLAIR, new Date(), new Date(), 10));
+        java.util.Iterator<Lifter> lifters = lifterService.findAll().iterator();
+        first = lifters.next();
+        second = lifters.next();
+    }
+
+    @Test(expected = OptimisticLockingFailureException.class)
+    public void concurrentParticipantChangeIsDetected() throws Exception {
+        long participantID = competitionService.update(competition.getId(),
+                c -> c.addParticipant(first)).getParticipants().get(0).getId();
+
+        Participant jury = participantService.findOne(participantID);
+        Participant marshal = participantService.findOne(participantID);
+        jury.setStartNumber(jury.getStartNumber() + 1);
+        participantService.saveParticipant(jury);
+        marshal.setStartNumber(marshal.getStartNumber() + 2);
+        participantService.saveParticipant(marshal);
+    }
+
+    @Test
+    public void concurrentSignUpIsRetried() throws Exception {
+        AtomicInteger attempts = new AtomicInteger();
+        Competition saved = competitionService.update(competition.getId(), c -> {
+            if (attempts.incrementAndGet() == 1) {
+                // another terminal signs-up a lifter before this change is saved
+                Thread other = new Thread(() -> competitionService.update(
+                        competition.getId(), o -> o.addParticipant(second)));
+                other.start();
+                try {
+                    other.join();
+                } catch (InterruptedException e) {
+                    throw new IllegalStateException(e);
+                }
+            }
+            c.addParticipant(first);
+        });
+        assertEquals(2, attempts.get());
+        assertEquals(2, saved.getParticipants().size());
+        assertEquals(2, competitionService.findForSignUp(competition.getId()).getParticipants().size());
+    }
+}
@@ -0,0 +1,129 @@
+package dk.aau.ida8.util;
+
+import dk.aau.ida8.model.Lifter;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.*;
+
+import static dk.aau.ida8.model.Lifter.Gender.FEMALE;
+import static dk.aau.ida8.model.Lifter.Gender.MALE;
+import static org.junit.Assert.*;
+
+public class LifterSearchIndexTest {
+
+    private LifterSearchIndex index;
+
+    @Before
+    public void setUp() throws Exception {
+        index = new LifterSearchIndex();
+        index.replaceAll(Arrays.asList(
+                entry(1, "Lotte", "Hansen", "AK Jyden", 1990, FEMALE, true),
+                entry(2, "Lars", "Hansen", "AK Jyden", 1985, MALE, true),
+                entry(3, "S\u00f8ren", "J\u00f8rgensen", "Aalborg V\u00e6gtl\u00f8ftning", 1992, MALE, true),
+                entry(4, "Anne-Marie", "Larsen", "Herning AK", 1978, FEMALE, false),
+                entry(5, "Peter", "Hansen-Lund", "Herning AK", 2001, MALE, true)
+        ));
+    }
+
+    private static LifterSearchIndex.Entry entry(long id, String forename, String surname, String club,
+                                                 int year, Lifter.Gender gender, boolean active) {
+        Date dob = new GregorianCalendar(year, Calendar.MARCH, 14).getTime();
+        return new LifterSearchIndex.Entry(id, forename, surname, club, dob, gender, active);
+    }
+
+    private List<Long> search(String query) {
+        return ids(index.search(query, null, null, 10));
+    }
+
+    private static List<Long> ids(List<LifterSearchIndex.Entry> entries) {
+        List<Long> ids = new ArrayList<>();
+        for (LifterSearchIndex.Entry e : entries) {
+            ids.add(e.getId());
+        }
+        return ids;
+    }
+
+    @Test
+    public void findsByPrefixOfName() throws Exception {
+        assertEquals(new HashSet<>(Arrays.asList(1L, 2L, 4L, 5L)), new HashSet<>(search("l")));
+        assertEquals(Arrays.asList(2L, 1L, 5L), search("hansen l"));
+        assertEquals(Collections.singletonList(5L), search("hansen-lund"));
+        assertEquals(Collections.singletonList(1L), search("Lot"));
+    }
+
+    @Test
+    public void findsBySubstringOfName() throws Exception {
+        assertEquals(Collections.singletonList(3L), search("rgen"));
+        assertEquals(Collections.singletonList(5L), search("lund"));
+    }
+
+    @Test
+    public void prefixMatchesAreListedFirst() throws Exception {
+        // "ans" begins no token, but is within each Hansen; "han" begins them
+        assertEquals(Arrays.asList(2L, 1L, 5L), search("han"));
+        assertEquals(Arrays.asList(2L, 1L, 5L), search("ans"));
+        assertEquals(Arrays.asList(2L, 4L), search("lar"));
+    }
+
+    @Test
+    public void ignoresCaseAndAccents() throws Exception {
+        assertEquals(Collections.singletonList(3L), search("SOR"));
+        assertEquals(Collections.singletonList(3L), search("j\u00f8rg"));
+        assertEquals(Collections.singletonList(3L), search("vaegt"));
+    }
+
+    @Test
+    public void findsByClubAndDateOfBirth() throws Exception {
+        assertEquals(Arrays.asList(2L, 1L), search("jyden"));
+        assertEquals(Collections.singletonList(3L), search("1992"));
+        assertEquals(Collections.singletonList(4L), search("14-03-1978"));
+        assertEquals(Collections.singletonList(5L), search("herning 2001"));
+    }
+
+    @Test
+    public void filtersByGenderAndActive() throws Exception {
+        assertEquals(Collections.singletonList(1L), ids(index.search("hansen", FEMALE, null, 10)));
+        assertEquals(Collections.singletonList(5L), ids(index.search("herning", null, true, 10)));
+        assertEquals(Collections.singletonList(4L), ids(index.search("herning", FEMALE, false, 10)));
+    }
+
+    @Test
+    public void limitsResults() throws Exception {
+        assertEquals(2, index.search("han", null, null, 2).size());
+        assertEquals(2, index.search("h", null, null, 2).size());
+        assertTrue(index.search("han", null, null, 0).isEmpty());
+        assertTrue(search("  ").isEmpty());
+    }
+
+    @Test
+    public void putReplacesLifter() throws Exception {
+        index.put(entry(1, "Lotte", "Madsen", "AK Jyden", 1990, FEMALE, true));
+        assertEquals(5, index.size());
+        assertEquals(Arrays.asList(2L, 5L), search("hansen"));
+        assertEquals(Collections.singletonList(1L), search("mads"));
+
+        index.put(entry(6, "Mads", "Holm", null, 1999, MALE, true));
+        assertEquals(6, index.size());
+        assertEquals(Arrays.asList(6L, 1L), search("mad"));
+    }
+
+    @Test
+    public void removeRemovesLifter() throws Exception {
+        index.remove(2);
+        index.remove(42);
+        assertEquals(4, index.size());
+        assertEquals(Arrays.asList(1L, 5L), search("hansen"));
+    }
+
+    @Test
+    public void remainsCorrectAfterCompaction() throws Exception {
+        for (int i = 0; i < 3000; i++) {
+            index.put(entry(100 + i % 10, "Karl", "Nielsen" + i, "Odense", 1990, MALE, true));
+        }
+        assertEquals(15, index.size());
+        assertEquals(Collections.singletonList(100L), search("nielsen2990"));
+        assertEquals(10, search("karl").size());
+        assertEquals(Arrays.asList(2L, 1L, 5L), search("hansen"));
+    }
+}
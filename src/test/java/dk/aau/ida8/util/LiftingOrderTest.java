@@ -0,0 +1,98 @@
+package dk.aau.ida8.util;
+
+import dk.aau.ida8.model.Competition;
+import dk.aau.ida8.model.Group;
+import dk.aau.ida8.model.Lifter;
+import dk.aau.ida8.model.Participant;
+import dk.aau.ida8.util.groupcomparators.CompetingComparator;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.Assert.*;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+public class LiftingOrderTest {
+
+    private List<Participant> firstGroupParticipants;
+    private List<Participant> secondGroupParticipants;
+    private List<Group> groups;
+    private LiftingOrder liftingOrder;
+
+    @Before
+    public void setUp() throws Exception {
+        Competition competition = mock(Competition.class);
+        when(competition.allocateStartNumber()).thenReturn(1, 2, 3, 4, 5, 6);
+        firstGroupParticipants = new ArrayList<>();
+        secondGroupParticipants = new ArrayList<>();
+        for (int i = 0; i < 3; i++) {
+            Participant p = new Participant(mock(Lifter.class), competition);
+            p.setStartNumber(i + 1);
+            p.weighIn(70.0, 50 + i * 5, 70);
+            firstGroupParticipants.add(p);
+
+            Participant q = new Participant(mock(Lifter.class), competition);
+            q.setStartNumber(i + 4);
+            q.weighIn(70.0, 30 + i * 5, 50);
+            secondGroupParticipants.add(q);
+        }
+        groups = Arrays.asList(
+                new Group(competition, firstGroupParticipants, Group.ComparatorType.COMPETING),
+                new Group(competition, secondGroupParticipants, Group.ComparatorType.COMPETING)
+        );
+        liftingOrder = new LiftingOrder(groups);
+    }
+
+    /*
+     * Participants created here all share the ID# 0, and so are equal to one
+     * another; assertions are therefore made on identity.
+     */
+
+    @Test
+    public void currentParticipantIsFirstInCurrentGroup() throws Exception {
+        assertSame(groups.get(0), liftingOrder.getCurrentCompetingGroup().get());
+        assertSame(firstGroupParticipants.get(0), liftingOrder.getCurrentParticipant().get());
+    }
+
+    @Test
+    public void updateAfterWeightIncrease() throws Exception {
+        Participant p = firstGroupParticipants.get(0);
+        p.increaseWeight(58);
+        liftingOrder.update(p);
+        assertSame(firstGroupParticipants.get(1), liftingOrder.getCurrentParticipant().get());
+    }
+
+    /**
+     * This test ensures that the lifting order always agrees with sorting the
+     * current group, and moves to the next group once all lifts in the first
+     * group are complete.
+     */
+    @Test
+    public void matchesSortedGroups() throws Exception {
+        for (int i = 0; i < 36; i++) {
+            Group g = liftingOrder.getCurrentCompetingGroup().get();
+            List<Participant> sorted = new ArrayList<>(g.getUnsortedParticipants());
+            sorted.sort(new CompetingComparator());
+            Participant current = liftingOrder.getCurrentParticipant().get();
+            assertSame(sorted.get(0), current);
+            if (i < 18) {
+                assertSame(groups.get(0), g);
+            } else {
+                assertSame(groups.get(1), g);
+            }
+            if (i % 2 == 0) {
+                current.addPassedLift();
+            } else {
+                current.addFailedLift();
+            }
+            liftingOrder.update(current);
+        }
+        assertFalse(liftingOrder.getCurrentParticipant().isPresent());
+        assertFalse(liftingOrder.getCurrentCompetingGroup().isPresent());
+        assertEquals(0, liftingOrder.size());
+    }
+}
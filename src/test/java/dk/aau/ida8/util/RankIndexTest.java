@@ -0,0 +1,88 @@
+package dk.aau.ida8.util;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.*;
+
+import static org.junit.Assert.*;
+
+public class RankIndexTest {
+
+    private Map<String, Integer> scores;
+    private RankIndex<String> index;
+
+    @Before
+    public void setUp() throws Exception {
+        scores = new HashMap<>();
+        scores.put("a", 100);
+        scores.put("b", 90);
+        scores.put("c", 90);
+        scores.put("d", 80);
+        index = new RankIndex<>(scores::get, Arrays.asList("d", "b", "a", "c"));
+    }
+
+    @Test
+    public void getRank() throws Exception {
+        assertEquals(1, index.getRank("a"));
+        assertEquals(2, index.getRank("b"));
+        assertEquals(2, index.getRank("c"));
+        assertEquals(4, index.getRank("d"));
+    }
+
+    @Test
+    public void getTop() throws Exception {
+        assertEquals(Arrays.asList("a", "b", "c"), index.getTop(3));
+        assertEquals(Arrays.asList("a", "b", "c", "d"), index.getTop(10));
+        assertTrue(index.getTop(0).isEmpty());
+    }
+
+    @Test
+    public void update() throws Exception {
+        scores.put("d", 120);
+        index.update("d");
+        assertEquals(1, index.getRank("d"));
+        assertEquals(2, index.getRank("a"));
+        assertEquals(Arrays.asList("d", "a"), index.getTop(2));
+    }
+
+    @Test
+    public void remove() throws Exception {
+        assertTrue(index.remove("a"));
+        assertFalse(index.contains("a"));
+        assertEquals(3, index.size());
+        assertEquals(1, index.getRank("b"));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void getRankOfMissingElement() throws Exception {
+        index.getRank("z");
+    }
+
+    /**
+     * This test ensures that ranks match those obtained by sorting, for a
+     * larger number of elements with repeated updates.
+     */
+    @Test
+    public void matchesSortedRanks() throws Exception {
+        Random random = new Random(42);
+        Map<Integer, Integer> values = new HashMap<>();
+        List<Integer> elements = new ArrayList<>();
+        for (int i = 0; i < 500; i++) {
+            values.put(i, random.nextInt(50));
+            elements.add(i);
+        }
+        RankIndex<Integer> idx = new RankIndex<>(values::get, elements);
+        for (int i = 0; i < 1000; i++) {
+            int e = random.nextInt(500);
+            values.put(e, random.nextInt(50));
+            idx.update(e);
+        }
+        for (Integer e : elements) {
+            long higher = elements.stream()
+                    .filter(o -> values.get(o) > values.get(e))
+                    .count();
+            assertEquals(higher + 1, idx.getRank(e));
+        }
+    }
+}
@@ -0,0 +1,59 @@
+package dk.aau.ida8.util;
+
+import dk.aau.ida8.model.Lifter;
+import org.junit.Test;
+
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.util.Date;
+
+import static dk.aau.ida8.model.Lifter.Gender.FEMALE;
+import static dk.aau.ida8.model.Lifter.Gender.MALE;
+import static org.junit.Assert.*;
+
+public class SinclairCoefficientTest {
+
+    private static Date date(int year, int month, int day) {
+        return Date.from(LocalDate.of(year, month, day).atStartOfDay(ZoneId.systemDefault()).toInstant());
+    }
+
+    /**
+     * This test ensures that the tabulated coefficients match those
+     * calculated from the formula, for every body weight in the table.
+     */
+    @Test
+    public void tableMatchesFormula() throws Exception {
+        SinclairCoefficient c = SinclairCoefficient.forDate(null);
+        for (Lifter.Gender gender : Lifter.Gender.values()) {
+            for (int i = 3000; i <= 20000; i++) {
+                double bodyWeight = i / 100.0;
+                assertEquals(c.calculateCoefficient(gender, bodyWeight),
+                        c.getCoefficient(gender, bodyWeight), 1e-12);
+            }
+        }
+    }
+
+    @Test
+    public void heavierThanRecordHolderIsOne() throws Exception {
+        SinclairCoefficient c = SinclairCoefficient.forDate(date(2016, 4, 1));
+        assertEquals(1.0, c.getCoefficient(MALE, 174.393), 0);
+        assertEquals(1.0, c.getCoefficient(FEMALE, 160), 0);
+        assertTrue(c.getCoefficient(MALE, 174.38) > 1.0);
+    }
+
+    @Test
+    public void coefficientsSelectedByDate() throws Exception {
+        assertEquals("2009-2012", SinclairCoefficient.forDate(date(2012, 12, 31)).getCycle());
+        assertEquals("2013-2016", SinclairCoefficient.forDate(date(2013, 1, 1)).getCycle());
+        assertEquals("2013-2016", SinclairCoefficient.forDate(date(2016, 4, 1)).getCycle());
+        assertEquals("2017-2020", SinclairCoefficient.forDate(date(2018, 6, 1)).getCycle());
+        assertEquals("2009-2012", SinclairCoefficient.forDate(date(2001, 1, 1)).getCycle());
+    }
+
+    @Test
+    public void knownCoefficient() throws Exception {
+        SinclairCoefficient c = SinclairCoefficient.forDate(date(2016, 4, 1));
+        assertEquals(1.2593, c.getCoefficient(MALE, 77), 1e-4);
+        assertEquals(1.3289, c.getCoefficient(FEMALE, 63), 1e-4);
+    }
+}
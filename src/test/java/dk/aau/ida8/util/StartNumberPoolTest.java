@@ -0,0 +1,84 @@
+package dk.aau.ida8.util;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.BitSet;
+import java.util.HashSet;
+import java.util.Random;
+import java.util.Set;
+
+import static org.junit.Assert.*;
+
+public class StartNumberPoolTest {
+
+    private StartNumberPool pool;
+
+    @Before
+    public void setUp() throws Exception {
+        BitSet allocated = new BitSet();
+        allocated.set(2);
+        allocated.set(5);
+        pool = new StartNumberPool(10, allocated, new Random(1));
+    }
+
+    @Test
+    public void drawsEveryUnallocatedNumberOnce() throws Exception {
+        assertEquals(8, pool.remaining());
+        Set<Integer> drawn = new HashSet<>();
+        for (int n : pool.draw(8)) {
+            assertTrue(n >= 1 && n <= 10);
+            assertTrue(drawn.add(n));
+        }
+        assertFalse(drawn.contains(2));
+        assertFalse(drawn.contains(5));
+        assertEquals(0, pool.remaining());
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void drawWhenFull() throws Exception {
+        pool.draw(8);
+        pool.draw();
+    }
+
+    @Test
+    public void drawTooManyDrawsNone() throws Exception {
+        try {
+            pool.draw(9);
+            fail();
+        } catch (IllegalStateException e) {
+            assertEquals(8, pool.remaining());
+        }
+    }
+
+    @Test
+    public void releasedNumberIsDrawnAgain() throws Exception {
+        pool.draw(8);
+        pool.release(5);
+        pool.release(5);
+        assertEquals(1, pool.remaining());
+        assertFalse(pool.isAllocated(5));
+        assertEquals(5, pool.draw());
+        assertTrue(pool.isAllocated(5));
+    }
+
+    @Test
+    public void numbersAboveMaximumAreNotDrawn() throws Exception {
+        BitSet allocated = new BitSet();
+        allocated.set(12);
+        StartNumberPool reduced = new StartNumberPool(3, allocated, new Random(1));
+        reduced.release(12);
+        assertEquals(3, reduced.remaining());
+        assertFalse(reduced.isAllocated(12));
+    }
+
+    @Test
+    public void restoresFromByteArray() throws Exception {
+        int n = pool.draw();
+        StartNumberPool restored = new StartNumberPool(10,
+                BitSet.valueOf(pool.toByteArray()), new Random(1));
+        assertEquals(7, restored.remaining());
+        assertTrue(restored.isAllocated(n));
+        assertTrue(restored.isAllocated(2));
+    }
+}
@@ -0,0 +1,42 @@
+package dk.aau.ida8.util;
+
+import org.junit.Test;
+
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.util.Date;
+
+import static dk.aau.ida8.model.Lifter.Gender.FEMALE;
+import static dk.aau.ida8.model.Lifter.Gender.MALE;
+import static org.junit.Assert.*;
+
+public class WeightClassTableTest {
+
+    private static Date date(int year, int month, int day) {
+        return Date.from(LocalDate.of(year, month, day).atStartOfDay(ZoneId.systemDefault()).toInstant());
+    }
+
+    @Test
+    public void limitsAreInclusive() throws Exception {
+        assertEquals(1, WeightClassTable.IWF_2018.findWeightClass(MALE, 55.0));
+        assertEquals(2, WeightClassTable.IWF_2018.findWeightClass(MALE, 55.01));
+        assertEquals(10, WeightClassTable.IWF_2018.findWeightClass(MALE, 150));
+        assertEquals(1, WeightClassTable.YOUTH.findWeightClass(FEMALE, 38.5));
+        assertEquals(6, WeightClassTable.YOUTH.findWeightClass(FEMALE, 64));
+        assertEquals(7, WeightClassTable.IWF_1998.findWeightClass(FEMALE, 75.1));
+    }
+
+    @Test
+    public void describe() throws Exception {
+        assertEquals("77 kg", WeightClassTable.IWF_1998.describe(MALE, 4));
+        assertEquals("+105 kg", WeightClassTable.IWF_1998.describe(MALE, 8));
+        assertEquals(10, WeightClassTable.IWF_2018.getWeightClassCount(FEMALE));
+    }
+
+    @Test
+    public void tableSelectedByDate() throws Exception {
+        assertEquals(WeightClassTable.IWF_1998, WeightClassTable.forDate(null));
+        assertEquals(WeightClassTable.IWF_1998, WeightClassTable.forDate(date(2016, 4, 1)));
+        assertEquals(WeightClassTable.IWF_2018, WeightClassTable.forDate(date(2019, 1, 1)));
+    }
+}
@@ -100,4 +100,44 @@ public class CompetingComparatorTest {
         assertEquals(expected, actual);
     }
 
-}
\ No newline at end of file
+    /**
+     * Tests that {@link CompetingComparator#sort(List)} orders participants
+     * in the same way as sorting with the comparator itself.
+     */
+    @Test
+    public void sort() throws Exception {
+        List<Participant> participants = new ArrayList<>();
+        for (int i = 0; i < 40; i++) {
+            Participant p = mock(Participant.class);
+            Lift l = mock(Lift.class);
+            when(l.getTimestamp()).thenReturn(LocalDateTime.of(2000, 1, 1, 18, 0, i % 7));
+            when(p.getLifts()).thenReturn(Arrays.asList(l, l, l, l, l, l));
+            when(p.getLiftsCount()).thenReturn(i % 7);
+            when(p.getCurrentWeight()).thenReturn(50 + (i % 3) * 5);
+            when(p.getStartNumber()).thenReturn(40 - i);
+            participants.add(p);
+        }
+        List<Participant> expected = new ArrayList<>(participants);
+        expected.sort(new CompetingComparator());
+        List<Participant> actual = new ArrayList<>(participants);
+        CompetingComparator.sort(actual);
+        assertEquals(expected, actual);
+    }
+
+    /**
+     * Tests that sort keys keep the completion phase as the most significant
+     * factor, regardless of the weight being lifted.
+     */
+    @Test
+    public void sortKeyPhaseBeforeWeight() throws Exception {
+        Participant snatching = mock(Participant.class);
+        when(snatching.getLiftsCount()).thenReturn(2);
+        when(snatching.getCurrentWeight()).thenReturn(1000);
+        when(snatching.getLifts()).thenReturn(new ArrayList<>(Arrays.asList(mock(Lift.class))));
+        Participant cleanAndJerking = mock(Participant.class);
+        when(cleanAndJerking.getLiftsCount()).thenReturn(3);
+        when(cleanAndJerking.getCurrentWeight()).thenReturn(1);
+        assertTrue(CompetingComparator.sortKey(snatching) < CompetingComparator.sortKey(cleanAndJerking));
+    }
+
+}